@@ -3,30 +3,28 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSyntaxException;
-import java.util.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.InputStreamReader;
 
 public class xjson {
 
   public static void main (String [] args){
 
     JsonArray jsonArray = new JsonArray();
-    String jsonString = "";
-
-
-    Scanner sc = new Scanner(System.in);
-    while(sc.hasNext()){
-      String input = sc.next();
-
-      jsonString = jsonString + " " + input;
-      try {
-        JsonElement jsonElement = new JsonParser().parse(jsonString);
-        jsonArray.add(jsonElement);
-        jsonString = "";
-      }
-      catch (JsonSyntaxException e){
 
+    // read one value at a time straight off STD in, until it ends or stops being JSON
+    JsonReader reader = new JsonReader(new InputStreamReader(System.in));
+    reader.setLenient(true);
+    JsonParser parser = new JsonParser();
+    try {
+      while (reader.peek() != JsonToken.END_DOCUMENT) {
+        jsonArray.add(parser.parse(reader));
       }
+    }
+    catch (IOException | JsonParseException e){
 
     }
 
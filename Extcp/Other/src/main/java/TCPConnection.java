@@ -1,9 +1,9 @@
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Scanner;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Class for handling a TCP connection and returning JSON
@@ -18,12 +18,11 @@ public class TCPConnection {
     ServerSocket serverSocket = new ServerSocket(port);
     serverSocket.setSoTimeout(TIMEOUT);
     Socket socket = serverSocket.accept();
-    InputStream inputStream = socket.getInputStream();
-    Scanner scan = new Scanner(inputStream);
+    InputStreamReader reader = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
 
     // parse json
     XJson json = new XJson();
-    json.processInput(scan);
+    json.processInput(reader);
     String output = json.formatJson();
 
     // send message back & end program
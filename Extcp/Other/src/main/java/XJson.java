@@ -1,10 +1,15 @@
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Scanner;
 
 /**
@@ -44,20 +49,30 @@ public class XJson {
    * @param scan scanner to process.
    */
   public void processInput(Scanner scan) {
-    String jsonString = "";
-
+    StringBuilder input = new StringBuilder();
     while (scan.hasNext()) {
-      String input = scan.next();
+      input.append(scan.next()).append(' ');
+    }
+    processInput(new StringReader(input.toString()));
+  }
 
-      jsonString = jsonString + " " + input;
-      try {
-        JsonElement jsonElement = new JsonParser().parse(jsonString);
-        jsonArray.add(jsonElement);
-        jsonString = "";
-      }
-      catch (JsonSyntaxException e) {
-        // do nothing
+  /**
+   * Turn the given input into Json elements, reading one value at a time straight off the reader
+   * until the input ends or stops being JSON.
+   *
+   * @param in reader to process.
+   */
+  public void processInput(Reader in) {
+    JsonReader reader = new JsonReader(in);
+    reader.setLenient(true);
+    JsonParser parser = new JsonParser();
+    try {
+      while (reader.peek() != JsonToken.END_DOCUMENT) {
+        jsonArray.add(parser.parse(reader));
       }
     }
+    catch (IOException | JsonParseException e) {
+      // no more complete json values
+    }
   }
 }
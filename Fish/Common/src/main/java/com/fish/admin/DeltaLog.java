@@ -0,0 +1,139 @@
+package com.fish.admin;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.player.PlayerInterface;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The versioned history of one game of Fish, kept by the referee so that every change can be sent
+ * to the players as a numbered StateDelta instead of as a whole new state.
+ *
+ * The log keeps:
+ *  - every delta recorded so far, in order, numbered from 1
+ *  - its own copy of the game state with all of those deltas applied
+ *
+ * Recording a change applies it to the log's state, which is how the log works out the fish and
+ * score of each move, and lets it hand out a snapshot of the game as of the latest delta. A player
+ * that falls behind can be caught up with the deltas it is missing, and a player that joins late
+ * or loses track of the game can be sent a snapshot followed by whatever comes after it.
+ */
+public class DeltaLog {
+
+  private final GameState current;
+  private final List<StateDelta> deltas;
+  // the number of players the game started with
+  private final int players;
+
+  /**
+   * Start a log for a game from its initial state. The given state is copied.
+   * @param initial the state the game starts from, before any penguins are placed
+   */
+  public DeltaLog(GameState initial) {
+    this.current = initial.getCopyGameState();
+    this.deltas = new ArrayList<>();
+    this.players = initial.getPlayers().size();
+  }
+
+  /**
+   * Record that a player placed a penguin.
+   * @param loc where the penguin was placed
+   * @param color the player placing it
+   * @return the delta for the placement
+   * @throws IllegalArgumentException if the placement is not legal in the game so far
+   */
+  public StateDelta recordPlacement(Coord loc, PlayerColor color) {
+    return this.record(StateDelta.placed(this.nextSeq(), loc, color));
+  }
+
+  /**
+   * Record that a player moved a penguin.
+   * @param move the move made
+   * @param color the player moving
+   * @return the delta for the move, including the fish collected and the player's new score
+   * @throws IllegalArgumentException if the move is not legal in the game so far
+   */
+  public StateDelta recordMovement(Move move, PlayerColor color) {
+    int fish = this.current.getTileAt(move.getOrigin()).getNumFish();
+    int score = this.current.getScoreBoard().getOrDefault(color, 0) + fish;
+    return this.record(StateDelta.moved(this.nextSeq(), move, color, fish, score));
+  }
+
+  /**
+   * Record that a player was removed from the game. Only the current player can be removed.
+   * @param color the player removed
+   * @return the delta for the removal
+   * @throws IllegalArgumentException if the player is not the current player
+   */
+  public StateDelta recordRemoval(PlayerColor color) {
+    return this.record(StateDelta.removed(this.nextSeq(), color));
+  }
+
+  /**
+   * Get the number of the latest delta, or 0 if nothing has happened since the initial state.
+   * @return the latest sequence number
+   */
+  public int getLatestSeq() {
+    return this.deltas.size();
+  }
+
+  /**
+   * Get every delta after the given one, in order.
+   * @param seq the last delta already seen, or 0 for every delta
+   * @return the deltas numbered seq + 1 to getLatestSeq()
+   * @throws IllegalArgumentException if seq is negative or later than the latest delta
+   */
+  public List<StateDelta> deltasSince(int seq) {
+    if (seq < 0 || seq > this.getLatestSeq()) {
+      throw new IllegalArgumentException("There is no delta numbered " + seq);
+    }
+    return new ArrayList<>(this.deltas.subList(seq, this.deltas.size()));
+  }
+
+  /**
+   * Get a copy of the game state as of the latest delta.
+   * @return the current state of the game
+   */
+  public GameState getSnapshot() {
+    return this.current.getCopyGameState();
+  }
+
+  /**
+   * Bring the given player up to date. A player that has seen the deltas up to seq is sent the
+   * ones after it. A player that has not seen anything that can be caught up from (seq is
+   * negative or unknown) is sent a snapshot of the game instead, together with the number of the
+   * latest delta, so that it can follow the game from the deltas after it.
+   *
+   * @param pi the player to bring up to date
+   * @param seq the last delta the player has seen, or -1 if it needs a snapshot
+   * @return the last delta the player has now seen, from which it can be caught up next time
+   */
+  public int catchUp(PlayerInterface pi, int seq) {
+    if (seq < 0 || seq > this.getLatestSeq()) {
+      pi.receiveGameStateSnapshot(this.getSnapshot(), this.getLatestSeq());
+      return this.getLatestSeq();
+    }
+    for (StateDelta delta : this.deltas.subList(seq, this.deltas.size())) {
+      pi.receiveStateDelta(delta);
+    }
+    return this.getLatestSeq();
+  }
+
+  private int nextSeq() {
+    return this.deltas.size() + 1;
+  }
+
+  private StateDelta record(StateDelta delta) {
+    if (delta.getKind() == StateDelta.Kind.REMOVED) {
+      // a player removed once every penguin is placed was removed after the referee started play
+      StateDelta.startPlayIfPlaced(this.current, this.players);
+    }
+    delta.applyTo(this.current);
+    this.deltas.add(delta);
+    return delta;
+  }
+}
@@ -0,0 +1,32 @@
+package com.fish.admin;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a game run by a referee, lasting from the GameStarted event of the game
+ * to its end.
+ */
+@Name("com.fish.GameEnded")
+@Label("Game Ended")
+@Category({"Fish", "Referee"})
+@Description("A game of Fish, from when the referee started it to when it was over")
+@StackTrace(false)
+class GameEndedEvent extends jdk.jfr.Event {
+
+  @Label("Game Id")
+  long gameId;
+
+  @Label("Plies")
+  @Description("The placements, moves and removals of the game")
+  int plies;
+
+  @Label("Winners")
+  int winners;
+
+  @Label("Cheaters")
+  int cheaters;
+}
@@ -0,0 +1,255 @@
+package com.fish.admin;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a game log written by GameLogWriter (see GameRecord for the format), giving random access
+ * to any ply of any game in it.
+ *
+ * A log file is memory-mapped rather than read, so opening a log only reads the header of each
+ * game to index where the games start, and replaying a game only touches the pages it is stored
+ * in. Games are numbered from 0 in the order they were written, and the plies of a game from 0 in
+ * the order they were played.
+ *
+ * A game whose record was cut short (eg because the process writing the log was killed part way
+ * through writing it) can only be the last one in the log, and is left out. A GameLogWriter cuts
+ * it off before appending anything after it. A log file must be smaller than 2GB; larger runs
+ * should be split across several logs.
+ */
+public class GameLog {
+
+  private static final PlayerColor[] COLORS = PlayerColor.values();
+
+  private final ByteBuffer buf;
+  private int[] starts;
+  private int games;
+  // the number of bytes taken by the complete games
+  private int length;
+
+  /**
+   * Open the log in the given file.
+   * @param file the log
+   * @return the log
+   * @throws IOException if the file cannot be read, is too large, or is not a game log
+   */
+  public static GameLog open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return open(channel);
+    }
+  }
+
+  /**
+   * Read the log in the given channel.
+   * @param channel the log, open for reading
+   * @return the log
+   * @throws IOException if the channel cannot be read, is too large, or is not a game log
+   */
+  static GameLog open(FileChannel channel) throws IOException {
+    if (channel.size() > Integer.MAX_VALUE) {
+      throw new IOException("A game log must be smaller than 2GB");
+    }
+    return new GameLog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+  }
+
+  /**
+   * Read the log in the given buffer, from its position to its limit.
+   * @param buf the log
+   * @throws IOException if the buffer does not hold a game log
+   */
+  public GameLog(ByteBuffer buf) throws IOException {
+    this.buf = buf.slice();
+    this.starts = new int[16];
+
+    int offset = 0;
+    int limit = this.buf.limit();
+    while (limit - offset >= GameRecord.PLIES_OFFSET + 4) {
+      if (this.buf.getInt(offset) != GameRecord.MAGIC) {
+        throw new IOException("Not a game log record at byte " + offset);
+      }
+      if (this.buf.get(offset + 4) != GameRecord.VERSION) {
+        throw new IOException("Unknown game log version at byte " + offset);
+      }
+      int headerEnd = offset + GameRecord.PLIES_OFFSET + 4 + 3;
+      if (headerEnd > limit) {
+        break;
+      }
+      if (this.plies(offset) < 0) {
+        throw new IOException("Corrupt game log record at byte " + offset);
+      }
+      long end = (long) offset + this.headerSize(offset)
+          + (long) this.plies(offset) * GameRecord.ENTRY_BYTES;
+      if (end > limit) {
+        break;
+      }
+      if (this.games == this.starts.length) {
+        this.starts = Arrays.copyOf(this.starts, this.games * 2);
+      }
+      this.starts[this.games++] = offset;
+      offset = (int) end;
+    }
+    this.length = offset;
+  }
+
+  /**
+   * Get the number of complete games in the log.
+   * @return the number of games
+   */
+  public int getGameCount() {
+    return this.games;
+  }
+
+  /**
+   * Get the number of bytes the complete games take up, from the start of the log. Anything after
+   * them is the start of a game that was cut short.
+   * @return the length of the log
+   */
+  public int getLength() {
+    return this.length;
+  }
+
+  /**
+   * Get the number of plies (placements, moves and removals) of the given game.
+   * @param game the game
+   * @return the number of plies
+   * @throws IllegalArgumentException if there is no such game
+   */
+  public int getPlyCount(int game) {
+    return this.plies(this.start(game));
+  }
+
+  /**
+   * Get whether the board of the given game was generated from a seed.
+   * @param game the game
+   * @return whether the game has a seed
+   * @throws IllegalArgumentException if there is no such game
+   */
+  public boolean isSeeded(int game) {
+    return (this.buf.get(this.start(game) + 5) & GameRecord.SEEDED) != 0;
+  }
+
+  /**
+   * Get the seed the board of the given game was generated from.
+   * @param game the game
+   * @return the seed, or 0 if the game does not have one (see isSeeded)
+   * @throws IllegalArgumentException if there is no such game
+   */
+  public long getSeed(int game) {
+    return this.buf.getLong(this.start(game) + 6);
+  }
+
+  /**
+   * Get the state the given game started from, before any penguins were placed.
+   * @param game the game
+   * @return a new copy of the initial state
+   * @throws IllegalArgumentException if there is no such game
+   */
+  public GameState getInitialState(int game) {
+    int offset = this.start(game) + GameRecord.PLIES_OFFSET + 4;
+    int rows = this.unsigned(offset);
+    int cols = this.unsigned(offset + 1);
+    int numPlayers = this.unsigned(offset + 2);
+    offset += 3;
+
+    List<InternalPlayer> players = new ArrayList<>();
+    for (int ii = 0; ii < numPlayers; ii++) {
+      players.add(new HexPlayer(COLORS[this.unsigned(offset++)]));
+    }
+    int[][] fish = new int[cols][rows];
+    for (int ii = 0; ii < cols; ii++) {
+      for (int jj = 0; jj < rows; jj++) {
+        fish[ii][jj] = this.unsigned(offset++);
+      }
+    }
+    return new HexGameState(GameStage.PLACING_PENGUINS, new HexGameBoard(fish), players);
+  }
+
+  /**
+   * Get the state of the given game after the given number of plies.
+   * @param game the game
+   * @param ply the number of plies to play, from 0 (the initial state) to getPlyCount(game)
+   * @return a new copy of the state
+   * @throws IllegalArgumentException if there is no such game or ply
+   */
+  public GameState getStateAt(int game, int ply) {
+    return this.replay(game, ply).getSnapshot();
+  }
+
+  /**
+   * Get every change made in the given game, numbered from 1, including the fish and scores of
+   * every move.
+   * @param game the game
+   * @return the changes, in order
+   * @throws IllegalArgumentException if there is no such game
+   */
+  public List<StateDelta> getDeltas(int game) {
+    return this.replay(game, this.getPlyCount(game)).deltasSince(0);
+  }
+
+  // Replays the first plies of the given game into a DeltaLog, which works out the fish and
+  // scores of the moves.
+  private DeltaLog replay(int game, int plies) {
+    int start = this.start(game);
+    if (plies < 0 || plies > this.plies(start)) {
+      throw new IllegalArgumentException("There is no ply " + plies + " in game " + game);
+    }
+    DeltaLog log = new DeltaLog(this.getInitialState(game));
+    int offset = start + this.headerSize(start);
+    for (int ii = 0; ii < plies; ii++, offset += GameRecord.ENTRY_BYTES) {
+      int tag = this.unsigned(offset);
+      PlayerColor color = COLORS[tag & 0xF];
+      switch (tag >>> 4) {
+        case GameRecord.PLACED:
+          log.recordPlacement(this.coordAt(offset + 1), color);
+          break;
+        case GameRecord.MOVED:
+          log.recordMovement(new Move(this.coordAt(offset + 1), this.coordAt(offset + 3)), color);
+          break;
+        default:
+          log.recordRemoval(color);
+      }
+    }
+    return log;
+  }
+
+  private int start(int game) {
+    if (game < 0 || game >= this.games) {
+      throw new IllegalArgumentException("There is no game " + game);
+    }
+    return this.starts[game];
+  }
+
+  private int plies(int start) {
+    return this.buf.getInt(start + GameRecord.PLIES_OFFSET);
+  }
+
+  private int headerSize(int start) {
+    int offset = start + GameRecord.PLIES_OFFSET + 4;
+    return GameRecord.headerSize(this.unsigned(offset), this.unsigned(offset + 1),
+        this.unsigned(offset + 2));
+  }
+
+  private Coord coordAt(int offset) {
+    return new Coord(this.unsigned(offset), this.unsigned(offset + 1));
+  }
+
+  private int unsigned(int offset) {
+    return this.buf.get(offset) & 0xFF;
+  }
+}
@@ -0,0 +1,147 @@
+package com.fish.admin;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the records of finished games to a game log (see GameRecord for the format and GameLog
+ * for reading it back). A log is a sequence of game records, one after another.
+ *
+ * Any number of referees may share one writer, for example when games are run in parallel: each
+ * record is written whole, so the games of a log never interleave. Writes are buffered; a log is
+ * only certain to be complete once the writer has been flushed or closed, and only certain to
+ * survive a crash of the machine once it has been synced.
+ *
+ * A record that was only partly written when the last writer of a log file stopped is cut off
+ * when the file is opened again, so that the games appended after it can be read back. A log file
+ * can also be cut back to an earlier length, as a tournament does when it is resumed (see
+ * TournamentJournal).
+ */
+public class GameLogWriter implements Closeable {
+
+  private final OutputStream out;
+  // the log file, or null if the log is written to a stream
+  private final FileChannel channel;
+  // the length and number of games of the log, including the records not yet written out
+  private long length;
+  private int games;
+
+  /**
+   * Append to the log in the given file, creating it if needed. Anything after the last complete
+   * record is cut off first.
+   * @param file the log
+   * @throws IOException if the file cannot be opened, or is not a game log
+   */
+  public GameLogWriter(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      // cut off a record that was being written when the last writer stopped
+      GameLog log = GameLog.open(channel);
+      channel.truncate(log.getLength());
+      channel.position(log.getLength());
+      this.length = log.getLength();
+      this.games = log.getGameCount();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    this.channel = channel;
+    this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+  }
+
+  /**
+   * Append to the log written to the given stream.
+   * @param out the stream to write to
+   */
+  public GameLogWriter(OutputStream out) {
+    this.channel = null;
+    this.out = new BufferedOutputStream(out, 1 << 16);
+  }
+
+  /**
+   * Append the record of a game. The record is ended first if it has not been already.
+   * @param record the game
+   * @throws IOException if the log cannot be written to
+   */
+  public synchronized void write(GameRecord record) throws IOException {
+    record.end();
+    record.writeTo(this.out);
+    this.length += record.size();
+    this.games++;
+  }
+
+  /**
+   * Get the length of the log, in bytes, counting the records not yet written out. For a log
+   * written to a stream, only the records appended by this writer are counted.
+   * @return the length of the log
+   */
+  public synchronized long getLength() {
+    return this.length;
+  }
+
+  /**
+   * Get the number of games in the log, counting the records not yet written out. For a log
+   * written to a stream, only the records appended by this writer are counted.
+   * @return the number of games
+   */
+  public synchronized int getGameCount() {
+    return this.games;
+  }
+
+  /**
+   * Cut the log file back to the given length, dropping every game appended after it.
+   * @param length the length to cut the log back to, which must be where a game ends
+   * @throws IOException if the log is not a file, is shorter than the given length, or does not
+   *                     have a game ending there
+   */
+  public synchronized void truncate(long length) throws IOException {
+    if (this.channel == null) {
+      throw new IOException("Only a game log file can be cut back");
+    }
+    if (length < 0 || length > this.length) {
+      throw new IOException("The game log is " + this.length + " bytes long, not " + length);
+    }
+    this.out.flush();
+    this.channel.truncate(length);
+    GameLog log = GameLog.open(this.channel);
+    // whatever happens, later records are appended after the last complete one
+    this.channel.truncate(log.getLength());
+    this.channel.position(log.getLength());
+    this.length = log.getLength();
+    this.games = log.getGameCount();
+    if (this.length != length) {
+      throw new IOException("No game of the log ends at byte " + length);
+    }
+  }
+
+  /**
+   * Write out every record appended so far.
+   * @throws IOException if the log cannot be written to
+   */
+  public synchronized void flush() throws IOException {
+    this.out.flush();
+  }
+
+  /**
+   * Write out every record appended so far and, if the log is a file, force it to disk.
+   * @throws IOException if the log cannot be written to
+   */
+  public synchronized void sync() throws IOException {
+    this.out.flush();
+    if (this.channel != null) {
+      this.channel.force(false);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.out.close();
+  }
+}
@@ -0,0 +1,202 @@
+package com.fish.admin;
+
+import com.fish.common.Coord;
+import com.fish.common.board.ProtectedGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameState;
+import com.fish.common.state.ProtectedPlayer;
+import com.fish.common.tile.ProtectedTile;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The binary record of one game of Fish, as stored in a game log (see GameLogWriter and GameLog).
+ * A record is built up in memory while the game is played and written out in one piece at the end,
+ * so that games played at the same time never interleave in a log.
+ *
+ * A record is a header followed by one fixed-width entry per change to the game, in order:
+ *
+ *   header:  'F' 'L' 'O' 'G'   magic
+ *            version           1 byte, VERSION
+ *            flags             1 byte, SEEDED if the board was generated from the seed
+ *            seed              8 bytes, big-endian (0 if not seeded)
+ *            plies             4 bytes, big-endian: the number of entries, filled in by end()
+ *            rows, cols        1 byte each
+ *            players           1 byte count, then the ordinal of each PlayerColor in turn order
+ *            tiles             1 byte of fish per tile (0 for holes), column by column ([x][y])
+ *   entries: tag, a, b, c, d   ENTRY_BYTES bytes each. The tag is the kind of change in its high
+ *                              nibble (PLACED, MOVED, REMOVED) and the ordinal of the player's
+ *                              color in its low nibble. A placement puts its location (x, y) in a
+ *                              and b, a move puts its origin and destination in a to d.
+ *
+ * Because every entry is the same size, the change made at any ply of a game is found without
+ * reading the ones before it, and the next game of a log starts right after the last entry. The
+ * fish and scores of moves are not stored; they follow from the board when the game is replayed.
+ */
+public class GameRecord {
+
+  static final int MAGIC = 0x464C4F47; // "FLOG"
+  static final byte VERSION = 1;
+  static final byte SEEDED = 1;
+  static final int ENTRY_BYTES = 5;
+
+  static final int PLACED = 1;
+  static final int MOVED = 2;
+  static final int REMOVED = 3;
+
+  // the largest number of rows or columns whose coordinates fit in a byte
+  static final int MAX_SIZE = 255;
+
+  // where the number of plies goes in the header
+  static final int PLIES_OFFSET = 4 + 1 + 1 + 8;
+
+  private byte[] bytes;
+  private int size;
+  private int plies;
+  private boolean ended;
+
+  /**
+   * Start the record of a game that starts from the given state.
+   *
+   * @param initial the state before any penguins are placed
+   * @param seed the seed the board was generated from, or null if it was not
+   * @throws IllegalArgumentException if penguins have been placed or points scored in the state,
+   *                                  or the board is larger than MAX_SIZE in either direction
+   */
+  public GameRecord(GameState initial, Long seed) {
+    ProtectedGameBoard board = initial.getGameBoard();
+    int rows = board.getHeight();
+    int cols = board.getWidth();
+    if (rows > MAX_SIZE || cols > MAX_SIZE) {
+      throw new IllegalArgumentException("The board is too large to record");
+    }
+    List<ProtectedPlayer> players = initial.getPlayers();
+    for (ProtectedPlayer p : players) {
+      if (p.getScore() != 0 || !p.getPenguinLocs().isEmpty()) {
+        throw new IllegalArgumentException("A game must be recorded from before its placements");
+      }
+    }
+
+    this.bytes = new byte[headerSize(rows, cols, players.size()) + 64 * ENTRY_BYTES];
+    this.putInt(MAGIC);
+    this.put(VERSION);
+    this.put(seed == null ? 0 : SEEDED);
+    this.putLong(seed == null ? 0 : seed);
+    this.putInt(0);
+    this.put(rows);
+    this.put(cols);
+    this.put(players.size());
+    for (ProtectedPlayer p : players) {
+      this.put(p.getColor().ordinal());
+    }
+    for (int ii = 0; ii < cols; ii++) {
+      for (int jj = 0; jj < rows; jj++) {
+        ProtectedTile t = board.getTileAt(new Coord(ii, jj));
+        this.put(t.isPresent() ? t.getNumFish() : 0);
+      }
+    }
+  }
+
+  /**
+   * Add a change to the game.
+   * @param delta the change, which must follow the ones added before it
+   * @throws IllegalStateException if the record has been ended
+   */
+  public void add(StateDelta delta) {
+    if (this.ended) {
+      throw new IllegalStateException("The game has already ended");
+    }
+    int color = delta.getColor().ordinal();
+    switch (delta.getKind()) {
+      case PLACED:
+        Coord loc = delta.getPlacement();
+        this.putEntry(PLACED << 4 | color, loc.getX(), loc.getY(), 0, 0);
+        break;
+      case MOVED:
+        Move move = delta.getMove();
+        this.putEntry(MOVED << 4 | color, move.getOrigin().getX(), move.getOrigin().getY(),
+            move.getDestination().getX(), move.getDestination().getY());
+        break;
+      default:
+        this.putEntry(REMOVED << 4 | color, 0, 0, 0, 0);
+    }
+    this.plies++;
+  }
+
+  /**
+   * Mark the end of the game, filling in the number of plies. Nothing can be added afterwards.
+   */
+  public void end() {
+    if (!this.ended) {
+      int end = this.size;
+      this.size = PLIES_OFFSET;
+      this.putInt(this.plies);
+      this.size = end;
+      this.ended = true;
+    }
+  }
+
+  public boolean isEnded() {
+    return this.ended;
+  }
+
+  /**
+   * Get the number of changes added to the game.
+   * @return the number of plies
+   */
+  public int getPlies() {
+    return this.plies;
+  }
+
+  /**
+   * Get the number of bytes in the record so far.
+   * @return the size of the record
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Write the record so far to the given stream. A record that has not been ended says it has no
+   * plies.
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written to
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(this.bytes, 0, this.size);
+  }
+
+  static int headerSize(int rows, int cols, int players) {
+    return PLIES_OFFSET + 4 + 1 + 1 + 1 + players + rows * cols;
+  }
+
+  private void putEntry(int tag, int a, int b, int c, int d) {
+    this.put(tag);
+    this.put(a);
+    this.put(b);
+    this.put(c);
+    this.put(d);
+  }
+
+  private void putInt(int value) {
+    this.put(value >>> 24);
+    this.put(value >>> 16);
+    this.put(value >>> 8);
+    this.put(value);
+  }
+
+  private void putLong(long value) {
+    this.putInt((int) (value >>> 32));
+    this.putInt((int) value);
+  }
+
+  private void put(int value) {
+    if (this.size == this.bytes.length) {
+      this.bytes = Arrays.copyOf(this.bytes, this.size * 2);
+    }
+    this.bytes[this.size++] = (byte) value;
+  }
+}
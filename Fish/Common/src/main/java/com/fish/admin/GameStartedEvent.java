@@ -0,0 +1,37 @@
+package com.fish.admin;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a referee starting a game, once the board has been made. The game id
+ * ties it to the GameEnded and PlayerCall events of the same game.
+ */
+@Name("com.fish.GameStarted")
+@Label("Game Started")
+@Category({"Fish", "Referee"})
+@Description("A referee started a game of Fish")
+@StackTrace(false)
+class GameStartedEvent extends jdk.jfr.Event {
+
+  @Label("Game Id")
+  long gameId;
+
+  @Label("Players")
+  int players;
+
+  @Label("Rows")
+  int rows;
+
+  @Label("Columns")
+  int cols;
+
+  @Label("Seeded")
+  boolean seeded;
+
+  @Label("Seed")
+  long seed;
+}
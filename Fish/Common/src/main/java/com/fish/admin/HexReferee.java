@@ -1,17 +1,22 @@
 package com.fish.admin;
 
 import com.fish.common.Coord;
+import com.fish.common.board.BoardGenerator;
 import com.fish.common.board.GameBoard;
 import com.fish.common.board.HexGameBoard;
-import com.fish.common.game.GameTree;
-import com.fish.common.game.HexGameTree;
 import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
 import com.fish.common.state.GameState;
 import com.fish.common.state.HexGameState;
 import com.fish.common.state.HexPlayer;
 import com.fish.common.state.InternalPlayer;
 import com.fish.common.state.PlayerColor;
+import com.fish.metrics.Counter;
+import com.fish.metrics.Gauge;
+import com.fish.metrics.Histogram;
+import com.fish.metrics.Metrics;
 import com.fish.player.PlayerInterface;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -23,6 +28,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import jdk.jfr.FlightRecorder;
 
 /**
  * Implementation of the Referee class that is used by a tournament manager to run a game of Fish.
@@ -43,6 +50,11 @@ import java.util.concurrent.TimeoutException;
  *  - a list of (external) players who have cheated - this starts empty
  *  - a map of color to external player - this is how the referee keeps track of in-game colors
  *     and how to contact/get responses from the corresponding player
+ *  - a DeltaLog of the game - players are sent the initial state once, and then each placement,
+ *     movement and removal as a numbered StateDelta, so each update is the size of the change
+ *     rather than the size of the board
+ *  - optionally, a GameLogWriter to append the GameRecord of each game it runs to, so that the
+ *     game can be replayed later (see GameLog)
  *
  * Each time the tournament manager would like to run a new game of fish, they should create a new
  * instance of this object.
@@ -51,22 +63,67 @@ public class HexReferee implements Referee {
 
   private List<PlayerInterface> cheaters;
   private Map<PlayerColor, PlayerInterface> colorToExternalPlayer;
+  private DeltaLog deltas;
+  private GameLogWriter gameLog;
+  private GameRecord record;
+  private final int boardRows;
+  private final int boardCols;
+  private final Long boardSeed;
+  // ties together the flight recorder events of the game being run
+  private long gameId;
+  private static final AtomicLong GAME_IDS = new AtomicLong();
 
 
-  private static final int PENGUIN_SUBRACT_NUM = 6;
   private static final int BOARD_ROW = 10;
   private static final int BOARD_COLS = 6;
-  private static final int TIMEOUT_SECONDS = 60;
+  // public so that proxies for players on the other end of a connection can time out their reads
+  // at the same point the referee gives up on them
+  public static final int TIMEOUT_SECONDS = 60;
+
+  // see Metrics
+  private static final Counter GAMES = Metrics.counter("referee.games");
+  private static final Gauge GAMES_IN_FLIGHT = Metrics.gauge("referee.games.in_flight");
+  private static final Counter PLACEMENTS = Metrics.counter("referee.placements");
+  private static final Counter MOVES = Metrics.counter("referee.moves");
+  private static final Counter CHEATERS = Metrics.counter("referee.cheaters");
+  private static final Counter TIMEOUTS = Metrics.counter("referee.timeouts");
+  private static final Counter PLAYER_ERRORS = Metrics.counter("referee.player_errors");
+  private static final Histogram RESPONSE = Metrics.histogram("referee.response.nanos");
 
 
   /**
    * Public constructor - does not take any arguments.
    *
-   * Initializes the cheaters and the map of color->player to both be empty.
+   * Initializes the cheaters and the map of color->player to both be empty. Games are played on
+   * a board of BOARD_ROW by BOARD_COLS with random fish.
    */
   public HexReferee() {
+    this(BOARD_ROW, BOARD_COLS, null);
+  }
+
+  /**
+   * Constructor for a referee that plays on boards of the given size, with the fish on the board
+   * decided by the given seed, so that the same players on the same seed play the same game. Used
+   * for running many games for comparison, such as by the self-play simulator.
+   *
+   * @param rows the number of rows of the board
+   * @param cols the number of columns of the board
+   * @param seed the seed for the fish on the board
+   * @throws IllegalArgumentException if the board has no tiles
+   */
+  public HexReferee(int rows, int cols, long seed) {
+    this(rows, cols, Long.valueOf(seed));
+  }
+
+  private HexReferee(int rows, int cols, Long seed) {
+    if (rows < 1 || cols < 1) {
+      throw new IllegalArgumentException("There must be at least one row and one column");
+    }
     this.cheaters = new ArrayList<>();
     this.colorToExternalPlayer = new HashMap<>();
+    this.boardRows = rows;
+    this.boardCols = cols;
+    this.boardSeed = seed;
   }
 
   /**
@@ -86,16 +143,57 @@ public class HexReferee implements Referee {
     }
 
 
-    int minOneFish = (PENGUIN_SUBRACT_NUM - size) * size;
+    int minOneFish = StateDelta.penguinsPerPlayer(size) * size;
     GameBoard gb = this.makeGameBoard(minOneFish);
 
+    this.gameId = GAME_IDS.incrementAndGet();
+    // the events are only made once the flight recorder is running, so that a referee in a process
+    // that is not recording does not load the recorder's event machinery
+    GameEndedEvent ended = null;
+    if (FlightRecorder.isInitialized()) {
+      GameStartedEvent started = new GameStartedEvent();
+      if (started.shouldCommit()) {
+        started.gameId = this.gameId;
+        started.players = size;
+        started.rows = gb.getHeight();
+        started.cols = gb.getWidth();
+        started.seeded = this.boardSeed != null;
+        started.seed = this.boardSeed != null ? this.boardSeed : 0;
+        started.commit();
+      }
+      ended = new GameEndedEvent();
+      ended.begin();
+    }
+
     GameState gs = new HexGameState();
 
     List<InternalPlayer> internalPlayers = this.makePlayersInternal(players);
 
     gs.initGame(gb, internalPlayers);
 
-    List<PlayerColor> winners = this.playGame(gs);
+    if (Metrics.ENABLED) {
+      GAMES_IN_FLIGHT.inc();
+    }
+    List<PlayerColor> winners;
+    try {
+      winners = this.playGame(gs);
+    } finally {
+      if (Metrics.ENABLED) {
+        GAMES_IN_FLIGHT.dec();
+        GAMES.inc();
+        CHEATERS.add(this.cheaters.size());
+      }
+    }
+    if (ended != null) {
+      ended.end();
+      if (ended.shouldCommit()) {
+        ended.gameId = this.gameId;
+        ended.plies = this.deltas.getLatestSeq();
+        ended.winners = winners.size();
+        ended.cheaters = this.cheaters.size();
+        ended.commit();
+      }
+    }
     List<PlayerInterface> extWinners = new ArrayList<>();
     for (PlayerColor pc : winners) {
       extWinners.add(colorToExternalPlayer.get(pc));
@@ -105,11 +203,26 @@ public class HexReferee implements Referee {
   }
 
 
+  /**
+   * Record every game this referee runs from now on in the given log. The record of a game is
+   * written once the game is over. If the log cannot be written to, the referee stops recording
+   * but carries on running its games.
+   *
+   * @param log the log to append games to, or null to stop recording
+   */
+  public void setGameLog(GameLogWriter log) {
+    this.gameLog = log;
+  }
+
   // ---- GAME SETUP ---- //
 
   GameBoard makeGameBoard(int minOneFish) {
     //If desired you may add difficulty to the game here
-    return new HexGameBoard(BOARD_ROW, BOARD_COLS, new ArrayList<>(), minOneFish);
+    if (this.boardSeed != null) {
+      return new BoardGenerator(this.boardSeed).generate(this.boardRows, this.boardCols,
+          new ArrayList<>(), minOneFish);
+    }
+    return new HexGameBoard(this.boardRows, this.boardCols, new ArrayList<>(), minOneFish);
   }
 
   List<InternalPlayer> makePlayersInternal(List<PlayerInterface> players) {
@@ -160,7 +273,9 @@ public class HexReferee implements Referee {
     // play the entire movement phase
     gs = this.runMovingPenguins(gs);
 
-    return gs.getWinners();
+    List<PlayerColor> winners = gs.getWinners();
+    this.broadcastGameOver(winners);
+    return winners;
 
   }
 
@@ -178,7 +293,7 @@ public class HexReferee implements Referee {
   GameState runPlacePenguins(GameState gs) {
     //
     int numPlayers = gs.getPlayers().size();
-    int numRounds = PENGUIN_SUBRACT_NUM - numPlayers;
+    int numRounds = StateDelta.penguinsPerPlayer(numPlayers);
 
     for (int ii = 0; ii < numRounds; ii++) {
       for (int jj = 0; jj < numPlayers; jj++) {
@@ -202,6 +317,9 @@ public class HexReferee implements Referee {
           this.broadcastPlayerRemoved(currentPlayer);
           continue;
         }
+        if (Metrics.ENABLED) {
+          PLACEMENTS.inc();
+        }
         this.broadcastPenguinPlacement(attempt, currentPlayer);
       }
     }
@@ -211,7 +329,7 @@ public class HexReferee implements Referee {
 
   Coord getPlayerPlacement(PlayerInterface pi) throws TimeoutException {
     Callable<Coord> task = pi::getPenguinPlacement;
-    return communicateWithPlayer(task);
+    return this.callPlayer(pi, "placement", task);
   }
 
   // ---- MOVING PENGUINS PHASE ---- //
@@ -221,14 +339,19 @@ public class HexReferee implements Referee {
    * --requesting penguin moves from players in order
    * --eliminating players if they make an invalid move of any kind
    * --broadcasts the movement to all players to update them
-   * @param gs the current gamestate
+   *
+   * The referee never takes a move back, so moves are checked and made on the given state in
+   * place, rather than through a GameTree, which would copy the state and its whole history on
+   * every move. The only record kept of each move is the delta appended to the log of the game
+   * (and the encoded entry of its GameRecord, if games are being logged), so the cost of a move
+   * does not grow as the game goes on.
+   *
+   * @param gs the current gamestate, which is updated in place
    * @return the updated GameState after moving all penguins
    */
   GameState runMovingPenguins(GameState gs) {
 
-    GameTree gt = new HexGameTree(gs);
-
-    while (!gt.getState().isGameOver()) {
+    while (!gs.isGameOver()) {
       PlayerColor currentPlayer = gs.getCurrentPlayer();
 
       PlayerInterface ep = this.colorToExternalPlayer.get(currentPlayer);
@@ -236,28 +359,39 @@ public class HexReferee implements Referee {
       Move attempt;
 
       try {
-        attempt  = this.getPlayerMove(ep);
-        gt = gt.getNextGameTree(attempt);
+        attempt = this.getPlayerMove(ep);
+        // checks the move is legal for the current player before changing anything
+        gs.movePenguin(attempt.getOrigin(), attempt.getDestination());
       } catch (Exception e) {
         cheaters.add(ep);
         gs.removeCurrentPlayer();
         this.broadcastPlayerRemoved(currentPlayer);
         continue;
       }
+      if (Metrics.ENABLED) {
+        MOVES.inc();
+      }
       this.broadcastPenguinMovement(attempt, currentPlayer);
     }
 
-    return gt.getState();
+    return gs;
   }
 
   Move getPlayerMove(PlayerInterface pi) throws TimeoutException {
     Callable<Move> task = pi::getPengiunMovement;
-    return communicateWithPlayer(task);
+    return this.callPlayer(pi, "movement", task);
   }
 
 
   // ---- BROADCAST MESSAGES ---- //
+
+  // Sends each player their own copy of the initial state, and starts the log of changes that
+  // will be sent after it.
   void broadcastGameState(GameState gs) {
+    this.deltas = new DeltaLog(gs);
+    if (this.gameLog != null) {
+      this.record = new GameRecord(gs, this.boardSeed);
+    }
     for (PlayerColor color : this.colorToExternalPlayer.keySet()) {
       PlayerInterface pi = this.colorToExternalPlayer.get(color);
       pi.receiveInitialGameState(gs.getCopyGameState());
@@ -265,26 +399,70 @@ public class HexReferee implements Referee {
   }
 
   void broadcastPlayerRemoved(PlayerColor removedPlayer) {
-    for (PlayerColor color : this.colorToExternalPlayer.keySet()) {
-      PlayerInterface pi = this.colorToExternalPlayer.get(color);
-      pi.receivePlayerRemoved(removedPlayer);
-    }
+    this.broadcastDelta(this.deltas.recordRemoval(removedPlayer));
   }
 
   void broadcastPenguinPlacement(Coord loc, PlayerColor color) {
+    this.broadcastDelta(this.deltas.recordPlacement(loc, color));
+  }
+
+  void broadcastPenguinMovement(Move move, PlayerColor color) {
+    this.broadcastDelta(this.deltas.recordMovement(move, color));
+  }
+
+  void broadcastDelta(StateDelta delta) {
+    if (this.record != null) {
+      this.record.add(delta);
+    }
     for (PlayerColor cc : this.colorToExternalPlayer.keySet()) {
       PlayerInterface pi = this.colorToExternalPlayer.get(cc);
-      pi.receivePenguinPlacement(loc, color);
+      pi.receiveStateDelta(delta);
     }
   }
 
-  void broadcastPenguinMovement(Move move, PlayerColor color) {
+  /**
+   * Bring a player of the game being run up to date, for example after they reconnect.
+   * See DeltaLog.catchUp.
+   *
+   * @param color the color of the player
+   * @param seq the last delta the player has seen, or -1 if they need a snapshot of the game
+   * @return the last delta the player has now seen, or seq if they are not in the game
+   * @throws IllegalStateException if no game has been started
+   */
+  public int resynchronise(PlayerColor color, int seq) {
+    if (this.deltas == null) {
+      throw new IllegalStateException("No game has been started");
+    }
+    PlayerInterface pi = this.colorToExternalPlayer.get(color);
+    if (pi != null) {
+      return this.deltas.catchUp(pi, seq);
+    }
+    return seq;
+  }
+
+  void broadcastGameOver(List<PlayerColor> winners) {
+    this.writeRecord();
     for (PlayerColor cc : this.colorToExternalPlayer.keySet()) {
       PlayerInterface pi = this.colorToExternalPlayer.get(cc);
-      pi.receivePenguinMovement(move, color);
+      pi.receiveGameOver(new ArrayList<>(winners));
     }
   }
 
+  // Appends the record of the game that just ended to the game log, if it is being kept
+  void writeRecord() {
+    if (this.record == null || this.gameLog == null) {
+      return;
+    }
+    try {
+      this.gameLog.write(this.record);
+    } catch (IOException e) {
+      // the results of the game do not depend on its log
+      System.err.println("Could not write to the game log, no longer recording games: " + e);
+      this.gameLog = null;
+    }
+    this.record = null;
+  }
+
   /**
    * This method uses threads/ futures to call upon a move from a player. It uses the Callable interface
    * (which denotes what method to call/return a value from) and creates an executor. The method then
@@ -300,18 +478,91 @@ public class HexReferee implements Referee {
    * @throws TimeoutException if the action fails to execute in a reasonable amount of time.
    */
   static <T> T communicateWithPlayer(Callable<T> action) throws TimeoutException {
+    return communicateWithPlayer(action, null);
+  }
+
+  /**
+   * Call upon the player as communicateWithPlayer(action) does, also recording how long they took
+   * in the given histogram if metrics are enabled.
+   *
+   * @param action What action to call in a separate thread and wait for a response from
+   * @param latency the histogram of the kind of player's response times, or null for none
+   * @param <T> The type that the action returns when called
+   * @return The result of the action
+   * @throws TimeoutException if the action fails to execute in a reasonable amount of time.
+   */
+  static <T> T communicateWithPlayer(Callable<T> action, Histogram latency)
+      throws TimeoutException {
     ExecutorService executor = Executors.newCachedThreadPool();
     T result;
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
     Future<T> future = executor.submit(action);
     try {
       result = future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
     } catch (Exception e) {
+      if (Metrics.ENABLED) {
+        (e instanceof TimeoutException ? TIMEOUTS : PLAYER_ERRORS).inc();
+      }
       throw new TimeoutException("hit it");
     } finally {
+      if (Metrics.ENABLED) {
+        long nanos = System.nanoTime() - start;
+        RESPONSE.record(nanos);
+        if (latency != null) {
+          latency.record(nanos);
+        }
+      }
       // this will cancel execution if there is a timeout
       future.cancel(true);
+      // and lets the executor's thread end, rather than idling until the pool expires it
+      executor.shutdown();
     }
     return result;
   }
 
+  // Asks the given player for a placement or movement through communicateWithPlayer, recording
+  // the call for the flight recorder if it is running
+  private <T> T callPlayer(PlayerInterface pi, String request, Callable<T> task)
+      throws TimeoutException {
+    if (!FlightRecorder.isInitialized()) {
+      return communicateWithPlayer(task, responseHistogram(pi));
+    }
+    PlayerCallEvent event = new PlayerCallEvent();
+    event.begin();
+    boolean failed = true;
+    try {
+      T result = communicateWithPlayer(task, responseHistogram(pi));
+      failed = false;
+      return result;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.gameId = this.gameId;
+        event.request = request;
+        event.color = this.colorOf(pi);
+        event.player = pi.getClass().getSimpleName();
+        event.failed = failed;
+        event.commit();
+      }
+    }
+  }
+
+  private String colorOf(PlayerInterface pi) {
+    for (Map.Entry<PlayerColor, PlayerInterface> entry : this.colorToExternalPlayer.entrySet()) {
+      if (entry.getValue() == pi) {
+        return entry.getKey().name();
+      }
+    }
+    return null;
+  }
+
+  // The histogram of response times of the given player's kind, eg referee.response.nanos.HousePlayer
+  private static Histogram responseHistogram(PlayerInterface pi) {
+    if (!Metrics.ENABLED) {
+      return null;
+    }
+    String kind = pi.getClass().getSimpleName();
+    return Metrics.histogram("referee.response.nanos." + (kind.isEmpty() ? "Anonymous" : kind));
+  }
+
 }
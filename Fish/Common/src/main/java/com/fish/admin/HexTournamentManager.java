@@ -0,0 +1,396 @@
+package com.fish.admin;
+
+import com.fish.admin.TournamentJournal.GameResult;
+import com.fish.admin.TournamentJournal.Progress;
+import com.fish.player.PlayerInterface;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Implementation of the TournamentManager that runs a knock-out tournament of Fish, as described in
+ * Planning/manager-protocol.md.
+ *
+ * Each round, the participants are split into games of 4 in the order they signed up (which stands
+ * in for their age), with the last games made smaller when the participants do not divide evenly.
+ * The winners of every game go on to the next round and everyone else, including cheaters, is
+ * eliminated in that round. The tournament is over once there is at most one participant left, or
+ * once a round eliminates no one, since the next round would be played by the same players.
+ *
+ * To accomplish this, the manager keeps track of:
+ *  - the players who signed up, in signup order
+ *  - the participants of the current round, and the winners of its games so far
+ *  - the phase of the tournament
+ *  - a map of round to the players eliminated in that round
+ *  - the referees of the games being played
+ *
+ * A manager may be given a checkpoint file (see TournamentJournal), in which case the tournament
+ * can survive a crash: every round barrier and game result is written to the file as it happens,
+ * and a manager given the same file and the same players, signed up in the same order, picks the
+ * tournament back up at the last round barrier, without playing again the games of that round
+ * that had finished. A GameLogWriter shared by the referees is forced to disk along with the
+ * checkpoint, and cut back to where the checkpoint left it when the tournament is resumed, so
+ * every game of the tournament is logged exactly once. A game that was being played when the
+ * tournament stopped is played again from the start, since its players cannot be picked back up
+ * part way through it, so only finished games are logged.
+ */
+public class HexTournamentManager implements TournamentManager {
+
+  private static final int GAME_SIZE = 4;
+
+  private final List<PlayerInterface> signedUp;
+  private final Map<PlayerInterface, Integer> signupIndex;
+  private List<PlayerInterface> participants;
+  private final List<PlayerInterface> roundWinners;
+  private TournamentPhase phase;
+  private final Map<Integer, List<PlayerInterface>> eliminations;
+  private final List<Referee> ongoing;
+  private int round;
+
+  private final Path checkpoint;
+  private final int syncEvery;
+  private GameLogWriter gameLog;
+
+  /**
+   * Constructor for a manager whose tournament is kept in memory only.
+   */
+  public HexTournamentManager() {
+    this(null, TournamentJournal.DEFAULT_SYNC_EVERY);
+  }
+
+  /**
+   * Constructor for a manager that checkpoints its tournament to the given file, forcing game
+   * results to disk in batches of TournamentJournal.DEFAULT_SYNC_EVERY.
+   *
+   * @param checkpoint the checkpoint file, which is resumed from if it already exists
+   */
+  public HexTournamentManager(Path checkpoint) {
+    this(checkpoint, TournamentJournal.DEFAULT_SYNC_EVERY);
+  }
+
+  /**
+   * Constructor for a manager that checkpoints its tournament to the given file, forcing game
+   * results to disk every syncEvery games. Round barriers are always forced to disk.
+   *
+   * @param checkpoint the checkpoint file, which is resumed from if it already exists, or null to
+   *                   keep the tournament in memory only
+   * @param syncEvery the number of games between forcing their results to disk
+   * @throws IllegalArgumentException if syncEvery is less than 1
+   */
+  public HexTournamentManager(Path checkpoint, int syncEvery) {
+    if (syncEvery < 1) {
+      throw new IllegalArgumentException("Game results must be synced at least every game");
+    }
+    this.signedUp = new ArrayList<>();
+    this.signupIndex = new IdentityHashMap<>();
+    this.participants = new ArrayList<>();
+    this.roundWinners = new ArrayList<>();
+    this.phase = TournamentPhase.SIGN_UPS;
+    this.eliminations = new TreeMap<>();
+    this.ongoing = new CopyOnWriteArrayList<>();
+    this.checkpoint = checkpoint;
+    this.syncEvery = syncEvery;
+  }
+
+  /**
+   * Record every game of the tournament in the given log (see HexReferee.setGameLog). Must be
+   * called before the tournament is run. A tournament with a checkpoint file can only be resumed
+   * with the log file it was recording to, which is cut back to match the checkpoint.
+   *
+   * @param log the log to append games to, or null to stop recording
+   */
+  public void setGameLog(GameLogWriter log) {
+    this.gameLog = log;
+  }
+
+  @Override
+  public void signUpPlayer(PlayerInterface playerInterface) {
+    if (this.phase != TournamentPhase.SIGN_UPS) {
+      throw new IllegalStateException("Sign ups are closed");
+    }
+    if (this.signupIndex.containsKey(playerInterface)) {
+      throw new IllegalArgumentException("This player has already signed up");
+    }
+    this.signupIndex.put(playerInterface, this.signedUp.size());
+    this.signedUp.add(playerInterface);
+  }
+
+  /**
+   * Runs the tournament for every player who has signed up, resuming it from the checkpoint file
+   * if there is one.
+   *
+   * @throws IllegalStateException if the tournament has already been run, if the checkpoint file
+   *                               is for a tournament of a different number of players, if it
+   *                               cannot be read or written, or if the game log does not match it
+   */
+  @Override
+  public void runTournament() {
+    if (this.phase != TournamentPhase.SIGN_UPS) {
+      throw new IllegalStateException("The tournament has already been run");
+    }
+    this.phase = TournamentPhase.ONGOING;
+    this.participants = new ArrayList<>(this.signedUp);
+    this.round = 1;
+
+    try {
+      if (this.checkpoint == null) {
+        this.runRounds(null, Collections.emptyMap());
+        return;
+      }
+      try (TournamentJournal journal = new TournamentJournal(this.checkpoint, this.syncEvery)) {
+        journal.setGameLog(this.gameLog);
+        Map<Integer, GameResult> finished = Collections.emptyMap();
+        Progress progress = TournamentJournal.read(this.checkpoint);
+        if (progress == null) {
+          journal.writeRound(this.signedUp.size(), this.round, this.indicesOf(this.participants),
+              this.eliminationIndices(), this.isOver(false));
+        }
+        else {
+          finished = this.restore(progress);
+          this.restoreGameLog(progress);
+        }
+        this.runRounds(journal, finished);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not keep the tournament checkpoint", e);
+    }
+  }
+
+  @Override
+  public List<Referee> reportOngoingGames() {
+    return new ArrayList<>(this.ongoing);
+  }
+
+  /**
+   * Reports the final winner of the tournament.
+   *
+   * @return the sole player left at the end, or null if the tournament ended with more than one
+   *         player left, or with no one
+   * @throws IllegalStateException if the tournament is not over
+   */
+  @Override
+  public PlayerInterface reportWinner() {
+    if (this.phase != TournamentPhase.COMPLETE) {
+      throw new IllegalStateException("The tournament is not over");
+    }
+    return this.participants.size() == 1 ? this.participants.get(0) : null;
+  }
+
+  /**
+   * Reports players who have been eliminated so far, in the order of the round they were
+   * eliminated in, and in signup order within a round.
+   *
+   * @return the eliminated players
+   */
+  @Override
+  public List<PlayerInterface> reportEliminatedPlayers() {
+    List<PlayerInterface> eliminated = new ArrayList<>();
+    for (List<PlayerInterface> inRound : this.eliminations.values()) {
+      eliminated.addAll(inRound);
+    }
+    return eliminated;
+  }
+
+  /**
+   * Get the phase the tournament is in.
+   * @return the phase
+   */
+  public TournamentPhase getPhase() {
+    return this.phase;
+  }
+
+  /**
+   * Get the players eliminated in each round so far.
+   * @return a map of round, from 1, to the players eliminated in it
+   */
+  public Map<Integer, List<PlayerInterface>> getEliminations() {
+    Map<Integer, List<PlayerInterface>> copy = new TreeMap<>();
+    for (Map.Entry<Integer, List<PlayerInterface>> entry : this.eliminations.entrySet()) {
+      copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+    }
+    return copy;
+  }
+
+  /**
+   * Create the referee for the given game of the given round. The referees share the game log, if
+   * there is one.
+   *
+   * @param round the round
+   * @param game the number of the game in the round, from 0
+   * @return a new referee
+   */
+  Referee makeReferee(int round, int game) {
+    HexReferee referee = new HexReferee();
+    referee.setGameLog(this.gameLog);
+    return referee;
+  }
+
+  /**
+   * Split the given participants into games, of 4 where possible. When 4 does not divide the
+   * participants, the last games are made of 3 and 2 instead, so that no one plays alone.
+   *
+   * @param players the participants of a round, in signup order
+   * @return the players of each game, in signup order
+   */
+  static List<List<PlayerInterface>> allocate(List<PlayerInterface> players) {
+    List<List<PlayerInterface>> games = new ArrayList<>();
+    int size = players.size();
+    if (size < 2) {
+      return games;
+    }
+
+    List<Integer> sizes = new ArrayList<>();
+    int left = size;
+    while (left > GAME_SIZE) {
+      sizes.add(GAME_SIZE);
+      left -= GAME_SIZE;
+    }
+    sizes.add(left);
+    if (left == 1) {
+      // back up one game: a game of 4 and a player left over become games of 3 and 2
+      sizes.set(sizes.size() - 2, 3);
+      sizes.set(sizes.size() - 1, 2);
+    }
+
+    int start = 0;
+    for (int gameSize : sizes) {
+      games.add(new ArrayList<>(players.subList(start, start + gameSize)));
+      start += gameSize;
+    }
+    return games;
+  }
+
+  // Plays rounds until the tournament is over, writing each game result and round barrier to the
+  // journal if there is one. The finished games of the first round played are taken as given.
+  private void runRounds(TournamentJournal journal, Map<Integer, GameResult> finished)
+      throws IOException {
+    boolean over = this.phase == TournamentPhase.COMPLETE || this.isOver(false);
+    while (!over) {
+      List<List<PlayerInterface>> games = allocate(this.participants);
+      this.roundWinners.clear();
+
+      for (int ii = 0; ii < games.size(); ii++) {
+        GameResult result = finished.get(ii);
+        if (result == null) {
+          result = this.playGame(ii, games.get(ii));
+          if (journal != null) {
+            journal.writeGame(this.round, ii, result);
+          }
+        }
+        this.roundWinners.addAll(this.playersOf(result.getWinners()));
+      }
+      finished = Collections.emptyMap();
+
+      over = this.endRound();
+      if (journal != null) {
+        journal.writeRound(this.signedUp.size(), this.round, this.indicesOf(this.participants),
+            this.eliminationIndices(), over);
+      }
+    }
+    this.phase = TournamentPhase.COMPLETE;
+  }
+
+  private GameResult playGame(int game, List<PlayerInterface> players) {
+    Referee referee = this.makeReferee(this.round, game);
+    this.ongoing.add(referee);
+    try {
+      Results results = referee.runGame(players);
+      return new GameResult(this.indicesOf(results.getWinners()),
+          this.indicesOf(results.getCheaters()));
+    } finally {
+      this.ongoing.remove(referee);
+    }
+  }
+
+  // Moves the winners of the round on to the next round and eliminates everyone else. Returns
+  // whether the tournament is over.
+  private boolean endRound() {
+    Set<PlayerInterface> winners = Collections.newSetFromMap(new IdentityHashMap<>());
+    winners.addAll(this.roundWinners);
+
+    List<PlayerInterface> survivors = new ArrayList<>();
+    List<PlayerInterface> eliminated = new ArrayList<>();
+    for (PlayerInterface player : this.participants) {
+      if (winners.contains(player)) {
+        survivors.add(player);
+      }
+      else {
+        eliminated.add(player);
+      }
+    }
+    this.eliminations.put(this.round, eliminated);
+    this.participants = survivors;
+    this.roundWinners.clear();
+    this.round++;
+    return this.isOver(eliminated.isEmpty());
+  }
+
+  private boolean isOver(boolean noOneEliminated) {
+    return this.participants.size() <= 1 || noOneEliminated;
+  }
+
+  // Picks the tournament up from the given progress, returning the games of the round that had
+  // already finished
+  private Map<Integer, GameResult> restore(Progress progress) {
+    if (progress.getPlayers() != this.signedUp.size()) {
+      throw new IllegalStateException("The checkpoint is for a tournament of "
+          + progress.getPlayers() + " players, not " + this.signedUp.size());
+    }
+    this.round = progress.getRound();
+    this.participants = this.playersOf(progress.getSurvivors());
+    for (Map.Entry<Integer, List<Integer>> entry : progress.getEliminations().entrySet()) {
+      this.eliminations.put(entry.getKey(), this.playersOf(entry.getValue()));
+    }
+    if (progress.isComplete()) {
+      this.phase = TournamentPhase.COMPLETE;
+    }
+    return progress.getGames();
+  }
+
+  // Cuts the game log back to where the given progress left it, dropping the games that are about
+  // to be played again
+  private void restoreGameLog(Progress progress) throws IOException {
+    if (this.gameLog == null || progress.getLogLength() < 0) {
+      return;
+    }
+    this.gameLog.truncate(progress.getLogLength());
+    if (this.gameLog.getGameCount() != progress.getLogGames()) {
+      throw new IOException("The game log has " + this.gameLog.getGameCount()
+          + " games where the checkpoint expects " + progress.getLogGames());
+    }
+  }
+
+  private List<Integer> indicesOf(List<PlayerInterface> players) {
+    List<Integer> indices = new ArrayList<>();
+    for (PlayerInterface player : players) {
+      indices.add(this.signupIndex.get(player));
+    }
+    return indices;
+  }
+
+  private List<PlayerInterface> playersOf(List<Integer> indices) {
+    List<PlayerInterface> players = new ArrayList<>();
+    for (int index : indices) {
+      if (index < 0 || index >= this.signedUp.size()) {
+        throw new IllegalStateException("The checkpoint names a player who did not sign up");
+      }
+      players.add(this.signedUp.get(index));
+    }
+    return players;
+  }
+
+  private Map<Integer, List<Integer>> eliminationIndices() {
+    Map<Integer, List<Integer>> indices = new TreeMap<>();
+    for (Map.Entry<Integer, List<PlayerInterface>> entry : this.eliminations.entrySet()) {
+      indices.put(entry.getKey(), this.indicesOf(entry.getValue()));
+    }
+    return indices;
+  }
+}
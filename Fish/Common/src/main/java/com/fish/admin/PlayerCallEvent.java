@@ -0,0 +1,36 @@
+package com.fish.admin;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a referee waiting on a player for a placement or a move.
+ */
+@Name("com.fish.PlayerCall")
+@Label("Player Call")
+@Category({"Fish", "Referee"})
+@Description("A referee asking a player for a placement or a move, until they answered")
+@StackTrace(false)
+class PlayerCallEvent extends jdk.jfr.Event {
+
+  @Label("Game Id")
+  long gameId;
+
+  @Label("Request")
+  @Description("placement or movement")
+  String request;
+
+  @Label("Color")
+  String color;
+
+  @Label("Player")
+  @Description("The kind of player, eg HousePlayer or RemotePlayer")
+  String player;
+
+  @Label("Failed")
+  @Description("Whether the player timed out or failed to answer")
+  boolean failed;
+}
@@ -0,0 +1,358 @@
+package com.fish.admin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The checkpoint file of a tournament, from which a tournament can be resumed after a crash.
+ *
+ * The journal is append-only, one JSON object per line, with players named by their index in the
+ * order they signed up. There are two kinds of line:
+ *  - a round barrier, written when a round is about to start, and once more when the tournament
+ *    is over (with "complete":true):
+ *      {"players":N,"round":R,"survivors":[index, ...],"eliminations":{"round":[index, ...], ...}}
+ *  - the result of a game of the round, written as soon as the game is over:
+ *      {"round":R,"game":G,"winners":[index, ...],"cheaters":[index, ...]}
+ *
+ * When the games are recorded in a game log (see setGameLog), every line also ends with
+ *      "log":[bytes, games]
+ * the length of the log and the number of games in it once the game or round was over.
+ *
+ * Barriers are always forced to disk before the round starts. Game results are forced in batches
+ * of syncEvery, so a crash loses at most the last few games, which are then played again. The game
+ * log is forced to disk before the journal is, so the journal never counts a game the log lost,
+ * and a resumed tournament cuts the log back to the last line it has, so that the games played
+ * again are not logged twice. A line that was only partly written when the process died is cut off
+ * when the journal is reopened.
+ */
+public class TournamentJournal implements Closeable {
+
+  public static final int DEFAULT_SYNC_EVERY = 8;
+
+  private final FileChannel channel;
+  private final int syncEvery;
+  private int unsynced;
+  private GameLogWriter gameLog;
+
+  /**
+   * The state of a tournament as of the last line of its journal.
+   */
+  public static class Progress {
+    private final int players;
+    private final int round;
+    private final List<Integer> survivors;
+    private final Map<Integer, List<Integer>> eliminations;
+    private final Map<Integer, GameResult> games;
+    private final boolean complete;
+    private long logLength;
+    private int logGames;
+
+    Progress(int players, int round, List<Integer> survivors,
+        Map<Integer, List<Integer>> eliminations, boolean complete) {
+      this.players = players;
+      this.round = round;
+      this.survivors = survivors;
+      this.eliminations = eliminations;
+      this.games = new TreeMap<>();
+      this.complete = complete;
+      this.logLength = -1;
+    }
+
+    /**
+     * Get the number of players who signed up for the tournament.
+     * @return the number of players
+     */
+    public int getPlayers() {
+      return this.players;
+    }
+
+    /**
+     * Get the round being played, starting from 1.
+     * @return the round
+     */
+    public int getRound() {
+      return this.round;
+    }
+
+    /**
+     * Get the players taking part in the round.
+     * @return the players' signup indices, in signup order
+     */
+    public List<Integer> getSurvivors() {
+      return new ArrayList<>(this.survivors);
+    }
+
+    /**
+     * Get the players eliminated in each round before this one.
+     * @return a map of round to the signup indices of the players eliminated in it
+     */
+    public Map<Integer, List<Integer>> getEliminations() {
+      return new TreeMap<>(this.eliminations);
+    }
+
+    /**
+     * Get the results of the games of this round that had finished.
+     * @return a map of the number of the game in the round to its result
+     */
+    public Map<Integer, GameResult> getGames() {
+      return new TreeMap<>(this.games);
+    }
+
+    /**
+     * Get whether the tournament is over, in which case the survivors are its winners.
+     * @return whether the tournament is over
+     */
+    public boolean isComplete() {
+      return this.complete;
+    }
+
+    /**
+     * Get the length of the game log as of the last line.
+     * @return the length in bytes, or -1 if the line does not say
+     */
+    public long getLogLength() {
+      return this.logLength;
+    }
+
+    /**
+     * Get the number of games in the game log as of the last line.
+     * @return the number of games, or 0 if the line does not say (see getLogLength)
+     */
+    public int getLogGames() {
+      return this.logGames;
+    }
+
+    // Reads the position in the game log from a line, if it has one.
+    private void readLog(JsonObject obj) {
+      if (obj.has("log")) {
+        JsonArray log = obj.getAsJsonArray("log");
+        this.logLength = log.get(0).getAsLong();
+        this.logGames = log.get(1).getAsInt();
+      }
+    }
+  }
+
+  /**
+   * The result of one game, with players named by their signup index.
+   */
+  public static class GameResult {
+    private final List<Integer> winners;
+    private final List<Integer> cheaters;
+
+    public GameResult(List<Integer> winners, List<Integer> cheaters) {
+      this.winners = new ArrayList<>(winners);
+      this.cheaters = new ArrayList<>(cheaters);
+    }
+
+    public List<Integer> getWinners() {
+      return new ArrayList<>(this.winners);
+    }
+
+    public List<Integer> getCheaters() {
+      return new ArrayList<>(this.cheaters);
+    }
+  }
+
+  /**
+   * Open the journal in the given file for appending, creating it if needed. Anything after the
+   * last complete line is cut off first.
+   *
+   * @param file the journal
+   * @param syncEvery the number of game results to write between forcing them to disk
+   * @throws IOException if the file cannot be opened
+   */
+  public TournamentJournal(Path file, int syncEvery) throws IOException {
+    if (syncEvery < 1) {
+      throw new IllegalArgumentException("Game results must be synced at least every game");
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.syncEvery = syncEvery;
+
+    // cut off a line that was being written when the last run stopped
+    long end = this.channel.size();
+    ByteBuffer one = ByteBuffer.allocate(1);
+    while (end > 0) {
+      one.clear();
+      this.channel.read(one, end - 1);
+      if (one.get(0) == '\n') {
+        break;
+      }
+      end--;
+    }
+    this.channel.truncate(end);
+    this.channel.position(end);
+  }
+
+  /**
+   * Read how far the tournament in the given journal got.
+   *
+   * @param file the journal
+   * @return the progress as of the last complete line, or null if there is no journal or it has no
+   *         round barrier yet
+   * @throws IOException if the file cannot be read, or is not a tournament journal
+   */
+  public static Progress read(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    int end = text.lastIndexOf('\n') + 1;
+
+    Progress progress = null;
+    for (String line : text.substring(0, end).split("\n")) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      try {
+        JsonObject obj = JsonParser.parseString(line).getAsJsonObject();
+        if (obj.has("survivors")) {
+          progress = new Progress(obj.get("players").getAsInt(), obj.get("round").getAsInt(),
+              toInts(obj.getAsJsonArray("survivors")), toEliminations(obj),
+              obj.has("complete") && obj.get("complete").getAsBoolean());
+          progress.readLog(obj);
+        }
+        else if (progress != null && obj.get("round").getAsInt() == progress.round) {
+          progress.games.put(obj.get("game").getAsInt(), new GameResult(
+              toInts(obj.getAsJsonArray("winners")), toInts(obj.getAsJsonArray("cheaters"))));
+          progress.readLog(obj);
+        }
+      } catch (RuntimeException e) {
+        // malformed JSON, or JSON of the wrong shape
+        throw new IOException("Not a tournament journal line: " + line, e);
+      }
+    }
+    return progress;
+  }
+
+  /**
+   * Note how far the given game log has got in every line written from now on, and force the log
+   * to disk whenever the journal is.
+   *
+   * @param log the game log the games of the tournament are recorded in, or null for none
+   */
+  public void setGameLog(GameLogWriter log) {
+    this.gameLog = log;
+  }
+
+  /**
+   * Write a round barrier and force it, along with any game results before it, to disk.
+   *
+   * @param players the number of players who signed up
+   * @param round the round about to start
+   * @param survivors the players taking part in the round
+   * @param eliminations the players eliminated in each round so far
+   * @param complete whether the tournament is over instead
+   * @throws IOException if the journal cannot be written to
+   */
+  public void writeRound(int players, int round, List<Integer> survivors,
+      Map<Integer, List<Integer>> eliminations, boolean complete) throws IOException {
+    JsonObject obj = new JsonObject();
+    obj.addProperty("players", players);
+    obj.addProperty("round", round);
+    obj.add("survivors", toJson(survivors));
+    JsonObject elims = new JsonObject();
+    for (Map.Entry<Integer, List<Integer>> entry : eliminations.entrySet()) {
+      elims.add(entry.getKey().toString(), toJson(entry.getValue()));
+    }
+    obj.add("eliminations", elims);
+    if (complete) {
+      obj.addProperty("complete", true);
+    }
+    this.append(obj);
+    this.sync();
+  }
+
+  /**
+   * Write the result of a game, forcing it to disk if syncEvery results have been written since
+   * the last time.
+   *
+   * @param round the round of the game
+   * @param game the number of the game in the round, from 0
+   * @param result the players who won and cheated
+   * @throws IOException if the journal cannot be written to
+   */
+  public void writeGame(int round, int game, GameResult result) throws IOException {
+    JsonObject obj = new JsonObject();
+    obj.addProperty("round", round);
+    obj.addProperty("game", game);
+    obj.add("winners", toJson(result.winners));
+    obj.add("cheaters", toJson(result.cheaters));
+    this.append(obj);
+    if (++this.unsynced >= this.syncEvery) {
+      this.sync();
+    }
+  }
+
+  /**
+   * Force everything written so far, and the game log, to disk.
+   * @throws IOException if the journal or the game log cannot be written to
+   */
+  public void sync() throws IOException {
+    if (this.gameLog != null) {
+      this.gameLog.sync();
+    }
+    this.channel.force(false);
+    this.unsynced = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.sync();
+    } finally {
+      this.channel.close();
+    }
+  }
+
+  private void append(JsonObject obj) throws IOException {
+    if (this.gameLog != null) {
+      JsonArray log = new JsonArray();
+      log.add(this.gameLog.getLength());
+      log.add(this.gameLog.getGameCount());
+      obj.add("log", log);
+    }
+    ByteBuffer line = ByteBuffer.wrap((obj.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+    while (line.hasRemaining()) {
+      this.channel.write(line);
+    }
+  }
+
+  private static JsonArray toJson(List<Integer> ints) {
+    JsonArray array = new JsonArray();
+    for (int ii : ints) {
+      array.add(ii);
+    }
+    return array;
+  }
+
+  private static List<Integer> toInts(JsonArray array) {
+    List<Integer> ints = new ArrayList<>();
+    for (JsonElement e : array) {
+      ints.add(e.getAsInt());
+    }
+    return ints;
+  }
+
+  private static Map<Integer, List<Integer>> toEliminations(JsonObject obj) {
+    Map<Integer, List<Integer>> elims = new TreeMap<>();
+    for (Map.Entry<String, JsonElement> entry : obj.getAsJsonObject("eliminations").entrySet()) {
+      elims.put(Integer.parseInt(entry.getKey()), toInts(entry.getValue().getAsJsonArray()));
+    }
+    return elims;
+  }
+}
@@ -0,0 +1,12 @@
+package com.fish.admin;
+
+/**
+ * The phases a tournament of HTMF progresses through:
+ *
+ * SIGN_UPS : players may sign up, and the tournament has not started.
+ * ONGOING : rounds of games are being played, and no more players may sign up.
+ * COMPLETE : there is a single winner left, or no one left at all, and the results are final.
+ */
+public enum TournamentPhase {
+  SIGN_UPS, ONGOING, COMPLETE
+}
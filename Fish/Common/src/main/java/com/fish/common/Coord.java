@@ -11,8 +11,8 @@ package com.fish.common;
  */
 public class Coord {
 
-  private int xx;
-  private int yy;
+  private final int xx;
+  private final int yy;
 
   /**
    * Only constructor to create a Coord object.
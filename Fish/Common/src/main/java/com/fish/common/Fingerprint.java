@@ -0,0 +1,41 @@
+package com.fish.common;
+
+/**
+ * Helpers for the 64-bit content fingerprints of boards, players and game states.
+ *
+ * A fingerprint is the XOR of one pseudo-random key per piece of content (a tile and its fish, a
+ * penguin and its place in the player's order, ...). Changing one piece of content then costs two
+ * XORs, one to take the old key out and one to put the new key in, however large the thing being
+ * fingerprinted is. Keys are worked out by mixing the content into a well-spread long rather than
+ * looked up in a table, so there is no table to size for the largest board.
+ *
+ * Equal content always has equal fingerprints. Different content almost always has different
+ * fingerprints, so a fingerprint can rule out equality but not prove it.
+ */
+public final class Fingerprint {
+
+  private Fingerprint() {
+  }
+
+  /**
+   * Spread the bits of the given value over a long, such that values differing in any bit give
+   * unrelated results (the finalizer of SplitMix64).
+   * @param value the value to mix
+   * @return the mixed value
+   */
+  public static long mix(long value) {
+    long zz = value + 0x9E3779B97F4A7C15L;
+    zz = (zz ^ (zz >>> 30)) * 0xBF58476D1CE4E5B9L;
+    zz = (zz ^ (zz >>> 27)) * 0x94D049BB133111EBL;
+    return zz ^ (zz >>> 31);
+  }
+
+  /**
+   * Fold a fingerprint into an int, for use as a hash code.
+   * @param fingerprint the fingerprint
+   * @return the hash code
+   */
+  public static int toHashCode(long fingerprint) {
+    return (int) (fingerprint ^ (fingerprint >>> 32));
+  }
+}
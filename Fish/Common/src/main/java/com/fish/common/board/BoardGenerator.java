@@ -0,0 +1,141 @@
+package com.fish.common.board;
+
+import com.fish.common.Coord;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates boards with random fish, fast enough to make the millions of boards used for
+ * self-play and fuzzing, and reproducibly from a single 64-bit seed.
+ *
+ * A generator made with a seed always produces the same sequence of boards for the same sequence
+ * of calls. split() makes an independent generator from the same sequence, to hand to another
+ * thread, so a parallel run is reproducible as well.
+ *
+ * Each board is generated like so:
+ *  - the holes are marked in a bitset of the cells, in the same column-major order as the values
+ *  - a fish value of 1 to MAX_FISH is drawn for every other cell
+ *  - the first values that are not 1 are made 1 until there are enough one-fish tiles
+ *  - the values are shuffled (Fisher-Yates), so the one-fish tiles end up anywhere on the board
+ *  - the values are laid out over the cells that are not holes
+ *
+ * This is the same distribution of boards as HexGameBoard's original randomized fill, in linear
+ * time. Boards from a generator are not the same as boards from HexGameBoard's int-seeded
+ * constructor for the same seed; that constructor keeps its own boards for the tests that use them.
+ */
+public class BoardGenerator {
+
+  private static final int MAX_FISH = 5;
+
+  private final SplittableRandom rand;
+
+  /**
+   * Make a generator with a seed of its own, for boards that do not need to be reproduced.
+   */
+  public BoardGenerator() {
+    this(new SplittableRandom());
+  }
+
+  /**
+   * Make a generator whose boards are decided by the given seed.
+   * @param seed the seed
+   */
+  public BoardGenerator(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private BoardGenerator(SplittableRandom rand) {
+    this.rand = rand;
+  }
+
+  /**
+   * Make a new generator that generates different boards to this one. Like SplittableRandom.split,
+   * the boards of both generators are still decided by the seed of this one.
+   * @return the new generator
+   */
+  public BoardGenerator split() {
+    return new BoardGenerator(this.rand.split());
+  }
+
+  /**
+   * Generate a board of the given size, with holes at the given locations and randomized fish on
+   * every other tile.
+   *
+   * @param rows the number of rows of tiles on the board
+   * @param cols the number of columns of tiles on the board
+   * @param holes the locations of holes on the board. Locations that are not on the board are
+   *              ignored
+   * @param minOneFishTiles the minimum number of 1-fish tiles on the board
+   * @return the board
+   * @throws IllegalArgumentException if the board has no rows or columns, or there are not enough
+   *                                  tiles for the one-fish tiles
+   */
+  public HexGameBoard generate(int rows, int cols, List<Coord> holes, int minOneFishTiles) {
+    return new HexGameBoard(this.generateValues(rows, cols, holes, minOneFishTiles));
+  }
+
+  /**
+   * Generate the fish of a board, without making the board. See generate.
+   *
+   * @param rows the number of rows of tiles on the board
+   * @param cols the number of columns of tiles on the board
+   * @param holes the locations of holes on the board
+   * @param minOneFishTiles the minimum number of 1-fish tiles on the board
+   * @return the number of fish on each tile, with 0 for holes, indexed [x][y] as for
+   *         HexGameBoard(int[][])
+   * @throws IllegalArgumentException if the board has no rows or columns, or there are not enough
+   *                                  tiles for the one-fish tiles
+   */
+  public int[][] generateValues(int rows, int cols, List<Coord> holes, int minOneFishTiles) {
+    if (rows < 1 || cols < 1) {
+      throw new IllegalArgumentException("There must be at least one row and one column");
+    }
+
+    BitSet isHole = new BitSet(rows * cols);
+    for (Coord hole : holes) {
+      if (hole.getX() >= 0 && hole.getX() < cols && hole.getY() >= 0 && hole.getY() < rows) {
+        isHole.set(hole.getX() * rows + hole.getY());
+      }
+    }
+    int numTiles = rows * cols - isHole.cardinality();
+    if (numTiles < minOneFishTiles) {
+      throw new IllegalArgumentException("There are not enough spaces for the minimum number of "
+          + "one fish tiles");
+    }
+
+    int[] fish = new int[numTiles];
+    int ones = 0;
+    for (int ii = 0; ii < numTiles; ii++) {
+      fish[ii] = this.rand.nextInt(MAX_FISH) + 1;
+      if (fish[ii] == 1) {
+        ones++;
+      }
+    }
+    // enforce there is the minimum number of one-fish tiles requested
+    for (int ii = 0; ones < minOneFishTiles; ii++) {
+      if (fish[ii] != 1) {
+        fish[ii] = 1;
+        ones++;
+      }
+    }
+    // and spread them over the board
+    for (int ii = numTiles - 1; ii > 0; ii--) {
+      int jj = this.rand.nextInt(ii + 1);
+      int tmp = fish[ii];
+      fish[ii] = fish[jj];
+      fish[jj] = tmp;
+    }
+
+    int[][] values = new int[cols][rows];
+    int next = 0;
+    for (int ii = 0; ii < cols; ii++) {
+      for (int jj = 0; jj < rows; jj++) {
+        if (!isHole.get(ii * rows + jj)) {
+          values[ii][jj] = fish[next++];
+        }
+      }
+    }
+    return values;
+  }
+}
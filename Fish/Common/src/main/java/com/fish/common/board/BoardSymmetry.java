@@ -0,0 +1,117 @@
+package com.fish.common.board;
+
+import com.fish.common.Coord;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The symmetries of a rectangular HexGameBoard: ways of moving every tile to another place on the
+ * board such that tiles that were neighbours stay neighbours, and straight lines of tiles stay
+ * straight lines. A symmetry therefore maps every legal move to a legal move on the mapped board.
+ *
+ * Think of a tile (x, y) as sitting at column 2x + (y mod 2) and row y of a grid in which each tile
+ * touches the tiles one column and one row away diagonally, and two rows away straight up and
+ * down (see the diagram on HexGameBoard). Flipping that grid upside down, or turning it by half a
+ * turn, keeps the neighbours of every tile, but only maps the rectangle of tiles onto itself for
+ * some heights:
+ *
+ * IDENTITY : leaves every tile where it is, on any board.
+ * MIRROR : flips the rows, (x, y) to (x, height - 1 - y). Only on boards with an odd number of
+ *          rows, since otherwise the rows that stick out to the right would become rows that do
+ *          not.
+ * ROTATE : turns the board by half a turn, (x, y) to (width - 1 - x, height - 1 - y). Only on
+ *          boards with an even number of rows, for the same reason.
+ *
+ * Flipping the columns on their own never maps the board onto itself, so every board has exactly
+ * two symmetries (which are the same on a board of one row). Each symmetry undoes itself.
+ */
+public enum BoardSymmetry {
+  IDENTITY, MIRROR, ROTATE;
+
+  /**
+   * Get the symmetries of a board of the given size.
+   * @param width the number of columns of the board
+   * @param height the number of rows of the board
+   * @return IDENTITY, then the other symmetry of the board
+   */
+  public static List<BoardSymmetry> of(int width, int height) {
+    List<BoardSymmetry> symmetries = new ArrayList<>();
+    symmetries.add(IDENTITY);
+    symmetries.add(height % 2 == 1 ? MIRROR : ROTATE);
+    return symmetries;
+  }
+
+  /**
+   * Get whether this is a symmetry of a board of the given size.
+   * @param width the number of columns of the board
+   * @param height the number of rows of the board
+   * @return whether this symmetry maps the board onto itself
+   */
+  public boolean appliesTo(int width, int height) {
+    switch (this) {
+      case MIRROR:
+        return height % 2 == 1;
+      case ROTATE:
+        return height % 2 == 0;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Map a location on a board of the given size. Since every symmetry undoes itself, this also
+   * maps a location back.
+   * @param loc the location
+   * @param width the number of columns of the board
+   * @param height the number of rows of the board
+   * @return the mapped location
+   * @throws IllegalArgumentException if this is not a symmetry of a board of the given size
+   */
+  public Coord apply(Coord loc, int width, int height) {
+    this.check(width, height);
+    switch (this) {
+      case MIRROR:
+        return new Coord(loc.getX(), height - 1 - loc.getY());
+      case ROTATE:
+        return new Coord(width - 1 - loc.getX(), height - 1 - loc.getY());
+      default:
+        return loc;
+    }
+  }
+
+  /**
+   * Map a board data representation (see getBoardDataRepresentation), giving the number of fish
+   * of every tile of the mapped board.
+   * @param values the number of fish of each tile, by column and then row, where 0 is a hole
+   * @return a new data representation of the mapped board
+   * @throws IllegalArgumentException if this is not a symmetry of a board of the given size
+   */
+  public int[][] apply(int[][] values) {
+    int width = values.length;
+    int height = values[0].length;
+    this.check(width, height);
+    int[][] mapped = new int[width][height];
+    for (int ii = 0; ii < width; ii++) {
+      for (int jj = 0; jj < height; jj++) {
+        switch (this) {
+          case MIRROR:
+            mapped[ii][height - 1 - jj] = values[ii][jj];
+            break;
+          case ROTATE:
+            mapped[width - 1 - ii][height - 1 - jj] = values[ii][jj];
+            break;
+          default:
+            mapped[ii][jj] = values[ii][jj];
+        }
+      }
+    }
+    return mapped;
+  }
+
+  private void check(int width, int height) {
+    if (!this.appliesTo(width, height)) {
+      throw new IllegalArgumentException(this + " is not a symmetry of a board with " + height
+          + " rows");
+    }
+  }
+}
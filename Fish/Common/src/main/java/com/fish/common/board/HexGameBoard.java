@@ -1,10 +1,12 @@
 package com.fish.common.board;
 
 import com.fish.common.Coord;
+import com.fish.common.Fingerprint;
 import com.fish.common.tile.HexTile;
 import com.fish.common.tile.ProtectedTile;
 import com.fish.common.tile.Tile;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Random;
 
@@ -53,8 +55,14 @@ import java.util.Random;
  * on the board. Just initiate holes around the pointed edges of the rectangular representation
  * to create a circular playing field.
  *
- * The Random object in the rand field is used to generate constant boards for testing
- * purposes through the use of a random seed.
+ * Randomized boards are generated by a BoardGenerator. The Random object in the rand field is only
+ * used by the seeded constructor, to generate the same constant boards for testing purposes that it
+ * always has.
+ *
+ * The board keeps a fingerprint of its tiles (see Fingerprint), the XOR of one key per tile made
+ * from its location, number of fish and whether it is present. It is worked out once when the
+ * board is built and updated by removeTileAt, so hashing a board or telling two different boards
+ * apart does not have to visit every tile.
  *
  * INTERPRETATION:
  * A HexGameBoard represents the collection of hexagon-shaped tiles that a game of HTMF is played on
@@ -68,6 +76,9 @@ public class HexGameBoard implements GameBoard {
   private int width;
   private int height;
   private Random rand;
+  private long fingerprint;
+  // built the first time it is asked for, then kept up to date by removeTileAt
+  private RayIndex rayIndex;
 
   private static final int MAX_FISH = 5;
 
@@ -89,9 +100,10 @@ public class HexGameBoard implements GameBoard {
     this.tiles = new Tile[cols][rows];
     this.width = cols;
     this.height = rows;
-    this.rand = new Random(System.currentTimeMillis());
 
-    this.fillBoardWithTiles(holes, minOneFishTiles);
+    this.fillBoardWithValues(new BoardGenerator().generateValues(rows, cols, holes,
+        minOneFishTiles));
+    this.fingerprintTiles();
   }
 
   /**
@@ -120,6 +132,7 @@ public class HexGameBoard implements GameBoard {
         tiles[ii][jj] = new HexTile(numberOfFish);
       }
     }
+    this.fingerprintTiles();
   }
 
 
@@ -133,9 +146,20 @@ public class HexGameBoard implements GameBoard {
    */
   public HexGameBoard(int rows, int cols, List<Coord> holes, int minOneFishTiles,
       int randSeed) {
-    this(rows, cols, holes, minOneFishTiles);
+    if (rows < 1 || cols < 1) {
+      throw new IllegalArgumentException("There must be at least one row and one column");
+    }
+    if (rows * cols - holes.size() < minOneFishTiles) {
+      throw new IllegalArgumentException("There are not enough spaces for the minimum number of "
+          + "one fish tiles");
+    }
+    this.tiles = new Tile[cols][rows];
+    this.width = cols;
+    this.height = rows;
     this.rand = new Random(randSeed);
+
     this.fillBoardWithTiles(holes, minOneFishTiles);
+    this.fingerprintTiles();
   }
 
 
@@ -156,29 +180,45 @@ public class HexGameBoard implements GameBoard {
     this.width = values.length;
     this.height = values[0].length;
 
+    this.fillBoardWithValues(values);
+    this.fingerprintTiles();
+  }
+
+  /////////////////////////////////Initialize board
+
+  //Fills the board with the given number of fish per tile, where 0 is a hole
+  private void fillBoardWithValues(int[][] values) {
     for (int ii = 0; ii < this.width; ii++) {
       for (int jj = 0; jj < this.height; jj++) {
         if (values[ii][jj] == 0) {
-          tiles[ii][jj] = new HexTile();
+          this.tiles[ii][jj] = new HexTile();
         }
         else {
-          tiles[ii][jj] = new HexTile(values[ii][jj]);
+          this.tiles[ii][jj] = new HexTile(values[ii][jj]);
         }
       }
     }
   }
 
-  /////////////////////////////////Initialize board
-
-  //Fills the board with randomized tiles
+  //Fills the board with randomized tiles the way the seeded constructor always has, so that its
+  //boards stay the same. BoardGenerator makes boards with the same distribution more quickly.
   private void fillBoardWithTiles(List<Coord> holes, int minOneFishTiles) {
     List<Integer> tileFishValues = generateTileValues(
         this.width * this.height - holes.size(), minOneFishTiles);
 
+    boolean[][] isHole = new boolean[this.width][this.height];
+    for (Coord hole : holes) {
+      int xx = hole.getX();
+      int yy = hole.getY();
+      if (xx >= 0 && xx < this.width && yy >= 0 && yy < this.height) {
+        isHole[xx][yy] = true;
+      }
+    }
+
     //fill in the board taking one number at a time from the tileFishValues array
     for (int ii = 0; ii < this.width; ii++) {
       for (int jj = 0; jj < this.height; jj++) {
-        if (holes.contains(new Coord(ii, jj))) {
+        if (isHole[ii][jj]) {
           this.tiles[ii][jj] = new HexTile();
         }
         else {
@@ -189,6 +229,22 @@ public class HexGameBoard implements GameBoard {
     }
   }
 
+  //Works out the fingerprint of the board from scratch, once its tiles are filled in
+  private void fingerprintTiles() {
+    this.fingerprint = 0;
+    for (int ii = 0; ii < this.width; ii++) {
+      for (int jj = 0; jj < this.height; jj++) {
+        this.fingerprint ^= tileKey(ii, jj, this.tiles[ii][jj]);
+      }
+    }
+  }
+
+  //The key of the given tile at the given location in the fingerprint of the board
+  private static long tileKey(int xx, int yy, ProtectedTile tile) {
+    return Fingerprint.mix((long) xx << 40 | (long) yy << 16 | tile.getNumFish() << 1
+        | (tile.isPresent() ? 1 : 0));
+  }
+
   //Generates a list of random tile fish values to initialize each Tile
   private List<Integer> generateTileValues(int numValsNeeded, int minOneFishTiles) {
     int ones = 0;
@@ -272,6 +328,44 @@ public class HexGameBoard implements GameBoard {
   }
 
 
+  @Override
+  public MobilityMap getMobilityMap(Collection<Coord> penguinLocs) {
+    boolean[][] free = new boolean[this.width][this.height];
+    int[][] fish = new int[this.width][this.height];
+    for (int ii = 0; ii < this.width; ii++) {
+      for (int jj = 0; jj < this.height; jj++) {
+        free[ii][jj] = this.tiles[ii][jj].isPresent();
+        fish[ii][jj] = free[ii][jj] ? this.tiles[ii][jj].getNumFish() : 0;
+      }
+    }
+    for (Coord loc : penguinLocs) {
+      if (loc.getX() >= 0 && loc.getX() < this.width && loc.getY() >= 0
+          && loc.getY() < this.height) {
+        free[loc.getX()][loc.getY()] = false;
+      }
+    }
+    return new MobilityMap(this.width, this.height, free, fish);
+  }
+
+
+  @Override
+  public RayIndex getRayIndex(Collection<Coord> penguinLocs) {
+    if (this.rayIndex == null) {
+      boolean[][] holes = new boolean[this.width][this.height];
+      int[][] fish = new int[this.width][this.height];
+      for (int ii = 0; ii < this.width; ii++) {
+        for (int jj = 0; jj < this.height; jj++) {
+          holes[ii][jj] = !this.tiles[ii][jj].isPresent();
+          fish[ii][jj] = holes[ii][jj] ? 0 : this.tiles[ii][jj].getNumFish();
+        }
+      }
+      this.rayIndex = new RayIndex(this.width, this.height, holes, fish);
+    }
+    this.rayIndex.setPenguins(penguinLocs);
+    return this.rayIndex;
+  }
+
+
   //Generates a list of all Coord locations reachable from a starting xx, yy Coord point
   //in a straight line stemming from the point of origin.
   //Holes and penguins are considered blockers that stop tiles from being reachable.
@@ -331,7 +425,12 @@ public class HexGameBoard implements GameBoard {
     checkTilePresent(loc, "Cannot remove a tile where a hole is already located");
 
     Tile TileToRemove = tiles[loc.getX()][loc.getY()];
+    this.fingerprint ^= tileKey(loc.getX(), loc.getY(), TileToRemove);
     TileToRemove.meltTile();
+    this.fingerprint ^= tileKey(loc.getX(), loc.getY(), TileToRemove);
+    if (this.rayIndex != null) {
+      this.rayIndex.melt(loc.getX(), loc.getY());
+    }
     return TileToRemove;
   }
 
@@ -383,19 +482,29 @@ public class HexGameBoard implements GameBoard {
   }
 
 
+  /**
+   * Returns the fingerprint of this board's tiles, which changes whenever a tile is removed.
+   * Equal boards have equal fingerprints.
+   * @return the fingerprint
+   */
+  @Override
+  public long getFingerprint() {
+    return Fingerprint.mix(this.fingerprint ^ ((long) this.width << 32 | this.height));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof HexGameBoard) {
       HexGameBoard other = (HexGameBoard) o;
       // BOARD EQUALITY:
       // SAME NUMBER OF TILES, HOLES in the same places, TILES with same num fish
-      if (this.width == other.getWidth() && this.height == other.getHeight()) {
+      // Boards with different fingerprints cannot be equal, so only boards with the same
+      // fingerprint have their tiles compared.
+      if (this.width == other.width && this.height == other.height
+          && this.fingerprint == other.fingerprint) {
         for (int ii = 0; ii < this.width; ii++) {
           for (int jj = 0; jj < this.height; jj++) {
-            Coord loc = new Coord(ii, jj);
-            ProtectedTile thisTile = this.getTileAt(loc);
-            ProtectedTile otherTile = other.getTileAt(loc);
-            if (!thisTile.equals(otherTile)) {
+            if (!this.tiles[ii][jj].equals(other.tiles[ii][jj])) {
               return false;
             }
           }
@@ -406,6 +515,11 @@ public class HexGameBoard implements GameBoard {
     return false;
   }
 
+  @Override
+  public int hashCode() {
+    return Fingerprint.toHashCode(this.getFingerprint());
+  }
+
 
   //Purpose: To reduce the amount of times we need to write out checks that a Coord is within
   //the dimensions of the board (which is in almost every method)
@@ -0,0 +1,196 @@
+package com.fish.common.board;
+
+import com.fish.common.Coord;
+
+/**
+ * How far a penguin could move from every tile of a board at once, given where the penguins are.
+ *
+ * For every tile and each of the six directions a penguin moves in, the map holds the number of
+ * tiles in a row next to the tile in that direction that are neither holes nor under a penguin
+ * (the run), and the fish on them. The tiles reachable from a tile are exactly the tiles of its six
+ * runs, so the number of moves from every tile costs one look-up, rather than walking six lines of
+ * tiles as ProtectedGameBoard.getTilesReachableFrom does for a single tile.
+ *
+ * The run from a tile in a direction is empty if the next tile is blocked, and otherwise one longer
+ * than the run from the next tile in the same direction. The next tile up is always in an earlier
+ * row, and the next tile down in a later one, so the runs upwards are worked out in one sweep of
+ * the rows from the top, and the runs downwards in one sweep from the bottom: the whole map costs
+ * a constant amount of work per tile.
+ *
+ * The directions are numbered in the order getTilesReachableFrom lists its lines: UP, DOWN,
+ * UP_RIGHT, DOWN_RIGHT, UP_LEFT, DOWN_LEFT. A MobilityMap does not change when the board does.
+ */
+public final class MobilityMap {
+
+  public static final int UP = 0;
+  public static final int DOWN = 1;
+  public static final int UP_RIGHT = 2;
+  public static final int DOWN_RIGHT = 3;
+  public static final int UP_LEFT = 4;
+  public static final int DOWN_LEFT = 5;
+  public static final int DIRECTIONS = 6;
+
+  private final int width;
+  private final int height;
+  // by direction, then tile at x * height + y
+  private final int[][] runs;
+  private final int[][] fish;
+
+  /**
+   * Work out the map of a board of the given size.
+   * @param width the number of columns
+   * @param height the number of rows
+   * @param free whether each tile, by [x][y], can be moved onto: not a hole or under a penguin
+   * @param fish the fish on each tile, by [x][y]
+   */
+  MobilityMap(int width, int height, boolean[][] free, int[][] fish) {
+    this.width = width;
+    this.height = height;
+    this.runs = new int[DIRECTIONS][width * height];
+    this.fish = new int[DIRECTIONS][width * height];
+    for (int yy = 0; yy < height; yy++) {
+      for (int xx = 0; xx < width; xx++) {
+        this.extend(UP, xx, yy, free, fish);
+        this.extend(UP_RIGHT, xx, yy, free, fish);
+        this.extend(UP_LEFT, xx, yy, free, fish);
+      }
+    }
+    for (int yy = height - 1; yy >= 0; yy--) {
+      for (int xx = 0; xx < width; xx++) {
+        this.extend(DOWN, xx, yy, free, fish);
+        this.extend(DOWN_RIGHT, xx, yy, free, fish);
+        this.extend(DOWN_LEFT, xx, yy, free, fish);
+      }
+    }
+  }
+
+  // Works out the run from the given tile in the given direction from the run of the next tile,
+  // which has already been worked out
+  private void extend(int direction, int xx, int yy, boolean[][] free, int[][] fishes) {
+    int ny = nextY(direction, yy);
+    if (ny < 0 || ny >= this.height) {
+      return;
+    }
+    int nx = nextX(direction, xx, ny);
+    if (nx < 0 || nx >= this.width || !free[nx][ny]) {
+      return;
+    }
+    int next = nx * this.height + ny;
+    this.runs[direction][xx * this.height + yy] = 1 + this.runs[direction][next];
+    this.fish[direction][xx * this.height + yy] = fishes[nx][ny] + this.fish[direction][next];
+  }
+
+  // The row of the next tile in the given direction
+  static int nextY(int direction, int yy) {
+    switch (direction) {
+      case UP:
+        return yy - 2;
+      case DOWN:
+        return yy + 2;
+      case UP_RIGHT:
+      case UP_LEFT:
+        return yy - 1;
+      default:
+        return yy + 1;
+    }
+  }
+
+  // The column of the next tile in the given direction, in the given row (see the coordinate
+  // diagram of HexGameBoard)
+  static int nextX(int direction, int xx, int ny) {
+    switch (direction) {
+      case UP_RIGHT:
+      case DOWN_RIGHT:
+        return xx + (ny + 1) % 2;
+      case UP_LEFT:
+      case DOWN_LEFT:
+        return xx - ny % 2;
+      default:
+        return xx;
+    }
+  }
+
+  /**
+   * Get the number of tiles a penguin on the given tile can move to in the given direction.
+   * @param loc the tile to move from
+   * @param direction one of the six directions
+   * @return the length of the run
+   * @throws IllegalArgumentException if the tile is out of bounds or the direction is not one
+   */
+  public int getRun(Coord loc, int direction) {
+    return this.runs[checkDirection(direction)][this.index(loc)];
+  }
+
+  /**
+   * Get the fish on the tiles a penguin on the given tile can move to in the given direction.
+   * @param loc the tile to move from
+   * @param direction one of the six directions
+   * @return the fish along the run
+   * @throws IllegalArgumentException if the tile is out of bounds or the direction is not one
+   */
+  public int getRunFish(Coord loc, int direction) {
+    return this.fish[checkDirection(direction)][this.index(loc)];
+  }
+
+  /**
+   * Get the number of tiles a penguin on the given tile can move to, which is the number of tiles
+   * getTilesReachableFrom finds from it.
+   * @param loc the tile to move from
+   * @return the number of moves
+   * @throws IllegalArgumentException if the tile is out of bounds
+   */
+  public int getReachableCount(Coord loc) {
+    int index = this.index(loc);
+    int count = 0;
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      count += this.runs[direction][index];
+    }
+    return count;
+  }
+
+  /**
+   * Get the fish on all the tiles a penguin on the given tile can move to.
+   * @param loc the tile to move from
+   * @return the fish reachable
+   * @throws IllegalArgumentException if the tile is out of bounds
+   */
+  public int getReachableFish(Coord loc) {
+    int index = this.index(loc);
+    int total = 0;
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      total += this.fish[direction][index];
+    }
+    return total;
+  }
+
+  /**
+   * Determine if a penguin on the given tile can move at all.
+   * @param loc the tile to move from
+   * @return true if it has a move
+   * @throws IllegalArgumentException if the tile is out of bounds
+   */
+  public boolean canMoveFrom(Coord loc) {
+    int index = this.index(loc);
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      if (this.runs[direction][index] > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int index(Coord loc) {
+    if (loc.getX() < 0 || loc.getX() >= this.width || loc.getY() < 0
+        || loc.getY() >= this.height) {
+      throw new IllegalArgumentException("The tile you requested is out of bounds");
+    }
+    return loc.getX() * this.height + loc.getY();
+  }
+
+  private static int checkDirection(int direction) {
+    if (direction < 0 || direction >= DIRECTIONS) {
+      throw new IllegalArgumentException("There are only " + DIRECTIONS + " directions");
+    }
+    return direction;
+  }
+}
@@ -2,6 +2,7 @@ package com.fish.common.board;
 
 import com.fish.common.Coord;
 import com.fish.common.tile.ProtectedTile;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,6 +33,26 @@ public interface ProtectedGameBoard {
    */
   List<Coord> getTilesReachableFrom(Coord origin, List<Coord> penguinLocs);
 
+  /**
+   * Returns how far a penguin could move from every tile of the board at once, in a
+   * MobilityMap, worked out in time proportional to the number of tiles. The number of tiles
+   * the map gives for a tile that is present is the size of getTilesReachableFrom for it.
+   * @param penguinLocs the locations of all penguins on this board
+   * @return the map of the moves from every tile
+   */
+  MobilityMap getMobilityMap(Collection<Coord> penguinLocs);
+
+  /**
+   * Returns the board's RayIndex, which answers how far a penguin could move from a tile in each
+   * direction, and the fish along the way, in constant time. The index is built the first time it
+   * is asked for and then follows the board as tiles are removed; the penguins are brought up to
+   * date each time it is asked for, at a cost proportional to the lines of the penguins that have
+   * moved since. Copies of the board build their own index.
+   * @param penguinLocs the locations of all penguins on this board
+   * @return the board's index
+   */
+  RayIndex getRayIndex(Collection<Coord> penguinLocs);
+
   /**
    * Given a coordinate location within the dimensions of the game board,
    * returns the ProtectedTile object at that coordinate location.
@@ -63,5 +84,11 @@ public interface ProtectedGameBoard {
    */
   int getHeight();
 
+  /**
+   * Returns a 64-bit fingerprint of the tiles of the board, their fish and which of them are holes.
+   * Equal boards have equal fingerprints, so boards with different fingerprints are not equal.
+   * @return the fingerprint
+   */
+  long getFingerprint();
 
 }
@@ -0,0 +1,309 @@
+package com.fish.common.board;
+
+import com.fish.common.Coord;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * How far a penguin could move from any tile of a board in each direction, and the fish along the
+ * way, kept up to date as tiles are removed and penguins move, so that each question costs a
+ * constant amount of work (see HexGameBoard.getRayIndex).
+ *
+ * Every tile lies on one line of tiles along each of the three axes a penguin moves along: the
+ * column it is in (UP and DOWN), and the two diagonals (UP_LEFT and DOWN_RIGHT, UP_RIGHT and
+ * DOWN_LEFT). For each line the index keeps the running total of the fish on its tiles, and for
+ * each tile, on each of its lines, the nearest blocked tile (a hole or a tile under a penguin)
+ * before and after it. The tiles a penguin can move to in a direction are the tiles between it and
+ * the nearest blocked tile that way, and their fish the difference of two running totals.
+ *
+ * Because a penguin never moves past a blocked tile, the fish on a blocked tile are never counted,
+ * so the running totals never change once made. Removing a tile or moving a penguin only changes
+ * the nearest blocked tiles of the tiles on its three lines from the blocked tiles either side of
+ * it up to it, which is at most one pass over each line.
+ *
+ * The directions are numbered as in MobilityMap, and the run and its fish are the ones a
+ * MobilityMap of the same board and penguins gives. A RayIndex is not thread-safe.
+ */
+public final class RayIndex {
+
+  private static final int AXES = 3;
+  // the direction along each axis in which the tiles of a line are listed, and the opposite one
+  private static final int[] FORWARD = {MobilityMap.DOWN, MobilityMap.DOWN_RIGHT,
+      MobilityMap.DOWN_LEFT};
+  private static final int[] BACKWARD = {MobilityMap.UP, MobilityMap.UP_LEFT,
+      MobilityMap.UP_RIGHT};
+
+  private final int width;
+  private final int height;
+  // by axis, then tile at x * height + y: the line the tile is on and its position along it
+  private final int[][] lineOf;
+  private final int[][] posOf;
+  // by axis, then line: its tiles in order, and the fish on the tiles before each position
+  private final int[][][] lines;
+  private final int[][][] totals;
+  // by axis, then tile: the position of the nearest blocked tile before it, or -1, and after it,
+  // or the length of its line
+  private final int[][] before;
+  private final int[][] after;
+  private final boolean[] holes;
+  private final boolean[] penguins;
+  private int[] penguinTiles;
+
+  /**
+   * Build the index of a board of the given size with no penguins on it.
+   * @param width the number of columns
+   * @param height the number of rows
+   * @param holes whether each tile, by [x][y], is a hole
+   * @param fish the fish on each tile, by [x][y]
+   */
+  RayIndex(int width, int height, boolean[][] holes, int[][] fish) {
+    this.width = width;
+    this.height = height;
+    int size = width * height;
+    this.lineOf = new int[AXES][size];
+    this.posOf = new int[AXES][size];
+    this.lines = new int[AXES][][];
+    this.totals = new int[AXES][][];
+    this.before = new int[AXES][size];
+    this.after = new int[AXES][size];
+    this.holes = new boolean[size];
+    this.penguins = new boolean[size];
+    this.penguinTiles = new int[0];
+    for (int xx = 0; xx < width; xx++) {
+      for (int yy = 0; yy < height; yy++) {
+        this.holes[xx * height + yy] = holes[xx][yy];
+      }
+    }
+    for (int axis = 0; axis < AXES; axis++) {
+      this.buildLines(axis, fish);
+    }
+  }
+
+  // Lists the tiles of every line along the given axis, starting each line at a tile with no tile
+  // before it, and works out the running totals and nearest holes
+  private void buildLines(int axis, int[][] fish) {
+    int[][] found = new int[this.width * this.height][];
+    int[][] foundTotals = new int[this.width * this.height][];
+    int count = 0;
+    int[] line = new int[this.width * this.height];
+    for (int yy = 0; yy < this.height; yy++) {
+      for (int xx = 0; xx < this.width; xx++) {
+        if (this.next(BACKWARD[axis], xx, yy) >= 0) {
+          continue;
+        }
+        int length = 0;
+        for (int tile = xx * this.height + yy; tile >= 0;
+            tile = this.next(FORWARD[axis], tile / this.height, tile % this.height)) {
+          line[length++] = tile;
+        }
+        found[count] = Arrays.copyOf(line, length);
+        foundTotals[count] = this.addLine(axis, count, found[count], fish);
+        count++;
+      }
+    }
+    this.lines[axis] = Arrays.copyOf(found, count);
+    this.totals[axis] = Arrays.copyOf(foundTotals, count);
+  }
+
+  // Places the tiles of the given line, finds their nearest holes, and returns its running totals
+  private int[] addLine(int axis, int index, int[] line, int[][] fish) {
+    int[] total = new int[line.length + 1];
+    int blocked = -1;
+    for (int pos = 0; pos < line.length; pos++) {
+      int tile = line[pos];
+      this.lineOf[axis][tile] = index;
+      this.posOf[axis][tile] = pos;
+      total[pos + 1] = total[pos] + fish[tile / this.height][tile % this.height];
+      this.before[axis][tile] = blocked;
+      if (this.holes[tile]) {
+        blocked = pos;
+      }
+    }
+    blocked = line.length;
+    for (int pos = line.length - 1; pos >= 0; pos--) {
+      this.after[axis][line[pos]] = blocked;
+      if (this.holes[line[pos]]) {
+        blocked = pos;
+      }
+    }
+    return total;
+  }
+
+  // The tile next to the given one in the given direction, or -1 if it is off the board
+  private int next(int direction, int xx, int yy) {
+    int ny = MobilityMap.nextY(direction, yy);
+    if (ny < 0 || ny >= this.height) {
+      return -1;
+    }
+    int nx = MobilityMap.nextX(direction, xx, ny);
+    if (nx < 0 || nx >= this.width) {
+      return -1;
+    }
+    return nx * this.height + ny;
+  }
+
+  /**
+   * Record that the given tile has become a hole.
+   * @param xx the column of the tile
+   * @param yy the row of the tile
+   */
+  void melt(int xx, int yy) {
+    int tile = xx * this.height + yy;
+    if (!this.holes[tile]) {
+      this.holes[tile] = true;
+      if (!this.penguins[tile]) {
+        this.block(tile);
+      }
+    }
+  }
+
+  /**
+   * Bring the penguins of the index up to date with the given ones, changing only the lines of
+   * the penguins that have moved. Locations off the board are ignored.
+   * @param penguinLocs the locations of all penguins on the board
+   */
+  void setPenguins(Collection<Coord> penguinLocs) {
+    int[] current = new int[penguinLocs.size()];
+    int count = 0;
+    for (Coord loc : penguinLocs) {
+      if (loc.getX() >= 0 && loc.getX() < this.width && loc.getY() >= 0
+          && loc.getY() < this.height) {
+        current[count++] = loc.getX() * this.height + loc.getY();
+      }
+    }
+    current = Arrays.copyOf(current, count);
+    for (int tile : this.penguinTiles) {
+      if (!contains(current, tile)) {
+        this.penguins[tile] = false;
+        if (!this.holes[tile]) {
+          this.unblock(tile);
+        }
+      }
+    }
+    for (int tile : current) {
+      if (!this.penguins[tile]) {
+        this.penguins[tile] = true;
+        if (!this.holes[tile]) {
+          this.block(tile);
+        }
+      }
+    }
+    this.penguinTiles = current;
+  }
+
+  private static boolean contains(int[] tiles, int tile) {
+    for (int other : tiles) {
+      if (other == tile) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Makes the given tile the nearest blocked tile of the tiles from the blocked tiles either side
+  // of it up to it
+  private void block(int tile) {
+    for (int axis = 0; axis < AXES; axis++) {
+      this.relink(axis, tile, this.posOf[axis][tile], this.posOf[axis][tile]);
+    }
+  }
+
+  // Joins the tiles either side of the given tile, which is no longer blocked
+  private void unblock(int tile) {
+    for (int axis = 0; axis < AXES; axis++) {
+      this.relink(axis, tile, this.after[axis][tile], this.before[axis][tile]);
+    }
+  }
+
+  // Points the tiles from the nearest blocked tile before the given tile up to it at a new
+  // nearest blocked tile after them, and the tiles from it up to the nearest blocked tile after it
+  // at a new nearest blocked tile before them, the blocked tiles at either end included
+  private void relink(int axis, int tile, int newAfter, int newBefore) {
+    int[] line = this.lines[axis][this.lineOf[axis][tile]];
+    int pos = this.posOf[axis][tile];
+    for (int ii = Math.max(this.before[axis][tile], 0); ii < pos; ii++) {
+      this.after[axis][line[ii]] = newAfter;
+    }
+    for (int ii = Math.min(this.after[axis][tile], line.length - 1); ii > pos; ii--) {
+      this.before[axis][line[ii]] = newBefore;
+    }
+  }
+
+  /**
+   * Get the number of tiles a penguin on the given tile can move to in the given direction.
+   * @param loc the tile to move from
+   * @param direction one of the six directions of MobilityMap
+   * @return the length of the run
+   * @throws IllegalArgumentException if the tile is out of bounds or the direction is not one
+   */
+  public int getRun(Coord loc, int direction) {
+    int tile = this.index(loc);
+    int axis = axisOf(direction);
+    int pos = this.posOf[axis][tile];
+    return FORWARD[axis] == direction ? this.after[axis][tile] - pos - 1
+        : pos - this.before[axis][tile] - 1;
+  }
+
+  /**
+   * Get the fish on the tiles a penguin on the given tile can move to in the given direction.
+   * @param loc the tile to move from
+   * @param direction one of the six directions of MobilityMap
+   * @return the fish along the run
+   * @throws IllegalArgumentException if the tile is out of bounds or the direction is not one
+   */
+  public int getRunFish(Coord loc, int direction) {
+    int tile = this.index(loc);
+    int axis = axisOf(direction);
+    int pos = this.posOf[axis][tile];
+    int[] total = this.totals[axis][this.lineOf[axis][tile]];
+    return FORWARD[axis] == direction ? total[this.after[axis][tile]] - total[pos + 1]
+        : total[pos] - total[this.before[axis][tile] + 1];
+  }
+
+  /**
+   * Get the number of tiles a penguin on the given tile can move to, which is the number of tiles
+   * getTilesReachableFrom finds from it.
+   * @param loc the tile to move from
+   * @return the number of moves
+   * @throws IllegalArgumentException if the tile is out of bounds
+   */
+  public int getReachableCount(Coord loc) {
+    int count = 0;
+    for (int direction = 0; direction < MobilityMap.DIRECTIONS; direction++) {
+      count += this.getRun(loc, direction);
+    }
+    return count;
+  }
+
+  /**
+   * Get the fish on all the tiles a penguin on the given tile can move to.
+   * @param loc the tile to move from
+   * @return the fish reachable
+   * @throws IllegalArgumentException if the tile is out of bounds
+   */
+  public int getReachableFish(Coord loc) {
+    int total = 0;
+    for (int direction = 0; direction < MobilityMap.DIRECTIONS; direction++) {
+      total += this.getRunFish(loc, direction);
+    }
+    return total;
+  }
+
+  private int index(Coord loc) {
+    if (loc.getX() < 0 || loc.getX() >= this.width || loc.getY() < 0
+        || loc.getY() >= this.height) {
+      throw new IllegalArgumentException("The tile you requested is out of bounds");
+    }
+    return loc.getX() * this.height + loc.getY();
+  }
+
+  private static int axisOf(int direction) {
+    for (int axis = 0; axis < AXES; axis++) {
+      if (FORWARD[axis] == direction || BACKWARD[axis] == direction) {
+        return axis;
+      }
+    }
+    throw new IllegalArgumentException("There are only " + MobilityMap.DIRECTIONS
+        + " directions");
+  }
+}
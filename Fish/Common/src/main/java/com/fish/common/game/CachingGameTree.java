@@ -0,0 +1,202 @@
+package com.fish.common.game;
+
+import com.fish.common.state.GameState;
+import com.fish.common.state.ProtectedGameState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GameTree that keeps the nodes it generates, so that searching the same part of the tree again
+ * costs no new states, and that can be moved down to follow the moves actually played (see
+ * advance).
+ *
+ * A HexGameTree copies the state (and the history) for each child every time a search visits it,
+ * and a player searching from the start of each turn regenerates every state it looked at the turn
+ * before. A player that keeps a CachingGameTree for the game instead advances it past each move
+ * as it is played, keeping the part of the tree below the moves, so that its next search only
+ * generates the states beyond what it had already searched.
+ *
+ * Each node holds its state, which is never changed, the move that led to it, and the children it
+ * has generated, by move. The moves of a node are listed in the same order as a HexGameTree lists
+ * them, so searches visit children in the same order on either tree. The tree keeps at most
+ * maxNodes nodes; beyond that, children are still generated, but not kept. A CachingGameTree is
+ * not thread-safe.
+ */
+public class CachingGameTree implements GameTree {
+
+  public static final int DEFAULT_MAX_NODES = 1 << 14;
+
+  // the number of nodes kept by a whole tree, shared by its nodes
+  private static class Budget {
+    private final int maxNodes;
+    private int nodes;
+
+    Budget(int maxNodes) {
+      this.maxNodes = maxNodes;
+    }
+  }
+
+  private final GameState state;
+  private final Budget budget;
+  private CachingGameTree parent;
+  private Move move;
+  private List<Move> moves;
+  private Map<Move, CachingGameTree> children;
+
+  /**
+   * Create a tree rooted at a copy of the given state, keeping at most DEFAULT_MAX_NODES nodes.
+   *
+   * @param gs the state at the root
+   */
+  public CachingGameTree(GameState gs) {
+    this(gs, DEFAULT_MAX_NODES);
+  }
+
+  /**
+   * Create a tree rooted at a copy of the given state, keeping at most the given number of nodes.
+   *
+   * @param gs the state at the root
+   * @param maxNodes the most nodes to keep
+   * @throws IllegalArgumentException if maxNodes is not positive
+   */
+  public CachingGameTree(GameState gs, int maxNodes) {
+    if (maxNodes < 1) {
+      throw new IllegalArgumentException("A tree must be able to keep its root");
+    }
+    this.state = gs.getCopyGameState();
+    this.budget = new Budget(maxNodes);
+    this.budget.nodes = 1;
+  }
+
+  private CachingGameTree(GameState state, Budget budget, CachingGameTree parent, Move move) {
+    this.state = state;
+    this.budget = budget;
+    this.parent = parent;
+    this.move = move;
+  }
+
+  /**
+   * Returns the states after each possible move, which are made fresh, as a HexGameTree makes them,
+   * rather than taken from the children kept.
+   *
+   * @return a map of every possible move to the state it results in
+   */
+  @Override
+  public Map<Move, GameState> getPossibleGameStates() {
+    Map<Move, GameState> posStates = new HashMap<>();
+    for (Move mm : this.getPossibleMoves()) {
+      GameState next = this.state.getCopyGameState();
+      next.movePenguin(mm.getOrigin(), mm.getDestination());
+      posStates.put(mm, next);
+    }
+    return posStates;
+  }
+
+  @Override
+  public List<Move> getPossibleMoves() {
+    if (this.moves == null) {
+      this.moves = Collections.unmodifiableList(HexGameTree.possibleMoves(this.state));
+    }
+    return this.moves;
+  }
+
+  /**
+   * Returns the child node after making the given move, generating it if it has not been already.
+   *
+   * @param move the move to make on the current game tree
+   * @return the child after making the given move
+   * @throws IllegalArgumentException if the move is illegal
+   */
+  @Override
+  public GameTree getNextGameTree(Move move) {
+    return this.child(move);
+  }
+
+  @Override
+  public GameTree undoPreviousMove() {
+    if (this.parent == null) {
+      throw new IllegalArgumentException("No moves to go back from!");
+    }
+    return this.parent;
+  }
+
+  @Override
+  public List<MoveState> getPreviousMoves() {
+    List<MoveState> history = new ArrayList<>();
+    for (CachingGameTree node = this; node.parent != null; node = node.parent) {
+      history.add(new MoveState(node.move, node.parent.state));
+    }
+    Collections.reverse(history);
+    return history;
+  }
+
+  @Override
+  public GameState getState() {
+    return this.state.getCopyGameState();
+  }
+
+  @Override
+  public ProtectedGameState getProtectedState() {
+    return this.state;
+  }
+
+  /**
+   * Get the number of nodes kept by the whole tree.
+   *
+   * @return the number of nodes
+   */
+  public int getNodeCount() {
+    return this.budget.nodes;
+  }
+
+  /**
+   * Move the root of the tree down to the child after the given move, keeping the part of the tree
+   * below it and forgetting the rest, including this node.
+   *
+   * @param move the move played from this node
+   * @return the new root
+   * @throws IllegalArgumentException if the move is illegal
+   */
+  public CachingGameTree advance(Move move) {
+    CachingGameTree root = this.child(move);
+    root.parent = null;
+    root.move = null;
+    root.budget.nodes = root.count();
+    return root;
+  }
+
+  // Gets the child after the given move, keeping it if the tree has room
+  private CachingGameTree child(Move move) {
+    if (this.children != null && this.children.containsKey(move)) {
+      return this.children.get(move);
+    }
+    if (!this.getPossibleMoves().contains(move)) {
+      throw new IllegalArgumentException("This is not a legal move.");
+    }
+    GameState next = this.state.getCopyGameState();
+    next.movePenguin(move.getOrigin(), move.getDestination());
+    CachingGameTree child = new CachingGameTree(next, this.budget, this, move);
+    if (this.budget.nodes < this.budget.maxNodes) {
+      if (this.children == null) {
+        this.children = new HashMap<>();
+      }
+      this.children.put(move, child);
+      this.budget.nodes++;
+    }
+    return child;
+  }
+
+  // Counts the nodes kept below and including this one
+  private int count() {
+    int count = 1;
+    if (this.children != null) {
+      for (CachingGameTree child : this.children.values()) {
+        count += child.count();
+      }
+    }
+    return count;
+  }
+}
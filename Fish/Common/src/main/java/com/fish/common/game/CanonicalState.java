@@ -0,0 +1,139 @@
+package com.fish.common.game;
+
+import com.fish.common.Coord;
+import com.fish.common.board.BoardSymmetry;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.ProtectedGameState;
+import com.fish.common.state.ProtectedPlayer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The canonical form of a game state: of the state and its images under the symmetries of its
+ * board (see BoardSymmetry), the one with the smallest fingerprint, along with the symmetry that
+ * maps the state to it.
+ *
+ * States that are symmetric to each other have the same canonical form, so a cache keyed by the
+ * canonical state (or its fingerprint) shares one entry between them, and holds about half as many
+ * entries for the same positions. A move looked up in the cache is in the canonical form's
+ * coordinates, and is mapped back with toOriginal before it is played.
+ *
+ * The canonical state is rebuilt from the board's data representation, so holes in it carry no
+ * fish, and from the players in turn order, so its current player is at index 0. Ties between
+ * images with the same fingerprint are broken towards IDENTITY.
+ */
+public class CanonicalState {
+
+  private final GameState state;
+  private final BoardSymmetry symmetry;
+
+  private CanonicalState(GameState state, BoardSymmetry symmetry) {
+    this.state = state;
+    this.symmetry = symmetry;
+  }
+
+  /**
+   * Find the canonical form of the given state.
+   * @param gs the state
+   * @return the canonical form
+   * @throws IllegalArgumentException if the game has not been started
+   */
+  public static CanonicalState of(ProtectedGameState gs) {
+    if (gs.getGameBoard() == null) {
+      throw new IllegalArgumentException("A game that has not started has no canonical form");
+    }
+    int[][] values = gs.getGameBoard().getBoardDataRepresentation();
+    CanonicalState best = null;
+    long bestFingerprint = 0;
+    for (BoardSymmetry symmetry : BoardSymmetry.of(gs.getWidth(), gs.getHeight())) {
+      GameState image = map(gs, values, symmetry);
+      long fingerprint = image.getFingerprint();
+      if (best == null || Long.compareUnsigned(fingerprint, bestFingerprint) < 0) {
+        best = new CanonicalState(image, symmetry);
+        bestFingerprint = fingerprint;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Get the canonical state. It is a new state, which the caller may use as it likes.
+   * @return the canonical state
+   */
+  public GameState getState() {
+    return this.state;
+  }
+
+  /**
+   * Get the symmetry that maps the original state to the canonical one, and back.
+   * @return the symmetry
+   */
+  public BoardSymmetry getSymmetry() {
+    return this.symmetry;
+  }
+
+  /**
+   * Get the fingerprint of the canonical state, which symmetric states share.
+   * @return the fingerprint
+   */
+  public long getFingerprint() {
+    return this.state.getFingerprint();
+  }
+
+  /**
+   * Map a location on the original board to the canonical board.
+   * @param loc the location on the original board
+   * @return the location on the canonical board
+   */
+  public Coord toCanonical(Coord loc) {
+    return this.symmetry.apply(loc, this.state.getWidth(), this.state.getHeight());
+  }
+
+  /**
+   * Map a location on the canonical board back to the original board.
+   * @param loc the location on the canonical board
+   * @return the location on the original board
+   */
+  public Coord toOriginal(Coord loc) {
+    // every symmetry undoes itself
+    return this.toCanonical(loc);
+  }
+
+  /**
+   * Map a move on the original board to the canonical board.
+   * @param move the move on the original board
+   * @return the move on the canonical board
+   */
+  public Move toCanonical(Move move) {
+    return new Move(this.toCanonical(move.getOrigin()), this.toCanonical(move.getDestination()));
+  }
+
+  /**
+   * Map a move on the canonical board back to the original board.
+   * @param move the move on the canonical board
+   * @return the move on the original board
+   */
+  public Move toOriginal(Move move) {
+    return new Move(this.toOriginal(move.getOrigin()), this.toOriginal(move.getDestination()));
+  }
+
+  // Builds the image of the given state under the given symmetry
+  private static GameState map(ProtectedGameState gs, int[][] values, BoardSymmetry symmetry) {
+    int width = gs.getWidth();
+    int height = gs.getHeight();
+    List<InternalPlayer> players = new ArrayList<>();
+    for (ProtectedPlayer pp : gs.getPlayers()) {
+      InternalPlayer mapped = new HexPlayer(pp.getColor());
+      for (Coord loc : pp.getPenguinLocs()) {
+        mapped.placePenguin(symmetry.apply(loc, width, height));
+      }
+      mapped.addToScore(pp.getScore());
+      players.add(mapped);
+    }
+    return new HexGameState(gs.getGameStage(), new HexGameBoard(symmetry.apply(values)), players);
+  }
+}
@@ -2,6 +2,7 @@ package com.fish.common.game;
 
 
 import com.fish.common.state.GameState;
+import com.fish.common.state.ProtectedGameState;
 import java.util.*;
 
 /**
@@ -26,6 +27,13 @@ public interface GameTree {
    */
   Map<Move, GameState> getPossibleGameStates();
 
+  /**
+   * Returns the moves the current player can make, in the same order as the keys of
+   * getPossibleGameStates(), without making any of them.
+   * @return the possible moves
+   */
+  List<Move> getPossibleMoves();
+
   /**
    * Returns the child node stemming from this current node after making the given action,
    * which is a move from the start coord to the destination coord by the current player.
@@ -56,4 +64,12 @@ public interface GameTree {
    */
   GameState getState();
 
+  /**
+   * Get a read-only view of the current state, which is not copied. Searches that only look at
+   * the state should use it rather than getState().
+   *
+   * @return the current state of this GameTree
+   */
+  ProtectedGameState getProtectedState();
+
 }
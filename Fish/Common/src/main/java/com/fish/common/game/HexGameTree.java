@@ -3,7 +3,9 @@ package com.fish.common.game;
 import com.fish.common.Coord;
 import com.fish.common.state.GameState;
 import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedGameState;
 import java.util.*;
+import java.util.stream.StreamSupport;
 
 /**
  * An Implementation of the GameTree interface
@@ -62,6 +64,39 @@ public class HexGameTree implements GameTree {
     return posStates;
   }
 
+  /**
+   * Returns the moves the current player can make, in the same order as the keys of
+   * getPossibleGameStates(), without copying the state for each of them.
+   *
+   * @return the possible moves
+   */
+  @Override
+  public List<Move> getPossibleMoves() {
+    return possibleMoves(this.currentState);
+  }
+
+  /**
+   * Lists the moves of the current player of the given state, in the order of the keys of the map
+   * returned by getPossibleGameStates(), which is the order of a HashMap built the same way.
+   *
+   * @param gs the state
+   * @return the possible moves
+   */
+  static List<Move> possibleMoves(ProtectedGameState gs) {
+    Map<Move, Move> moves = new HashMap<>();
+    PlayerColor curPlayer = gs.getCurrentPlayer();
+    Map<Coord, PlayerColor> pengLocs = gs.getPenguinLocations();
+    for (Coord start : pengLocs.keySet()) {
+      if (curPlayer == pengLocs.get(start)) {
+        for (Coord dest : gs.getTilesReachableFrom(start)) {
+          Move move = new Move(start, dest);
+          moves.put(move, move);
+        }
+      }
+    }
+    return new ArrayList<>(new HashMap<>(moves).keySet());
+  }
+
   /**
    * Returns a copy of all possible gamestates reachable from the current state. The copy only
    * contains states reachable at the current player's turn.
@@ -129,6 +164,11 @@ public class HexGameTree implements GameTree {
     return this.currentState.getCopyGameState();
   }
 
+  @Override
+  public ProtectedGameState getProtectedState() {
+    return this.currentState;
+  }
+
   //Note:
   // The following methods are static because they can operate on any GameTree that is passed in.
 
@@ -163,8 +203,7 @@ public class HexGameTree implements GameTree {
   public static <T> T applyToAllReachableStates(GameTree gameTree, IFunc<T> function, T value) {
 
     T returnVal = value;
-    Map<Move, GameState> moveGameStateMap = gameTree.getPossibleGameStates();
-    for (Move move : moveGameStateMap.keySet()) {
+    for (Move move : gameTree.getPossibleMoves()) {
       // applying to the gameTree allows for applying to the state but also keeps track of
       //  the move that was made to achieve this state
       returnVal = function.apply(gameTree.getNextGameTree(move), returnVal);
@@ -172,5 +211,37 @@ public class HexGameTree implements GameTree {
 
     return returnVal;
   }
-}
 
+  /**
+   * Get the children of the given gameTree, in the order of its possible moves, as a Spliterator
+   * that can be split to go over them on several threads. Each child is generated when it is
+   * reached.
+   *
+   * @param gameTree What state to investigate
+   * @return a Spliterator over the children of the tree
+   */
+  public static Spliterator<GameTree> reachableTrees(GameTree gameTree) {
+    return new ReachableSpliterator(gameTree);
+  }
+
+  /**
+   * Apply the given function to all reachable states from the given gameTree as
+   * applyToAllReachableStates does, with the children folded in parallel on the common
+   * ForkJoinPool, each from the identity of the function, and the results combined in the order
+   * of the children. Idle threads steal children from busy ones, so subtrees of uneven size are
+   * spread across the threads. The function is only applied in parallel to the children of this
+   * tree; it may fold their own children in parallel in turn.
+   *
+   * @param gameTree  What state to investigate
+   * @param function  the function to apply, which must be safe to apply from several threads
+   * @param value     The base case
+   * @return the same result as applyToAllReachableStates
+   */
+  public static <T> T applyToAllReachableStatesInParallel(GameTree gameTree,
+      ICombiningFunc<T> function, T value) {
+    T children = StreamSupport.stream(reachableTrees(gameTree), true)
+        .map(child -> function.apply(child, function.identity()))
+        .reduce(function.identity(), function::combine);
+    return function.combine(value, children);
+  }
+}
@@ -0,0 +1,29 @@
+package com.fish.common.game;
+
+/**
+ * Function interface for folds over GameTrees whose results can be computed for parts of the
+ * children of a tree separately and combined, so that the children can be folded in parallel (see
+ * HexGameTree.applyToAllReachableStatesInParallel).
+ *
+ * The combination must be associative with identity() as its identity, and applying the function
+ * to a value must give the same result as combining the value with the function applied to the
+ * identity: apply(gt, value) equals combine(value, apply(gt, identity())).
+ *
+ * @param <T> What type of data this function object should return
+ */
+public interface ICombiningFunc<T> extends IFunc<T> {
+
+  /**
+   * Get the value that leaves any value it is combined with unchanged.
+   * @return the identity
+   */
+  T identity();
+
+  /**
+   * Combine the results of folding two consecutive runs of children.
+   * @param left the result for the first run
+   * @param right the result for the run after it
+   * @return the result for both runs
+   */
+  T combine(T left, T right);
+}
@@ -2,6 +2,7 @@ package com.fish.common.game;
 
 
 import com.fish.common.state.GameState;
+import com.fish.common.state.ProtectedGameState;
 
 /**
  * Class for representing a Move and the GameState that move was made from. This class
@@ -30,14 +31,22 @@ public class MoveState {
     return this.gameState.getCopyGameState();
   }
 
+  /**
+   * Get a read-only view of the state the move was made from, which is not copied.
+   * @return the state the move was made from
+   */
+  public ProtectedGameState getProtectedGameState() {
+    return this.gameState;
+  }
+
 
   @Override
   public boolean equals(Object o) {
     if (o instanceof MoveState) {
       MoveState other = (MoveState) o;
 
-      return (other.getMove().equals(this.getMove()))
-          && (other.getGameState().equals(this.getGameState()));
+      return (other.move.equals(this.move))
+          && (other.gameState.equals(this.gameState));
     }
     return false;
   }
@@ -49,8 +58,8 @@ public class MoveState {
   @Override
   public int hashCode() {
     int code = 17;
-    code = 31*code + this.getMove().hashCode();
-    code = 31*code + this.getGameState().hashCode();
+    code = 31*code + this.move.hashCode();
+    code = 31*code + this.gameState.hashCode();
 
     return code;
   }
@@ -4,12 +4,44 @@ package com.fish.common.game;
  * Class for counting up all Nodes in a Tree. Recursively calls itself in
  *  the HexGameTree method until there are none left and adds one to the
  *  count each time.
+ *
+ * Counts of separate subtrees add up, so a NodeCounter can be applied with
+ *  HexGameTree.applyToAllReachableStatesInParallel. Given a number of parallel levels, it
+ *  counts the children of the nodes that many levels below it in parallel as well.
  */
-public class NodeCounter implements IFunc<Integer> {
+public class NodeCounter implements ICombiningFunc<Integer> {
+
+  private final int parallelLevels;
+
+  public NodeCounter() {
+    this(0);
+  }
+
+  /**
+   * Create a NodeCounter that counts the subtrees of the nodes it is applied to in parallel for
+   *  the given number of levels, and one at a time below that.
+   * @param parallelLevels the number of levels to count in parallel
+   */
+  public NodeCounter(int parallelLevels) {
+    this.parallelLevels = parallelLevels;
+  }
 
   @Override
   public Integer apply(GameTree gt, Integer count) {
-
+    if (this.parallelLevels > 0) {
+      return 1 + count + HexGameTree.applyToAllReachableStatesInParallel(
+          gt, new NodeCounter(this.parallelLevels - 1), 0);
+    }
     return 1 + count + HexGameTree.applyToAllReachableStates(gt, this, 0);
   }
+
+  @Override
+  public Integer identity() {
+    return 0;
+  }
+
+  @Override
+  public Integer combine(Integer left, Integer right) {
+    return left + right;
+  }
 }
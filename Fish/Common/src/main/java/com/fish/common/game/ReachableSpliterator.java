@@ -0,0 +1,66 @@
+package com.fish.common.game;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the children of a GameTree, in the order of its possible moves. Each child is
+ * only generated when it is reached, and splitting hands half of the moves left to a new
+ * spliterator, so that the children can be generated and folded on several threads (see
+ * HexGameTree.reachableTrees). The tree's getNextGameTree must then be safe to call from several
+ * threads at once, which it is for a HexGameTree.
+ */
+class ReachableSpliterator implements Spliterator<GameTree> {
+
+  private final GameTree gameTree;
+  private final List<Move> moves;
+  private int index;
+  private final int fence;
+
+  /**
+   * Create a spliterator over all the children of the given tree.
+   * @param gameTree the tree to go over the children of
+   */
+  ReachableSpliterator(GameTree gameTree) {
+    this(gameTree, gameTree.getPossibleMoves(), 0, gameTree.getPossibleMoves().size());
+  }
+
+  private ReachableSpliterator(GameTree gameTree, List<Move> moves, int index, int fence) {
+    this.gameTree = gameTree;
+    this.moves = moves;
+    this.index = index;
+    this.fence = fence;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super GameTree> action) {
+    if (this.index >= this.fence) {
+      return false;
+    }
+    action.accept(this.gameTree.getNextGameTree(this.moves.get(this.index++)));
+    return true;
+  }
+
+  @Override
+  public Spliterator<GameTree> trySplit() {
+    int mid = (this.index + this.fence) >>> 1;
+    if (mid <= this.index) {
+      return null;
+    }
+    Spliterator<GameTree> prefix =
+        new ReachableSpliterator(this.gameTree, this.moves, this.index, mid);
+    this.index = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return this.fence - this.index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+}
@@ -0,0 +1,229 @@
+package com.fish.common.game;
+
+import com.fish.common.Coord;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedPlayer;
+import java.util.Objects;
+
+/**
+ * A single numbered change to a game of Fish, as sent by the referee to the players.
+ *
+ * A StateDelta contains the following information:
+ *  - seq: the position of this change in the game, starting at 1 for the first change after the
+ *    initial state. Deltas are applied in order, so a player that sees a gap knows it missed one.
+ *  - kind: what happened (see Kind)
+ *  - color: the player the change was made by (or, for REMOVED, to)
+ *  - for PLACED, the location of the new penguin
+ *  - for MOVED, the move made, the fish on the tile that melted under the moving penguin and the
+ *    mover's score once those fish were added
+ *
+ * Only what changed is carried, so the size of a delta does not depend on the size of the board.
+ * The fish and score of a move can be worked out from the state it is applied to; they are
+ * included so that a player that only tracks scores does not need the board to do so.
+ *
+ * This class does not validate that the change can be made. That happens when it is applied.
+ */
+public class StateDelta {
+
+  /**
+   * The kinds of change that can be made to a game.
+   */
+  public enum Kind {
+    PLACED, MOVED, REMOVED
+  }
+
+  // every player places this many penguins less the number of players the game starts with
+  private static final int PENGUINS_AND_PLAYERS = 6;
+
+  private final int seq;
+  private final Kind kind;
+  private final PlayerColor color;
+  private final Coord placement;
+  private final Move move;
+  private final int fish;
+  private final int score;
+
+  private StateDelta(int seq, Kind kind, PlayerColor color, Coord placement, Move move, int fish,
+      int score) {
+    this.seq = seq;
+    this.kind = kind;
+    this.color = color;
+    this.placement = placement;
+    this.move = move;
+    this.fish = fish;
+    this.score = score;
+  }
+
+  /**
+   * Create the change of a player placing a penguin.
+   * @param seq the position of this change in the game
+   * @param loc where the penguin was placed
+   * @param color the player placing the penguin
+   * @return the change
+   */
+  public static StateDelta placed(int seq, Coord loc, PlayerColor color) {
+    return new StateDelta(seq, Kind.PLACED, color, loc, null, 0, 0);
+  }
+
+  /**
+   * Create the change of a player moving a penguin.
+   * @param seq the position of this change in the game
+   * @param move the move made
+   * @param color the player moving the penguin
+   * @param fish the number of fish on the tile the penguin moved off
+   * @param score the player's score after the move
+   * @return the change
+   */
+  public static StateDelta moved(int seq, Move move, PlayerColor color, int fish, int score) {
+    return new StateDelta(seq, Kind.MOVED, color, null, move, fish, score);
+  }
+
+  /**
+   * Create the change of a player being removed from the game.
+   * @param seq the position of this change in the game
+   * @param color the player removed
+   * @return the change
+   */
+  public static StateDelta removed(int seq, PlayerColor color) {
+    return new StateDelta(seq, Kind.REMOVED, color, null, null, 0, 0);
+  }
+
+  /**
+   * Apply this change to the given state, which must be the state of the game right before it.
+   * The first move of the game also starts the IN_PLAY stage of the state.
+   *
+   * @param gs the state to change
+   * @throws IllegalArgumentException if the change is not legal in the given state
+   * @throws IllegalStateException if the change is made in the wrong stage of the game
+   */
+  public void applyTo(GameState gs) throws IllegalArgumentException, IllegalStateException {
+    switch (this.kind) {
+      case PLACED:
+        gs.placePenguin(this.placement, this.color);
+        break;
+      case MOVED:
+        if (gs.getGameStage() != GameStage.IN_PLAY) {
+          gs.startPlay();
+        }
+        if (gs.getCurrentPlayer() != this.color) {
+          throw new IllegalArgumentException("It's not your turn!");
+        }
+        gs.movePenguin(this.move.getOrigin(), this.move.getDestination());
+        break;
+      default:
+        if (gs.getCurrentPlayer() != this.color) {
+          throw new IllegalArgumentException("Only the current player can be removed");
+        }
+        gs.removeCurrentPlayer();
+    }
+  }
+
+  /**
+   * Get the number of penguins each player places in a game that starts with the given number of
+   * players.
+   * @param players the number of players the game starts with
+   * @return the penguins each player places
+   */
+  public static int penguinsPerPlayer(int players) {
+    return PENGUINS_AND_PLAYERS - players;
+  }
+
+  /**
+   * Start play on the given state if every player in it has placed all of their penguins, as the
+   * referee does before asking for the first move. A state kept up to date from the changes only
+   * starts play when the first move is applied to it, so a player removed before anyone has moved
+   * must be removed from a state started this way, which skips the players that cannot move just
+   * as the referee's does.
+   *
+   * @param gs the state, which is left as it is unless it is still in its placing stage
+   * @param players the number of players the game started with
+   */
+  public static void startPlayIfPlaced(GameState gs, int players) {
+    if (gs.getGameStage() != GameStage.PLACING_PENGUINS) {
+      return;
+    }
+    for (ProtectedPlayer player : gs.getPlayers()) {
+      if (player.getPenguinLocs().size() < penguinsPerPlayer(players)) {
+        return;
+      }
+    }
+    gs.startPlay();
+  }
+
+  public int getSeq() {
+    return this.seq;
+  }
+
+  public Kind getKind() {
+    return this.kind;
+  }
+
+  public PlayerColor getColor() {
+    return this.color;
+  }
+
+  /**
+   * Get the location of the placed penguin
+   * @return the location, or null if this is not a PLACED change
+   */
+  public Coord getPlacement() {
+    return this.placement;
+  }
+
+  /**
+   * Get the move made
+   * @return the move, or null if this is not a MOVED change
+   */
+  public Move getMove() {
+    return this.move;
+  }
+
+  /**
+   * Get the number of fish collected by the move
+   * @return the fish, or 0 if this is not a MOVED change
+   */
+  public int getFish() {
+    return this.fish;
+  }
+
+  /**
+   * Get the score of the moving player after the move
+   * @return the score, or 0 if this is not a MOVED change
+   */
+  public int getScore() {
+    return this.score;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof StateDelta) {
+      StateDelta other = (StateDelta) o;
+      return this.seq == other.seq && this.kind == other.kind && this.color == other.color
+          && Objects.equals(this.placement, other.placement)
+          && Objects.equals(this.move, other.move)
+          && this.fish == other.fish && this.score == other.score;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.seq, this.kind, this.color, this.placement, this.move, this.fish,
+        this.score);
+  }
+
+  @Override
+  public String toString() {
+    switch (this.kind) {
+      case PLACED:
+        return this.seq + ": " + this.color + " placed " + this.placement;
+      case MOVED:
+        return this.seq + ": " + this.color + " moved " + this.move + " (+" + this.fish + " = "
+            + this.score + ")";
+      default:
+        return this.seq + ": " + this.color + " removed";
+    }
+  }
+}
@@ -2,7 +2,10 @@ package com.fish.common.state;
 
 
 import com.fish.common.Coord;
+import com.fish.common.Fingerprint;
 import com.fish.common.board.GameBoard;
+import com.fish.common.board.MobilityMap;
+import com.fish.common.board.RayIndex;
 import com.fish.common.board.ProtectedGameBoard;
 import com.fish.common.tile.ProtectedTile;
 
@@ -43,6 +46,10 @@ import java.util.Map;
  * representing the locations of their penguins on the board.
  * The Players list must be passed into initGame in the order of player turns. As turns advance, the
  * players list is cycled around so that the current player is always at index zero.
+ * Internally, the players are kept in a fixed turn ring (an array in turn order) with the index of
+ * the current player and a bitmask of the players still in the game, so that advancing the turn
+ * or removing a player never shifts or copies the players. getPlayers() reads the ring from the
+ * current player on, giving the cycled list described above.
  * If a player has no moves, their turn is skipped using the skipPlayerIfNoMoves() method.
  * If multiple players in a row have no moves, they will all be skipped.
  * Note that while it is possible to retrieve a list of ProtectedPlayer for query of individual
@@ -56,12 +63,27 @@ import java.util.Map;
  * The gameBoard must be passed into initGame in order to generate the collection of Tiles the
  * game is played on.
  *
+ * -----fingerprint-----
+ * The board and each player keep their own fingerprint up to date as they change (see
+ * Fingerprint). The fingerprint of the state combines the stage, the board's fingerprint and the
+ * players' fingerprints in turn order, so it costs one step per player rather than one per tile.
+ * equals compares fingerprints before anything else, so telling two different states apart
+ * usually takes no more than that.
+ *
  */
 public class HexGameState implements GameState {
 
+  // the active bitmask has one bit per seat of the ring
+  private static final int MAX_PLAYERS = Integer.SIZE;
+  // read once, so that a process that has not asked for StateCopy events never loads jdk.jfr
+  private static final boolean COPY_EVENTS = Boolean.getBoolean("fish.jfr.statecopy");
+
   private GameStage gameStage;
   private GameBoard gameBoard;
-  private List<InternalPlayer> players;
+  private InternalPlayer[] ring;
+  private int current;
+  private int active;
+  private int numActive;
 
 
   /**
@@ -92,7 +114,22 @@ public class HexGameState implements GameState {
   public HexGameState(GameStage gameStage, GameBoard board, List<InternalPlayer> players) {
     this.gameStage = gameStage;
     this.gameBoard = board;
-    this.players = new ArrayList<>(players);
+    this.setPlayers(players);
+  }
+
+  // Copies the given state, with copies of its board and players still in the game
+  HexGameState(HexGameState other) {
+    this.gameStage = other.gameStage;
+    this.gameBoard = other.gameBoard.getCopyGameBoard();
+    this.ring = new InternalPlayer[other.ring.length];
+    for (int ii = 0; ii < this.ring.length; ii++) {
+      if (other.isActive(ii)) {
+        this.ring[ii] = other.ring[ii].getCopyPlayer();
+      }
+    }
+    this.current = other.current;
+    this.active = other.active;
+    this.numActive = other.numActive;
   }
 
   ///////////////////////////////// ADVANCE TO PLACING_PENGUINS
@@ -110,7 +147,7 @@ public class HexGameState implements GameState {
   @Override
   public void initGame(GameBoard board, List<InternalPlayer> players) {
     this.gameBoard = board;
-    this.players = new ArrayList<>(players);
+    this.setPlayers(players);
     this.gameStage = GameStage.PLACING_PENGUINS;
   }
 
@@ -182,9 +219,10 @@ public class HexGameState implements GameState {
   public void movePenguin(Coord origin, Coord destination) throws IllegalArgumentException, IllegalStateException {
     this.checkValidMoveForCurrentPlayer(origin, destination);
 
-    this.players.get(0).movePenguin(origin, destination);
+    InternalPlayer mover = this.ring[this.current];
+    mover.movePenguin(origin, destination);
     ProtectedTile tileToHole = this.gameBoard.removeTileAt(origin);
-    this.players.get(0).addToScore(tileToHole.getNumFish());
+    mover.addToScore(tileToHole.getNumFish());
     this.advanceToNextPlayer();
     this.skipPlayerIfNoMoves();
   }
@@ -213,17 +251,16 @@ public class HexGameState implements GameState {
   }
 
   /**
-   * Advances the current player to the next player by rotating the HexPlayer list.
-   * The current player is always at index 0, so remove this element and put it to the
-   * back of the list.
+   * Advances the current player to the next player by moving round the turn ring to the next
+   * player still in the game. Seen through getPlayers(), the current player goes from index 0 to
+   * the back of the list.
    * Once the turn is advanced
    * -- check that this new current player has moves.
    * -- If not, skip them and keep moving on until reaching a player that can make a move.
    */
   @Override
   public void advanceToNextPlayer() {
-    InternalPlayer toMove = this.players.remove(0);
-    this.players.add(toMove);
+    this.current = this.nextActive(this.current);
   }
 
   /**
@@ -235,7 +272,12 @@ public class HexGameState implements GameState {
    */
   @Override
   public void removeCurrentPlayer() {
-    this.players.remove(0);
+    if (this.numActive == 0) {
+      throw new IndexOutOfBoundsException("There are no players left to remove");
+    }
+    this.active &= ~(1 << this.current);
+    this.numActive--;
+    this.current = this.nextActive(this.current);
     this.skipPlayerIfNoMoves();
   }
 
@@ -257,7 +299,7 @@ public class HexGameState implements GameState {
   public boolean isGameOver() {
     List<Coord> pengCoords = new ArrayList<>(this.getPenguinLocations().keySet());
     //If the size of the players list is equal to 1 or 0, then the game ends immediately.
-    if (this.players.size() > 1) {
+    if (this.numActive > 1) {
       for (Coord c : pengCoords) {
         if (this.gameBoard.getTilesReachableFrom(c, pengCoords).size() > 0) {
           return false;
@@ -279,12 +321,14 @@ public class HexGameState implements GameState {
     List<PlayerColor> winners = new ArrayList<>();
     int highestScore = 0;
 
-    for (InternalPlayer p: players) {
+    for (int turn = 0; turn < this.numActive; turn++) {
+      InternalPlayer p = this.playerAt(turn);
       if (p.getScore() > highestScore) {
         highestScore = p.getScore();
       }
     }
-    for (InternalPlayer p: players) {
+    for (int turn = 0; turn < this.numActive; turn++) {
+      InternalPlayer p = this.playerAt(turn);
       if (p.getScore() == highestScore) {
         winners.add(p.getColor());
       }
@@ -297,13 +341,10 @@ public class HexGameState implements GameState {
 
   @Override
   public GameState getCopyGameState() {
-    List<InternalPlayer> players = new ArrayList<>();
-
-    for (InternalPlayer p : this.players) {
-      players.add(p.getCopyPlayer());
+    if (COPY_EVENTS) {
+      return StateCopyEvent.copy(this);
     }
-
-    return new HexGameState(this.gameStage, this.gameBoard.getCopyGameBoard(), players);
+    return new HexGameState(this);
   }
 
   //Info about the Sate
@@ -340,9 +381,12 @@ public class HexGameState implements GameState {
   public Map<Coord, PlayerColor> getPenguinLocations() {
     Map<Coord, PlayerColor> allPenguinLocs = new HashMap<>();
 
-    for (InternalPlayer ip : this.players) {
-      for (Coord loc : ip.getPenguinLocs()) {
-        allPenguinLocs.put(loc, ip.getColor());
+    for (int ii = 0; ii < this.ring.length; ii++) {
+      if (this.isActive(ii)) {
+        InternalPlayer ip = this.ring[ii];
+        for (Coord loc : ip.getPenguinLocs()) {
+          allPenguinLocs.put(loc, ip.getColor());
+        }
       }
     }
     return allPenguinLocs;
@@ -361,9 +405,9 @@ public class HexGameState implements GameState {
    */
   @Override
   public List<Coord> getPenguinLocationsOf(PlayerColor playerColor) {
-    for (InternalPlayer ip : players) {
-      if (ip.getColor() == playerColor) {
-        return ip.getPenguinLocs();
+    for (int ii = 0; ii < this.ring.length; ii++) {
+      if (this.isActive(ii) && this.ring[ii].getColor() == playerColor) {
+        return this.ring[ii].getPenguinLocs();
       }
     }
     return new ArrayList<>();
@@ -380,7 +424,10 @@ public class HexGameState implements GameState {
    */
   @Override
   public PlayerColor getCurrentPlayer() {
-    return this.players.get(0).getColor();
+    if (this.numActive == 0) {
+      throw new IndexOutOfBoundsException("There are no players left");
+    }
+    return this.ring[this.current].getColor();
   }
 
 
@@ -392,29 +439,36 @@ public class HexGameState implements GameState {
   public Map<PlayerColor, Integer> getScoreBoard() {
     Map<PlayerColor, Integer> scoreBoard = new HashMap<>();
 
-    for (InternalPlayer ip : this.players) {
-      scoreBoard.put(ip.getColor(), ip.getScore());
+    for (int ii = 0; ii < this.ring.length; ii++) {
+      if (this.isActive(ii)) {
+        scoreBoard.put(this.ring[ii].getColor(), this.ring[ii].getScore());
+      }
     }
     return scoreBoard;
   }
 
   /**
-   * Return the array of players in this game of fish
+   * Return the array of players in this game of fish, in turn order starting with the current
+   * player.
    *
    * @return the array of players
    */
   @Override
   public List<ProtectedPlayer> getPlayers() {
-    return new ArrayList<>(this.players);
+    List<ProtectedPlayer> players = new ArrayList<>(this.numActive);
+    for (int turn = 0; turn < this.numActive; turn++) {
+      players.add(this.playerAt(turn));
+    }
+    return players;
   }
 
   //Returns the HexPlayer object indicated by the given PlayerColor
   //This method is private because it returns the player object, not a copy
   //If this method is to be made public, change the return line to return a copy.
   private InternalPlayer findPlayer(PlayerColor color) {
-    for (InternalPlayer ip : this.players) {
-      if (ip.getColor() == color) {
-        return ip;
+    for (int ii = 0; ii < this.ring.length; ii++) {
+      if (this.isActive(ii) && this.ring[ii].getColor() == color) {
+        return this.ring[ii];
       }
     }
 
@@ -460,6 +514,16 @@ public class HexGameState implements GameState {
     return this.gameBoard.getTilesReachableFrom(start, new ArrayList<>(this.getPenguinLocations().keySet()));
   }
 
+  @Override
+  public MobilityMap getMobilityMap() {
+    return this.gameBoard.getMobilityMap(this.getPenguinLocations().keySet());
+  }
+
+  @Override
+  public RayIndex getRayIndex() {
+    return this.gameBoard.getRayIndex(this.getPenguinLocations().keySet());
+  }
+
   @Override
   public int getWidth() {
     return this.gameBoard.getWidth();
@@ -497,8 +561,11 @@ public class HexGameState implements GameState {
 
   //If the current player has NO valid moves, and the game is ongoing, then skip their turn.
   //This is called at every point where player turn is advancing to ensure the game proceeds
-  //in a timely manner.
+  //in a timely manner. Nobody has moves while penguins are being placed, so nobody is skipped then.
   private void skipPlayerIfNoMoves() {
+    if (this.gameStage != GameStage.IN_PLAY) {
+      return;
+    }
     while (!this.currentPlayerHasMoves() && !this.isGameOver()) {
       this.advanceToNextPlayer();
     }
@@ -511,7 +578,10 @@ public class HexGameState implements GameState {
     if (this.gameStage != GameStage.IN_PLAY) {
       return false;
     }
-    List<Coord> penguinLocs = this.players.get(0).getPenguinLocs();
+    if (this.numActive == 0) {
+      return false;
+    }
+    List<Coord> penguinLocs = this.ring[this.current].getPenguinLocs();
 
     for (Coord cc : penguinLocs) {
       if (this.getTilesReachableFrom(cc).size() > 0) {
@@ -522,6 +592,54 @@ public class HexGameState implements GameState {
   }
 
 
+  // Puts the given players, in turn order, into a new turn ring with the first one to play
+  private void setPlayers(List<InternalPlayer> players) {
+    if (players.size() > MAX_PLAYERS) {
+      throw new IllegalArgumentException("There can be at most " + MAX_PLAYERS + " players");
+    }
+    this.ring = players.toArray(new InternalPlayer[0]);
+    this.current = 0;
+    this.numActive = this.ring.length;
+    this.active = this.numActive == MAX_PLAYERS ? -1 : (1 << this.numActive) - 1;
+  }
+
+  private boolean isActive(int seat) {
+    return (this.active & (1 << seat)) != 0;
+  }
+
+  // the seat of the next player still in the game after the given seat, going round the ring,
+  // or the given seat if no one else is left
+  private int nextActive(int seat) {
+    for (int ii = 1; ii <= this.ring.length; ii++) {
+      int next = (seat + ii) % this.ring.length;
+      if (this.isActive(next)) {
+        return next;
+      }
+    }
+    return seat;
+  }
+
+  // the player whose turn is the given number of turns from now, where 0 is the current player
+  private InternalPlayer playerAt(int turn) {
+    int seat = this.current;
+    for (int ii = 0; ii < turn; ii++) {
+      seat = this.nextActive(seat);
+    }
+    return this.ring[seat];
+  }
+
+  @Override
+  public long getFingerprint() {
+    long fingerprint = Fingerprint.mix(this.gameStage.ordinal()
+        ^ (this.gameBoard == null ? 0 : this.gameBoard.getFingerprint()));
+    int seat = this.current;
+    for (int turn = 0; turn < this.numActive; turn++) {
+      fingerprint = Fingerprint.mix(fingerprint ^ this.ring[seat].getFingerprint());
+      seat = this.nextActive(seat);
+    }
+    return fingerprint;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof HexGameState) {
@@ -532,23 +650,30 @@ public class HexGameState implements GameState {
     return false;
   }
 
+  @Override
+  public int hashCode() {
+    return Fingerprint.toHashCode(this.getFingerprint());
+  }
+
   //Helper used in equals override
   private boolean compareGameState(HexGameState other) {
     if (this.gameStage != other.getGameStage()) {
       return false;
     }
+    if (this.getFingerprint() != other.getFingerprint()) {
+      return false;
+    }
     Map<Coord, PlayerColor> otherPengs = other.getPenguinLocations();
     for (Coord c : this.getPenguinLocations().keySet()) {
       if (otherPengs.get(c) != this.getPenguinLocations().get(c)) {
         return false;
       }
     }
-    List<ProtectedPlayer> otherPlayers = other.getPlayers();
-    if (this.players.size() != otherPlayers.size()) {
+    if (this.numActive != other.numActive) {
       return false;
     }
-    for (int ii = 0; ii < this.players.size(); ii++) {
-      if (!this.players.get(ii).equals(otherPlayers.get(ii))) {
+    for (int turn = 0; turn < this.numActive; turn++) {
+      if (!this.playerAt(turn).equals(other.playerAt(turn))) {
         return false;
       }
     }
@@ -1,8 +1,11 @@
 package com.fish.common.state;
 
 import com.fish.common.Coord;
-import java.util.ArrayList;
+import com.fish.common.Fingerprint;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Implementation of an internal player of a game of Hey, That's my Fish! (HTMF)
@@ -11,21 +14,41 @@ import java.util.List;
  * color: this player's assigned color, one of four defined in the ENUM PlayerColor, assigned by
  *      the Referee component when the Referee is building the game.
  * score: the accumulated score of this player
- * penguinLocs: A list of Coord locations that indicate the precise locations of this player's
- *      penguin avatars on the board during a game. When the player places a penguin, the Coord
- *      location of it is added to the back of this list.
- *      When a player moves its penguin, the original Coord location of that penguin is REPLACED
- *      with the new one in the same index of the list as the old one, such that the list of
- *      penguinLocs is always ordered in the same order.
+ * penguins: the locations of this player's penguin avatars on the board during a game, packed one
+ *      per short as x << 8 | y, with numPenguins of them in use. When the player places a
+ *      penguin, its location is added after the others. When a player moves its penguin, the
+ *      original location of that penguin is REPLACED with the new one at the same index, such
+ *      that the penguins are always in the same order.
+ *
+ * Penguins are kept packed rather than as a List of Coord because players are copied with every
+ * game state a search visits, and moved on every move: copying a player copies one short[] of at
+ * most a few entries, and moving a penguin overwrites one entry in place. getPenguinLocs is a
+ * read-only view of the packed locations rather than a copy of them, and hands out one shared
+ * Coord per location (Coords cannot be changed), so reading it does not allocate either. Since a
+ * location must fit in a byte, penguins can only be placed on the first 256 rows and columns of a
+ * board.
+ *
+ * penguinKeys is the XOR of a key (see Fingerprint) for each penguin, made from its index and
+ * packed location, and is updated as penguins are placed and moved, so that the fingerprint of a
+ * player never has to go through its penguins.
  *
  * Interpretation:
  * Represents one participant in a game of HTMF that has control over their color-coded penguin avatars.
  */
 public class HexPlayer implements InternalPlayer {
 
+  // most players have 6 - N penguins in an N player game
+  private static final int INITIAL_PENGUINS = 4;
+  // the Coord of each packed location, made the first time a penguin there is read. A Coord's
+  // fields are final, so a Coord made on one thread can be read on another without a lock
+  private static final Coord[] COORDS = new Coord[1 << 16];
+
   private PlayerColor color;
   private int score;
-  private List<Coord> penguinLocs;
+  private short[] penguins;
+  private int numPenguins;
+  private long penguinKeys;
+  private List<Coord> penguinView;
 
   /**
    * Constructor to create a player at the beginning of a game of HTMF
@@ -35,34 +58,39 @@ public class HexPlayer implements InternalPlayer {
   public HexPlayer(PlayerColor pc) {
     this.color = pc;
     this.score = 0;
-    this.penguinLocs = new ArrayList<>();
+    this.penguins = new short[INITIAL_PENGUINS];
+    this.numPenguins = 0;
   }
 
   /**
-   * Convenience constructor to create a player example from the middle of an ongoing game.
-   * @param pc the assigned color of the player
-   * @param penguinLocs the Coord locations of the player's penguins
-   * @param score the player's current score
+   * Copy constructor to create a player example from the middle of an ongoing game.
+   * @param other the player to copy
    */
-  private HexPlayer(PlayerColor pc, List<Coord> penguinLocs, int score) {
-    this.color = pc;
-    this.penguinLocs = new ArrayList<>(penguinLocs);
-    this.score = score;
+  private HexPlayer(HexPlayer other) {
+    this.color = other.color;
+    this.score = other.score;
+    this.penguins = other.penguins.clone();
+    this.numPenguins = other.numPenguins;
+    this.penguinKeys = other.penguinKeys;
   }
 
 
   /**
    * Adds a penguin to this player's penguin avatars and tracks the Coord location of that penguin.
    * @param location the coordinate location to place the penguin
-   * @throws IllegalArgumentException if player places two penguins in one location
+   * @throws IllegalArgumentException if player places two penguins in one location, or places a
+   * penguin outside of the first 256 rows and columns
    */
   public void placePenguin(Coord location) throws IllegalArgumentException {
-    if (this.penguinLocs.contains(location)) {
+    short packed = pack(location);
+    if (this.indexOf(packed) >= 0) {
       throw new IllegalArgumentException("You cannot place two penguins in the same location.");
     }
-    else {
-      this.penguinLocs.add(location);
+    if (this.numPenguins == this.penguins.length) {
+      this.penguins = Arrays.copyOf(this.penguins, this.penguins.length * 2);
     }
+    this.penguinKeys ^= penguinKey(this.numPenguins, packed);
+    this.penguins[this.numPenguins++] = packed;
   }
 
   /**
@@ -77,16 +105,17 @@ public class HexPlayer implements InternalPlayer {
    */
   @Override
   public void movePenguin(Coord origin, Coord destination) throws IllegalArgumentException {
-    if (this.penguinLocs.contains(destination)) {
+    short to = pack(destination);
+    if (this.indexOf(to) >= 0) {
       throw new IllegalArgumentException("You already have a penguin here; move elsewhere.");
     }
-    if (!this.penguinLocs.contains(origin)) {
+    int index = this.indexOf(pack(origin));
+    if (index < 0) {
       throw new IllegalArgumentException("You do not have a penguin to move on the origin.");
     }
     else {
-      int index = this.penguinLocs.indexOf(origin);
-      this.penguinLocs.remove(origin);
-      this.penguinLocs.add(index, destination);
+      this.penguinKeys ^= penguinKey(index, this.penguins[index]) ^ penguinKey(index, to);
+      this.penguins[index] = to;
     }
   }
 
@@ -101,19 +130,23 @@ public class HexPlayer implements InternalPlayer {
   }
 
   /**
-   * Returns a copy of this player's current penguin locations
-   * in terms of their Coord location on the GameBoard.
+   * Returns a read-only view of this player's current penguin locations
+   * in terms of their Coord location on the GameBoard. The view follows the player as its
+   * penguins are placed and moved.
    *
    * @return a List of Coord of the player's penguin locations
    */
   @Override
   public List<Coord> getPenguinLocs() {
-    return new ArrayList<>(this.penguinLocs);
+    if (this.penguinView == null) {
+      this.penguinView = new PenguinView();
+    }
+    return this.penguinView;
   }
 
   @Override
   public InternalPlayer getCopyPlayer() {
-    return new HexPlayer(this.color, this.getPenguinLocs(), this.score);
+    return new HexPlayer(this);
   }
 
   @Override
@@ -126,25 +159,82 @@ public class HexPlayer implements InternalPlayer {
     return this.score;
   }
 
+  @Override
+  public long getFingerprint() {
+    return Fingerprint.mix(this.penguinKeys ^ Fingerprint.mix(
+        (long) this.color.ordinal() << 32 | (this.score & 0xFFFFFFFFL)));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof HexPlayer) {
       HexPlayer other = (HexPlayer) o;
-      if (this.penguinLocs.size() == other.getPenguinLocs().size()) {
-        for (int ii = 0; ii < this.penguinLocs.size(); ii++) {
-          if (!this.penguinLocs.get(ii).equals(other.penguinLocs.get(ii))) {
-            return false;
-          }
-        }
-      }
-      else {
+      if (this.numPenguins != other.numPenguins || this.penguinKeys != other.penguinKeys) {
         return false;
       }
+      for (int ii = 0; ii < this.numPenguins; ii++) {
+        if (this.penguins[ii] != other.penguins[ii]) {
+          return false;
+        }
+      }
 
       return this.score == other.getScore()
-          && this.color == other.getColor()
-          && this.penguinLocs.equals(other.getPenguinLocs());
+          && this.color == other.getColor();
     }
     return false;
   }
+
+  @Override
+  public int hashCode() {
+    return Fingerprint.toHashCode(this.getFingerprint());
+  }
+
+  // the index of the penguin at the given packed location, or -1 if there is none
+  private int indexOf(short packed) {
+    for (int ii = 0; ii < this.numPenguins; ii++) {
+      if (this.penguins[ii] == packed) {
+        return ii;
+      }
+    }
+    return -1;
+  }
+
+  // the key of the penguin at the given index and packed location in penguinKeys
+  private static long penguinKey(int index, short packed) {
+    return Fingerprint.mix((long) index << 16 | (packed & 0xFFFF));
+  }
+
+  private static short pack(Coord location) {
+    int xx = location.getX();
+    int yy = location.getY();
+    if (xx < 0 || xx > 0xFF || yy < 0 || yy > 0xFF) {
+      throw new IllegalArgumentException("Penguins must be on the first 256 rows and columns.");
+    }
+    return (short) (xx << 8 | yy);
+  }
+
+  private static Coord unpack(short packed) {
+    Coord loc = COORDS[packed & 0xFFFF];
+    if (loc == null) {
+      loc = new Coord((packed >> 8) & 0xFF, packed & 0xFF);
+      COORDS[packed & 0xFFFF] = loc;
+    }
+    return loc;
+  }
+
+  // The read-only list of penguin locations handed out by getPenguinLocs
+  private class PenguinView extends AbstractList<Coord> implements RandomAccess {
+    @Override
+    public Coord get(int index) {
+      if (index < 0 || index >= numPenguins) {
+        throw new IndexOutOfBoundsException("There is no penguin " + index);
+      }
+      return unpack(penguins[index]);
+    }
+
+    @Override
+    public int size() {
+      return numPenguins;
+    }
+  }
 }
@@ -34,8 +34,8 @@ public interface InternalPlayer extends ProtectedPlayer {
   void placePenguin(Coord location);
 
   /**
-   * Moves the location of a penguin avatar by removing its original Coord location from the list of
-   * penguin locations and adding its new destination location to the end of the List.
+   * Moves the location of a penguin avatar by replacing its original Coord location in the list of
+   * penguin locations with its new destination location, keeping the penguins in the same order.
    * @param origin the Tile to move from
    * @param destination the Tile to move to
    * @throws IllegalArgumentException if the origin Tile does not have a penguin on it to move,
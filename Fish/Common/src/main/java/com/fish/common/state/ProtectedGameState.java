@@ -98,6 +98,21 @@ public interface ProtectedGameState {
    */
   List<Coord> getTilesReachableFrom(Coord start);
 
+  /**
+   * Return how far a penguin could move from every tile at once, given the location of all the
+   * penguins on the board (see ProtectedGameBoard.getMobilityMap).
+   * @return the map of the moves from every tile
+   */
+  MobilityMap getMobilityMap();
+
+  /**
+   * Return the board's index of how far a penguin could move from each tile in each direction,
+   * brought up to date with the location of all the penguins on the board (see
+   * ProtectedGameBoard.getRayIndex).
+   * @return the index of the moves from each tile
+   */
+  RayIndex getRayIndex();
+
   /**
    * Returns the width of the game board, defined by the number of columns on the board data
    * representation.
@@ -112,4 +127,12 @@ public interface ProtectedGameState {
    */
   int getHeight();
 
+  /**
+   * Returns a 64-bit fingerprint of the stage of the game, the board, and the players in turn
+   * order. Equal states have equal fingerprints, so states with different fingerprints are not
+   * equal.
+   * @return the fingerprint
+   */
+  long getFingerprint();
+
 }
@@ -15,8 +15,8 @@ import java.util.List;
 public interface ProtectedPlayer {
 
   /**
-   * Returns a copy of this player's current penguin locations
-   * in terms of their Coord location on the GameBoard.
+   * Returns a read-only view of this player's current penguin locations
+   * in terms of their Coord location on the GameBoard, in the order they were placed.
    *
    * @return a List of Coord of the player's penguin locations
    */
@@ -36,4 +36,12 @@ public interface ProtectedPlayer {
    */
   int getScore();
 
+  /**
+   * Returns a 64-bit fingerprint of this player's color, score and penguin locations in order.
+   * Equal players have equal fingerprints, so players with different fingerprints are not equal.
+   *
+   * @return the fingerprint
+   */
+  long getFingerprint();
+
 }
@@ -0,0 +1,54 @@
+package com.fish.common.state;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a copy of a HexGameState. Searches copy states for every node they
+ * visit, so this event is off unless turned on in the recording's settings, eg with
+ * -XX:StartFlightRecording:+com.fish.StateCopy#enabled=true (JDK 17 and later).
+ *
+ * getCopyGameState only goes through this class when the JVM is started with
+ * -Dfish.jfr.statecopy=true, so that the processes copying states without recording them, such as
+ * the integration harnesses, do not load and start the flight recorder's event machinery.
+ */
+@Name("com.fish.StateCopy")
+@Label("State Copy")
+@Category({"Fish", "State"})
+@Description("A copy of a game state, its board and its players")
+@Enabled(false)
+@StackTrace(false)
+class StateCopyEvent extends jdk.jfr.Event {
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Players")
+  int players;
+
+  @Label("Tiles")
+  int tiles;
+
+  /**
+   * Copy the given state, recording the copy if the event is enabled.
+   * @param original the state to copy
+   * @return the copy
+   */
+  static GameState copy(HexGameState original) {
+    StateCopyEvent event = new StateCopyEvent();
+    event.begin();
+    GameState copy = new HexGameState(original);
+    event.end();
+    if (event.shouldCommit()) {
+      event.stage = original.getGameStage().name();
+      event.players = original.getPlayers().size();
+      event.tiles = original.getWidth() * original.getHeight();
+      event.commit();
+    }
+    return copy;
+  }
+}
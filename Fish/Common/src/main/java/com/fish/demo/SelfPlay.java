@@ -0,0 +1,352 @@
+package com.fish.demo;
+
+import com.fish.admin.GameLogWriter;
+import com.fish.admin.HexReferee;
+import com.fish.admin.Results;
+import com.fish.metrics.Metrics;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import com.fish.player.SearchMode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+/**
+ * A headless self-play simulator: runs many games of Fish between HousePlayers on all cores, and
+ * reports how fast the games were played and how each kind of player did. Meant as a standard load
+ * for comparing changes to the referee, the game state and the strategy.
+ *
+ * Usage: SelfPlay [--games N] [--players D,D,...]... [--board RxC]... [--seed S] [--threads T]
+ *                 [--log FILE] [--search MODE]
+ *  - games:   the number of games to run (default 100)
+ *  - players: one mix of players per game, given as the minimax depth of each HousePlayer, eg 1,2
+ *             for a depth 1 player against a depth 2 player. May be repeated to run several mixes,
+ *             which the games take turns between (default 1,2)
+ *  - board:   the size of the boards, eg 10x6. May be repeated like players (default 10x6)
+ *  - seed:    game i is played on a board seeded with seed + i, so a run can be repeated (default 1)
+ *  - threads: the number of games run at once (default the number of available processors)
+ *  - log:     append the record of every game to the given game log (see GameLog)
+ *  - search:  how every player searches, one of paranoid, best_reply, max_n or selective (see
+ *             SearchMode, default paranoid)
+ *
+ * Players are seated in a different order each game, so each kind of player gets every seat. The
+ * kind of a player is its depth, eg "house-2", or its search and depth when it does not use the
+ * default search, eg "best_reply-2". The report contains:
+ *  - games/s and moves/s over the whole run
+ *  - per kind of player: games played, wins (a tie is a win for every tied winner), win rate,
+ *    cheats, moves made, and the p50, p99 and maximum time taken to choose a move
+ *  - with -Dfish.metrics=true, a dump of the referee and search metrics (see Metrics)
+ */
+public class SelfPlay {
+
+  private final int games;
+  private final List<int[]> mixes;
+  private final List<int[]> boards;
+  private final long seed;
+  private final int threads;
+  private GameLogWriter gameLog;
+  private SearchMode mode = SearchMode.PARANOID;
+
+  /**
+   * Set up a simulation.
+   *
+   * @param games the number of games to run
+   * @param mixes the depths of the players of each mix of players
+   * @param boards the rows and columns of each board size
+   * @param seed the seed of the first game's board
+   * @param threads the number of games to run at once
+   * @throws IllegalArgumentException if any of the arguments is empty or not positive
+   */
+  public SelfPlay(int games, List<int[]> mixes, List<int[]> boards, long seed, int threads) {
+    if (games < 1 || threads < 1 || mixes.isEmpty() || boards.isEmpty()) {
+      throw new IllegalArgumentException("A simulation needs games, threads, players and boards");
+    }
+    for (int[] mix : mixes) {
+      if (mix.length < 2 || mix.length > 4) {
+        throw new IllegalArgumentException("A game needs 2 to 4 players");
+      }
+    }
+    this.games = games;
+    this.mixes = new ArrayList<>(mixes);
+    this.boards = new ArrayList<>(boards);
+    this.seed = seed;
+    this.threads = threads;
+  }
+
+  /**
+   * Record every game of the simulation in the given log.
+   * @param log the log to append games to, or null to not record them
+   */
+  public void setGameLog(GameLogWriter log) {
+    this.gameLog = log;
+  }
+
+  /**
+   * Set how every player searches its opponents' turns.
+   * @param mode the search of every player
+   */
+  public void setSearchMode(SearchMode mode) {
+    this.mode = mode;
+  }
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    int games = 100;
+    List<int[]> mixes = new ArrayList<>();
+    List<int[]> boards = new ArrayList<>();
+    long seed = 1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path log = null;
+    SearchMode mode = SearchMode.PARANOID;
+
+    for (int ii = 0; ii + 1 < args.length; ii += 2) {
+      String value = args[ii + 1];
+      switch (args[ii]) {
+        case "--games":
+          games = Integer.parseInt(value);
+          break;
+        case "--players":
+          mixes.add(parseInts(value, ","));
+          break;
+        case "--board":
+          boards.add(parseInts(value, "x"));
+          break;
+        case "--seed":
+          seed = Long.parseLong(value);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(value);
+          break;
+        case "--log":
+          log = Paths.get(value);
+          break;
+        case "--search":
+          mode = SearchMode.valueOf(value.toUpperCase());
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[ii]);
+      }
+    }
+    if (mixes.isEmpty()) {
+      mixes.add(new int[] {1, 2});
+    }
+    if (boards.isEmpty()) {
+      boards.add(new int[] {10, 6});
+    }
+
+    SelfPlay sim = new SelfPlay(games, mixes, boards, seed, threads);
+    sim.setSearchMode(mode);
+    if (log == null) {
+      System.out.print(sim.run());
+    }
+    else {
+      try (GameLogWriter writer = new GameLogWriter(log)) {
+        sim.setGameLog(writer);
+        System.out.print(sim.run());
+      }
+    }
+    if (Metrics.ENABLED) {
+      System.out.print(Metrics.registry().getDump());
+    }
+  }
+
+  /**
+   * Run every game and gather the results.
+   *
+   * @return the report of the run
+   * @throws InterruptedException if interrupted while waiting for the games
+   * @throws IllegalStateException if a game could not be run, eg because its board is too small
+   */
+  public Report run() throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+    List<Future<?>> results = new ArrayList<>();
+    Report report = new Report();
+
+    long start = System.nanoTime();
+    try {
+      for (int ii = 0; ii < this.games; ii++) {
+        int game = ii;
+        results.add(pool.submit(() -> this.playGame(game, report)));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game could not be run", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    report.nanos = System.nanoTime() - start;
+    return report;
+  }
+
+  // Plays the given game and adds its results to the report.
+  private void playGame(int game, Report report) {
+    int[] board = this.boards.get((game / this.mixes.size()) % this.boards.size());
+    List<TimedPlayer> players = this.seat(game);
+
+    HexReferee ref = new HexReferee(board[0], board[1], this.seed + game);
+    ref.setGameLog(this.gameLog);
+    Results results = ref.runGame(new ArrayList<>(players));
+    report.add(players, results);
+  }
+
+  // The players of the given game in the order they sit, turned by one seat from the game before.
+  List<TimedPlayer> seat(int game) {
+    int[] mix = this.mixes.get(game % this.mixes.size());
+    List<TimedPlayer> players = new ArrayList<>();
+    for (int ii = 0; ii < mix.length; ii++) {
+      int depth = mix[(ii + game) % mix.length];
+      String kind = (this.mode == SearchMode.PARANOID ? "house" : this.mode.name().toLowerCase())
+          + "-" + depth;
+      players.add(new TimedPlayer(new HousePlayer(depth, kind + "#" + ii, this.mode), kind));
+    }
+    return players;
+  }
+
+  private static int[] parseInts(String value, String separator) {
+    String[] parts = value.split(separator);
+    int[] ints = new int[parts.length];
+    for (int ii = 0; ii < parts.length; ii++) {
+      ints[ii] = Integer.parseInt(parts[ii].trim());
+    }
+    return ints;
+  }
+
+  /**
+   * The results of a simulation, by kind of player. Games add their results as they finish.
+   */
+  public static class Report {
+
+    private final Map<String, TypeResults> types = new LinkedHashMap<>();
+    private int games;
+    private long nanos;
+
+    synchronized void add(List<TimedPlayer> players, Results results) {
+      this.games++;
+      for (TimedPlayer p : players) {
+        TypeResults tr = this.types.computeIfAbsent(p.getType(), type -> new TypeResults());
+        tr.games++;
+        tr.addMoves(p.getMoveNanos());
+      }
+      for (PlayerInterface pi : results.getWinners()) {
+        this.types.get(((TimedPlayer) pi).getType()).wins++;
+      }
+      for (PlayerInterface pi : results.getCheaters()) {
+        this.types.get(((TimedPlayer) pi).getType()).cheats++;
+      }
+    }
+
+    public synchronized int getGames() {
+      return this.games;
+    }
+
+    /**
+     * Get the total number of moves made in every game.
+     * @return the number of moves
+     */
+    public synchronized long getMoves() {
+      long moves = 0;
+      for (TypeResults tr : this.types.values()) {
+        moves += tr.moves;
+      }
+      return moves;
+    }
+
+    /**
+     * Get the number of wins of each kind of player.
+     * @return a map of kind of player to wins
+     */
+    public synchronized Map<String, Integer> getWins() {
+      return this.byType(tr -> tr.wins);
+    }
+
+    /**
+     * Get the number of games each kind of player played.
+     * @return a map of kind of player to games
+     */
+    public synchronized Map<String, Integer> getGamesPlayed() {
+      return this.byType(tr -> tr.games);
+    }
+
+    /**
+     * Get the number of times each kind of player was removed for cheating.
+     * @return a map of kind of player to cheats
+     */
+    public synchronized Map<String, Integer> getCheats() {
+      return this.byType(tr -> tr.cheats);
+    }
+
+    /**
+     * Get the number of moves each kind of player made.
+     * @return a map of kind of player to moves
+     */
+    public synchronized Map<String, Integer> getMovesMade() {
+      return this.byType(tr -> tr.moves);
+    }
+
+    private Map<String, Integer> byType(ToIntFunction<TypeResults> count) {
+      Map<String, Integer> counts = new LinkedHashMap<>();
+      for (Map.Entry<String, TypeResults> entry : this.types.entrySet()) {
+        counts.put(entry.getKey(), count.applyAsInt(entry.getValue()));
+      }
+      return counts;
+    }
+
+    @Override
+    public synchronized String toString() {
+      double seconds = this.nanos / 1e9;
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("%d games, %d moves in %.2f s: %.1f games/s, %.1f moves/s%n",
+          this.games, this.getMoves(), seconds, this.games / seconds, this.getMoves() / seconds));
+      sb.append(String.format("%-10s %7s %6s %6s %6s %8s %9s %9s %9s%n", "player", "games", "wins",
+          "win%", "cheats", "moves", "p50 ms", "p99 ms", "max ms"));
+      for (Map.Entry<String, TypeResults> entry : this.types.entrySet()) {
+        TypeResults tr = entry.getValue();
+        long[] sorted = Arrays.copyOf(tr.moveNanos, tr.moves);
+        Arrays.sort(sorted);
+        sb.append(String.format("%-10s %7d %6d %5.1f%% %6d %8d %9.3f %9.3f %9.3f%n",
+            entry.getKey(), tr.games, tr.wins, 100.0 * tr.wins / tr.games, tr.cheats, tr.moves,
+            percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+            percentile(sorted, 1.0) / 1e6));
+      }
+      return sb.toString();
+    }
+
+    // The nearest-rank percentile of the sorted values, or 0 if there are none.
+    static long percentile(long[] sorted, double p) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(p * sorted.length);
+      return sorted[Math.max(rank, 1) - 1];
+    }
+  }
+
+  // What one kind of player did over every game.
+  private static class TypeResults {
+    private int games;
+    private int wins;
+    private int cheats;
+    private int moves;
+    private long[] moveNanos = new long[256];
+
+    void addMoves(long[] nanos) {
+      if (this.moves + nanos.length > this.moveNanos.length) {
+        this.moveNanos = Arrays.copyOf(this.moveNanos,
+            Math.max(this.moveNanos.length * 2, this.moves + nanos.length));
+      }
+      System.arraycopy(nanos, 0, this.moveNanos, this.moves, nanos.length);
+      this.moves += nanos.length;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.fish.demo;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.player.PlayerInterface;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A PlayerInterface that passes every call on to another player, timing how long the player takes
+ * to decide each placement and move. Used by the self-play simulator to measure players without
+ * changing them.
+ *
+ * The referee may call a player from the threads of its executor, so the times are added up under
+ * the player's lock. The wrapped player is called outside of it.
+ */
+public class TimedPlayer implements PlayerInterface {
+
+  private final PlayerInterface player;
+  private final String type;
+  private long[] moveNanos;
+  private int moves;
+  private long placementNanos;
+  private int placements;
+
+  /**
+   * Time the given player.
+   * @param player the player to pass calls on to
+   * @param type the name of the kind of player, which the simulator reports results by
+   */
+  public TimedPlayer(PlayerInterface player, String type) {
+    this.player = player;
+    this.type = type;
+    this.moveNanos = new long[32];
+  }
+
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * Get the number of moves the player has made (including any that the referee rejected).
+   * @return the number of moves
+   */
+  public synchronized int getMoves() {
+    return this.moves;
+  }
+
+  /**
+   * Get how long the player took for each of its moves, in order.
+   * @return one time in nanoseconds per move
+   */
+  public synchronized long[] getMoveNanos() {
+    return Arrays.copyOf(this.moveNanos, this.moves);
+  }
+
+  /**
+   * Get the number of penguins the player has placed.
+   * @return the number of placements
+   */
+  public synchronized int getPlacements() {
+    return this.placements;
+  }
+
+  /**
+   * Get how long the player took for all of its placements together.
+   * @return the total time in nanoseconds
+   */
+  public synchronized long getPlacementNanos() {
+    return this.placementNanos;
+  }
+
+  @Override
+  public Coord getPenguinPlacement() {
+    long start = System.nanoTime();
+    try {
+      return this.player.getPenguinPlacement();
+    } finally {
+      this.addPlacement(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Move getPengiunMovement() {
+    long start = System.nanoTime();
+    try {
+      return this.player.getPengiunMovement();
+    } finally {
+      this.addMove(System.nanoTime() - start);
+    }
+  }
+
+  private synchronized void addPlacement(long nanos) {
+    this.placementNanos += nanos;
+    this.placements++;
+  }
+
+  private synchronized void addMove(long nanos) {
+    if (this.moves == this.moveNanos.length) {
+      this.moveNanos = Arrays.copyOf(this.moveNanos, this.moves * 2);
+    }
+    this.moveNanos[this.moves++] = nanos;
+  }
+
+  @Override
+  public void receivePlayerRemoved(PlayerColor color) {
+    this.player.receivePlayerRemoved(color);
+  }
+
+  @Override
+  public void receivePenguinPlacement(Coord loc, PlayerColor color) {
+    this.player.receivePenguinPlacement(loc, color);
+  }
+
+  @Override
+  public void receivePenguinMovement(Move move, PlayerColor color) {
+    this.player.receivePenguinMovement(move, color);
+  }
+
+  @Override
+  public void receiveStateDelta(StateDelta delta) {
+    this.player.receiveStateDelta(delta);
+  }
+
+  @Override
+  public void receiveInitialGameState(GameState gs) {
+    this.player.receiveInitialGameState(gs);
+  }
+
+  @Override
+  public void receiveGameOver(List<PlayerColor> winners) {
+    this.player.receiveGameOver(winners);
+  }
+
+  @Override
+  public String toString() {
+    return this.player.toString();
+  }
+}
@@ -0,0 +1,109 @@
+package com.fish.integration;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A stream of successive top-level JSON values read from a Reader or InputStream.
+ *
+ * Values may be separated by any amount of whitespace (or none at all, eg `[1][2]`), and may span
+ * as many lines as they like. Each call to next() parses exactly one value straight off the
+ * underlying reader, so reading N characters of input takes time linear in N and only ever buffers
+ * a fixed number of characters ahead of the value being parsed.
+ *
+ * The stream is lenient in the same way the test harness input always has been: a bare word such
+ * as `hello` is read as the string "hello".
+ *
+ * This is shared by the integration test harnesses (through XJson) and the network code, which
+ * reads one message at a time off a socket.
+ */
+public class JsonStream implements Iterator<JsonElement>, Closeable {
+
+  private final JsonReader reader;
+
+  /**
+   * Create a stream of JSON values read from the given reader.
+   * @param in the characters to read values from
+   */
+  public JsonStream(Reader in) {
+    this.reader = new JsonReader(in);
+    this.reader.setLenient(true);
+  }
+
+  /**
+   * Create a stream of JSON values read from the given UTF-8 encoded bytes.
+   * @param in the bytes to read values from
+   */
+  public JsonStream(InputStream in) {
+    this(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Determine if there is another value in the stream. Blocks until either the start of the next
+   * value or the end of the input has been read.
+   *
+   * @return true if next() will return a value
+   * @throws JsonIOException if the underlying reader fails
+   * @throws JsonSyntaxException if the input that follows is not JSON
+   */
+  @Override
+  public boolean hasNext() {
+    try {
+      return this.reader.peek() != JsonToken.END_DOCUMENT;
+    } catch (EOFException e) {
+      // the reader reports input with no values at all this way, rather than as END_DOCUMENT
+      return false;
+    } catch (MalformedJsonException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  /**
+   * Read the next complete value from the stream.
+   *
+   * @return the next value
+   * @throws NoSuchElementException if the input has ended
+   * @throws JsonIOException if the underlying reader fails, including when a read times out
+   * @throws JsonSyntaxException if the value is not valid JSON or ends in the middle
+   */
+  @Override
+  public JsonElement next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException("There are no more JSON values");
+    }
+    return JsonParser.parseReader(this.reader);
+  }
+
+  /**
+   * Get the reader underneath this stream, to read the next value token by token (eg with
+   * XReader) instead of as a whole JsonElement with next(). The reader must be left right after
+   * the value it read.
+   *
+   * @return the lenient JsonReader values are read from
+   */
+  public JsonReader getReader() {
+    return this.reader;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.reader.close();
+  }
+}
@@ -0,0 +1,327 @@
+package com.fish.integration;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs many inputs of one integration harness (XBoard, XState, XTree or XStrategy) in a single JVM,
+ * instead of starting a new JVM for every test input like the x* scripts do.
+ *
+ * Usage: XBatch (board | state | tree | strategy) [--check] [file ...]
+ *
+ *  - With no files, reads JSON inputs off STD in one after another (newline-delimited or not) and
+ *    writes one line of output per input, flushing after each one, until STD in ends. A driver can
+ *    keep the process open and feed it inputs as it goes. An input that fails gets an error line
+ *    and does not end the run.
+ *  - With files (eg Tests/*-in.json), runs every input in each file in order and writes the outputs.
+ *  - With --check, each N-in.json is instead compared against its N-out.json: one PASS or FAIL line
+ *    is written per file, then a summary, and the exit status is 1 if any file failed.
+ *
+ * Each input is handled by the harness's own process method, so the output is exactly what the
+ * harness's main would print for it.
+ */
+public class XBatch {
+
+  /**
+   * One run of a harness: read one input off the reader and write its output line.
+   */
+  interface Harness {
+    void process(JsonReader in, Appendable out) throws IOException;
+  }
+
+  private static final String CHECK = "--check";
+  private static final String IN_SUFFIX = "-in.json";
+  private static final String OUT_SUFFIX = "-out.json";
+  // the path of a JsonReader between top-level values
+  private static final String TOP_LEVEL = "$";
+
+  /**
+   * Main method for running a batch of integration tests. See the class description for usage.
+   *
+   * @param args the harness, then optionally --check, then the input files
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      usage();
+      return;
+    }
+    Harness harness = harnessFor(args[0]);
+    if (harness == null) {
+      usage();
+      return;
+    }
+
+    boolean check = args.length > 1 && args[1].equals(CHECK);
+    List<Path> files = new ArrayList<>();
+    for (int ii = check ? 2 : 1; ii < args.length; ii++) {
+      files.add(Paths.get(args[ii]));
+    }
+
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    boolean passed = true;
+    if (files.isEmpty()) {
+      runStream(harness, new InputStreamReader(System.in, StandardCharsets.UTF_8), out);
+    }
+    else if (check) {
+      passed = checkFiles(harness, files, out);
+    }
+    else {
+      runFiles(harness, files, out);
+    }
+    out.flush();
+
+    if (!passed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Get the harness with the given name.
+   *
+   * @param name one of board, state, tree or strategy
+   * @return the harness, or null if there is no harness with that name
+   */
+  static Harness harnessFor(String name) {
+    switch (name) {
+      case "board":
+        return XBoard::process;
+      case "state":
+        return XState::process;
+      case "tree":
+        return XTree::process;
+      case "strategy":
+        return XStrategy::process;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Run the harness on every input read off the given reader until it ends, flushing the output
+   * after each one so that whoever is feeding the inputs gets each answer as soon as it is ready.
+   *
+   * An input the harness fails on, or that is not JSON, gets an error line, {"error":"..."}, in
+   * place of its output, and the inputs after it are still run. When the input is not JSON the
+   * rest of its line is skipped too, so that the stream can pick up again at the next line.
+   *
+   * @param harness the harness to run
+   * @param in the inputs
+   * @param out where to write the outputs, one line per input
+   * @return the number of inputs run, including the ones that failed
+   * @throws IOException if the inputs cannot be read or the outputs cannot be written
+   */
+  static int runStream(Harness harness, Reader in, Writer out) throws IOException {
+    LineReader lines = new LineReader(in);
+    JsonStream inputs = new JsonStream(lines);
+    int count = 0;
+    while (true) {
+      Exception error = null;
+      try {
+        if (!inputs.hasNext()) {
+          break;
+        }
+        JsonReader reader = inputs.getReader();
+        String start = reader.toString();
+        try {
+          harness.process(reader, out);
+        } catch (JsonSyntaxException e) {
+          throw e;
+        } catch (RuntimeException e) {
+          error = e;
+          skipRestOfValue(reader, start);
+        }
+      } catch (JsonSyntaxException | MalformedJsonException | EOFException e) {
+        error = error == null ? e : error;
+        lines.skipLine();
+        inputs = new JsonStream(lines);
+      }
+      if (error != null) {
+        writeError(out, error);
+      }
+      out.flush();
+      count++;
+    }
+    return count;
+  }
+
+  private static void writeError(Writer out, Exception e) throws IOException {
+    out.append("{\"error\":").append(new JsonPrimitive(e.toString()).toString()).append("}\n");
+  }
+
+  // Moves the reader past the rest of the top-level value that the harness failed on. The reader
+  // describes itself by its line, column and path, so if it is where it was before the harness
+  // started (eg the harness wanted an object and was given an array) none of the value was read.
+  private static void skipRestOfValue(JsonReader reader, String start) throws IOException {
+    if (reader.toString().equals(start)) {
+      reader.skipValue();
+      return;
+    }
+    while (!TOP_LEVEL.equals(reader.getPath())) {
+      switch (reader.peek()) {
+        case END_ARRAY:
+          reader.endArray();
+          break;
+        case END_OBJECT:
+          reader.endObject();
+          break;
+        case END_DOCUMENT:
+          return;
+        default:
+          reader.skipValue();
+      }
+    }
+  }
+
+  /**
+   * Run the harness on every input in each of the given files, in order.
+   *
+   * @param harness the harness to run
+   * @param files the input files
+   * @param out where to write the outputs, one line per input
+   * @throws IOException if a file cannot be read or the outputs cannot be written
+   */
+  static void runFiles(Harness harness, List<Path> files, Appendable out) throws IOException {
+    for (Path file : files) {
+      runFile(harness, file, out);
+    }
+  }
+
+  /**
+   * Run the harness on each N-in.json file and compare its output with the JSON values in the
+   * matching N-out.json file. An input the harness fails on counts as a failure, and the remaining
+   * files are still checked.
+   *
+   * @param harness the harness to run
+   * @param files the input files
+   * @param out where to write one PASS or FAIL line per file, then the number of files passed
+   * @return whether every file passed
+   * @throws IOException if the outputs cannot be written
+   */
+  static boolean checkFiles(Harness harness, List<Path> files, Appendable out) throws IOException {
+    int passed = 0;
+    for (Path file : files) {
+      String reason = checkFile(harness, file);
+      if (reason == null) {
+        passed++;
+        out.append("PASS ").append(file.toString()).append('\n');
+      }
+      else {
+        out.append("FAIL ").append(file.toString()).append(": ").append(reason).append('\n');
+      }
+    }
+    out.append(Integer.toString(passed)).append('/').append(Integer.toString(files.size()))
+        .append(" passed\n");
+    return passed == files.size();
+  }
+
+  // Returns why the given file fails its check, or null if it passes.
+  private static String checkFile(Harness harness, Path file) {
+    String name = file.getFileName().toString();
+    if (!name.endsWith(IN_SUFFIX)) {
+      return "not an input file (" + IN_SUFFIX + ")";
+    }
+    Path expectedFile = file.resolveSibling(
+        name.substring(0, name.length() - IN_SUFFIX.length()) + OUT_SUFFIX);
+
+    try {
+      StringBuilder actual = new StringBuilder();
+      runFile(harness, file, actual);
+      List<JsonElement> expected;
+      try (Reader r = Files.newBufferedReader(expectedFile, StandardCharsets.UTF_8)) {
+        expected = readAll(r);
+      }
+      if (!expected.equals(readAll(new StringReader(actual.toString())))) {
+        return "expected " + expected + " but got " + actual.toString().trim();
+      }
+      return null;
+    } catch (IOException | RuntimeException e) {
+      return e.toString();
+    }
+  }
+
+  private static void runFile(Harness harness, Path file, Appendable out) throws IOException {
+    try (JsonStream inputs = new JsonStream(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      while (inputs.hasNext()) {
+        harness.process(inputs.getReader(), out);
+      }
+    }
+  }
+
+  private static List<JsonElement> readAll(Reader r) throws JsonParseException {
+    List<JsonElement> values = new ArrayList<>();
+    new JsonStream(r).forEachRemaining(values::add);
+    return values;
+  }
+
+  /**
+   * Hands out the characters of a reader no further than the end of the line being read (or what
+   * is available so far), so that a JsonReader on top of it never buffers past the end of the
+   * line it is parsing. When a line turns out not to be JSON, the JsonReader can be dropped and a
+   * new one started on the next line without losing any input.
+   */
+  private static class LineReader extends Reader {
+
+    private final BufferedReader in;
+    private boolean atLineStart;
+
+    LineReader(Reader in) {
+      this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+      this.atLineStart = true;
+    }
+
+    @Override
+    public int read(char[] buf, int off, int len) throws IOException {
+      int count = 0;
+      while (count < len) {
+        int next = this.in.read();
+        if (next < 0) {
+          return count == 0 ? -1 : count;
+        }
+        buf[off + count++] = (char) next;
+        this.atLineStart = next == '\n';
+        if (this.atLineStart || !this.in.ready()) {
+          break;
+        }
+      }
+      return count;
+    }
+
+    // Drops the rest of the line that was last read from, if it has not all been handed out yet.
+    void skipLine() throws IOException {
+      int next = 0;
+      while (!this.atLineStart && next >= 0) {
+        next = this.in.read();
+        this.atLineStart = next == '\n';
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
+
+  private static void usage() {
+    System.err.println("Usage: XBatch (board | state | tree | strategy) [--check] [file ...]");
+    System.exit(2);
+  }
+}
@@ -8,8 +8,9 @@ import com.fish.common.board.ProtectedGameBoard;
 import com.fish.common.tile.ProtectedTile;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 
 public class XBoard {
@@ -21,29 +22,50 @@ public class XBoard {
    *
    * @param args Command line arguments, not used
    */
-  public static void main(String[] args) {
-
-    //grab the input from STD in
-    Scanner scan = new Scanner(System.in);
-    //create a JasonArray Java object whose elements are each JSON object from STD in
-    JsonArray inputArray = XJson.processInput(scan);
-    //Grab the first (and only) JSON object, which is the board represented in JSON
-    JsonObject obj = inputArray.get(0).getAsJsonObject();
+  public static void main(String[] args) throws IOException {
+    //process the first (and only) JSON object from STD in, which is the board represented in JSON
+    process(new JsonStream(System.in).getReader(), System.out);
+  }
 
-    //////HANDLE "board" INPUT
-    //Turn the Json representation of a board INTO a GameBoard object
-    GameBoard gameBoard = jsonToGameBoard(obj);
+  /**
+   * Run one XBoard test: read one {"position":Position,"board":Board} object and write how many
+   * tiles are reachable from the position, followed by a newline.
+   * The harness mains and XBatch both go through here.
+   *
+   * @param in the reader positioned at the start of the input
+   * @param out where to write the output
+   * @throws IOException if the input cannot be read or the output cannot be written
+   * @throws IllegalStateException if the JSON is not of the expected shape
+   */
+  static void process(JsonReader in, Appendable out) throws IOException {
+    GameBoard gameBoard = null;
+    Coord origin = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "board":
+          //Turn the Json representation of a board INTO a GameBoard object
+          gameBoard = XReader.readBoard(in);
+          break;
+        case "position":
+          //Turn the Json representation of a position INTO a Coord object (our position structure)
+          origin = XReader.readCoord(in);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
 
-    //////HANDLE "position" INPUT
-    //Turn the Json representation of a position INTO a Coord object (our position structure)
-    Coord origin = jsonToCoord(obj);
+    if (gameBoard == null || origin == null) {
+      throw new IllegalArgumentException("The input needs both a position and a board");
+    }
 
     //Now calculate the desired output, and do not consider that there are any penguins on the board,
     //(hence the empty array of penguin locs passed into getTilesReachableFrom)
-    int numTilesReachableFromPosn = getTilesReachableFromPosn(gameBoard, origin);
-
-    //Print the number of tiles reachable from the given position
-    System.out.println(numTilesReachableFromPosn);
+    XWriter.writeInt(out, getTilesReachableFromPosn(gameBoard, origin));
+    out.append('\n');
   }
 
   /**
@@ -65,7 +87,7 @@ public class XBoard {
    * @param boardAsJsonObject (JsonObject) The properly formatted JSON object
    * @return (int[][]) 2D array of ints representing tile values
    */
-  static GameBoard jsonToGameBoard(JsonObject boardAsJsonObject) {
+  public static GameBoard jsonToGameBoard(JsonObject boardAsJsonObject) {
     JsonArray boardInputArray = boardAsJsonObject.getAsJsonArray("board");
 
     //Base case - an empty board
@@ -156,18 +178,32 @@ public class XBoard {
    * @param jsonArray (JsonArray) JSON array containing position field to turn into a coordinate
    * @return (Coord) the coordinate found in the json object
    */
-  static Coord jsonToCoord(JsonArray jsonArray) {
+  public static Coord jsonToCoord(JsonArray jsonArray) {
     return new Coord(
         jsonArray.get(1).getAsInt(),
         jsonArray.get(0).getAsInt());
   }
 
+  /**
+   * Transforms a Coord back into its JSON representation called Position, [board-row, board-column].
+   * This is the inverse of jsonToCoord(JsonArray).
+   *
+   * @param loc the Coord to transform
+   * @return a JsonArray of the position
+   */
+  public static JsonArray coordToJson(Coord loc) {
+    JsonArray position = new JsonArray();
+    position.add(loc.getY());
+    position.add(loc.getX());
+    return position;
+  }
+
   /**
    * Transforms a given gameBoard into a JSON representtion
    * @param gameBoard the gameboard to transform
    * @return a JSON Array of the board
    */
-  static JsonArray boardToJson(ProtectedGameBoard gameBoard) {
+  public static JsonArray boardToJson(ProtectedGameBoard gameBoard) {
     JsonArray board = new JsonArray();
     for (int ii = 0; ii < gameBoard.getHeight(); ii++) {
       JsonArray row = new JsonArray();
@@ -1,18 +1,19 @@
 package com.fish.integration;
 
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.Scanner;
 
 /**
  * A general JSON processing class.
  * Parses/Processes JSON input by translating it into Java objects, but does not store them
  * in order for this class to be reused with diverse input.
+ *
+ * The input is read as a stream of JSON values (see JsonStream), so it is parsed in a single pass
+ * no matter how many values there are or how many lines each of them spans.
  */
 public class XJson {
 
@@ -22,26 +23,87 @@ public class XJson {
    * Turn the given Scanner input into Json elements and return the Json elements as a JSonArray,
    * which is a special type of list in Java to accommodate JSON objects.
    *
+   * The scanner's tokens are read as if they were separated by single spaces.
+   *
    * @param scan scanner to process.
    * @return a JsonArray with the inputs
    */
   public static JsonArray processInput(Scanner scan) {
+    return processInput(new ScannerReader(scan));
+  }
+
+  /**
+   * Turn the given input stream into Json elements and return them as a JsonArray.
+   *
+   * @param in the UTF-8 encoded input to process.
+   * @return a JsonArray with the inputs
+   */
+  public static JsonArray processInput(InputStream in) {
+    return processInput(new JsonStream(in));
+  }
+
+  /**
+   * Turn the given reader's input into Json elements and return them as a JsonArray.
+   *
+   * @param in the input to process.
+   * @return a JsonArray with the inputs
+   */
+  public static JsonArray processInput(Reader in) {
+    return processInput(new JsonStream(in));
+  }
+
+  // Reads every value in the stream. Input that is not JSON, or a value cut off by the end of the
+  // input, ends the stream: everything read before it is kept.
+  private static JsonArray processInput(JsonStream values) {
     JsonArray jsonArray = new JsonArray();
-    String jsonString = "";
+    try {
+      while (values.hasNext()) {
+        jsonArray.add(values.next());
+      }
+    }
+    catch (JsonParseException e) {
+      // No more complete JSON values
+    }
+    return jsonArray;
+  }
+
+  /**
+   * Adapts a Scanner to a Reader, handing out the scanner's tokens one at a time with a space
+   * after each of them.
+   */
+  private static class ScannerReader extends Reader {
 
-    while (scan.hasNext()) {
-      String input = scan.next();
+    private final Scanner scan;
+    private String token;
+    private int index;
+
+    ScannerReader(Scanner scan) {
+      this.scan = scan;
+      this.token = "";
+      this.index = 0;
+    }
 
-      jsonString = jsonString + " " + input;
-      try {
-        JsonElement jsonElement = new JsonParser().parse(jsonString);
-        jsonArray.add(jsonElement);
-        jsonString = "";
+    @Override
+    public int read(char[] buf, int off, int len) {
+      if (len == 0) {
+        return 0;
       }
-      catch (JsonSyntaxException e) {
-        // Keep adding to the jsonString until it contains the entire JSON object
+      if (this.index == this.token.length()) {
+        if (!this.scan.hasNext()) {
+          return -1;
+        }
+        this.token = this.scan.next() + " ";
+        this.index = 0;
       }
+      int count = Math.min(len, this.token.length() - this.index);
+      this.token.getChars(this.index, this.index + count, buf, off);
+      this.index += count;
+      return count;
+    }
+
+    @Override
+    public void close() {
+      this.scan.close();
     }
-    return jsonArray;
   }
 }
@@ -0,0 +1,212 @@
+package com.fish.integration;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the JSON representations of the integration tests token by token off a Gson JsonReader,
+ * filling in the game's own data representations directly instead of building a tree of
+ * JsonElements first.
+ *
+ * These are the counterparts of XWriter, and read the same input as:
+ *  - readState     XState.jsonToGameState
+ *  - readBoard     XBoard.jsonToGameBoard (rows shorter than the longest row end in holes)
+ *  - readCoord     XBoard.jsonToCoord
+ *  - readMove      XTree.jsonToMove
+ *
+ * The reader must be positioned at the start of the value to read, and is left right after it, so
+ * several values can be read one after another off the same stream (see JsonStream.getReader).
+ * Fields of an object may come in any order, and fields that are not part of the representation
+ * are skipped. JSON of the wrong shape (eg a number where a Position should be) is reported by the
+ * JsonReader as an IllegalStateException.
+ */
+public class XReader {
+
+  //No constructor needed because this class only serves the purpose of its static methods
+
+  /**
+   * Read a State, {"players":[Player, ...],"board":Board}, as a state that is in play.
+   *
+   * @param in the reader to read from
+   * @return the state read
+   * @throws IOException if the input is not JSON or cannot be read
+   * @throws IllegalStateException if the JSON is not a State
+   * @throws IllegalArgumentException if the State does not describe a legal state
+   */
+  public static GameState readState(JsonReader in) throws IOException {
+    return readState(in, GameStage.IN_PLAY);
+  }
+
+  /**
+   * Read a State, {"players":[Player, ...],"board":Board}, as a state in the given stage.
+   * See XState.jsonToGameState(JsonObject, GameStage).
+   *
+   * @param in the reader to read from
+   * @param stage the stage of the game the state is in
+   * @return the state read
+   * @throws IOException if the input is not JSON or cannot be read
+   * @throws IllegalStateException if the JSON is not a State
+   * @throws IllegalArgumentException if the State does not describe a legal state
+   */
+  public static GameState readState(JsonReader in, GameStage stage) throws IOException {
+    List<InternalPlayer> players = null;
+    HexGameBoard board = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "players":
+          players = readPlayers(in);
+          break;
+        case "board":
+          board = readBoard(in);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (players == null || board == null) {
+      throw new IllegalArgumentException("A State needs both players and a board");
+    }
+    return new HexGameState(stage, board, players);
+  }
+
+  /**
+   * Read a Board: one array of fish per board row, 0 for holes.
+   *
+   * @param in the reader to read from
+   * @return the board read
+   * @throws IOException if the input is not JSON or cannot be read
+   * @throws IllegalStateException if the JSON is not a Board
+   * @throws IllegalArgumentException if the board is empty
+   */
+  public static HexGameBoard readBoard(JsonReader in) throws IOException {
+    List<int[]> rows = new ArrayList<>();
+    int[] row = new int[8];
+    int cols = 0;
+
+    in.beginArray();
+    while (in.hasNext()) {
+      int size = 0;
+      in.beginArray();
+      while (in.hasNext()) {
+        if (size == row.length) {
+          row = Arrays.copyOf(row, size * 2);
+        }
+        row[size++] = in.nextInt();
+      }
+      in.endArray();
+      rows.add(Arrays.copyOf(row, size));
+      cols = Math.max(cols, size);
+    }
+    in.endArray();
+    if (cols == 0) {
+      return new HexGameBoard(new int[0][0]); //will throw the desired exception for an empty board
+    }
+
+    //Our Coord-based representation is the inverse of the harness's rows of columns
+    int[][] values = new int[cols][rows.size()];
+    for (int ii = 0; ii < rows.size(); ii++) {
+      int[] oneRow = rows.get(ii);
+      for (int jj = 0; jj < oneRow.length; jj++) {
+        values[jj][ii] = oneRow[jj];
+      }
+    }
+    return new HexGameBoard(values);
+  }
+
+  /**
+   * Read a Position, [board-row, board-column].
+   *
+   * @param in the reader to read from
+   * @return the position as a Coord
+   * @throws IOException if the input is not JSON or cannot be read
+   * @throws IllegalStateException if the JSON is not a Position
+   */
+  public static Coord readCoord(JsonReader in) throws IOException {
+    in.beginArray();
+    int row = in.nextInt();
+    int col = in.nextInt();
+    in.endArray();
+    return new Coord(col, row);
+  }
+
+  /**
+   * Read an Action, [Position, Position].
+   *
+   * @param in the reader to read from
+   * @return the action as a Move
+   * @throws IOException if the input is not JSON or cannot be read
+   * @throws IllegalStateException if the JSON is not an Action
+   */
+  public static Move readMove(JsonReader in) throws IOException {
+    in.beginArray();
+    Coord origin = readCoord(in);
+    Coord destination = readCoord(in);
+    in.endArray();
+    return new Move(origin, destination);
+  }
+
+  // Reads [Player, ...], keeping the players and each player's penguins in order.
+  private static List<InternalPlayer> readPlayers(JsonReader in) throws IOException {
+    List<InternalPlayer> players = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      players.add(readPlayer(in));
+    }
+    in.endArray();
+    return players;
+  }
+
+  private static InternalPlayer readPlayer(JsonReader in) throws IOException {
+    PlayerColor color = null;
+    int score = 0;
+    List<Coord> penguins = new ArrayList<>();
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "color":
+          color = XState.getAsPlayerColor(in.nextString());
+          break;
+        case "score":
+          score = in.nextInt();
+          break;
+        case "places":
+          in.beginArray();
+          while (in.hasNext()) {
+            penguins.add(readCoord(in));
+          }
+          in.endArray();
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (color == null) {
+      throw new IllegalArgumentException("A Player needs a color");
+    }
+    InternalPlayer p = new HexPlayer(color);
+    p.addToScore(score);
+    for (Coord loc : penguins) {
+      p.placePenguin(loc);
+    }
+    return p;
+  }
+}
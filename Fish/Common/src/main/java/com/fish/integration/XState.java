@@ -13,10 +13,11 @@ import com.fish.common.state.ProtectedPlayer;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
 
 public class XState {
 
@@ -29,16 +30,24 @@ public class XState {
    *
    * @param args Command line arguments, not used
    */
-  public static void main(String[] args) {
-    //grab the input from STD in
-    Scanner scan = new Scanner(System.in);
-    //create a JasonArray Java object whose elements are each JSON object from STD in
-    JsonArray inputArray = XJson.processInput(scan);
-    //Grab the first (and only) JSON object, which is the State represented in JSON
-    JsonObject stateAsJson = inputArray.get(0).getAsJsonObject();
+  public static void main(String[] args) throws IOException {
+    //---Process the first (and only) JSON value on STD in---//
+    process(new JsonStream(System.in).getReader(), System.out);
+  }
 
-    //---Create the GameState from the input---//
-    GameState gameState = jsonToGameState(stateAsJson);
+  /**
+   * Run one XState test: read one State and write either the State after the first player's
+   * first penguin has moved, or False if it cannot move, followed by a newline.
+   * The harness mains and XBatch both go through here.
+   *
+   * @param in the reader positioned at the start of the input
+   * @param out where to write the output
+   * @throws IOException if the input cannot be read or the output cannot be written
+   * @throws IllegalStateException if the JSON is not a State
+   */
+  static void process(JsonReader in, Appendable out) throws IOException {
+    //---Create the GameState straight from the JSON---//
+    GameState gameState = XReader.readState(in);
 
     //Try to apply the N/NE/SE... etc algorithm on the first player's first penguin:
     GameState outputGS = attemptDirectionalAlgoOnFirstPlayerFirstPenguin(gameState);
@@ -47,13 +56,13 @@ public class XState {
     boolean changeMade = !gameState.equals(outputGS);
 
     if (changeMade) {
-      //Construct JSON data back from the State
-      JsonElement outputJson = reconstructStateToJson(outputGS);
-      System.out.println(outputJson);
+      //Write the State back out as JSON
+      XWriter.writeState(out, outputGS);
     }
     else {
-      System.out.println("False");
+      out.append("False");
     }
+    out.append('\n');
   }
 
   //----Convert JSON to internal data representations----//
@@ -65,6 +74,20 @@ public class XState {
    * @return a GameState of those values
    */
   public static GameState jsonToGameState(JsonObject stateAsJson) {
+    return jsonToGameState(stateAsJson, GameStage.IN_PLAY);
+  }
+
+  /**
+   * Given a JsonObject of the State, turns that json directly into a gamestate in the given stage.
+   * The JSON representation of a State does not carry a GameStage, so a caller that knows the
+   * state is not in play (eg a remote player receiving the initial state before placements)
+   * supplies it here.
+   *
+   * @param stateAsJson the state represented as Json values
+   * @param stage the stage of the game the state is in
+   * @return a GameState of those values
+   */
+  public static GameState jsonToGameState(JsonObject stateAsJson, GameStage stage) {
 
     //////HANDLE "board" INPUT - turn that into an actual board using XBoard class
     GameBoard boardFromInput = XBoard.jsonToGameBoard(stateAsJson);
@@ -73,7 +96,7 @@ public class XState {
     List<InternalPlayer> playersFromInput = jsonToPlayer(stateAsJson);
 
     //Generate the gameState during the precise snapshot given in the JSON input
-    return new HexGameState(GameStage.IN_PLAY, boardFromInput, playersFromInput);
+    return new HexGameState(stage, boardFromInput, playersFromInput);
 
   }
 
@@ -198,7 +221,7 @@ public class XState {
    * @param gs the gameState to translate into JSON
    * @return the JsonObject
    */
-  static JsonObject reconstructStateToJson(GameState gs) {
+  public static JsonObject reconstructStateToJson(GameState gs) {
     JsonObject outputStateAsJson = new JsonObject();
 
     //////HANDLE PLAYERS JSON
@@ -225,22 +248,7 @@ public class XState {
     JsonObject onePlayerJsonObject = new JsonObject();
 
     //construct color in json
-    String color = "";
-    switch(p.getColor()) {
-      case RED:
-        color = "red";
-        break;
-      case WHITE:
-        color = "white";
-        break;
-      case BLACK:
-        color = "black";
-        break;
-      case BROWN:
-        color = "brown";
-        break;
-    }
-    onePlayerJsonObject.addProperty("color", color);
+    onePlayerJsonObject.addProperty("color", getAsJsonColor(p.getColor()));
 
     //construct score in json
     onePlayerJsonObject.addProperty("score", p.getScore());
@@ -248,10 +256,7 @@ public class XState {
     //construct penguin list in json
     JsonArray pengs = new JsonArray();
     for (Coord c : p.getPenguinLocs()) {
-      JsonArray singlePenguin = new JsonArray();
-      singlePenguin.add(c.getY());
-      singlePenguin.add(c.getX());
-      pengs.add(singlePenguin);
+      pengs.add(XBoard.coordToJson(c));
     }
     onePlayerJsonObject.add("places", pengs);
 
@@ -265,7 +270,7 @@ public class XState {
    * @param color a string of the color
    * @return a PlayerColor corresponding with that color
    */
-  static PlayerColor getAsPlayerColor(String color) {
+  public static PlayerColor getAsPlayerColor(String color) {
     switch (color) {
       case "black":
         return PlayerColor.BLACK;
@@ -279,4 +284,25 @@ public class XState {
         throw new IllegalArgumentException("Not a valid color!");
     }
   }
+
+  /**
+   * The inverse of getAsPlayerColor: converts our internal avatar color into the string used
+   * to represent it in JSON.
+   * @param color a PlayerColor
+   * @return the json string for that color
+   */
+  public static String getAsJsonColor(PlayerColor color) {
+    switch (color) {
+      case BLACK:
+        return "black";
+      case BROWN:
+        return "brown";
+      case RED:
+        return "red";
+      case WHITE:
+        return "white";
+      default:
+        throw new IllegalArgumentException("Not a valid color!");
+    }
+  }
 }
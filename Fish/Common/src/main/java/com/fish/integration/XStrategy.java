@@ -0,0 +1,53 @@
+package com.fish.integration;
+
+
+import com.fish.common.game.GameTree;
+import com.fish.common.game.HexGameTree;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameState;
+import com.fish.player.MinimaxStrategy;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+
+
+public class XStrategy {
+
+  /**
+   * Main function for running the XStrategy integration tests.
+   *
+   * @param args Command line arguments, not used
+   */
+  public static void main(String[] args) throws IOException {
+    //process the depth-state json, [depth, State], straight off STD in
+    process(new JsonStream(System.in).getReader(), System.out);
+  }
+
+  /**
+   * Run one XStrategy test: read one [depth, State] and write the Action the minimax strategy picks
+   * for the current player, or false if it cannot move, followed by a newline.
+   * The harness mains and XBatch both go through here.
+   *
+   * @param in the reader positioned at the start of the input
+   * @param out where to write the output
+   * @throws IOException if the input cannot be read or the output cannot be written
+   * @throws IllegalStateException if the JSON is not a depth-state
+   */
+  static void process(JsonReader in, Appendable out) throws IOException {
+    in.beginArray();
+    int depth = in.nextInt();
+    GameState inputGS = XReader.readState(in);
+    in.endArray();
+
+    GameTree gt = new HexGameTree(inputGS);
+    if (gt.getPossibleGameStates().size() == 0) {
+      out.append("false\n");
+      return;
+    }
+
+    Move m = MinimaxStrategy.findCurrentPlayersBestMove(inputGS, depth);
+
+    XWriter.writeMove(out, m);
+    out.append('\n');
+  }
+
+}
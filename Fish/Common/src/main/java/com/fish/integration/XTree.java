@@ -7,10 +7,11 @@ import com.fish.common.game.Move;
 import com.fish.common.state.GameState;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 public class XTree {
 
@@ -25,37 +26,68 @@ public class XTree {
    *
    * @param args Command line arguments, not used
    */
-  public static void main(String[] args) {
-    //grab the input from STD in
-    Scanner scan = new Scanner(System.in);
-    //create a JasonArray Java object whose elements are each JSON object from STD in
-    JsonArray inputArray = XJson.processInput(scan);
-    //Grab the first (and only) JSON object, which is the move-response-query represented in JSON
-    JsonObject mrq = inputArray.get(0).getAsJsonObject();
+  public static void main(String[] args) throws IOException {
+    //process the first (and only) JSON object from STD in, which is the move-response-query
+    process(new JsonStream(System.in).getReader(), System.out);
+  }
+
+  /**
+   * Run one XTree test: read one {"state":State,"from":Position,"to":Position} move-response-query
+   * and write the Action of the next player, or false if there is none, followed by a newline.
+   * The harness mains and XBatch both go through here.
+   *
+   * @param in the reader positioned at the start of the input
+   * @param out where to write the output
+   * @throws IOException if the input cannot be read or the output cannot be written
+   * @throws IllegalStateException if the JSON is not a move-response-query
+   */
+  static void process(JsonReader in, Appendable out) throws IOException {
+    GameState gameState = null;
+    Coord from = null;
+    Coord to = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "state":
+          gameState = XReader.readState(in);
+          break;
+        case "from":
+          from = XReader.readCoord(in);
+          break;
+        case "to":
+          to = XReader.readCoord(in);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
 
-    //---Process the mrq and apply the move to the given GameState---//
-    GameState gameState = mrqToGameState(mrq);
+    if (gameState == null || from == null || to == null) {
+      throw new IllegalArgumentException("A move-response-query needs a state, from and to");
+    }
+
+    //---Apply the move to the given GameState---//
+    gameState.movePenguin(from, to);
 
     //It is now the second player's turn.
     //---Gather what's needed to calculate the desired outcome and send it to the processing method---//
     GameTree tree = new HexGameTree(gameState);
-    Coord destOfFirstPlayer = XBoard.jsonToCoord(mrq.getAsJsonArray("to"));
 
     //---Call the main processing method---//
-    List<Move> validMoves = calculateValidOutcomeMoves(tree, destOfFirstPlayer);
+    List<Move> validMoves = calculateValidOutcomeMoves(tree, to);
 
     //If there are no valid moves, return false, otherwise, return the tie breaking move
     if (validMoves.size() == 0) {
-      System.out.println("false");
+      out.append("false");
     }
     else if (validMoves.size() == 1) {
-      JsonArray action = moveToJson(validMoves.get(0));
-      System.out.println(action);
+      XWriter.writeMove(out, validMoves.get(0));
     } else {
-      Move moveMade = determineTieBreaker(validMoves);
-      JsonArray action = moveToJson(moveMade);
-      System.out.println(action);
+      XWriter.writeMove(out, determineTieBreaker(validMoves));
     }
+    out.append('\n');
   }
 
   /**
@@ -164,19 +196,24 @@ public class XTree {
    */
   public static JsonArray moveToJson(Move move) {
     JsonArray ret = new JsonArray();
-    JsonArray start = new JsonArray();
-    JsonArray end = new JsonArray();
 
-    start.add(move.getOrigin().getY());
-    start.add(move.getOrigin().getX());
-    end.add(move.getDestination().getY());
-    end.add(move.getDestination().getX());
-
-    ret.add(start);
-    ret.add(end);
+    ret.add(XBoard.coordToJson(move.getOrigin()));
+    ret.add(XBoard.coordToJson(move.getDestination()));
     return ret;
   }
 
+  /**
+   * Converts an Action, [Position, Position], back into a Move object.
+   * This is the inverse of moveToJson.
+   * @param action the JsonArray containing the action
+   * @return the Move the action represents
+   */
+  public static Move jsonToMove(JsonArray action) {
+    Coord origin = XBoard.jsonToCoord(action.get(0).getAsJsonArray());
+    Coord destination = XBoard.jsonToCoord(action.get(1).getAsJsonArray());
+    return new Move(origin, destination);
+  }
+
 }
 
 
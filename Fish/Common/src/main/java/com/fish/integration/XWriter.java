@@ -0,0 +1,202 @@
+package com.fish.integration;
+
+import com.fish.common.Coord;
+import com.fish.common.board.ProtectedGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedGameState;
+import com.fish.common.state.ProtectedPlayer;
+import com.fish.common.tile.ProtectedTile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Writes the JSON representations of the integration tests straight into an Appendable (such as
+ * a StringBuilder, a Writer or System.out), without building Gson JsonElements first.
+ *
+ * The output is character for character what printing the matching JsonElement would produce:
+ *  - writeState    is XState.reconstructStateToJson
+ *  - writePlayer   is XState.reconstructPlayerToJson
+ *  - writeBoard    is XBoard.boardToJson
+ *  - writeCoord    is XBoard.coordToJson
+ *  - writeMove     is XTree.moveToJson
+ *
+ * Every character written is ASCII, so the same output can be put directly into a ByteBuffer
+ * through asAppendable.
+ */
+public class XWriter {
+
+  //No constructor needed because this class only serves the purpose of its static methods
+
+  /**
+   * Write a State, {"players":[Player, ...],"board":Board}.
+   *
+   * @param out where to write to
+   * @param gs the state to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeState(Appendable out, ProtectedGameState gs) throws IOException {
+    out.append("{\"players\":[");
+    List<ProtectedPlayer> players = gs.getPlayers();
+    for (int ii = 0; ii < players.size(); ii++) {
+      if (ii > 0) {
+        out.append(',');
+      }
+      writePlayer(out, players.get(ii));
+    }
+    out.append("],\"board\":");
+    writeBoard(out, gs.getGameBoard());
+    out.append('}');
+  }
+
+  /**
+   * Write a Player, {"color":Color,"score":Natural,"places":[Position, ...]}.
+   *
+   * @param out where to write to
+   * @param p the player to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writePlayer(Appendable out, ProtectedPlayer p) throws IOException {
+    out.append("{\"color\":");
+    writeColor(out, p.getColor());
+    out.append(",\"score\":");
+    writeInt(out, p.getScore());
+    out.append(",\"places\":[");
+    List<Coord> penguins = p.getPenguinLocs();
+    for (int ii = 0; ii < penguins.size(); ii++) {
+      if (ii > 0) {
+        out.append(',');
+      }
+      writeCoord(out, penguins.get(ii));
+    }
+    out.append("]}");
+  }
+
+  /**
+   * Write a Board, one array of fish per board row, with 0 for holes.
+   *
+   * @param out where to write to
+   * @param board the board to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeBoard(Appendable out, ProtectedGameBoard board) throws IOException {
+    out.append('[');
+    for (int ii = 0; ii < board.getHeight(); ii++) {
+      if (ii > 0) {
+        out.append(',');
+      }
+      out.append('[');
+      for (int jj = 0; jj < board.getWidth(); jj++) {
+        if (jj > 0) {
+          out.append(',');
+        }
+        ProtectedTile t = board.getTileAt(new Coord(jj, ii));
+        writeInt(out, t.isPresent() ? t.getNumFish() : 0);
+      }
+      out.append(']');
+    }
+    out.append(']');
+  }
+
+  /**
+   * Write a Position, [board-row, board-column].
+   *
+   * @param out where to write to
+   * @param loc the position to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeCoord(Appendable out, Coord loc) throws IOException {
+    out.append('[');
+    writeInt(out, loc.getY());
+    out.append(',');
+    writeInt(out, loc.getX());
+    out.append(']');
+  }
+
+  /**
+   * Write an Action, [Position, Position].
+   *
+   * @param out where to write to
+   * @param move the move to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeMove(Appendable out, Move move) throws IOException {
+    out.append('[');
+    writeCoord(out, move.getOrigin());
+    out.append(',');
+    writeCoord(out, move.getDestination());
+    out.append(']');
+  }
+
+  /**
+   * Write a Color as a JSON string, eg "red".
+   *
+   * @param out where to write to
+   * @param color the color to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeColor(Appendable out, PlayerColor color) throws IOException {
+    out.append('"').append(XState.getAsJsonColor(color)).append('"');
+  }
+
+  /**
+   * Write an int. Single digits, which make up most of a board, are written without building a
+   * String.
+   *
+   * @param out where to write to
+   * @param value the value to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  public static void writeInt(Appendable out, int value) throws IOException {
+    if (value >= 0 && value < 10) {
+      out.append((char) ('0' + value));
+    }
+    else {
+      out.append(Integer.toString(value));
+    }
+  }
+
+  /**
+   * View a ByteBuffer as an Appendable that puts one byte per character, so that the writers above
+   * can fill it directly. Only suitable for ASCII text, which is all the writers produce.
+   *
+   * @param buf the buffer to write to
+   * @return an Appendable that writes into the buffer
+   */
+  public static Appendable asAppendable(ByteBuffer buf) {
+    return new ByteBufferAppendable(buf);
+  }
+
+  /**
+   * Puts each character appended into a ByteBuffer as a single byte. Throws
+   * BufferOverflowException when the buffer is full, like the buffer itself.
+   */
+  private static class ByteBufferAppendable implements Appendable {
+
+    private final ByteBuffer buf;
+
+    ByteBufferAppendable(ByteBuffer buf) {
+      this.buf = buf;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      for (int ii = start; ii < end; ii++) {
+        this.buf.put((byte) csq.charAt(ii));
+      }
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      this.buf.put((byte) c);
+      return this;
+    }
+  }
+}
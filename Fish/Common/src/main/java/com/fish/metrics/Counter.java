@@ -0,0 +1,40 @@
+package com.fish.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count of events, such as moves made or players timed out, that only goes up.
+ *
+ * Counters are updated from many threads at once (every game of a tournament or simulation runs
+ * its own referee), so the count is spread over a LongAdder rather than one contended AtomicLong.
+ */
+public class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter() {
+  }
+
+  /**
+   * Count one event.
+   */
+  public void inc() {
+    this.count.increment();
+  }
+
+  /**
+   * Count the given number of events.
+   * @param nn the number of events
+   */
+  public void add(long nn) {
+    this.count.add(nn);
+  }
+
+  /**
+   * Get the number of events counted so far.
+   * @return the count
+   */
+  public long get() {
+    return this.count.sum();
+  }
+}
@@ -0,0 +1,44 @@
+package com.fish.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A value that goes up and down, such as the number of games in flight.
+ */
+public class Gauge {
+
+  private final AtomicLong value = new AtomicLong();
+
+  Gauge() {
+  }
+
+  /**
+   * Add one to the value.
+   */
+  public void inc() {
+    this.value.incrementAndGet();
+  }
+
+  /**
+   * Take one from the value.
+   */
+  public void dec() {
+    this.value.decrementAndGet();
+  }
+
+  /**
+   * Set the value.
+   * @param value the new value
+   */
+  public void set(long value) {
+    this.value.set(value);
+  }
+
+  /**
+   * Get the current value.
+   * @return the value
+   */
+  public long get() {
+    return this.value.get();
+  }
+}
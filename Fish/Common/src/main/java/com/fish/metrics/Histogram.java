@@ -0,0 +1,109 @@
+package com.fish.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The distribution of a non-negative measurement, such as the nanoseconds a player took to respond
+ * or the bytes allocated choosing a move.
+ *
+ * Values are counted in power-of-two buckets (bucket b holds the values whose highest set bit is
+ * bit b - 1, and bucket 0 holds 0), so recording a value is a few atomic adds and a histogram is a
+ * fixed 65 longs however many values it has seen. Percentiles are only as precise as the buckets:
+ * a percentile is reported as the upper bound of the bucket it falls in, which is within a factor
+ * of two of the true value, and plenty to tell a 2ms move from a 200ms one.
+ */
+public class Histogram {
+
+  private static final int BUCKETS = 65;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  Histogram() {
+  }
+
+  /**
+   * Record one value. Negative values are counted as 0.
+   * @param value the value
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    this.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+    this.count.increment();
+    this.sum.add(value);
+    this.max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Get the number of values recorded.
+   * @return the count
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /**
+   * Get the total of the values recorded.
+   * @return the sum
+   */
+  public long getSum() {
+    return this.sum.sum();
+  }
+
+  /**
+   * Get the largest value recorded.
+   * @return the maximum, or 0 if nothing has been recorded
+   */
+  public long getMax() {
+    return this.max.get();
+  }
+
+  /**
+   * Get the mean of the values recorded.
+   * @return the mean, or 0 if nothing has been recorded
+   */
+  public double getMean() {
+    long nn = this.getCount();
+    return nn == 0 ? 0 : (double) this.getSum() / nn;
+  }
+
+  /**
+   * Get an upper bound on the given percentile of the values recorded.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the upper bound of the bucket holding the nearest-rank percentile, capped at the
+   *         maximum, or 0 if nothing has been recorded
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("A percentile must be from 0 to 100");
+    }
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int ii = 0; ii < BUCKETS; ii++) {
+      counts[ii] = this.buckets.get(ii);
+      total += counts[ii];
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int ii = 0; ii < BUCKETS; ii++) {
+      seen += counts[ii];
+      if (seen >= rank) {
+        long upper = ii == 0 ? 0 : ii == 64 ? Long.MAX_VALUE : (1L << ii) - 1;
+        return Math.min(upper, this.getMax());
+      }
+    }
+    return this.getMax();
+  }
+}
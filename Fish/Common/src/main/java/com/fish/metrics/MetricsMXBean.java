@@ -0,0 +1,34 @@
+package com.fish.metrics;
+
+import java.util.Map;
+
+/**
+ * The view of a MetricsRegistry given to JMX clients such as jconsole, under the name
+ * com.fish:type=Metrics.
+ */
+public interface MetricsMXBean {
+
+  /**
+   * Get the current value of every counter.
+   * @return a map of counter name to count
+   */
+  Map<String, Long> getCounters();
+
+  /**
+   * Get the current value of every gauge.
+   * @return a map of gauge name to value
+   */
+  Map<String, Long> getGauges();
+
+  /**
+   * Get a summary of every histogram: its count, mean, p50, p99 and max.
+   * @return a map of histogram name to summary
+   */
+  Map<String, String> getHistograms();
+
+  /**
+   * Get the text dump of every metric, as written by the periodic dump.
+   * @return the dump
+   */
+  String getDump();
+}
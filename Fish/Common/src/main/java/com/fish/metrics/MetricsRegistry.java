@@ -0,0 +1,183 @@
+package com.fish.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A set of named counters, gauges and histograms.
+ *
+ * Metrics are created the first time they are asked for and live as long as the registry, so a
+ * class asks for its metrics once (usually into static final fields) and updates them directly.
+ * Names are dotted, starting with the component being measured, eg "referee.moves", and are kept
+ * sorted so that related metrics are dumped together.
+ *
+ * The registry can be dumped as text, once with dump or periodically with startDumping, and is
+ * the MXBean that Metrics registers with JMX.
+ */
+public class MetricsRegistry implements MetricsMXBean {
+
+  private final ConcurrentMap<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+  /**
+   * Get the counter of the given name, creating it if needed.
+   * @param name the name
+   * @return the counter
+   * @throws IllegalArgumentException if the name is taken by another kind of metric
+   */
+  public Counter counter(String name) {
+    return this.get(name, Counter.class, Counter::new);
+  }
+
+  /**
+   * Get the gauge of the given name, creating it if needed.
+   * @param name the name
+   * @return the gauge
+   * @throws IllegalArgumentException if the name is taken by another kind of metric
+   */
+  public Gauge gauge(String name) {
+    return this.get(name, Gauge.class, Gauge::new);
+  }
+
+  /**
+   * Get the histogram of the given name, creating it if needed.
+   * @param name the name
+   * @return the histogram
+   * @throws IllegalArgumentException if the name is taken by another kind of metric
+   */
+  public Histogram histogram(String name) {
+    return this.get(name, Histogram.class, Histogram::new);
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    Map<String, Long> counters = new TreeMap<>();
+    for (Map.Entry<String, Object> entry : this.metrics.entrySet()) {
+      if (entry.getValue() instanceof Counter) {
+        counters.put(entry.getKey(), ((Counter) entry.getValue()).get());
+      }
+    }
+    return counters;
+  }
+
+  @Override
+  public Map<String, Long> getGauges() {
+    Map<String, Long> gauges = new TreeMap<>();
+    for (Map.Entry<String, Object> entry : this.metrics.entrySet()) {
+      if (entry.getValue() instanceof Gauge) {
+        gauges.put(entry.getKey(), ((Gauge) entry.getValue()).get());
+      }
+    }
+    return gauges;
+  }
+
+  @Override
+  public Map<String, String> getHistograms() {
+    Map<String, String> histograms = new TreeMap<>();
+    for (Map.Entry<String, Object> entry : this.metrics.entrySet()) {
+      if (entry.getValue() instanceof Histogram) {
+        histograms.put(entry.getKey(), summarise((Histogram) entry.getValue()));
+      }
+    }
+    return histograms;
+  }
+
+  @Override
+  public String getDump() {
+    StringBuilder out = new StringBuilder();
+    this.dump(out, null, 0);
+    return out.toString();
+  }
+
+  /**
+   * Write every metric to the given output, one per line, in order of name.
+   * @param out where to write the metrics
+   * @throws IOException if the output cannot be written to
+   */
+  public void dump(Appendable out) throws IOException {
+    out.append(this.getDump());
+  }
+
+  /**
+   * Write every metric to the given stream every period, along with the rate of each counter
+   * since the last dump, until the returned handle is closed. Dumps are written from a daemon
+   * thread, so they never keep the JVM running.
+   *
+   * @param out where to write the metrics
+   * @param period the time between dumps
+   * @param unit the unit of the period
+   * @return a handle to stop the dumps with
+   * @throws IllegalArgumentException if the period is not positive
+   */
+  public Closeable startDumping(PrintStream out, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("The period between dumps must be positive");
+    }
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "metrics-dump");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Map<String, Long> previous = new HashMap<>(this.getCounters());
+    long[] previousNanos = {System.nanoTime()};
+
+    executor.scheduleAtFixedRate(() -> {
+      long now = System.nanoTime();
+      StringBuilder dump = new StringBuilder();
+      this.dump(dump, previous, (now - previousNanos[0]) / 1e9);
+      previous.putAll(this.getCounters());
+      previousNanos[0] = now;
+      out.print(dump);
+      out.flush();
+    }, period, period, unit);
+    return executor::shutdownNow;
+  }
+
+  // Writes every metric, with the rate of each counter since the previous values if there are any
+  private void dump(StringBuilder out, Map<String, Long> previous, double seconds) {
+    for (Map.Entry<String, Object> entry : this.metrics.entrySet()) {
+      String name = entry.getKey();
+      Object metric = entry.getValue();
+      out.append(name).append(' ');
+      if (metric instanceof Counter) {
+        long count = ((Counter) metric).get();
+        out.append(count);
+        if (previous != null && seconds > 0) {
+          long before = previous.getOrDefault(name, 0L);
+          out.append(String.format(Locale.ROOT, " %.1f/s", (count - before) / seconds));
+        }
+      }
+      else if (metric instanceof Gauge) {
+        out.append(((Gauge) metric).get());
+      }
+      else {
+        out.append(summarise((Histogram) metric));
+      }
+      out.append('\n');
+    }
+  }
+
+  private static String summarise(Histogram histogram) {
+    return String.format(Locale.ROOT, "count=%d mean=%.0f p50<=%d p99<=%d max=%d",
+        histogram.getCount(), histogram.getMean(), histogram.getPercentile(50),
+        histogram.getPercentile(99), histogram.getMax());
+  }
+
+  private <M> M get(String name, Class<M> type, Supplier<M> make) {
+    Object metric = this.metrics.computeIfAbsent(name, key -> make.get());
+    if (!type.isInstance(metric)) {
+      throw new IllegalArgumentException("The metric " + name + " is not a " + type.getSimpleName());
+    }
+    return type.cast(metric);
+  }
+}
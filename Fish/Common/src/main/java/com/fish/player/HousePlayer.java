@@ -1,6 +1,8 @@
 package com.fish.player;
 import com.fish.common.Coord;
+import com.fish.common.game.CachingGameTree;
 import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
 import com.fish.common.state.GameStage;
 import com.fish.common.state.GameState;
 import com.fish.common.state.PlayerColor;
@@ -10,23 +12,56 @@ import java.util.List;
  * Implementation of the PLayer interface that defines what actions a player should be able to make.
  * In this case, this is a local player who uses the minimax strategy to determine their moves.
  *
- * Depth to traverse the Minimax strategy can be set in the constructor.
+ * Depth to traverse the Minimax strategy can be set in the constructor, along with how to search
+ * the opponents' turns in games of more than two players (see SearchMode).
+ *
+ * With setPondering(true), the player keeps searching for its next move on a background thread
+ * while its opponents take their turns (see Ponderer), and answers at once when the game goes the
+ * way it expected. The moves it makes are the same either way.
+ *
+ * Otherwise, a player searching as PARANOID keeps the game tree it searched (see CachingGameTree)
+ * and follows the moves played down it, so that each search only generates the states the last
+ * one did not reach.
  */
 public class HousePlayer implements PlayerInterface {
 
   private int depth;
   private GameState gs;
   private String name;
+  private SearchMode mode;
+  private boolean pondering;
+  private PlayerColor color;
+  private Ponderer ponderer;
+  private CachingGameTree tree;
+  // the number of players in the game when this player was given its state
+  private int players;
 
   public HousePlayer(int depth, String name) {
+    this(depth, name, SearchMode.PARANOID);
+  }
+
+  public HousePlayer(int depth, String name, SearchMode mode) {
     this.depth = depth;
     this.name = name;
+    this.mode = mode;
   }
 
 
+  /**
+   * Set whether to search for moves while the opponents take their turns.
+   * @param pondering whether to ponder
+   */
+  public void setPondering(boolean pondering) {
+    this.pondering = pondering;
+    if (!pondering) {
+      this.stopPondering();
+    }
+  }
+
   @Override
   public Coord getPenguinPlacement() {
     if (this.gs != null) {
+      this.color = this.gs.getCurrentPlayer();
       return MinimaxStrategy.findNextPenguinPlacement(this.gs);
     }
 
@@ -39,7 +74,24 @@ public class HousePlayer implements PlayerInterface {
       if (this.gs.getGameStage() != GameStage.IN_PLAY) {
         this.gs.startPlay();
       }
-      return MinimaxStrategy.findCurrentPlayersBestMove(this.gs, this.depth);
+      this.color = this.gs.getCurrentPlayer();
+      if (this.pondering) {
+        if (this.ponderer == null) {
+          this.ponderer = new Ponderer(this.depth, this.mode, this.color);
+        }
+        Move move = this.ponderer.findMove(this.gs);
+        this.ponderer.clear();
+        return move;
+      }
+      if (this.mode == SearchMode.PARANOID) {
+        // the tree's states are copies, which have holes without fish
+        if (this.tree == null
+            || !this.tree.getProtectedState().equals(this.gs.getCopyGameState())) {
+          this.tree = new CachingGameTree(this.gs);
+        }
+        return MinimaxStrategy.findCurrentPlayersBestMove(this.tree, this.depth);
+      }
+      return MinimaxStrategy.findCurrentPlayersBestMove(this.gs, this.depth, this.mode);
     }
 
     throw new IllegalArgumentException("State must be set before moving penguins");
@@ -47,7 +99,10 @@ public class HousePlayer implements PlayerInterface {
 
   @Override
   public void receivePlayerRemoved(PlayerColor color) {
+    StateDelta.startPlayIfPlaced(this.gs, this.players);
     this.gs.removeCurrentPlayer();
+    this.tree = null;
+    this.ponder();
   }
 
   @Override
@@ -61,6 +116,8 @@ public class HousePlayer implements PlayerInterface {
       this.gs.startPlay();
     }
     this.gs.movePenguin(move.getOrigin(), move.getDestination());
+    this.advanceTree(move);
+    this.ponder();
   }
 
   /**
@@ -72,13 +129,77 @@ public class HousePlayer implements PlayerInterface {
    */
   @Override
   public void receiveInitialGameState(GameState gs) {
+    this.stopPondering();
+    this.color = null;
+    this.tree = null;
     this.gs = gs;
+    this.players = gs.getPlayers().size();
+  }
+
+  /**
+   * Receive the state of a game in progress in place of the one this player kept. The players
+   * removed before it are gone from the state, so the number of players the game started with,
+   * which decides how many penguins each of them places, is kept from the earlier state. A player
+   * that never had one can only count the players left in the snapshot.
+   *
+   * @param gs the state of the game
+   * @param seq the number of the last change included in the state
+   */
+  @Override
+  public void receiveGameStateSnapshot(GameState gs, int seq) {
+    int players = this.gs == null ? gs.getPlayers().size() : this.players;
+    this.receiveInitialGameState(gs);
+    this.players = players;
   }
 
   @Override
   public void receiveGameOver(List<PlayerColor> winners) {
-    // this method does nothing for now - this player does not care or have anything to do once they
-    // have received the winners.
+    // this player does not care about the winners, but has nothing left to ponder
+    this.stopPondering();
+  }
+
+  // Starts pondering on the opponents' turn, once the player knows its color
+  private void ponder() {
+    if (this.pondering && this.color != null) {
+      if (this.ponderer == null) {
+        this.ponderer = new Ponderer(this.depth, this.mode, this.color);
+      }
+      this.ponderer.ponder(this.gs);
+    }
+  }
+
+  // Follows the given move down the kept tree, if it was made from the tree's root
+  private void advanceTree(Move move) {
+    if (this.tree != null) {
+      try {
+        this.tree = this.tree.advance(move);
+      } catch (IllegalArgumentException e) {
+        this.tree = null;
+      }
+    }
+  }
+
+  private void stopPondering() {
+    if (this.ponderer != null) {
+      this.ponderer.shutdown();
+      this.ponderer = null;
+    }
+  }
+
+  /**
+   * Get the number of moves this player found already pondered.
+   * @return the number of moves answered from pondering
+   */
+  long getPonderHits() {
+    return this.ponderer == null ? 0 : this.ponderer.getHits();
+  }
+
+  /**
+   * Get the tree this player keeps between its searches.
+   * @return the tree, or null if there is none
+   */
+  CachingGameTree getTree() {
+    return this.tree;
   }
 
   // Used for outputting the results of a test game of fish.
@@ -7,6 +7,8 @@ import com.fish.common.game.IFunc;
 import com.fish.common.game.Move;
 import com.fish.common.game.MoveState;
 import com.fish.common.state.GameState;
+import com.fish.common.state.ProtectedGameState;
+import com.fish.common.state.ProtectedPlayer;
 import com.fish.common.state.PlayerColor;
 
 import java.util.*;
@@ -31,6 +33,8 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
   private final int maxMoves;
   private final PlayerColor startingColor;
   private final int numMoves;
+  // shared by every node of one search, which runs on one thread (see NodeCount)
+  private final NodeCount nodes;
 
   /**
    * Public constructor for this algorithm. Takes in the Player to maximize score for and the
@@ -39,15 +43,34 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
    * @param startingColor the player to count moves for
    */
   public MinMaxAlgorithm(int maxMoves, PlayerColor startingColor){
-    this.maxMoves = maxMoves;
-    this.startingColor = startingColor;
-    this.numMoves = 0;
+    this(0, maxMoves, startingColor, new NodeCount());
+  }
+
+  /**
+   * Constructor for this algorithm that adds the nodes it searches to the given count.
+   * @param maxMoves the depth to search this tree
+   * @param startingColor the player to count moves for
+   * @param nodes the count of nodes searched to add to
+   */
+  MinMaxAlgorithm(int maxMoves, PlayerColor startingColor, NodeCount nodes) {
+    this(0, maxMoves, startingColor, nodes);
   }
 
-  private MinMaxAlgorithm(int numMoves, int maxMoves, PlayerColor startingColor) {
+  private MinMaxAlgorithm(int numMoves, int maxMoves, PlayerColor startingColor,
+      NodeCount nodes) {
     this.maxMoves = maxMoves;
     this.startingColor = startingColor;
     this.numMoves = numMoves;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Get the number of game trees this algorithm has visited, including the states evaluated at the
+   * bottom of the search.
+   * @return the number of nodes searched
+   */
+  public long getNodesSearched() {
+    return this.nodes.get();
   }
 
 
@@ -62,9 +85,11 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
    */
   @Override
   public List<MoveValue> apply(GameTree gameTree, List<MoveValue> scores) {
+    this.nodes.inc();
     // this avoids a data race where multiple versions of this object are modifying this.numMoves
     int numberMoves = this.numMoves;
-    if (gameTree.getState().getCurrentPlayer().equals(this.startingColor) || skippedPlayer(gameTree)) {
+    if (gameTree.getProtectedState().getCurrentPlayer().equals(this.startingColor)
+        || skippedPlayer(gameTree)) {
       numberMoves += 1;
     }
 
@@ -90,15 +115,17 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
   List<MoveValue> addMoveMiddleOfTree(GameTree gameTree, int numberMoves, List<MoveValue> scores) {
     List<MoveValue> nextScores =
         HexGameTree.applyToAllReachableStates(gameTree,
-            new MinMaxAlgorithm(numberMoves, this.maxMoves, this.startingColor), new ArrayList<>());
+            new MinMaxAlgorithm(numberMoves, this.maxMoves, this.startingColor, this.nodes),
+            new ArrayList<>());
 
 
     int val;
     if (nextScores.size() == 0) {
-      val = gameTree.getState().getScoreBoard().get(this.startingColor);
+      val = gameTree.getProtectedState().getScoreBoard().get(this.startingColor);
     }
     else {
-      val = bestValue(nextScores, gameTree.getState().getCurrentPlayer().equals(this.startingColor));
+      val = bestValue(nextScores,
+          gameTree.getProtectedState().getCurrentPlayer().equals(this.startingColor));
     }
 
     //Move previousMove = gameTree.getPreviousMoves().get(0).getMove();
@@ -118,14 +145,14 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
    * @return the input list with the current node's value added to it
    */
   List<MoveValue> addFinalMove(GameTree gameTree, List<MoveValue> scores) {
-    if (gameTree.getPossibleGameStates().size() == 0) {
+    if (gameTree.getPossibleMoves().isEmpty()) {
       return scores;
     }
 
-    Move m = findBestMove(gameTree.getState());
+    Move m = findBestMove(gameTree, this.nodes);
 
     GameTree gt = gameTree.getNextGameTree(m);
-    int score = gt.getState().getScoreBoard().get(this.startingColor);
+    int score = gt.getProtectedState().getScoreBoard().get(this.startingColor);
     Move previousMove = gameTree.getPreviousMoves().get(gameTree.getPreviousMoves().size() - 1).getMove();
     scores.add(new MoveValue(previousMove, score));
     return scores;
@@ -140,13 +167,37 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
    * @return the best move for the current player at the current gamestate
    */
   static Move findBestMove(GameState gs) {
-    GameTree gt = new HexGameTree(gs);
+    return findBestMove(gs, new NodeCount());
+  }
+
+  /**
+   * Find the best move for the current player as findBestMove(gs) does, counting the states it
+   * evaluates.
+   *
+   * @param gs gamestate to find the best move for
+   * @param nodes the count of nodes searched to add to
+   * @return the best move for the current player at the current gamestate
+   */
+  static Move findBestMove(GameState gs, NodeCount nodes) {
+    return findBestMove(new HexGameTree(gs), nodes);
+  }
+
+  /**
+   * Find the best move for the current player at the root of the given tree as
+   * findBestMove(gs) does, generating the children of the root through the tree.
+   *
+   * @param gt the tree to find the best move for
+   * @param nodes the count of nodes searched to add to
+   * @return the best move for the current player at the root of the tree
+   */
+  static Move findBestMove(GameTree gt, NodeCount nodes) {
     List<MoveValue> moveValues = new ArrayList<>();
-    for (Move m: gt.getPossibleGameStates().keySet()) {
-      GameState next = gt.getNextGameTree(m).getState();
-      int score = next.getScoreBoard().get(gt.getState().getCurrentPlayer());
+    PlayerColor current = gt.getProtectedState().getCurrentPlayer();
+    for (Move m: gt.getPossibleMoves()) {
+      int score = gt.getNextGameTree(m).getProtectedState().getScoreBoard().get(current);
       moveValues.add(new MoveValue(m, score));
     }
+    nodes.add(moveValues.size());
     return MinMaxAlgorithm.calculateBestMove(moveValues).get(0).getMove();
   }
 
@@ -276,8 +327,9 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
       return false;
     }
 
-    GameState currentState = gt.getState();
-    GameState previousState = previousMoves.get(previousMoves.size() - 1).getGameState();
+    ProtectedGameState currentState = gt.getProtectedState();
+    ProtectedGameState previousState =
+        previousMoves.get(previousMoves.size() - 1).getProtectedGameState();
 
     int currentIndex = this.getIndex(currentState);
     int previousIndex = this.getIndex(previousState);
@@ -287,9 +339,10 @@ public class MinMaxAlgorithm implements IFunc<List<MoveValue>> {
   }
 
   // Find the index of the player being tracked in the given gamestate.
-  private int getIndex(GameState gs) {
-    for (int ii = 0; ii < gs.getPlayers().size(); ii++) {
-      if (gs.getPlayers().get(ii).getColor().equals(this.startingColor)) {
+  private int getIndex(ProtectedGameState gs) {
+    List<ProtectedPlayer> players = gs.getPlayers();
+    for (int ii = 0; ii < players.size(); ii++) {
+      if (players.get(ii).getColor().equals(this.startingColor)) {
         return ii;
       }
     }
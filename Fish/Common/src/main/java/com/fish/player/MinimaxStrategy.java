@@ -1,14 +1,21 @@
 package com.fish.player;
 
 import com.fish.common.Coord;
+import com.fish.common.game.GameTree;
 import com.fish.common.game.HexGameTree;
 import com.fish.common.game.Move;
 import com.fish.common.state.GameState;
 import com.fish.common.state.PlayerColor;
 import com.fish.common.tile.ProtectedTile;
+import com.fish.metrics.Counter;
+import com.fish.metrics.Histogram;
+import com.fish.metrics.Metrics;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import jdk.jfr.FlightRecorder;
 
 /**
  * Player Strategy class for placing and moving penguins. This class defines two static methods -
@@ -28,6 +35,12 @@ import java.util.Map;
  */
 public class MinimaxStrategy {
 
+  // see Metrics
+  private static final Counter SEARCHES = Metrics.counter("search.searches");
+  private static final Counter NODES = Metrics.counter("search.nodes");
+  private static final Histogram SEARCH_NANOS = Metrics.histogram("search.nanos");
+  private static final Histogram SEARCH_ALLOCATED = Metrics.histogram("search.allocated.bytes");
+
   /**
    * Basic Strategy for finding the next valid PenguinPlacement.
    *
@@ -80,12 +93,110 @@ public class MinimaxStrategy {
    * @return The best move for the player as determined by the algorithm
    */
   public static Move findCurrentPlayersBestMove(GameState gs, int nn) {
+    return findCurrentPlayersBestMove(gs, nn, SearchMode.PARANOID);
+  }
+
+  /**
+   * Find the best move for the current player after looking ahead N turns, searching the turns of
+   * the opponents as the given mode does (see SearchMode). In a two player game BEST_REPLY finds
+   * the same move as PARANOID.
+   *
+   * @param gs The Gamestate to search from
+   * @param nn The number of moves to make on behalf of the starting player
+   * @param mode how to search the opponents' turns
+   * @return The best move for the player as determined by the search
+   */
+  public static Move findCurrentPlayersBestMove(GameState gs, int nn, SearchMode mode) {
+    return find(gs, null, nn, mode, new NodeCount());
+  }
+
+  /**
+   * Find the best move for the current player as findCurrentPlayersBestMove(gs, nn, mode) does,
+   * giving up part way through once the given check says the move is no longer wanted.
+   *
+   * @param gs The Gamestate to search from
+   * @param nn The number of moves to make on behalf of the starting player
+   * @param mode how to search the opponents' turns
+   * @param cancelled whether to give up the search, checked every so many nodes (see NodeCount)
+   * @return The best move for the player as determined by the search
+   * @throws CancellationException if the search was given up
+   */
+  static Move findCurrentPlayersBestMove(GameState gs, int nn, SearchMode mode,
+      BooleanSupplier cancelled) throws CancellationException {
+    return find(gs, null, nn, mode, new NodeCount(cancelled));
+  }
+
+  /**
+   * Find the best move for the current player at the root of the given tree, as
+   * findCurrentPlayersBestMove(gs, nn) does for the state at its root, generating the states it
+   * searches through the tree. A tree that keeps the states it generates (see CachingGameTree)
+   * can then be searched again, from the same root or from a descendant, without generating them
+   * again.
+   *
+   * @param tree The tree to search, rooted at the state to search from
+   * @param nn The number of moves to make on behalf of the starting player
+   * @return The best move for the player as determined by the algorithm
+   */
+  public static Move findCurrentPlayersBestMove(GameTree tree, int nn) {
+    return find(tree.getState(), tree, nn, SearchMode.PARANOID, new NodeCount());
+  }
+
+  // Runs the search, timing it and reporting it if metrics or the event are enabled. The event is
+  // only made once the flight recorder is running, so that a search in a process that is not
+  // recording, such as an integration harness, does not load the recorder's event machinery
+  private static Move find(GameState gs, GameTree tree, int nn, SearchMode mode,
+      NodeCount nodes) {
+    if (!Metrics.ENABLED && !FlightRecorder.isInitialized()) {
+      return search(gs, tree, nn, mode, nodes);
+    }
+    SearchCompletedEvent event = new SearchCompletedEvent();
+    if (!Metrics.ENABLED && !event.isEnabled()) {
+      return search(gs, tree, nn, mode, nodes);
+    }
+
+    PlayerColor color = gs.getCurrentPlayer();
+    long allocated = Metrics.ENABLED ? Metrics.allocatedBytes() : -1;
+    long start = System.nanoTime();
+    event.begin();
+    try {
+      return search(gs, tree, nn, mode, nodes);
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.color = color.name();
+        event.depth = nn;
+        event.mode = mode.name();
+        event.nodes = nodes.get();
+        event.commit();
+      }
+      if (Metrics.ENABLED) {
+        SEARCH_NANOS.record(System.nanoTime() - start);
+        if (allocated >= 0) {
+          SEARCH_ALLOCATED.record(Metrics.allocatedBytes() - allocated);
+        }
+        NODES.add(nodes.get());
+        SEARCHES.inc();
+      }
+    }
+  }
+
+  // Runs the search, through the given tree if there is one, adding the nodes it visits to the
+  // given count
+  private static Move search(GameState gs, GameTree tree, int nn, SearchMode mode,
+      NodeCount nodes) {
+    if (mode == SearchMode.SELECTIVE) {
+      return SelectiveSearch.findBestMove(gs, nn, nodes);
+    }
+    if (mode != SearchMode.PARANOID) {
+      return MultiplayerSearch.findBestMove(gs, nn, mode, nodes);
+    }
+    GameTree root = tree != null ? tree : new HexGameTree(gs);
     if (nn <= 1) {
-      return MinMaxAlgorithm.findBestMove(gs);
+      return MinMaxAlgorithm.findBestMove(root, nodes);
     }
-    MinMaxAlgorithm algo = new MinMaxAlgorithm(nn - 1, gs.getCurrentPlayer());
+    MinMaxAlgorithm algo = new MinMaxAlgorithm(nn - 1, gs.getCurrentPlayer(), nodes);
     List<MoveValue> moveValues = HexGameTree.applyToAllReachableStates(
-        new HexGameTree(gs),
+        root,
         algo,
         new ArrayList<>());
 
@@ -0,0 +1,237 @@
+package com.fish.player;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedPlayer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The searches for games of more than two players: Best-Reply Search and Max^n (see SearchMode).
+ *
+ * Like MinMaxAlgorithm, a search looks ahead a given number of turns of the searching player, and
+ * stops just after the last of them. A player who cannot move is out of moves for the rest of the
+ * game, so once the searching player cannot move their score is final and the search stops. Both
+ * searches play moves on copies of the state rather than through a GameTree, since they need no
+ * history.
+ *
+ * Best-Reply Search scores a state by the searching player's score, as MinMaxAlgorithm does. The
+ * searching player maximises it and the best reply minimises it, with alpha-beta pruning, since
+ * with the opponents rolled into one layer the tree has two sides. After the best reply the turn
+ * goes straight back to the searching player, so the opponents who did not reply pass.
+ *
+ * Max^n scores a state by the score of every player, and every player picks the move best for
+ * themselves. No score can be more than the total of the scores and the fish left on the board,
+ * so once a player has found a move that gives them more than the total less what the player
+ * before them is already sure of, the player before them will not pick this state and its other
+ * moves are skipped (shallow pruning).
+ *
+ * In both searches, the searching player's moves from the state searched are searched with a
+ * window just below the best value so far, so moves tied with the best are scored exactly, and
+ * ties are broken the way MinMaxAlgorithm.calculateBestMove breaks them.
+ */
+public class MultiplayerSearch {
+
+  private static final int COLORS = PlayerColor.values().length;
+
+  private final SearchMode mode;
+  private final PlayerColor color;
+  // shared by every node of one search
+  private final NodeCount nodes;
+  private int total;
+
+  private MultiplayerSearch(SearchMode mode, PlayerColor color, NodeCount nodes) {
+    this.mode = mode;
+    this.color = color;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Find the best move for the current player, looking ahead the given number of their turns.
+   *
+   * @param gs the state to search from, in which the current player has a move
+   * @param nn the number of turns of the current player to look ahead, at least 1
+   * @param mode BEST_REPLY or MAX_N
+   * @param nodes the count of nodes searched to add to
+   * @return the best move
+   * @throws IllegalArgumentException if the mode is PARANOID or SELECTIVE, which MinMaxAlgorithm
+   *     and SelectiveSearch search
+   */
+  public static Move findBestMove(GameState gs, int nn, SearchMode mode, NodeCount nodes) {
+    if (mode != SearchMode.BEST_REPLY && mode != SearchMode.MAX_N) {
+      throw new IllegalArgumentException(mode + " searches are not made by MultiplayerSearch");
+    }
+    return new MultiplayerSearch(mode, gs.getCurrentPlayer(), nodes).search(gs, Math.max(nn, 1));
+  }
+
+  // Scores every move of the searching player and picks the best
+  private Move search(GameState gs, int nn) {
+    this.nodes.inc();
+    this.total = total(gs);
+    List<MoveValue> moveValues = new ArrayList<>();
+    int best = Integer.MIN_VALUE;
+    for (Move move : moves(gs)) {
+      GameState next = play(gs, move);
+      int value;
+      if (this.mode == SearchMode.BEST_REPLY) {
+        value = this.afterMove(next, nn - 1, best == Integer.MIN_VALUE ? best : best - 1,
+            Integer.MAX_VALUE);
+      }
+      else {
+        value = this.maxN(next, nn - 1, best == Integer.MIN_VALUE ? best : best - 1)
+            [this.color.ordinal()];
+      }
+      best = Math.max(best, value);
+      moveValues.add(new MoveValue(move, value));
+    }
+    return MinMaxAlgorithm.calculateBestMove(moveValues).get(0).getMove();
+  }
+
+  ///////////////////////////////// Best-Reply Search
+
+  // The value of a state in which the searching player is to move, unless they cannot
+  private int max(GameState gs, int turnsLeft, int alpha, int beta) {
+    this.nodes.inc();
+    if (gs.getGameStage() == GameStage.GAMEOVER || !canMove(gs, this.color)) {
+      return this.score(gs);
+    }
+    int value = Integer.MIN_VALUE;
+    for (Move move : moves(gs)) {
+      value = Math.max(value, this.afterMove(play(gs, move), turnsLeft - 1, alpha, beta));
+      alpha = Math.max(alpha, value);
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    return value;
+  }
+
+  // The value of a state just after the searching player has moved
+  private int afterMove(GameState gs, int turnsLeft, int alpha, int beta) {
+    if (turnsLeft <= 0 || gs.getGameStage() == GameStage.GAMEOVER) {
+      this.nodes.inc();
+      return this.score(gs);
+    }
+    return this.bestReply(gs, turnsLeft, alpha, beta);
+  }
+
+  // The value of the best reply of any opponent, after which the searching player moves again
+  private int bestReply(GameState gs, int turnsLeft, int alpha, int beta) {
+    this.nodes.inc();
+    int value = Integer.MAX_VALUE;
+    boolean replied = false;
+    for (ProtectedPlayer opponent : gs.getPlayers()) {
+      if (opponent.getColor() == this.color || !canMove(gs, opponent.getColor())) {
+        continue;
+      }
+      GameState turn = turnTo(gs.getCopyGameState(), opponent.getColor());
+      for (Move move : moves(turn)) {
+        GameState next = turnTo(play(turn, move), this.color);
+        value = Math.min(value, this.max(next, turnsLeft, alpha, beta));
+        beta = Math.min(beta, value);
+        replied = true;
+        if (alpha >= beta) {
+          return value;
+        }
+      }
+    }
+    if (!replied) {
+      return this.max(turnTo(gs.getCopyGameState(), this.color), turnsLeft, alpha, beta);
+    }
+    return value;
+  }
+
+  ///////////////////////////////// Max^n
+
+  // The scores of every player, by color, when every player plays for themselves. bound is the
+  // score the player who moved into this state is already sure of.
+  private int[] maxN(GameState gs, int turnsLeft, int bound) {
+    this.nodes.inc();
+    if (turnsLeft <= 0 || gs.getGameStage() == GameStage.GAMEOVER || !canMove(gs, this.color)) {
+      return scores(gs);
+    }
+    PlayerColor mover = gs.getCurrentPlayer();
+    int left = mover == this.color ? turnsLeft - 1 : turnsLeft;
+    int[] best = null;
+    for (Move move : moves(gs)) {
+      int[] value = this.maxN(play(gs, move), left,
+          best == null ? Integer.MIN_VALUE : best[mover.ordinal()]);
+      if (best == null || value[mover.ordinal()] > best[mover.ordinal()]) {
+        best = value;
+      }
+      if (bound != Integer.MIN_VALUE && best[mover.ordinal()] >= this.total - bound) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  ///////////////////////////////// Helpers
+
+  private int score(GameState gs) {
+    Integer score = gs.getScoreBoard().get(this.color);
+    return score == null ? 0 : score;
+  }
+
+  private static int[] scores(GameState gs) {
+    int[] scores = new int[COLORS];
+    for (Map.Entry<PlayerColor, Integer> entry : gs.getScoreBoard().entrySet()) {
+      scores[entry.getKey().ordinal()] = entry.getValue();
+    }
+    return scores;
+  }
+
+  // The most that all the scores can add up to in the rest of the game
+  private static int total(GameState gs) {
+    int total = 0;
+    for (int score : gs.getScoreBoard().values()) {
+      total += score;
+    }
+    for (int[] column : gs.getGameBoard().getBoardDataRepresentation()) {
+      for (int fish : column) {
+        total += fish;
+      }
+    }
+    return total;
+  }
+
+  // The moves of the current player, penguin by penguin
+  private static List<Move> moves(GameState gs) {
+    List<Move> moves = new ArrayList<>();
+    for (Coord from : gs.getPenguinLocationsOf(gs.getCurrentPlayer())) {
+      for (Coord to : gs.getTilesReachableFrom(from)) {
+        moves.add(new Move(from, to));
+      }
+    }
+    return moves;
+  }
+
+  private static boolean canMove(GameState gs, PlayerColor color) {
+    for (Coord from : gs.getPenguinLocationsOf(color)) {
+      if (!gs.getTilesReachableFrom(from).isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static GameState play(GameState gs, Move move) {
+    GameState next = gs.getCopyGameState();
+    next.movePenguin(move.getOrigin(), move.getDestination());
+    return next;
+  }
+
+  // Passes the turn round to the given player, if they are still in the game
+  private static GameState turnTo(GameState gs, PlayerColor color) {
+    if (gs.getGameStage() != GameStage.GAMEOVER && gs.getScoreBoard().containsKey(color)) {
+      while (gs.getCurrentPlayer() != color) {
+        gs.advanceToNextPlayer();
+      }
+    }
+    return gs;
+  }
+}
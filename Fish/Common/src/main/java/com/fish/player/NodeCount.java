@@ -0,0 +1,76 @@
+package com.fish.player;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The number of nodes a search has visited, shared by every part of the one search. A search runs
+ * on one thread, so this is a plain count rather than an atomic one, and counting a node costs no
+ * more than an increment whether or not anything reads the count (see Metrics).
+ *
+ * A count may also be given a check for whether its search is still wanted, such as a pondered
+ * search that the game has moved past (see Ponderer). The check is made every CHECK_EVERY nodes,
+ * and once it says the search is not wanted, counting the next node stops the search by throwing
+ * a CancellationException.
+ */
+public final class NodeCount {
+
+  // the nodes counted between checks for cancellation, a power of two
+  static final int CHECK_EVERY = 1024;
+
+  private final BooleanSupplier cancelled;
+  private long count;
+
+  /**
+   * Create a count for a search that runs to the end.
+   */
+  public NodeCount() {
+    this(null);
+  }
+
+  /**
+   * Create a count for a search that stops once the given check says so.
+   * @param cancelled whether the search should stop, or null if it never should
+   */
+  public NodeCount(BooleanSupplier cancelled) {
+    this.cancelled = cancelled;
+  }
+
+  /**
+   * Count one more node.
+   * @throws CancellationException if the search has been cancelled
+   */
+  public void inc() throws CancellationException {
+    this.count++;
+    if ((this.count & (CHECK_EVERY - 1)) == 0) {
+      this.checkCancelled();
+    }
+  }
+
+  /**
+   * Count the given number of nodes.
+   * @param nodes the number of nodes visited
+   * @throws CancellationException if the search has been cancelled
+   */
+  public void add(long nodes) throws CancellationException {
+    long before = this.count;
+    this.count += nodes;
+    if (before / CHECK_EVERY != this.count / CHECK_EVERY) {
+      this.checkCancelled();
+    }
+  }
+
+  /**
+   * Get the number of nodes counted.
+   * @return the count
+   */
+  public long get() {
+    return this.count;
+  }
+
+  private void checkCancelled() {
+    if (this.cancelled != null && this.cancelled.getAsBoolean()) {
+      throw new CancellationException("The search is no longer wanted");
+    }
+  }
+}
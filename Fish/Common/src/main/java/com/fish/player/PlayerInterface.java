@@ -2,6 +2,7 @@ package com.fish.player;
 
 import com.fish.common.Coord;
 import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
 import com.fish.common.state.GameState;
 import com.fish.common.state.PlayerColor;
 import java.util.List;
@@ -64,15 +65,55 @@ public interface PlayerInterface {
    */
   void receivePenguinMovement(Move move, PlayerColor color);
 
+  /**
+   * Receive one numbered change to the game. The referee sends every placement, movement and
+   * removal this way, in order, starting from 1 after the initial gamestate.
+   *
+   * By default the change is handed to receivePenguinPlacement, receivePenguinMovement or
+   * receivePlayerRemoved. A player that wants the sequence number (to notice a missed change), the
+   * fish collected or the resulting score can override this instead.
+   *
+   * @param delta the change that was made
+   */
+  default void receiveStateDelta(StateDelta delta) {
+    switch (delta.getKind()) {
+      case PLACED:
+        this.receivePenguinPlacement(delta.getPlacement(), delta.getColor());
+        break;
+      case MOVED:
+        this.receivePenguinMovement(delta.getMove(), delta.getColor());
+        break;
+      default:
+        this.receivePlayerRemoved(delta.getColor());
+    }
+  }
+
   /**
    * Recieve the inital gamestate from the referee for this game of fish. The player will be responsible
    * for updating their copy of the game according the penguin placements and movements after it
    * recieves this initial version.
    *
+   * A player that joins late or needs to resynchronise may instead be sent the state of a game
+   * already in progress, after which it receives the changes that follow it.
+   *
    * @param gs the starting gamestate (with no pengiuns) passed to the player by the referee.
    */
   void receiveInitialGameState(GameState gs);
 
+  /**
+   * Receive the state of a game already in progress, as of the change numbered seq, for example
+   * after falling behind. The changes sent after it are numbered from seq + 1.
+   *
+   * By default the state is handed to receiveInitialGameState. A player that checks the sequence
+   * numbers of the changes it receives can override this to learn where to continue from.
+   *
+   * @param gs the state of the game
+   * @param seq the number of the last change included in the state, or 0 if there was none
+   */
+  default void receiveGameStateSnapshot(GameState gs, int seq) {
+    this.receiveInitialGameState(gs);
+  }
+
   /**
    * Recieve a message indicating who won the game. The player can do whatever they want with this
    * information since it will only be sent when the game is completed.
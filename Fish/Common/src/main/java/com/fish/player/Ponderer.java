@@ -0,0 +1,211 @@
+package com.fish.player;
+
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.metrics.Counter;
+import com.fish.metrics.Metrics;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searches for a HousePlayer's next move on a background thread while its opponents are thinking
+ * (pondering).
+ *
+ * When it becomes an opponent's turn, the ponderer plays out the likely continuations on a copy of
+ * the state: at each opponent's turn, the REPLIES moves that score the most, and of those the ones
+ * onto the tiles with the most fish, until it is the player's turn again. For each state it
+ * reaches in which it is the player's turn, it searches for the player's best move, just as the
+ * player would, and keeps the move in its cache. States are pondered breadth first, so the
+ * likeliest continuations are searched first.
+ *
+ * When the player's turn comes, the cache is checked for the state the game is actually in. If the
+ * move has been found, it is played at once; if it is still being searched, the player waits for
+ * that search rather than starting again; otherwise the player searches for itself. Either way,
+ * any pondering left to do is given up, and a search already started for any other state is
+ * cancelled part way through (see NodeCount), so that it does not hold up the next pondering. The
+ * cache is emptied once the player has moved, since none of its states can come up again.
+ *
+ * States are kept in the cache by their copies (see getCopyGameState), which have holes without
+ * fish, so that a state reached by pondering and the same state reached by the game are equal.
+ */
+class Ponderer {
+
+  // see Metrics
+  private static final Counter HITS = Metrics.counter("ponder.hits");
+  private static final Counter MISSES = Metrics.counter("ponder.misses");
+
+  // the moves of each opponent's turn to ponder, and the most states of the player's turn to
+  // search for each turn of theirs
+  static final int REPLIES = 3;
+  static final int MAX_SEARCHES = 64;
+
+  private final int depth;
+  private final SearchMode mode;
+  private final PlayerColor color;
+  private final ExecutorService thread;
+  private final Map<GameState, CompletableFuture<Move>> cache = new ConcurrentHashMap<>();
+  // changed whenever pondering should stop, so that a pondering that has been overtaken stops
+  private final AtomicInteger generation = new AtomicInteger();
+  private final AtomicLong hits = new AtomicLong();
+  // the state the player is waiting on the pondered move of, which is searched to the end
+  private volatile GameState wanted;
+
+  /**
+   * Set up pondering for a player.
+   * @param depth the depth the player searches to
+   * @param mode how the player searches
+   * @param color the color of the player
+   */
+  Ponderer(int depth, SearchMode mode, PlayerColor color) {
+    this.depth = depth;
+    this.mode = mode;
+    this.color = color;
+    this.thread = Executors.newSingleThreadExecutor(task -> {
+      Thread tt = new Thread(task, "ponder-" + color);
+      tt.setDaemon(true);
+      return tt;
+    });
+  }
+
+  /**
+   * Start pondering from the given state, giving up on any earlier pondering, if it is an
+   * opponent's turn.
+   * @param gs the state of the game, which is copied
+   */
+  void ponder(GameState gs) {
+    if (gs.getGameStage() != GameStage.IN_PLAY || gs.getCurrentPlayer() == this.color) {
+      return;
+    }
+    int gen = this.generation.incrementAndGet();
+    GameState start = gs.getCopyGameState();
+    this.thread.execute(() -> this.run(start, gen));
+  }
+
+  /**
+   * Find the player's move in the given state, from the cache if it has been pondered.
+   * @param gs the state of the game, in which it is the player's turn
+   * @return the best move
+   */
+  Move findMove(GameState gs) {
+    GameState key = gs.getCopyGameState();
+    this.wanted = key;
+    this.generation.incrementAndGet();
+    CompletableFuture<Move> pondered = this.cache.get(key);
+    if (pondered != null) {
+      try {
+        Move move = pondered.join();
+        this.hits.incrementAndGet();
+        if (Metrics.ENABLED) {
+          HITS.inc();
+        }
+        return move;
+      } catch (CompletionException | CancellationException e) {
+        // the pondered search failed or was given up, so search again
+      }
+    }
+    if (Metrics.ENABLED) {
+      MISSES.inc();
+    }
+    return MinimaxStrategy.findCurrentPlayersBestMove(gs, this.depth, this.mode);
+  }
+
+  /**
+   * Forget every pondered move, once the player has moved.
+   */
+  void clear() {
+    this.wanted = null;
+    this.generation.incrementAndGet();
+    this.cache.clear();
+  }
+
+  /**
+   * Stop pondering for good.
+   */
+  void shutdown() {
+    this.generation.incrementAndGet();
+    this.thread.shutdownNow();
+  }
+
+  /**
+   * Get the number of moves the player has found already pondered.
+   * @return the number of hits
+   */
+  long getHits() {
+    return this.hits.get();
+  }
+
+  /**
+   * Wait for the pondering already started to finish.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  void awaitIdle() throws InterruptedException {
+    try {
+      this.thread.submit(() -> { }).get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Pondering failed", e.getCause());
+    }
+  }
+
+  // Ponders the continuations of the given state until they run out, MAX_SEARCHES have been
+  // searched, or the pondering is overtaken
+  private void run(GameState start, int gen) {
+    Deque<GameState> queue = new ArrayDeque<>();
+    queue.add(start);
+    int searches = 0;
+    while (!queue.isEmpty() && searches < MAX_SEARCHES && this.generation.get() == gen) {
+      GameState gs = queue.poll();
+      if (gs.getGameStage() != GameStage.IN_PLAY) {
+        continue;
+      }
+      if (gs.getCurrentPlayer() != this.color) {
+        for (Move move : likelyMoves(gs)) {
+          GameState next = gs.getCopyGameState();
+          next.movePenguin(move.getOrigin(), move.getDestination());
+          queue.add(next);
+        }
+        continue;
+      }
+      CompletableFuture<Move> move = new CompletableFuture<>();
+      GameState key = gs.getCopyGameState();
+      if (this.cache.putIfAbsent(key, move) == null) {
+        searches++;
+        try {
+          move.complete(MinimaxStrategy.findCurrentPlayersBestMove(gs, this.depth, this.mode,
+              () -> this.isOvertaken(gen, key)));
+        } catch (CancellationException e) {
+          // nobody is waiting on it, so leave the state to be pondered again
+          this.cache.remove(key, move);
+          move.completeExceptionally(e);
+        } catch (RuntimeException e) {
+          move.completeExceptionally(e);
+        }
+      }
+    }
+  }
+
+  // Whether the pondering of the given generation has been overtaken and its search for the given
+  // state is not the one the player is waiting on. The player sets the state it waits on before
+  // overtaking the pondering, so a search it waits on is never cancelled
+  private boolean isOvertaken(int gen, GameState key) {
+    return this.generation.get() != gen && !key.equals(this.wanted);
+  }
+
+  // The REPLIES moves of the current player that score the most, then land on the most fish
+  private static List<Move> likelyMoves(GameState gs) {
+    List<Move> moves = SelectiveSearch.orderedMoves(gs);
+    return moves.subList(0, Math.min(REPLIES, moves.size()));
+  }
+}
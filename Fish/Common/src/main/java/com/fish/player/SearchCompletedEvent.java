@@ -0,0 +1,33 @@
+package com.fish.player;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a search by MinimaxStrategy for the best move of the current player.
+ */
+@Name("com.fish.SearchCompleted")
+@Label("Search Completed")
+@Category({"Fish", "Search"})
+@Description("A search for the best move of the current player")
+@StackTrace(false)
+class SearchCompletedEvent extends jdk.jfr.Event {
+
+  @Label("Color")
+  String color;
+
+  @Label("Depth")
+  @Description("The number of turns of the searching player looked ahead")
+  int depth;
+
+  @Label("Mode")
+  @Description("How the opponents' turns were searched")
+  String mode;
+
+  @Label("Nodes")
+  @Description("The game trees visited by the search")
+  long nodes;
+}
@@ -0,0 +1,24 @@
+package com.fish.player;
+
+/**
+ * How a HousePlayer searches for its moves (see MinimaxStrategy.findCurrentPlayersBestMove). The
+ * first three differ in how they search the opponents' turns in games of more than two players.
+ *
+ * PARANOID : minimax, where every opponent's turn is searched in full and every opponent tries to
+ *            keep the searching player's score down. The tree grows with every opponent's moves,
+ *            so in a 4 player game each turn of the searching player costs three layers of
+ *            opponents' moves.
+ * BEST_REPLY : Best-Reply Search, where the opponents' turns between two turns of the searching
+ *            player are searched as one layer, made of every move of every opponent, and only the
+ *            single move that is worst for the searching player is played. Each turn of the
+ *            searching player then costs one layer of opponents' moves, whatever the number of
+ *            players, so it searches about as deep as PARANOID does in a 2 player game.
+ * MAX_N : Max^n, where every player, including the opponents, plays for their own score rather
+ *            than against the searching player, with shallow pruning.
+ * SELECTIVE : PARANOID, with alpha-beta pruning, pruning on the fish the searching player can
+ *            still get, and late move reductions (see SelectiveSearch). It visits far fewer nodes
+ *            than PARANOID, and the reductions may make it pick a different move.
+ */
+public enum SearchMode {
+  PARANOID, BEST_REPLY, MAX_N, SELECTIVE
+}
@@ -0,0 +1,284 @@
+package com.fish.player;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedGameState;
+import com.fish.common.state.ProtectedPlayer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The selective paranoid search (see SearchMode.SELECTIVE): the search MinMaxAlgorithm makes, with
+ * alpha-beta pruning, pruning on how many fish the searching player can still get, and late move
+ * reductions.
+ *
+ * A state is valued just as MinMaxAlgorithm values it: by the searching player's score once they
+ * have had the given number of turns, the last of which is greedy, with a game that ends before
+ * then valued by the score it ends with. The searching player's moves from the state searched are
+ * searched with a window just below the best value so far, so moves tied with the best are scored
+ * exactly, and ties are broken the way MinMaxAlgorithm.calculateBestMove breaks them.
+ *
+ * Futility pruning: a penguin can only ever reach the tiles joined to it by tiles that are neither
+ * holes nor under a penguin, and each turn it scores the fish of the one tile it leaves. The
+ * searching player can therefore get no more than their score plus, for each of their turns left,
+ * one of the tiles under their penguins or reachable by them, the biggest first. A state in which
+ * even that cannot beat what the searching player is already sure of is not searched, and nor is
+ * a state in which their score already reaches what an opponent is already sure of holding them
+ * to, since scores only go up. Neither changes the move found.
+ *
+ * Late move reductions: moves are searched in the order of the fish on the tile they leave, then
+ * on the tile they land on, so the likeliest best moves come first. Once the searching player is
+ * sure of a value in a state of their turn, each of their moves after the first FULL_WIDTH_MOVES
+ * is first searched one turn of theirs less deep, with a null window, and only searched to full
+ * depth if that shows it may be better than the moves before it, allowing for the fish the turn
+ * left out could score. Opponents' moves are not reduced,
+ * so that a reply that refutes a move is not missed. Unlike the pruning, the reductions may change
+ * the move found, in exchange for fewer nodes.
+ */
+public class SelectiveSearch {
+
+  // the moves of each state searched to full depth before the rest are reduced
+  static final int FULL_WIDTH_MOVES = 3;
+  // the value of a state in which the game is over when the search would have made its last move;
+  // MinMaxAlgorithm leaves such states out of the values of their parent
+  private static final int NONE = Integer.MIN_VALUE;
+  private static final int MAX_FISH = 5;
+
+  private final PlayerColor color;
+  private final boolean reductions;
+  // shared by every node of one search
+  private final NodeCount nodes;
+
+  private SelectiveSearch(PlayerColor color, boolean reductions, NodeCount nodes) {
+    this.color = color;
+    this.reductions = reductions;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Find the best move for the current player, looking ahead the given number of their turns.
+   *
+   * @param gs the state to search from, in which the current player has a move
+   * @param nn the number of turns of the current player to look ahead
+   * @param nodes the count of nodes searched to add to
+   * @return the best move
+   */
+  public static Move findBestMove(GameState gs, int nn, NodeCount nodes) {
+    return findBestMove(gs, nn, true, nodes);
+  }
+
+  /**
+   * Find the best move for the current player as findBestMove(gs, nn, nodes) does, with or
+   * without late move reductions. Without them, the move found is the one MinMaxAlgorithm finds.
+   *
+   * @param gs the state to search from, in which the current player has a move
+   * @param nn the number of turns of the current player to look ahead
+   * @param reductions whether to reduce late moves
+   * @param nodes the count of nodes searched to add to
+   * @return the best move
+   */
+  static Move findBestMove(GameState gs, int nn, boolean reductions, NodeCount nodes) {
+    if (nn <= 1) {
+      return MinMaxAlgorithm.findBestMove(gs, nodes);
+    }
+    return new SelectiveSearch(gs.getCurrentPlayer(), reductions, nodes).search(gs, nn - 1);
+  }
+
+  /**
+   * The moves of the current player, in the order the fish on the tile they leave, then on the
+   * tile they land on, the most first.
+   *
+   * @param gs the state to find the moves of
+   * @return the ordered moves
+   */
+  static List<Move> orderedMoves(ProtectedGameState gs) {
+    List<Move> moves = new ArrayList<>();
+    for (Coord from : gs.getPenguinLocationsOf(gs.getCurrentPlayer())) {
+      for (Coord to : gs.getTilesReachableFrom(from)) {
+        moves.add(new Move(from, to));
+      }
+    }
+    moves.sort((aa, bb) -> {
+      int scored = gs.getTileAt(bb.getOrigin()).getNumFish()
+          - gs.getTileAt(aa.getOrigin()).getNumFish();
+      return scored != 0 ? scored : gs.getTileAt(bb.getDestination()).getNumFish()
+          - gs.getTileAt(aa.getDestination()).getNumFish();
+    });
+    return moves;
+  }
+
+  // Values every move of the searching player and picks the best
+  private Move search(GameState gs, int maxMoves) {
+    this.nodes.inc();
+    List<Move> moves = orderedMoves(gs);
+    List<MoveValue> moveValues = new ArrayList<>();
+    int best = NONE;
+    for (Move move : moves) {
+      int value = this.value(play(gs, move), gs, 0, maxMoves,
+          best == NONE ? Integer.MIN_VALUE : best - 1, Integer.MAX_VALUE);
+      if (value != NONE) {
+        best = Math.max(best, value);
+        moveValues.add(new MoveValue(move, value));
+      }
+    }
+    if (moveValues.isEmpty()) {
+      // every move ends the game
+      return MinMaxAlgorithm.findBestMove(gs, this.nodes);
+    }
+    return MinMaxAlgorithm.calculateBestMove(moveValues).get(0).getMove();
+  }
+
+  // The value of the given state, reached from the previous state after numMoves turns of the
+  // searching player, or NONE
+  private int value(GameState gs, ProtectedGameState previous, int numMoves, int maxMoves,
+      int alpha, int beta) {
+    this.nodes.inc();
+    boolean isMax = gs.getCurrentPlayer() == this.color;
+    int moved = isMax || this.skipped(previous, gs) ? numMoves + 1 : numMoves;
+    List<Move> moves = orderedMoves(gs);
+    int score = this.score(gs);
+
+    if (moved >= maxMoves) {
+      if (moves.isEmpty()) {
+        return NONE;
+      }
+      // the last move is greedy, so only the searching player's own last move scores for them
+      return isMax ? score + mostFishLeft(gs, moves) : score;
+    }
+    if (moves.isEmpty()) {
+      return score;
+    }
+    int bound = this.upperBound(gs, score, maxMoves - moved + 1);
+    if (bound <= alpha) {
+      return bound;
+    }
+    if (score >= beta) {
+      return score;
+    }
+
+    int best = NONE;
+    for (int ii = 0; ii < moves.size(); ii++) {
+      GameState next = play(gs, moves.get(ii));
+      int value = NONE;
+      if (this.reductions && isMax && alpha != Integer.MIN_VALUE && ii >= FULL_WIDTH_MOVES
+          && maxMoves - moved >= 1) {
+        // the turn left out can score at most one more tile
+        int margin = this.upperBound(gs, 0, 1);
+        value = this.value(next, gs, moved, maxMoves - 1, alpha - margin, alpha - margin + 1);
+        if (value > alpha - margin) {
+          // it may be better than the moves before it after all
+          value = NONE;
+        }
+        else if (value != NONE) {
+          value = Math.min(alpha, value + margin);
+        }
+      }
+      if (value == NONE) {
+        value = this.value(next, gs, moved, maxMoves, alpha, beta);
+      }
+      if (value == NONE) {
+        continue;
+      }
+      if (isMax) {
+        best = best == NONE ? value : Math.max(best, value);
+        alpha = Math.max(alpha, value);
+      }
+      else {
+        best = best == NONE ? value : Math.min(best, value);
+        beta = Math.min(beta, value);
+      }
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    return best == NONE ? score : best;
+  }
+
+  // The most the searching player can score in the given number of their turns: their score plus
+  // that many of the tiles under their penguins or reachable by them, the biggest first
+  private int upperBound(ProtectedGameState gs, int score, int turns) {
+    int[][] fish = gs.getGameBoard().getBoardDataRepresentation();
+    Map<Coord, PlayerColor> penguins = gs.getPenguinLocations();
+    boolean[][] seen = new boolean[fish.length][fish.length == 0 ? 0 : fish[0].length];
+    int[] counts = new int[MAX_FISH + 1];
+    Deque<Coord> frontier = new ArrayDeque<>();
+    for (Coord loc : gs.getPenguinLocationsOf(this.color)) {
+      seen[loc.getX()][loc.getY()] = true;
+      counts[Math.min(fish[loc.getX()][loc.getY()], MAX_FISH)]++;
+      frontier.add(loc);
+    }
+    while (!frontier.isEmpty()) {
+      Coord loc = frontier.poll();
+      int xx = loc.getX();
+      int yy = loc.getY();
+      for (int dy = -2; dy <= 2; dy++) {
+        if (dy == 0) {
+          continue;
+        }
+        int ny = yy + dy;
+        if (ny < 0 || ny >= fish[0].length) {
+          continue;
+        }
+        // a tile's diagonal neighbours in the rows next to it are offset by the row's parity
+        int[] xs = dy % 2 == 0 ? new int[] {xx} : new int[] {xx - ny % 2, xx + (ny + 1) % 2};
+        for (int nx : xs) {
+          if (nx >= 0 && nx < fish.length && !seen[nx][ny] && fish[nx][ny] > 0
+              && !penguins.containsKey(new Coord(nx, ny))) {
+            seen[nx][ny] = true;
+            counts[Math.min(fish[nx][ny], MAX_FISH)]++;
+            frontier.add(new Coord(nx, ny));
+          }
+        }
+      }
+    }
+    int bound = score;
+    for (int ff = MAX_FISH; ff > 0 && turns > 0; ff--) {
+      int taken = Math.min(counts[ff], turns);
+      bound += taken * ff;
+      turns -= taken;
+    }
+    return bound;
+  }
+
+  // The most fish on a tile the current player can leave
+  private static int mostFishLeft(ProtectedGameState gs, List<Move> moves) {
+    int most = 0;
+    for (Move move : moves) {
+      most = Math.max(most, gs.getTileAt(move.getOrigin()).getNumFish());
+    }
+    return most;
+  }
+
+  private int score(ProtectedGameState gs) {
+    Integer score = gs.getScoreBoard().get(this.color);
+    return score == null ? 0 : score;
+  }
+
+  // Whether the searching player was skipped by the move from the previous state to the given one,
+  // as MinMaxAlgorithm.skippedPlayer decides it
+  private boolean skipped(ProtectedGameState previous, ProtectedGameState gs) {
+    int previousIndex = this.getIndex(previous);
+    return previousIndex != 0 && previousIndex <= this.getIndex(gs);
+  }
+
+  private int getIndex(ProtectedGameState gs) {
+    List<ProtectedPlayer> players = gs.getPlayers();
+    for (int ii = 0; ii < players.size(); ii++) {
+      if (players.get(ii).getColor() == this.color) {
+        return ii;
+      }
+    }
+    return 0;
+  }
+
+  private static GameState play(GameState gs, Move move) {
+    GameState next = gs.getCopyGameState();
+    next.movePenguin(move.getOrigin(), move.getDestination());
+    return next;
+  }
+}
@@ -0,0 +1,427 @@
+package com.fish.remote;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.common.state.ProtectedGameState;
+import com.fish.common.state.ProtectedPlayer;
+import com.fish.common.tile.ProtectedTile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the values exchanged with remote players, as an alternative to the
+ * JSON shapes used by the integration test harnesses and RemotePlayer.
+ *
+ * Everything is read from and written to a ByteBuffer directly; no intermediate objects are built
+ * besides the decoded values themselves.
+ *
+ * Encodings (a varint is an unsigned LEB128 integer: 7 bits per byte, low bits first, with the
+ * high bit set on every byte but the last; a zigzag varint maps 0, -1, 1, -2 ... to 0, 1, 2, 3 ...
+ * first so small negative numbers stay small):
+ *  - Color:     one byte, the ordinal of the PlayerColor
+ *  - Position:  varint column, varint row
+ *  - Action:    the origin Position, then the zigzag varint change in column and in row from the
+ *               origin to the destination. Penguins move in straight lines, so these are small.
+ *  - Board:     varint rows, varint columns, one byte B for the number of bits per tile, then every
+ *               tile's fish (0 for a hole) packed B bits at a time, low bits first, in column-major
+ *               order (all the rows of column 0, then column 1, ...). B is 3 for any board of the
+ *               real game.
+ *  - Delta:     varint sequence number, one byte for the Kind ordinal, Color, then for PLACED the
+ *               Position, for MOVED the Action and the varint fish and score
+ *  - State:     one byte for the GameStage ordinal, the Board, a varint number of players and for
+ *               each player in turn order: Color, varint score, varint number of penguins and their
+ *               Positions.
+ *  - Snapshot:  varint sequence number of the last change included, then the State, which carries
+ *               its own stage
+ *
+ * The tags below name the messages of the BINARY protocol spoken by RemotePlayer and RemoteClient.
+ * They are the counterparts of the message names in RemotePlayer and are written as a single byte
+ * before the message's arguments:
+ *  - SETUP     State
+ *  - SNAPSHOT  Snapshot
+ *  - PLACED    Position, Color
+ *  - MOVED     Action, Color
+ *  - REMOVED   Color
+ *  - DELTA     Delta
+ *  - END       varint number of winners, then their Colors (see putColors)
+ *  - PLACE     request: the reply is a Position, without a tag
+ *  - MOVE      request: the reply is an Action, without a tag
+ * Messages are sent in frames, see FrameWriter and FrameReader.
+ */
+public final class BinaryCodec {
+
+  public static final byte SETUP = 1;
+  public static final byte PLACED = 2;
+  public static final byte MOVED = 3;
+  public static final byte REMOVED = 4;
+  public static final byte END = 5;
+  public static final byte PLACE = 6;
+  public static final byte MOVE = 7;
+  public static final byte DELTA = 8;
+  public static final byte SNAPSHOT = 9;
+
+  private static final PlayerColor[] COLORS = PlayerColor.values();
+  private static final GameStage[] STAGES = GameStage.values();
+  private static final StateDelta.Kind[] KINDS = StateDelta.Kind.values();
+
+  //No constructor needed because this class only serves the purpose of its static methods
+  private BinaryCodec() {
+  }
+
+  ///////////////////////////////// NUMBERS
+
+  /**
+   * Write a non-negative int as a varint.
+   *
+   * @param buf the buffer to write to
+   * @param value the value to write
+   * @throws IllegalArgumentException if the value is negative
+   */
+  public static void putVarint(ByteBuffer buf, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Varints cannot be negative: " + value);
+    }
+    while ((value & ~0x7F) != 0) {
+      buf.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buf.put((byte) value);
+  }
+
+  /**
+   * Read a varint written by putVarint.
+   *
+   * @param buf the buffer to read from
+   * @return the value read
+   * @throws IllegalArgumentException if the varint does not fit in a non-negative int
+   */
+  public static int getVarint(ByteBuffer buf) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buf.get();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  /**
+   * Write any int as a zigzag varint.
+   *
+   * @param buf the buffer to write to
+   * @param value the value to write
+   */
+  public static void putSignedVarint(ByteBuffer buf, int value) {
+    int zigzag = (value << 1) ^ (value >> 31);
+    while ((zigzag & ~0x7F) != 0) {
+      buf.put((byte) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    buf.put((byte) zigzag);
+  }
+
+  /**
+   * Read a zigzag varint written by putSignedVarint.
+   *
+   * @param buf the buffer to read from
+   * @return the value read
+   */
+  public static int getSignedVarint(ByteBuffer buf) {
+    int zigzag = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = buf.get();
+      zigzag |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  ///////////////////////////////// VALUES
+
+  /**
+   * Write a color.
+   * @param buf the buffer to write to
+   * @param color the color to write
+   */
+  public static void putColor(ByteBuffer buf, PlayerColor color) {
+    buf.put((byte) color.ordinal());
+  }
+
+  /**
+   * Read a color.
+   * @param buf the buffer to read from
+   * @return the color read
+   * @throws IllegalArgumentException if the byte read is not a color
+   */
+  public static PlayerColor getColor(ByteBuffer buf) {
+    int ordinal = buf.get();
+    if (ordinal < 0 || ordinal >= COLORS.length) {
+      throw new IllegalArgumentException("Not a color: " + ordinal);
+    }
+    return COLORS[ordinal];
+  }
+
+  /**
+   * Write a list of colors, preceded by their number.
+   * @param buf the buffer to write to
+   * @param colors the colors to write
+   */
+  public static void putColors(ByteBuffer buf, List<PlayerColor> colors) {
+    putVarint(buf, colors.size());
+    for (PlayerColor pc : colors) {
+      putColor(buf, pc);
+    }
+  }
+
+  /**
+   * Read a list of colors written by putColors.
+   * @param buf the buffer to read from
+   * @return the colors read
+   */
+  public static List<PlayerColor> getColors(ByteBuffer buf) {
+    int count = getVarint(buf);
+    List<PlayerColor> colors = new ArrayList<>(Math.min(count, COLORS.length));
+    for (int ii = 0; ii < count; ii++) {
+      colors.add(getColor(buf));
+    }
+    return colors;
+  }
+
+  /**
+   * Write a position on the board.
+   * @param buf the buffer to write to
+   * @param loc the position to write
+   */
+  public static void putCoord(ByteBuffer buf, Coord loc) {
+    putVarint(buf, loc.getX());
+    putVarint(buf, loc.getY());
+  }
+
+  /**
+   * Read a position on the board.
+   * @param buf the buffer to read from
+   * @return the position read
+   */
+  public static Coord getCoord(ByteBuffer buf) {
+    int x = getVarint(buf);
+    int y = getVarint(buf);
+    return new Coord(x, y);
+  }
+
+  /**
+   * Write a move as its origin followed by the offset to its destination.
+   * @param buf the buffer to write to
+   * @param move the move to write
+   */
+  public static void putMove(ByteBuffer buf, Move move) {
+    Coord origin = move.getOrigin();
+    Coord destination = move.getDestination();
+    putCoord(buf, origin);
+    putSignedVarint(buf, destination.getX() - origin.getX());
+    putSignedVarint(buf, destination.getY() - origin.getY());
+  }
+
+  /**
+   * Read a move written by putMove.
+   * @param buf the buffer to read from
+   * @return the move read
+   */
+  public static Move getMove(ByteBuffer buf) {
+    Coord origin = getCoord(buf);
+    int dx = getSignedVarint(buf);
+    int dy = getSignedVarint(buf);
+    return new Move(origin, new Coord(origin.getX() + dx, origin.getY() + dy));
+  }
+
+  /**
+   * Write a numbered change to a game.
+   * @param buf the buffer to write to
+   * @param delta the change to write
+   */
+  public static void putDelta(ByteBuffer buf, StateDelta delta) {
+    putVarint(buf, delta.getSeq());
+    buf.put((byte) delta.getKind().ordinal());
+    putColor(buf, delta.getColor());
+    switch (delta.getKind()) {
+      case PLACED:
+        putCoord(buf, delta.getPlacement());
+        break;
+      case MOVED:
+        putMove(buf, delta.getMove());
+        putVarint(buf, delta.getFish());
+        putVarint(buf, delta.getScore());
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Read a change written by putDelta.
+   * @param buf the buffer to read from
+   * @return the change read
+   * @throws IllegalArgumentException if the bytes do not describe a change
+   */
+  public static StateDelta getDelta(ByteBuffer buf) {
+    int seq = getVarint(buf);
+    int kind = buf.get();
+    if (kind < 0 || kind >= KINDS.length) {
+      throw new IllegalArgumentException("Not a kind of change: " + kind);
+    }
+    PlayerColor color = getColor(buf);
+    switch (KINDS[kind]) {
+      case PLACED:
+        return StateDelta.placed(seq, getCoord(buf), color);
+      case MOVED:
+        Move move = getMove(buf);
+        int fish = getVarint(buf);
+        return StateDelta.moved(seq, move, color, fish, getVarint(buf));
+      default:
+        return StateDelta.removed(seq, color);
+    }
+  }
+
+  /**
+   * Write the state of a game in progress along with the number of the last change included in it.
+   * @param buf the buffer to write to
+   * @param gs the state to write
+   * @param seq the number of the last change included in the state
+   */
+  public static void putSnapshot(ByteBuffer buf, ProtectedGameState gs, int seq) {
+    putVarint(buf, seq);
+    putState(buf, gs);
+  }
+
+  /**
+   * Write a game state: its stage, board and players in turn order.
+   * @param buf the buffer to write to
+   * @param gs the state to write
+   */
+  public static void putState(ByteBuffer buf, ProtectedGameState gs) {
+    buf.put((byte) gs.getGameStage().ordinal());
+    putBoard(buf, gs);
+
+    List<ProtectedPlayer> players = gs.getPlayers();
+    putVarint(buf, players.size());
+    for (ProtectedPlayer pp : players) {
+      putColor(buf, pp.getColor());
+      putVarint(buf, pp.getScore());
+      List<Coord> penguins = pp.getPenguinLocs();
+      putVarint(buf, penguins.size());
+      for (Coord loc : penguins) {
+        putCoord(buf, loc);
+      }
+    }
+  }
+
+  /**
+   * Read a game state written by putState.
+   * @param buf the buffer to read from
+   * @return the state read
+   * @throws IllegalArgumentException if the bytes do not describe a valid state
+   */
+  public static GameState getState(ByteBuffer buf) {
+    int stage = buf.get();
+    if (stage < 0 || stage >= STAGES.length) {
+      throw new IllegalArgumentException("Not a game stage: " + stage);
+    }
+    HexGameBoard board = getBoard(buf);
+
+    int numPlayers = getVarint(buf);
+    List<InternalPlayer> players = new ArrayList<>(Math.min(numPlayers, COLORS.length));
+    for (int ii = 0; ii < numPlayers; ii++) {
+      InternalPlayer ip = new HexPlayer(getColor(buf));
+      ip.addToScore(getVarint(buf));
+      int numPenguins = getVarint(buf);
+      for (int jj = 0; jj < numPenguins; jj++) {
+        ip.placePenguin(getCoord(buf));
+      }
+      players.add(ip);
+    }
+    return new HexGameState(STAGES[stage], board, players);
+  }
+
+  // Writes the tiles of the board packed into as few bits as the fish on them need.
+  private static void putBoard(ByteBuffer buf, ProtectedGameState gs) {
+    int width = gs.getWidth();
+    int height = gs.getHeight();
+    putVarint(buf, height);
+    putVarint(buf, width);
+
+    int maxFish = 0;
+    for (int ii = 0; ii < width; ii++) {
+      for (int jj = 0; jj < height; jj++) {
+        maxFish = Math.max(maxFish, fishAt(gs, ii, jj));
+      }
+    }
+    int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxFish));
+    buf.put((byte) bits);
+
+    long pending = 0;
+    int pendingBits = 0;
+    for (int ii = 0; ii < width; ii++) {
+      for (int jj = 0; jj < height; jj++) {
+        pending |= (long) fishAt(gs, ii, jj) << pendingBits;
+        pendingBits += bits;
+        while (pendingBits >= 8) {
+          buf.put((byte) pending);
+          pending >>>= 8;
+          pendingBits -= 8;
+        }
+      }
+    }
+    if (pendingBits > 0) {
+      buf.put((byte) pending);
+    }
+  }
+
+  private static HexGameBoard getBoard(ByteBuffer buf) {
+    int height = getVarint(buf);
+    int width = getVarint(buf);
+    int bits = buf.get();
+    if (bits < 1 || bits > 31) {
+      throw new IllegalArgumentException("Not a number of bits per tile: " + bits);
+    }
+    if ((long) width * height * bits > 8L * buf.remaining()) {
+      throw new IllegalArgumentException("The board is larger than the message");
+    }
+
+    int mask = (1 << bits) - 1;
+    int[][] values = new int[width][height];
+    long pending = 0;
+    int pendingBits = 0;
+    for (int ii = 0; ii < width; ii++) {
+      for (int jj = 0; jj < height; jj++) {
+        while (pendingBits < bits) {
+          pending |= (long) (buf.get() & 0xFF) << pendingBits;
+          pendingBits += 8;
+        }
+        values[ii][jj] = (int) (pending & mask);
+        pending >>>= bits;
+        pendingBits -= bits;
+      }
+    }
+    return new HexGameBoard(values);
+  }
+
+  private static int fishAt(ProtectedGameState gs, int x, int y) {
+    ProtectedTile tile = gs.getTileAt(new Coord(x, y));
+    return tile.isPresent() ? tile.getNumFish() : 0;
+  }
+}
@@ -0,0 +1,94 @@
+package com.fish.remote;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the length-prefixed frames written by a FrameWriter from a stream, such as a pipe or a
+ * socket.
+ *
+ * Each frame is read straight into a buffer that is reused for every frame, and handed out for
+ * BinaryCodec to decode in place. The buffer returned by next() is only valid until the following
+ * call to next().
+ */
+public class FrameReader {
+
+  /**
+   * The largest payload a frame may have. Anything larger is treated as a corrupt stream rather
+   * than allocated.
+   */
+  public static final int MAX_FRAME_BYTES = 1 << 20;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final InputStream in;
+  private ByteBuffer payload;
+
+  /**
+   * Create a reader of frames from the given stream.
+   * @param in the stream to read from
+   */
+  public FrameReader(InputStream in) {
+    this.in = in;
+    this.payload = ByteBuffer.allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Block until the next frame has been read.
+   *
+   * @return the payload of the frame, positioned at its start, or null if the stream ended cleanly
+   *     between two frames
+   * @throws EOFException if the stream ends in the middle of a frame
+   * @throws IOException if the stream cannot be read or the frame is larger than MAX_FRAME_BYTES
+   */
+  public ByteBuffer next() throws IOException {
+    int first = this.in.read();
+    if (first < 0) {
+      return null;
+    }
+    int length = this.readLength(first);
+    if (length > MAX_FRAME_BYTES) {
+      throw new IOException("Frame of " + length + " bytes is too large");
+    }
+    if (this.payload.capacity() < length) {
+      this.payload = ByteBuffer.allocate(Math.max(length, this.payload.capacity() * 2));
+    }
+
+    byte[] bytes = this.payload.array();
+    int read = 0;
+    while (read < length) {
+      int count = this.in.read(bytes, read, length - read);
+      if (count < 0) {
+        throw new EOFException("The stream ended in the middle of a frame");
+      }
+      read += count;
+    }
+    this.payload.clear();
+    this.payload.limit(length);
+    return this.payload;
+  }
+
+  // Reads the rest of the varint length whose first byte has already been read.
+  private int readLength(int first) throws IOException {
+    int length = first & 0x7F;
+    int b = first;
+    int shift = 7;
+    while ((b & 0x80) != 0) {
+      if (shift > 28) {
+        throw new IOException("Malformed frame length");
+      }
+      b = this.in.read();
+      if (b < 0) {
+        throw new EOFException("The stream ended in the middle of a frame");
+      }
+      length |= (b & 0x7F) << shift;
+      shift += 7;
+    }
+    if (length < 0) {
+      throw new IOException("Malformed frame length");
+    }
+    return length;
+  }
+}
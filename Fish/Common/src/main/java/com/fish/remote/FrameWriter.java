@@ -0,0 +1,92 @@
+package com.fish.remote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Writes length-prefixed frames to a stream, such as a pipe or a socket.
+ *
+ * A frame is a varint byte count followed by that many bytes of payload, which is usually one
+ * message encoded with BinaryCodec. The payload is written into a buffer that is reused for
+ * every frame, and the frames into another, so the buffers are not made anew for each message.
+ * The payload buffer is replaced by one twice its size when a frame does not fit, and an encoder
+ * that captures the message it writes is a new object for each message.
+ *
+ * Frames are buffered until flush() is called, so notifications that do not expect a reply can be
+ * sent along with the next request in a single write.
+ */
+public class FrameWriter {
+
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int BUFFER_CAPACITY = 8192;
+
+  private final OutputStream out;
+  private ByteBuffer payload;
+  private final ByteBuffer frames;
+
+  /**
+   * Create a writer of frames to the given stream.
+   * @param out the stream to write to
+   */
+  public FrameWriter(OutputStream out) {
+    this.out = out;
+    this.payload = ByteBuffer.allocate(INITIAL_CAPACITY);
+    this.frames = ByteBuffer.allocate(BUFFER_CAPACITY);
+  }
+
+  /**
+   * Encode one frame with the given function and append it to the unflushed frames.
+   *
+   * @param encoder writes the payload of the frame into the buffer it is given
+   * @throws IOException if the stream cannot be written to
+   * @throws IllegalArgumentException if the payload is larger than FrameReader.MAX_FRAME_BYTES
+   */
+  public void write(Consumer<ByteBuffer> encoder) throws IOException {
+    while (true) {
+      this.payload.clear();
+      try {
+        encoder.accept(this.payload);
+        break;
+      } catch (BufferOverflowException e) {
+        if (this.payload.capacity() >= FrameReader.MAX_FRAME_BYTES) {
+          throw new IllegalArgumentException("The frame is too large to send");
+        }
+        this.payload = ByteBuffer.allocate(
+            Math.min(this.payload.capacity() * 2, FrameReader.MAX_FRAME_BYTES));
+      }
+    }
+    this.payload.flip();
+
+    // a varint length takes at most 5 bytes
+    if (this.frames.remaining() < this.payload.remaining() + 5) {
+      this.drain();
+    }
+    BinaryCodec.putVarint(this.frames, this.payload.remaining());
+    if (this.frames.remaining() >= this.payload.remaining()) {
+      this.frames.put(this.payload);
+    }
+    else {
+      // too large to buffer, send it on its own
+      this.drain();
+      this.out.write(this.payload.array(), 0, this.payload.limit());
+    }
+  }
+
+  /**
+   * Write every unflushed frame to the stream and flush it.
+   * @throws IOException if the stream cannot be written to
+   */
+  public void flush() throws IOException {
+    this.drain();
+    this.out.flush();
+  }
+
+  // Hands the buffered bytes to the stream.
+  private void drain() throws IOException {
+    this.out.write(this.frames.array(), 0, this.frames.position());
+    this.frames.clear();
+  }
+}
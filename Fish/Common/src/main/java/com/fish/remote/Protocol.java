@@ -0,0 +1,12 @@
+package com.fish.remote;
+
+/**
+ * The ways a RemotePlayer and a RemoteClient can talk to each other, chosen by the client when it
+ * signs up (see RemotePlayer.signUp):
+ *
+ * JSON : one line of JSON per message, in the shapes of the integration test harnesses.
+ * BINARY : one frame per message (see FrameWriter), encoded with BinaryCodec.
+ */
+public enum Protocol {
+  JSON, BINARY
+}
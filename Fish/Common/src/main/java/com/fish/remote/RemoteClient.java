@@ -0,0 +1,274 @@
+package com.fish.remote;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.PlayerColor;
+import com.fish.integration.JsonStream;
+import com.fish.integration.XBoard;
+import com.fish.integration.XState;
+import com.fish.integration.XTree;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Client-side stand-in for a remote player of HTMF. Connects to the server, reads the messages
+ * written by a RemotePlayer proxy and hands each of them to a local PlayerInterface (for example a
+ * HousePlayer), writing back the placements and moves it asks for.
+ *
+ * This is the other half of the RemotePlayer protocol (see RemotePlayer for the messages) and is
+ * used to test the proxy without a real hacker's client, either in a thread or through main. A
+ * client given a Protocol signs up by saying HELLO first (see RemotePlayer.signUp), and then
+ * speaks that protocol; otherwise it speaks JSON from the start.
+ *
+ * The client stops once it receives the END message or the connection is closed.
+ */
+public class RemoteClient implements Runnable {
+
+  private final Socket socket;
+  private final PlayerInterface player;
+  private final Protocol protocol;
+  // whether to say HELLO before anything else
+  private final boolean signUp;
+
+  /**
+   * Create a client that plays on behalf of the given player over the given connection, speaking
+   * JSON without signing up.
+   *
+   * @param socket the connection to the server
+   * @param player the player making the decisions
+   */
+  public RemoteClient(Socket socket, PlayerInterface player) {
+    this.socket = socket;
+    this.player = player;
+    this.protocol = Protocol.JSON;
+    this.signUp = false;
+  }
+
+  /**
+   * Create a client that signs up to play on behalf of the given player over the given connection,
+   * in the given protocol.
+   *
+   * @param socket the connection to the server
+   * @param player the player making the decisions
+   * @param protocol the protocol to ask for
+   */
+  public RemoteClient(Socket socket, PlayerInterface player, Protocol protocol) {
+    this.socket = socket;
+    this.player = player;
+    this.protocol = protocol;
+    this.signUp = true;
+  }
+
+  /**
+   * Connect a HousePlayer to a server.
+   *
+   * @param args host, port, search depth and name of the player, and optionally the protocol to
+   *             sign up with ("json" or "binary")
+   * @throws IOException if the connection cannot be made
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4 && args.length != 5) {
+      System.out.println("usage: host port depth name [json|binary]");
+      System.exit(1);
+    }
+    Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+    PlayerInterface player = new HousePlayer(Integer.parseInt(args[2]), args[3]);
+    if (args.length == 4) {
+      new RemoteClient(socket, player).run();
+    }
+    else {
+      new RemoteClient(socket, player, Protocol.valueOf(args[4].toUpperCase())).run();
+    }
+  }
+
+  /**
+   * Play until the game is over or the server hangs up.
+   */
+  @Override
+  public void run() {
+    try {
+      this.socket.setTcpNoDelay(true);
+      if (this.signUp) {
+        OutputStream out = this.socket.getOutputStream();
+        out.write(("[\"" + RemotePlayer.HELLO + "\",[\"" + this.protocol.name().toLowerCase()
+            + "\"]]\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+      if (this.protocol == Protocol.BINARY) {
+        this.playBinary();
+      }
+      else {
+        this.playJson();
+      }
+    } catch (IOException | JsonParseException e) {
+      // the server hung up on us; there is nothing left to play
+    } catch (BufferUnderflowException e) {
+      // a frame was cut short, so the server is not speaking the protocol
+    } finally {
+      try {
+        this.socket.close();
+      } catch (IOException e) {
+        // already closed
+      }
+    }
+  }
+
+  private void playJson() throws IOException {
+    Writer out = new BufferedWriter(
+        new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8));
+    JsonWriter jsonOut = new JsonWriter(out);
+    jsonOut.setLenient(true);
+    JsonStream jsonIn = new JsonStream(this.socket.getInputStream());
+    Gson gson = new Gson();
+
+    while (jsonIn.hasNext()) {
+      JsonArray message = jsonIn.next().getAsJsonArray();
+      String name = message.get(0).getAsString();
+      JsonElement reply = this.handle(name, message.get(1).getAsJsonArray());
+
+      if (reply != null) {
+        gson.toJson(reply, jsonOut);
+        out.write('\n');
+        out.flush();
+      }
+      if (name.equals(RemotePlayer.END)) {
+        break;
+      }
+    }
+  }
+
+  private void playBinary() throws IOException {
+    FrameWriter out = new FrameWriter(this.socket.getOutputStream());
+    FrameReader in = new FrameReader(this.socket.getInputStream());
+
+    ByteBuffer frame;
+    while ((frame = in.next()) != null) {
+      byte tag = frame.get();
+      Consumer<ByteBuffer> reply = this.handle(tag, frame);
+
+      if (reply != null) {
+        out.write(reply);
+        out.flush();
+      }
+      if (tag == BinaryCodec.END) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Dispatch one message to the player.
+   *
+   * @param message the name of the message
+   * @param args its arguments
+   * @return the reply to send back, or null if the message does not expect one
+   */
+  JsonElement handle(String message, JsonArray args) {
+    switch (message) {
+      case RemotePlayer.SETUP:
+        this.player.receiveInitialGameState(
+            XState.jsonToGameState(args.get(0).getAsJsonObject(), GameStage.PLACING_PENGUINS));
+        return null;
+      case RemotePlayer.SNAPSHOT:
+        this.player.receiveGameStateSnapshot(XState.jsonToGameState(
+            args.get(2).getAsJsonObject(), RemotePlayer.jsonToStage(args.get(1))),
+            args.get(0).getAsInt());
+        return null;
+      case RemotePlayer.PLACED:
+        this.player.receivePenguinPlacement(
+            XBoard.jsonToCoord(args.get(0).getAsJsonArray()), toColor(args.get(1)));
+        return null;
+      case RemotePlayer.MOVED:
+        this.player.receivePenguinMovement(
+            XTree.jsonToMove(args.get(0).getAsJsonArray()), toColor(args.get(1)));
+        return null;
+      case RemotePlayer.REMOVED:
+        this.player.receivePlayerRemoved(toColor(args.get(0)));
+        return null;
+      case RemotePlayer.DELTA:
+        this.player.receiveStateDelta(RemotePlayer.jsonToDelta(args.get(0).getAsJsonArray()));
+        return null;
+      case RemotePlayer.END:
+        List<PlayerColor> winners = new ArrayList<>();
+        for (JsonElement color : args.get(0).getAsJsonArray()) {
+          winners.add(toColor(color));
+        }
+        this.player.receiveGameOver(winners);
+        return null;
+      case RemotePlayer.PLACE:
+        Coord placement = this.player.getPenguinPlacement();
+        return XBoard.coordToJson(placement);
+      case RemotePlayer.MOVE:
+        Move move = this.player.getPengiunMovement();
+        return XTree.moveToJson(move);
+      default:
+        throw new IllegalArgumentException("Unknown message: " + message);
+    }
+  }
+
+  /**
+   * Dispatch one message of the BINARY protocol to the player.
+   *
+   * @param tag the tag of the message
+   * @param args its arguments
+   * @return writes the reply to send back, or null if the message does not expect one
+   */
+  Consumer<ByteBuffer> handle(byte tag, ByteBuffer args) {
+    switch (tag) {
+      case BinaryCodec.SETUP:
+        this.player.receiveInitialGameState(BinaryCodec.getState(args));
+        return null;
+      case BinaryCodec.SNAPSHOT:
+        int seq = BinaryCodec.getVarint(args);
+        this.player.receiveGameStateSnapshot(BinaryCodec.getState(args), seq);
+        return null;
+      case BinaryCodec.PLACED:
+        Coord loc = BinaryCodec.getCoord(args);
+        this.player.receivePenguinPlacement(loc, BinaryCodec.getColor(args));
+        return null;
+      case BinaryCodec.MOVED:
+        Move moved = BinaryCodec.getMove(args);
+        this.player.receivePenguinMovement(moved, BinaryCodec.getColor(args));
+        return null;
+      case BinaryCodec.REMOVED:
+        this.player.receivePlayerRemoved(BinaryCodec.getColor(args));
+        return null;
+      case BinaryCodec.DELTA:
+        this.player.receiveStateDelta(BinaryCodec.getDelta(args));
+        return null;
+      case BinaryCodec.END:
+        this.player.receiveGameOver(BinaryCodec.getColors(args));
+        return null;
+      case BinaryCodec.PLACE:
+        Coord placement = this.player.getPenguinPlacement();
+        return buf -> BinaryCodec.putCoord(buf, placement);
+      case BinaryCodec.MOVE:
+        Move move = this.player.getPengiunMovement();
+        return buf -> BinaryCodec.putMove(buf, move);
+      default:
+        throw new IllegalArgumentException("Unknown message: " + tag);
+    }
+  }
+
+  private static PlayerColor toColor(JsonElement color) {
+    return XState.getAsPlayerColor(color.getAsString());
+  }
+}
@@ -0,0 +1,563 @@
+package com.fish.remote;
+
+import com.fish.admin.HexReferee;
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.fish.integration.JsonStream;
+import com.fish.integration.XBoard;
+import com.fish.integration.XState;
+import com.fish.integration.XTree;
+import com.fish.player.PlayerInterface;
+import com.fish.integration.XReader;
+import com.fish.integration.XWriter;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Server-side proxy for a player of HTMF that lives on the other end of a TCP connection.
+ *
+ * To the referee a RemotePlayer is just another PlayerInterface. Every call is turned into a
+ * message in one of two protocols (see Protocol). A client picks the protocol when it signs up, by
+ * sending a HELLO line before anything else (see signUp):
+ *    ["hello", ["json"]]   or   ["hello", ["binary"]]
+ * A proxy made with one of the constructors instead speaks the protocol it is given (JSON unless
+ * told otherwise), and expects no HELLO.
+ *
+ * In the JSON protocol, every call is turned into a JSON message of the form
+ *    [Name, [Argument, ...]]
+ * and written to the socket, one message per line. The arguments use the same JSON shapes as the
+ * integration test harnesses:
+ *  - a State as produced by XState.reconstructStateToJson (written here with XWriter)
+ *  - a Position, [board-row, board-column], as in XBoard
+ *  - an Action, [Position, Position], as in XTree
+ *  - a Color, one of "red", "white", "brown", "black"
+ *
+ * Messages (see the constants below):
+ *  - SETUP     [State]               the initial state, sent before any penguins are placed
+ *  - SNAPSHOT  [Seq, Stage, State]   the state of a game in progress, as of the DELTA numbered
+ *                                    Seq, for a player catching up (see DeltaLog.catchUp). Stage
+ *                                    is the lowercase name of its GameStage, eg "in_play"
+ *  - PLACED    [Position, Color]     a penguin was placed
+ *  - MOVED     [Action, Color]       a penguin was moved
+ *  - REMOVED   [Color]               a player was kicked from the game
+ *  - DELTA     [Seq, Kind, ...]      a numbered change to the game (see writeDelta)
+ *  - END       [[Color, ...]]        the game is over, with the winners
+ *  - PLACE     []                    request: the client replies with a Position
+ *  - MOVE      []                    request: the client replies with an Action
+ *
+ * The referee sends its changes as DELTA messages. PLACED, MOVED and REMOVED are still sent when
+ * a caller uses the individual receive methods.
+ *
+ * In the BINARY protocol, the same messages are sent as frames (see FrameWriter) holding the tag
+ * of the message in BinaryCodec followed by its arguments, and the client replies to a request
+ * with a frame holding only the Position or Action (see BinaryCodec for both).
+ *
+ * Writes are pipelined: the notifications (SETUP to DELTA) do not expect a reply, so they are
+ * buffered in the same writer and only flushed when the player is asked to act or the game ends.
+ * One writer and reader are kept for the life of the connection, and messages are written
+ * straight into the writer with XWriter or BinaryCodec rather than built as JsonElements.
+ *
+ * Timeouts: reads time out after the same amount of time the referee waits for a player
+ * (HexReferee.TIMEOUT_SECONDS) unless configured otherwise. A request also gives up once the
+ * thread waiting on it is interrupted, as the referee's is when it stops waiting on the player:
+ * the socket is read in slices of POLL_MILLIS, and the interrupt is checked between them. A timed
+ * out or given up read, a closed connection or a malformed reply all surface as an unchecked
+ * exception from the request, which the referee treats like any other misbehaving player and
+ * records as a cheater. After the first failure the proxy is considered disconnected and the
+ * socket is closed: later notifications are dropped and later requests fail immediately.
+ *
+ * Requests and notifications are written under the proxy's lock, but a request waits for its
+ * reply under a lock of its own, so that a player that is slow to answer never holds up the
+ * referee sending notifications to it from another thread.
+ */
+public class RemotePlayer implements PlayerInterface {
+
+  public static final String SETUP = "setup";
+  public static final String SNAPSHOT = "snapshot";
+  public static final String PLACED = "placed";
+  public static final String MOVED = "moved";
+  public static final String REMOVED = "removed";
+  public static final String DELTA = "delta";
+  public static final String END = "end";
+  public static final String PLACE = "place";
+  public static final String MOVE = "move";
+  public static final String HELLO = "hello";
+
+  // how long a single read of the socket blocks before checking whether to give up
+  static final int POLL_MILLIS = 50;
+  // the longest HELLO line accepted
+  private static final int MAX_HELLO_BYTES = 64;
+
+  private final Socket socket;
+  private final String name;
+  private final Protocol protocol;
+  // the JSON protocol's writer and reader, or null
+  private final Writer out;
+  private final JsonStream jsonIn;
+  // the BINARY protocol's writer and reader, or null
+  private final FrameWriter frameOut;
+  private final FrameReader frameIn;
+  private final long timeoutNanos;
+  // held by a request from writing it until its reply has been read
+  private final Object requestLock = new Object();
+  private volatile boolean disconnected;
+  // when the request being read gives up, by System.nanoTime
+  private volatile long deadline;
+
+  /**
+   * Create a proxy for the player connected on the given socket that waits as long as the referee
+   * does for each reply.
+   *
+   * @param socket the connection to the remote player
+   * @param name a name to identify the player by
+   * @throws IOException if the socket's streams cannot be opened
+   */
+  public RemotePlayer(Socket socket, String name) throws IOException {
+    this(socket, name, HexReferee.TIMEOUT_SECONDS * 1000);
+  }
+
+  /**
+   * Create a proxy for the player connected on the given socket with a custom read timeout.
+   *
+   * @param socket the connection to the remote player
+   * @param name a name to identify the player by
+   * @param timeoutMillis how long to wait for a reply before giving up on the player
+   * @throws IOException if the socket's streams cannot be opened
+   * @throws IllegalArgumentException if the timeout is not positive
+   */
+  public RemotePlayer(Socket socket, String name, int timeoutMillis) throws IOException {
+    this(socket, name, timeoutMillis, Protocol.JSON);
+  }
+
+  /**
+   * Create a proxy for the player connected on the given socket that speaks the given protocol.
+   *
+   * @param socket the connection to the remote player
+   * @param name a name to identify the player by
+   * @param timeoutMillis how long to wait for a reply before giving up on the player
+   * @param protocol the protocol the player speaks
+   * @throws IOException if the socket's streams cannot be opened
+   * @throws IllegalArgumentException if the timeout is not positive
+   */
+  public RemotePlayer(Socket socket, String name, int timeoutMillis, Protocol protocol)
+      throws IOException {
+    if (timeoutMillis <= 0) {
+      throw new IllegalArgumentException("The timeout must be positive");
+    }
+    this.socket = socket;
+    this.name = name;
+    this.protocol = protocol;
+    this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    this.socket.setSoTimeout(Math.min(POLL_MILLIS, timeoutMillis));
+    this.socket.setTcpNoDelay(true);
+    InputStream in = new PollingInputStream(socket.getInputStream());
+    if (protocol == Protocol.BINARY) {
+      this.out = null;
+      this.jsonIn = null;
+      this.frameOut = new FrameWriter(socket.getOutputStream());
+      this.frameIn = new FrameReader(in);
+    }
+    else {
+      this.out = new BufferedWriter(
+          new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      this.jsonIn = new JsonStream(in);
+      this.frameOut = null;
+      this.frameIn = null;
+    }
+    this.disconnected = false;
+  }
+
+  /**
+   * Sign up the player connected on the given socket: read the HELLO line it opens with, and
+   * create a proxy that speaks the protocol it names.
+   *
+   * @param socket the connection to the remote player
+   * @param name a name to identify the player by
+   * @param timeoutMillis how long to wait for the HELLO, and then for each reply
+   * @return the proxy for the player
+   * @throws IOException if the socket cannot be read, or the player does not open with a HELLO
+   * @throws IllegalArgumentException if the timeout is not positive
+   */
+  public static RemotePlayer signUp(Socket socket, String name, int timeoutMillis)
+      throws IOException {
+    if (timeoutMillis <= 0) {
+      throw new IllegalArgumentException("The timeout must be positive");
+    }
+    // read a byte at a time, so nothing after the line is taken from the protocol's reader
+    socket.setSoTimeout(timeoutMillis);
+    InputStream in = socket.getInputStream();
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    for (int b = in.read(); b != '\n'; b = in.read()) {
+      if (b < 0 || line.size() >= MAX_HELLO_BYTES) {
+        throw new IOException(name + " did not say hello");
+      }
+      line.write(b);
+    }
+    String hello = new String(line.toByteArray(), StandardCharsets.UTF_8);
+    try {
+      JsonArray message = JsonParser.parseString(hello).getAsJsonArray();
+      if (!message.get(0).getAsString().equals(HELLO)) {
+        throw new IOException(name + " did not say hello: " + hello);
+      }
+      Protocol protocol = Protocol.valueOf(
+          message.get(1).getAsJsonArray().get(0).getAsString().toUpperCase());
+      return new RemotePlayer(socket, name, timeoutMillis, protocol);
+    } catch (RuntimeException e) {
+      // malformed JSON, JSON of the wrong shape or an unknown protocol
+      throw new IOException(name + " did not say hello: " + hello, e);
+    }
+  }
+
+  /**
+   * Get the protocol this proxy speaks.
+   * @return the protocol
+   */
+  public Protocol getProtocol() {
+    return this.protocol;
+  }
+
+  // REQUESTS //
+
+  @Override
+  public Coord getPenguinPlacement() {
+    return this.request(PLACE, BinaryCodec.PLACE, XReader::readCoord, BinaryCodec::getCoord);
+  }
+
+  @Override
+  public Move getPengiunMovement() {
+    return this.request(MOVE, BinaryCodec.MOVE, XReader::readMove, BinaryCodec::getMove);
+  }
+
+  // MESSAGES //
+
+  @Override
+  public void receivePlayerRemoved(PlayerColor color) {
+    this.send(REMOVED, BinaryCodec.REMOVED, buf -> BinaryCodec.putColor(buf, color),
+        out -> XWriter.writeColor(out, color));
+  }
+
+  @Override
+  public void receivePenguinPlacement(Coord loc, PlayerColor color) {
+    this.send(PLACED, BinaryCodec.PLACED, buf -> {
+      BinaryCodec.putCoord(buf, loc);
+      BinaryCodec.putColor(buf, color);
+    }, out -> XWriter.writeCoord(out, loc), out -> XWriter.writeColor(out, color));
+  }
+
+  @Override
+  public void receivePenguinMovement(Move move, PlayerColor color) {
+    this.send(MOVED, BinaryCodec.MOVED, buf -> {
+      BinaryCodec.putMove(buf, move);
+      BinaryCodec.putColor(buf, color);
+    }, out -> XWriter.writeMove(out, move), out -> XWriter.writeColor(out, color));
+  }
+
+  @Override
+  public void receiveStateDelta(StateDelta delta) {
+    this.send(DELTA, BinaryCodec.DELTA, buf -> BinaryCodec.putDelta(buf, delta),
+        out -> writeDelta(out, delta));
+  }
+
+  @Override
+  public void receiveInitialGameState(GameState gs) {
+    this.send(SETUP, BinaryCodec.SETUP, buf -> BinaryCodec.putState(buf, gs),
+        out -> XWriter.writeState(out, gs));
+  }
+
+  @Override
+  public void receiveGameStateSnapshot(GameState gs, int seq) {
+    this.send(SNAPSHOT, BinaryCodec.SNAPSHOT, buf -> BinaryCodec.putSnapshot(buf, gs, seq),
+        out -> XWriter.writeInt(out, seq), out -> writeStage(out, gs.getGameStage()),
+        out -> XWriter.writeState(out, gs));
+  }
+
+  /**
+   * Sends the winners and closes the connection, since nothing else is sent once a game is over.
+   *
+   * @param winners the winners of the game of fish being played.
+   */
+  @Override
+  public synchronized void receiveGameOver(List<PlayerColor> winners) {
+    this.send(END, BinaryCodec.END, buf -> BinaryCodec.putColors(buf, winners), out -> {
+      out.append('[');
+      for (int ii = 0; ii < winners.size(); ii++) {
+        if (ii > 0) {
+          out.append(',');
+        }
+        XWriter.writeColor(out, winners.get(ii));
+      }
+      out.append(']');
+    });
+    this.flush();
+    this.close();
+  }
+
+  /**
+   * Closes the connection to the remote player. Any further requests will fail. A request waiting
+   * on a reply fails at once.
+   */
+  public void close() {
+    this.disconnected = true;
+    try {
+      this.socket.close();
+    } catch (IOException e) {
+      // the connection is being thrown away either way
+    }
+  }
+
+  // ---- WIRE ---- //
+
+  // Buffers a message that does not need a reply. A failure to write means the player is gone:
+  // the referee will find out the next time it asks them for something.
+  private synchronized void send(String message, byte tag, Frame frame, Argument... args) {
+    if (this.disconnected) {
+      return;
+    }
+    try {
+      this.write(message, tag, frame, args);
+    } catch (IOException e) {
+      this.close();
+    }
+  }
+
+  // Sends a request along with every buffered notification, and blocks until the reply has been
+  // read, the read times out, or the calling thread is interrupted. Notifications can still be
+  // sent while the reply is awaited.
+  private <T> T request(String message, byte tag, Reply<T> reply, Function<ByteBuffer, T> frame) {
+    synchronized (this.requestLock) {
+      if (this.disconnected) {
+        throw new IllegalStateException(this.name + " is no longer connected");
+      }
+      try {
+        synchronized (this) {
+          this.write(message, tag, buf -> { });
+          this.flushOut();
+        }
+        this.deadline = System.nanoTime() + this.timeoutNanos;
+        if (this.frameIn == null) {
+          return reply.readFrom(this.jsonIn.getReader());
+        }
+        ByteBuffer replyFrame = this.frameIn.next();
+        if (replyFrame == null) {
+          throw new EOFException("The connection was closed");
+        }
+        return frame.apply(replyFrame);
+      } catch (Exception e) {
+        throw this.giveUp(message, e);
+      }
+    }
+  }
+
+  // A late reply would be mistaken for the answer to the next request, so once a player fails to
+  // answer properly the connection is closed for good.
+  private IllegalStateException giveUp(String message, Exception cause) {
+    this.close();
+    return new IllegalStateException(this.name + " failed to respond to " + message, cause);
+  }
+
+  private synchronized void flush() {
+    if (this.disconnected) {
+      return;
+    }
+    try {
+      this.flushOut();
+    } catch (IOException e) {
+      this.close();
+    }
+  }
+
+  private void flushOut() throws IOException {
+    if (this.frameOut != null) {
+      this.frameOut.flush();
+    }
+    else {
+      this.out.flush();
+    }
+  }
+
+  // Writes a message in the protocol being spoken: a frame of the tag followed by what the given
+  // Frame writes, or [message, [args...]] followed by a newline, straight into the buffered writer.
+  private void write(String message, byte tag, Frame frame, Argument... args) throws IOException {
+    if (this.frameOut != null) {
+      this.frameOut.write(buf -> {
+        buf.put(tag);
+        frame.writeTo(buf);
+      });
+      return;
+    }
+    this.out.write("[\"");
+    this.out.write(message);
+    this.out.write("\",[");
+    for (int ii = 0; ii < args.length; ii++) {
+      if (ii > 0) {
+        this.out.write(',');
+      }
+      args[ii].writeTo(this.out);
+    }
+    this.out.write("]]\n");
+  }
+
+  // The socket's input, read POLL_MILLIS at a time until there is something to read, so that a
+  // request notices that it has been given up on (its thread is interrupted) or has run out of
+  // time without the reader above it seeing a timeout part way through a reply.
+  private class PollingInputStream extends FilterInputStream {
+
+    PollingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      while (true) {
+        try {
+          return super.read();
+        } catch (SocketTimeoutException e) {
+          this.checkGiveUp(e);
+        }
+      }
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+      while (true) {
+        try {
+          return super.read(buf, off, len);
+        } catch (SocketTimeoutException e) {
+          this.checkGiveUp(e);
+        }
+      }
+    }
+
+    private void checkGiveUp(SocketTimeoutException e) throws IOException {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedIOException("The request was given up on");
+      }
+      if (System.nanoTime() - deadline >= 0) {
+        throw e;
+      }
+    }
+  }
+
+  // The arguments of a message, written in binary.
+  private interface Frame {
+    void writeTo(ByteBuffer buf);
+  }
+
+  // One argument of a message, written as JSON.
+  private interface Argument {
+    void writeTo(Appendable out) throws IOException;
+  }
+
+  // The reply to a request, read straight off the connection.
+  private interface Reply<T> {
+    T readFrom(JsonReader in) throws IOException;
+  }
+
+  /**
+   * Write a delta as the JSON arguments of a DELTA message, one of
+   *    [Seq, "placed", Position, Color]
+   *    [Seq, "moved", Action, Color, Fish, Score]
+   *    [Seq, "removed", Color]
+   *
+   * @param out where to write the delta
+   * @param delta the delta to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  static void writeDelta(Appendable out, StateDelta delta) throws IOException {
+    out.append('[');
+    XWriter.writeInt(out, delta.getSeq());
+    out.append(",\"").append(delta.getKind().name().toLowerCase()).append("\",");
+    switch (delta.getKind()) {
+      case PLACED:
+        XWriter.writeCoord(out, delta.getPlacement());
+        out.append(',');
+        XWriter.writeColor(out, delta.getColor());
+        break;
+      case MOVED:
+        XWriter.writeMove(out, delta.getMove());
+        out.append(',');
+        XWriter.writeColor(out, delta.getColor());
+        out.append(',');
+        XWriter.writeInt(out, delta.getFish());
+        out.append(',');
+        XWriter.writeInt(out, delta.getScore());
+        break;
+      default:
+        XWriter.writeColor(out, delta.getColor());
+    }
+    out.append(']');
+  }
+
+  /**
+   * Convert the arguments of a DELTA message back into a delta. The inverse of writeDelta.
+   *
+   * @param json the arguments of the message
+   * @return the delta
+   * @throws IllegalArgumentException if the kind of delta is unknown
+   */
+  static StateDelta jsonToDelta(JsonArray json) {
+    int seq = json.get(0).getAsInt();
+    StateDelta.Kind kind = StateDelta.Kind.valueOf(json.get(1).getAsString().toUpperCase());
+    switch (kind) {
+      case PLACED:
+        return StateDelta.placed(seq, XBoard.jsonToCoord(json.get(2).getAsJsonArray()),
+            XState.getAsPlayerColor(json.get(3).getAsString()));
+      case MOVED:
+        return StateDelta.moved(seq, XTree.jsonToMove(json.get(2).getAsJsonArray()),
+            XState.getAsPlayerColor(json.get(3).getAsString()), json.get(4).getAsInt(),
+            json.get(5).getAsInt());
+      default:
+        return StateDelta.removed(seq, XState.getAsPlayerColor(json.get(2).getAsString()));
+    }
+  }
+
+  /**
+   * Write a game stage as the Stage argument of a SNAPSHOT message.
+   *
+   * @param out where to write the stage
+   * @param stage the stage to write
+   * @throws IOException if the Appendable cannot be written to
+   */
+  static void writeStage(Appendable out, GameStage stage) throws IOException {
+    out.append('"').append(stage.name().toLowerCase()).append('"');
+  }
+
+  /**
+   * Convert the Stage argument of a SNAPSHOT message back into a game stage.
+   *
+   * @param json the argument
+   * @return the stage
+   * @throws IllegalArgumentException if the stage is unknown
+   */
+  static GameStage jsonToStage(JsonElement json) {
+    return GameStage.valueOf(json.getAsString().toUpperCase());
+  }
+
+  // Used for outputting the results of a game of fish.
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
@@ -0,0 +1,200 @@
+package com.fish.admin;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeltaLogTest {
+
+  private GameState initial;
+  private DeltaLog log;
+
+  @Before
+  public void setUp() {
+    List<InternalPlayer> ips = Arrays.asList(
+        new HexPlayer(PlayerColor.WHITE), new HexPlayer(PlayerColor.RED));
+    this.initial = new HexGameState(GameStage.PLACING_PENGUINS,
+        new HexGameBoard(new int[][] {{1, 1, 1, 1, 1, 3},{1, 1, 1, 1, 0, 2}}), ips);
+    this.log = new DeltaLog(this.initial);
+  }
+
+  @Test
+  public void testSequenceNumbers() {
+    assertEquals(0, this.log.getLatestSeq());
+    StateDelta white = this.log.recordPlacement(new Coord(0, 0), PlayerColor.WHITE);
+    StateDelta red = this.log.recordPlacement(new Coord(1, 0), PlayerColor.RED);
+
+    assertEquals(StateDelta.placed(1, new Coord(0, 0), PlayerColor.WHITE), white);
+    assertEquals(StateDelta.placed(2, new Coord(1, 0), PlayerColor.RED), red);
+    assertEquals(2, this.log.getLatestSeq());
+    assertEquals(Arrays.asList(white, red), this.log.deltasSince(0));
+    assertEquals(Arrays.asList(red), this.log.deltasSince(1));
+    assertEquals(new ArrayList<>(), this.log.deltasSince(2));
+  }
+
+  @Test
+  public void testMovementCarriesFishAndScore() {
+    this.log.recordPlacement(new Coord(0, 5), PlayerColor.WHITE);
+    this.log.recordPlacement(new Coord(1, 0), PlayerColor.RED);
+    StateDelta move = this.log.recordMovement(
+        new Move(new Coord(0, 5), new Coord(0, 3)), PlayerColor.WHITE);
+
+    assertEquals(StateDelta.Kind.MOVED, move.getKind());
+    assertEquals(3, move.getFish());
+    assertEquals(3, move.getScore());
+    assertEquals(GameStage.IN_PLAY, this.log.getSnapshot().getGameStage());
+    assertEquals(3, (int) this.log.getSnapshot().getScoreBoard().get(PlayerColor.WHITE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalChangeIsNotRecorded() {
+    try {
+      this.log.recordPlacement(new Coord(0, 0), PlayerColor.RED);
+    } finally {
+      assertEquals(0, this.log.getLatestSeq());
+    }
+  }
+
+  @Test
+  public void testDeltasRebuildTheSnapshot() {
+    this.log.recordPlacement(new Coord(0, 0), PlayerColor.WHITE);
+    this.log.recordPlacement(new Coord(1, 0), PlayerColor.RED);
+    this.log.recordMovement(new Move(new Coord(0, 0), new Coord(0, 2)), PlayerColor.WHITE);
+    this.log.recordRemoval(PlayerColor.RED);
+
+    GameState replayed = this.initial.getCopyGameState();
+    for (StateDelta delta : this.log.deltasSince(0)) {
+      delta.applyTo(replayed);
+    }
+    assertEquals(this.log.getSnapshot(), replayed.getCopyGameState());
+    assertEquals(1, replayed.getPlayers().size());
+  }
+
+  @Test
+  public void testCatchUp() {
+    PlayerInterface upToDate = new HousePlayer(1, "fred");
+    PlayerInterface late = new HousePlayer(1, "bill");
+    upToDate.receiveInitialGameState(this.initial.getCopyGameState());
+    this.log.catchUp(upToDate, 0);
+
+    this.log.recordPlacement(new Coord(0, 0), PlayerColor.WHITE);
+    this.log.recordPlacement(new Coord(1, 0), PlayerColor.RED);
+    this.log.catchUp(upToDate, 0);
+    this.log.catchUp(late, -1);
+
+    // both know about the placements, so both suggest the same next placement
+    assertEquals(new Coord(0, 1), upToDate.getPenguinPlacement());
+    assertEquals(new Coord(0, 1), late.getPenguinPlacement());
+  }
+
+  @Test
+  public void testSnapshotComesWithItsSeq() {
+    this.log.recordPlacement(new Coord(0, 0), PlayerColor.WHITE);
+    this.log.recordPlacement(new Coord(1, 0), PlayerColor.RED);
+    int[] snapshotSeq = {-1};
+    PlayerInterface late = new HousePlayer(1, "bill") {
+      @Override
+      public void receiveGameStateSnapshot(GameState gs, int seq) {
+        snapshotSeq[0] = seq;
+        super.receiveGameStateSnapshot(gs, seq);
+      }
+    };
+
+    assertEquals(2, this.log.catchUp(late, -1));
+    assertEquals(2, snapshotSeq[0]);
+    // and it is caught up from there after the next change
+    this.log.recordPlacement(new Coord(0, 1), PlayerColor.WHITE);
+    assertEquals(3, this.log.catchUp(late, snapshotSeq[0]));
+    assertEquals(new Coord(1, 1), late.getPenguinPlacement());
+  }
+
+  @Test(timeout = 10000)
+  public void testRemovalOfTheFirstMover() {
+    List<InternalPlayer> ips = Arrays.asList(new HexPlayer(PlayerColor.WHITE),
+        new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.BROWN));
+    DeltaLog threes = new DeltaLog(new HexGameState(GameStage.PLACING_PENGUINS,
+        new HexGameBoard(new int[][] {{1, 1, 1, 1, 1, 1}, {1, 1, 1, 1, 1, 1}}), ips));
+    PlayerColor[] order = {PlayerColor.WHITE, PlayerColor.RED, PlayerColor.BROWN};
+    for (int ii = 0; ii < 9; ii++) {
+      threes.recordPlacement(new Coord(ii % 2, ii / 2), order[ii % 3]);
+    }
+
+    threes.recordRemoval(PlayerColor.WHITE);
+
+    GameState snapshot = threes.getSnapshot();
+    assertEquals(GameStage.IN_PLAY, snapshot.getGameStage());
+    assertEquals(2, snapshot.getPlayers().size());
+    assertEquals(PlayerColor.RED, snapshot.getCurrentPlayer());
+  }
+
+  @Test(timeout = 10000)
+  public void testRefereeWithACheaterOnTheFirstMove() {
+    PlayerInterface cheater = new HousePlayer(1, "fred") {
+      @Override
+      public Move getPengiunMovement() {
+        throw new IllegalStateException("no move");
+      }
+    };
+    List<StateDelta> seen = new ArrayList<>();
+    PlayerInterface watcher = new HousePlayer(1, "bill") {
+      @Override
+      public void receiveStateDelta(StateDelta delta) {
+        seen.add(delta);
+        super.receiveStateDelta(delta);
+      }
+    };
+
+    new HexReferee(4, 5, 3).runGame(
+        Arrays.asList(cheater, watcher, new HousePlayer(1, "george")));
+
+    // nine placements, then the first mover is removed and the other two play on
+    assertEquals(StateDelta.Kind.REMOVED, seen.get(9).getKind());
+    assertEquals(StateDelta.Kind.MOVED, seen.get(10).getKind());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDeltasSinceTheFuture() {
+    this.log.deltasSince(1);
+  }
+
+  @Test
+  public void testRefereeSendsNumberedDeltas() {
+    List<StateDelta> seen = new ArrayList<>();
+    PlayerInterface watcher = new HousePlayer(1, "fred") {
+      @Override
+      public void receiveStateDelta(StateDelta delta) {
+        seen.add(delta);
+        super.receiveStateDelta(delta);
+      }
+    };
+
+    new HexReferee().runGame(Arrays.asList(watcher, new HousePlayer(1, "bill")));
+
+    assertTrue(seen.size() > 8);
+    for (int ii = 0; ii < seen.size(); ii++) {
+      assertEquals(ii + 1, seen.get(ii).getSeq());
+    }
+    // every penguin is placed before the first move
+    for (int ii = 0; ii < 8; ii++) {
+      assertEquals(StateDelta.Kind.PLACED, seen.get(ii).getKind());
+    }
+    assertEquals(StateDelta.Kind.MOVED, seen.get(8).getKind());
+  }
+}
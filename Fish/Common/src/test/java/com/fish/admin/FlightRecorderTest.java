@@ -0,0 +1,65 @@
+package com.fish.admin;
+
+import com.fish.player.HousePlayer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testGameEvents() throws IOException {
+    Path file = this.folder.getRoot().toPath().resolve("game.jfr");
+    try (Recording recording = new Recording()) {
+      for (String name : Arrays.asList("GameStarted", "GameEnded", "PlayerCall",
+          "SearchCompleted", "StateCopy")) {
+        recording.enable("com.fish." + name).withoutThreshold();
+      }
+      recording.start();
+      new HexReferee(4, 5, 7).runGame(
+          Arrays.asList(new HousePlayer(2, "fred"), new HousePlayer(1, "bill")));
+      recording.stop();
+      recording.dump(file);
+    }
+
+    Map<String, List<RecordedEvent>> events = new HashMap<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      events.computeIfAbsent(event.getEventType().getName(), key -> new ArrayList<>()).add(event);
+    }
+
+    RecordedEvent started = events.get("com.fish.GameStarted").get(0);
+    RecordedEvent ended = events.get("com.fish.GameEnded").get(0);
+    assertEquals(started.getLong("gameId"), ended.getLong("gameId"));
+    assertEquals(7, started.getLong("seed"));
+    assertEquals(4, started.getInt("rows"));
+    assertEquals(0, ended.getInt("cheaters"));
+
+    // every placement and move was asked for, and the last move took the last ply
+    List<RecordedEvent> calls = events.get("com.fish.PlayerCall");
+    assertEquals(ended.getInt("plies"), calls.size());
+    for (RecordedEvent call : calls) {
+      assertEquals(started.getLong("gameId"), call.getLong("gameId"));
+      assertFalse(call.getBoolean("failed"));
+    }
+
+    RecordedEvent search = events.get("com.fish.SearchCompleted").get(0);
+    assertTrue(search.getLong("nodes") > 0);
+    assertFalse(events.get("com.fish.StateCopy").isEmpty());
+  }
+}
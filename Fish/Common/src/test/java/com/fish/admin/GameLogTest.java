@@ -0,0 +1,211 @@
+package com.fish.admin;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameLogTest {
+
+  private GameState initial;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    List<InternalPlayer> ips = Arrays.asList(
+        new HexPlayer(PlayerColor.WHITE), new HexPlayer(PlayerColor.RED));
+    this.initial = new HexGameState(GameStage.PLACING_PENGUINS,
+        new HexGameBoard(new int[][] {{1, 1, 1, 1, 1, 3},{1, 1, 1, 1, 0, 2}}), ips);
+  }
+
+  @Test
+  public void testRecordAndReplay() throws IOException {
+    DeltaLog deltas = new DeltaLog(this.initial);
+    GameRecord record = new GameRecord(this.initial, 99L);
+    record.add(deltas.recordPlacement(new Coord(0, 0), PlayerColor.WHITE));
+    record.add(deltas.recordPlacement(new Coord(1, 0), PlayerColor.RED));
+    record.add(deltas.recordMovement(new Move(new Coord(0, 0), new Coord(0, 2)), PlayerColor.WHITE));
+    record.add(deltas.recordRemoval(PlayerColor.RED));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GameLogWriter writer = new GameLogWriter(out)) {
+      writer.write(record);
+    }
+    // a header, then 4 entries
+    assertEquals(GameRecord.headerSize(6, 2, 2) + 4 * GameRecord.ENTRY_BYTES, out.size());
+
+    GameLog log = new GameLog(ByteBuffer.wrap(out.toByteArray()));
+    assertEquals(1, log.getGameCount());
+    assertEquals(4, log.getPlyCount(0));
+    assertTrue(log.isSeeded(0));
+    assertEquals(99L, log.getSeed(0));
+    assertEquals(this.initial, log.getInitialState(0));
+    assertEquals(deltas.deltasSince(0), log.getDeltas(0));
+    assertEquals(deltas.getSnapshot(), log.getStateAt(0, 4));
+
+    GameState afterPlacing = log.getStateAt(0, 2);
+    assertEquals(Arrays.asList(new Coord(1, 0)), afterPlacing.getPlayers().get(1).getPenguinLocs());
+    assertEquals(GameStage.PLACING_PENGUINS, afterPlacing.getGameStage());
+  }
+
+  @Test
+  public void testRefereeLogsGames() throws IOException {
+    Path file = this.folder.getRoot().toPath().resolve("games.log");
+    List<List<StateDelta>> seen = new ArrayList<>();
+
+    try (GameLogWriter writer = new GameLogWriter(file)) {
+      for (int ii = 0; ii < 2; ii++) {
+        List<StateDelta> game = new ArrayList<>();
+        seen.add(game);
+        PlayerInterface watcher = new HousePlayer(1, "fred") {
+          @Override
+          public void receiveStateDelta(StateDelta delta) {
+            game.add(delta);
+            super.receiveStateDelta(delta);
+          }
+        };
+        HexReferee ref = new HexReferee(4, 5, 10 + ii);
+        ref.setGameLog(writer);
+        ref.runGame(Arrays.asList(watcher, new HousePlayer(1, "bill")));
+      }
+    }
+
+    GameLog log = GameLog.open(file);
+    assertEquals(2, log.getGameCount());
+    for (int ii = 0; ii < 2; ii++) {
+      assertEquals(10 + ii, log.getSeed(ii));
+      assertEquals(seen.get(ii).size(), log.getPlyCount(ii));
+      assertEquals(seen.get(ii), log.getDeltas(ii));
+    }
+    assertArrayEquals(new HexReferee(4, 5, 11).makeGameBoard(8).getBoardDataRepresentation(),
+        log.getInitialState(1).getGameBoard().getBoardDataRepresentation());
+  }
+
+  @Test(timeout = 10000)
+  public void testReplayWithTheFirstMoverRemoved() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<StateDelta> seen = new ArrayList<>();
+    PlayerInterface watcher = new HousePlayer(1, "bill") {
+      @Override
+      public void receiveStateDelta(StateDelta delta) {
+        seen.add(delta);
+        super.receiveStateDelta(delta);
+      }
+    };
+    PlayerInterface cheater = new HousePlayer(1, "fred") {
+      @Override
+      public Move getPengiunMovement() {
+        throw new IllegalStateException("no move");
+      }
+    };
+    try (GameLogWriter writer = new GameLogWriter(out)) {
+      HexReferee ref = new HexReferee(4, 5, 3);
+      ref.setGameLog(writer);
+      ref.runGame(Arrays.asList(cheater, watcher, new HousePlayer(1, "george")));
+    }
+
+    GameLog log = new GameLog(ByteBuffer.wrap(out.toByteArray()));
+    assertEquals(seen, log.getDeltas(0));
+    assertEquals(GameStage.IN_PLAY, log.getStateAt(0, 10).getGameStage());
+    assertEquals(2, log.getStateAt(0, 10).getPlayers().size());
+  }
+
+  @Test
+  public void testCutShortGameLeftOut() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    GameLogWriter writer = new GameLogWriter(out);
+    GameRecord first = new GameRecord(this.initial, null);
+    first.add(StateDelta.placed(1, new Coord(0, 0), PlayerColor.WHITE));
+    writer.write(first);
+    GameRecord second = new GameRecord(this.initial, null);
+    second.add(StateDelta.placed(1, new Coord(0, 0), PlayerColor.WHITE));
+    writer.write(second);
+    writer.flush();
+
+    byte[] bytes = out.toByteArray();
+    GameLog log = new GameLog(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+    assertEquals(1, log.getGameCount());
+    assertFalse(log.isSeeded(0));
+    assertEquals(1, log.getPlyCount(0));
+  }
+
+  @Test
+  public void testGameAppendedAfterCutShortGame() throws IOException {
+    Path file = this.folder.getRoot().toPath().resolve("games.log");
+    GameRecord first = new GameRecord(this.initial, 1L);
+    first.add(StateDelta.placed(1, new Coord(0, 0), PlayerColor.WHITE));
+    GameRecord second = new GameRecord(this.initial, 2L);
+    second.add(StateDelta.placed(1, new Coord(0, 1), PlayerColor.WHITE));
+    second.add(StateDelta.placed(2, new Coord(1, 1), PlayerColor.RED));
+    try (GameLogWriter writer = new GameLogWriter(file)) {
+      writer.write(first);
+      writer.write(second);
+    }
+    // the second game is cut short as the writer is killed
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - GameRecord.ENTRY_BYTES - 1);
+    }
+
+    GameRecord third = new GameRecord(this.initial, 3L);
+    third.add(StateDelta.placed(1, new Coord(0, 5), PlayerColor.WHITE));
+    try (GameLogWriter writer = new GameLogWriter(file)) {
+      writer.write(third);
+    }
+
+    GameLog log = GameLog.open(file);
+    assertEquals(2, log.getGameCount());
+    assertEquals(1L, log.getSeed(0));
+    assertEquals(3L, log.getSeed(1));
+    assertEquals(Arrays.asList(StateDelta.placed(1, new Coord(0, 5), PlayerColor.WHITE)),
+        log.getDeltas(1));
+    assertEquals(Files.size(file), log.getLength());
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotALog() throws IOException {
+    new GameLog(ByteBuffer.wrap(new byte[40]));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSuchPly() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GameLogWriter writer = new GameLogWriter(out)) {
+      writer.write(new GameRecord(this.initial, null));
+    }
+    new GameLog(ByteBuffer.wrap(out.toByteArray())).getStateAt(0, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRecordAfterPlacements() {
+    GameState placed = this.initial.getCopyGameState();
+    placed.placePenguin(new Coord(0, 0), PlayerColor.WHITE);
+    new GameRecord(placed, null);
+  }
+}
@@ -63,6 +63,21 @@ public class HexRefereeTest {
     assertTrue(ones >= 10);
   }
 
+  @Test
+  public void testMakeBoardSeeded() {
+    GameBoard gb = new HexReferee(4, 3, 7).makeGameBoard(6);
+
+    assertEquals(4, gb.getHeight());
+    assertEquals(3, gb.getWidth());
+    assertArrayEquals(gb.getBoardDataRepresentation(),
+        new HexReferee(4, 3, 7).makeGameBoard(6).getBoardDataRepresentation());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSeededRefereeNoBoard() {
+    new HexReferee(0, 3, 7);
+  }
+
   @Test
   public void testMakePlayersInternalMt() {
     List<InternalPlayer> mt = this.blankRef.makePlayersInternal(new ArrayList<>());
@@ -197,6 +212,17 @@ public class HexRefereeTest {
     assertEquals(new Coord(1, 2), loc);
   }
 
+  @Test
+  public void testRunMovingPenguinsInPlace() {
+    this.redWhiteRef.broadcastGameState(this.smallStartingGs);
+    GameState placed = this.redWhiteRef.runPlacePenguins(this.smallStartingGs);
+    placed.startPlay();
+    GameState finalState = this.redWhiteRef.runMovingPenguins(placed);
+    // the game is played on the state itself rather than on copies of it
+    assertSame(placed, finalState);
+    assertTrue(finalState.isGameOver());
+  }
+
   @Test
   public void testRunMovingPengiuns() {
     this.redWhiteRef.broadcastGameState(this.smallStartingGs);
@@ -0,0 +1,235 @@
+package com.fish.admin;
+
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HexTournamentManagerTest {
+
+  private List<PlayerInterface> players;
+  private Path checkpoint;
+  // the round and game of every game the scripted referees were asked to play
+  private List<String> played;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    this.players = new ArrayList<>();
+    for (int ii = 0; ii < 8; ii++) {
+      this.players.add(new HousePlayer(1, "player" + ii));
+    }
+    this.checkpoint = this.folder.getRoot().toPath().resolve("tournament.journal");
+    this.played = new ArrayList<>();
+  }
+
+  // A manager whose games are won by the first player in each, and which crashes when it gets to
+  // the given game of the given round
+  private HexTournamentManager scripted(int crashRound, int crashGame) {
+    HexTournamentManager manager = new HexTournamentManager(this.checkpoint, 1) {
+      @Override
+      Referee makeReferee(int round, int game) {
+        return gamePlayers -> {
+          if (round == crashRound && game == crashGame) {
+            throw new IllegalStateException("crash");
+          }
+          played.add(round + ":" + game);
+          return new Results(Collections.singletonList(gamePlayers.get(0)), new ArrayList<>());
+        };
+      }
+    };
+    for (PlayerInterface player : this.players) {
+      manager.signUpPlayer(player);
+    }
+    return manager;
+  }
+
+  private List<Integer> sizes(int players) {
+    List<PlayerInterface> ps = new ArrayList<>();
+    for (int ii = 0; ii < players; ii++) {
+      ps.add(new HousePlayer(1, "p" + ii));
+    }
+    List<Integer> sizes = new ArrayList<>();
+    for (List<PlayerInterface> game : HexTournamentManager.allocate(ps)) {
+      sizes.add(game.size());
+    }
+    return sizes;
+  }
+
+  @Test
+  public void testAllocate() {
+    assertEquals(Collections.emptyList(), this.sizes(1));
+    assertEquals(Arrays.asList(2), this.sizes(2));
+    assertEquals(Arrays.asList(4), this.sizes(4));
+    assertEquals(Arrays.asList(3, 2), this.sizes(5));
+    assertEquals(Arrays.asList(4, 2), this.sizes(6));
+    assertEquals(Arrays.asList(4, 4), this.sizes(8));
+    assertEquals(Arrays.asList(4, 3, 2), this.sizes(9));
+    assertEquals(Arrays.asList(4, 4, 3), this.sizes(11));
+  }
+
+  @Test
+  public void testRunTournament() {
+    HexTournamentManager manager = new HexTournamentManager() {
+      @Override
+      Referee makeReferee(int round, int game) {
+        return new HexReferee(3, 4, round * 10 + game);
+      }
+    };
+    for (PlayerInterface player : this.players.subList(0, 5)) {
+      manager.signUpPlayer(player);
+    }
+    manager.runTournament();
+
+    assertEquals(TournamentPhase.COMPLETE, manager.getPhase());
+    assertTrue(manager.reportOngoingGames().isEmpty());
+    List<PlayerInterface> eliminated = manager.reportEliminatedPlayers();
+    PlayerInterface winner = manager.reportWinner();
+    // everyone either won or was eliminated, unless the last round was a tie
+    if (winner != null) {
+      assertEquals(4, eliminated.size());
+      assertFalse(eliminated.contains(winner));
+    }
+    assertEquals(eliminated.size(), new HashSet<>(eliminated).size());
+  }
+
+  @Test
+  public void testScriptedTournament() {
+    HexTournamentManager manager = this.scripted(-1, -1);
+    manager.runTournament();
+    assertEquals(Arrays.asList("1:0", "1:1", "2:0"), this.played);
+    assertSame(this.players.get(0), manager.reportWinner());
+    assertEquals(Arrays.asList(this.players.get(4)), manager.getEliminations().get(2));
+    assertEquals(7, manager.reportEliminatedPlayers().size());
+  }
+
+  @Test
+  public void testResumeFromBarrier() {
+    try {
+      this.scripted(2, 0).runTournament();
+      fail("The tournament should have crashed");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(Arrays.asList("1:0", "1:1"), this.played);
+
+    // the games of round 1 are not played again
+    this.played.clear();
+    HexTournamentManager resumed = this.scripted(-1, -1);
+    resumed.runTournament();
+    assertEquals(Arrays.asList("2:0"), this.played);
+    assertSame(this.players.get(0), resumed.reportWinner());
+    assertEquals(Arrays.asList(this.players.get(1), this.players.get(2), this.players.get(3),
+        this.players.get(5), this.players.get(6), this.players.get(7)),
+        resumed.getEliminations().get(1));
+  }
+
+  @Test
+  public void testResumeSkipsFinishedGames() {
+    try {
+      this.scripted(1, 1).runTournament();
+      fail("The tournament should have crashed");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    this.played.clear();
+    HexTournamentManager resumed = this.scripted(-1, -1);
+    resumed.runTournament();
+    assertEquals(Arrays.asList("1:1", "2:0"), this.played);
+    assertSame(this.players.get(0), resumed.reportWinner());
+  }
+
+  @Test
+  public void testResumeLogsEveryGameOnce() throws IOException {
+    Path logFile = this.folder.getRoot().toPath().resolve("games.log");
+    try (GameLogWriter log = new GameLogWriter(logFile)) {
+      // the manager stops after the second game is logged, before its result is checkpointed
+      HexTournamentManager manager = new HexTournamentManager(this.checkpoint, 8) {
+        @Override
+        Referee makeReferee(int round, int game) {
+          Referee referee = super.makeReferee(round, game);
+          return gamePlayers -> {
+            Results results = referee.runGame(gamePlayers);
+            if (round == 1 && game == 1) {
+              throw new IllegalStateException("crash");
+            }
+            return results;
+          };
+        }
+      };
+      manager.setGameLog(log);
+      for (PlayerInterface player : this.players) {
+        manager.signUpPlayer(player);
+      }
+      manager.runTournament();
+      fail("The tournament should have crashed");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(2, GameLog.open(logFile).getGameCount());
+
+    try (GameLogWriter log = new GameLogWriter(logFile)) {
+      HexTournamentManager resumed = new HexTournamentManager(this.checkpoint, 8) {
+        @Override
+        Referee makeReferee(int round, int game) {
+          played.add(round + ":" + game);
+          return super.makeReferee(round, game);
+        }
+      };
+      resumed.setGameLog(log);
+      for (PlayerInterface player : this.players) {
+        resumed.signUpPlayer(player);
+      }
+      resumed.runTournament();
+      assertEquals(TournamentPhase.COMPLETE, resumed.getPhase());
+    }
+
+    // the second game was played again, and logged in place of the first attempt
+    assertEquals("1:1", this.played.get(0));
+    assertEquals(1 + this.played.size(), GameLog.open(logFile).getGameCount());
+  }
+
+  @Test
+  public void testResumeFinishedTournament() {
+    this.scripted(-1, -1).runTournament();
+    this.played.clear();
+    HexTournamentManager again = this.scripted(-1, -1);
+    again.runTournament();
+    assertTrue(this.played.isEmpty());
+    assertSame(this.players.get(0), again.reportWinner());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testResumeWrongPlayers() {
+    this.scripted(-1, -1).runTournament();
+    HexTournamentManager other = new HexTournamentManager(this.checkpoint);
+    other.signUpPlayer(this.players.get(0));
+    other.runTournament();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSignUpAfterStart() {
+    HexTournamentManager manager = this.scripted(-1, -1);
+    manager.runTournament();
+    manager.signUpPlayer(new HousePlayer(1, "late"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWinnerBeforeEnd() {
+    this.scripted(-1, -1).reportWinner();
+  }
+}
@@ -0,0 +1,117 @@
+package com.fish.admin;
+
+import com.fish.admin.TournamentJournal.GameResult;
+import com.fish.admin.TournamentJournal.Progress;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.PlayerColor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class TournamentJournalTest {
+
+  private Path file;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    this.file = this.folder.getRoot().toPath().resolve("tournament.journal");
+  }
+
+  @Test
+  public void testNoJournal() throws IOException {
+    assertNull(TournamentJournal.read(this.file));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Map<Integer, List<Integer>> elims = new TreeMap<>();
+    try (TournamentJournal journal = new TournamentJournal(this.file, 2)) {
+      journal.writeRound(5, 1, Arrays.asList(0, 1, 2, 3, 4), elims, false);
+      journal.writeGame(1, 0, new GameResult(Arrays.asList(0), Arrays.asList(2)));
+      journal.writeGame(1, 1, new GameResult(Arrays.asList(3), Collections.emptyList()));
+      elims.put(1, Arrays.asList(1, 2, 4));
+      journal.writeRound(5, 2, Arrays.asList(0, 3), elims, false);
+      journal.writeGame(2, 0, new GameResult(Arrays.asList(3), Collections.emptyList()));
+    }
+
+    Progress progress = TournamentJournal.read(this.file);
+    assertEquals(5, progress.getPlayers());
+    assertEquals(2, progress.getRound());
+    assertEquals(Arrays.asList(0, 3), progress.getSurvivors());
+    assertEquals(elims, progress.getEliminations());
+    assertFalse(progress.isComplete());
+    // only the games of the round after the last barrier
+    assertEquals(1, progress.getGames().size());
+    assertEquals(Arrays.asList(3), progress.getGames().get(0).getWinners());
+  }
+
+  @Test
+  public void testTornLineCutOff() throws IOException {
+    try (TournamentJournal journal = new TournamentJournal(this.file, 1)) {
+      journal.writeRound(2, 1, Arrays.asList(0, 1), Collections.emptyMap(), false);
+    }
+    long whole = Files.size(this.file);
+    Files.write(this.file, "{\"round\":1,\"ga".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    // the partial line is ignored when reading, and cut off when the journal is reopened
+    assertTrue(TournamentJournal.read(this.file).getGames().isEmpty());
+    try (TournamentJournal journal = new TournamentJournal(this.file, 1)) {
+      assertEquals(whole, Files.size(this.file));
+      journal.writeGame(1, 0, new GameResult(Arrays.asList(1), Collections.emptyList()));
+    }
+    assertEquals(Arrays.asList(1), TournamentJournal.read(this.file).getGames().get(0).getWinners());
+  }
+
+  @Test
+  public void testGameLogPosition() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TournamentJournal journal = new TournamentJournal(this.file, 2);
+        GameLogWriter log = new GameLogWriter(out)) {
+      journal.setGameLog(log);
+      journal.writeRound(2, 1, Arrays.asList(0, 1), Collections.emptyMap(), false);
+      assertEquals(0, TournamentJournal.read(this.file).getLogLength());
+
+      GameState initial = new HexGameState(GameStage.PLACING_PENGUINS, new HexGameBoard(2, 3, 1),
+          Arrays.asList(new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.WHITE)));
+      log.write(new GameRecord(initial, null));
+      journal.writeGame(1, 0, new GameResult(Arrays.asList(1), Collections.emptyList()));
+      // the game log is written out along with the journal
+      assertEquals(0, out.size());
+      journal.sync();
+      assertEquals(log.getLength(), out.size());
+    }
+
+    Progress progress = TournamentJournal.read(this.file);
+    assertEquals(out.size(), progress.getLogLength());
+    assertEquals(1, progress.getLogGames());
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotAJournal() throws IOException {
+    Files.write(this.file, "[1, 2, 3]\n".getBytes(StandardCharsets.UTF_8));
+    TournamentJournal.read(this.file);
+  }
+}
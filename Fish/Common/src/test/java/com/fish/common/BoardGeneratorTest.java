@@ -0,0 +1,84 @@
+package com.fish.common.board;
+
+import com.fish.common.Coord;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardGeneratorTest {
+
+  private final List<Coord> holes = Arrays.asList(new Coord(0, 0), new Coord(1, 1),
+      new Coord(2, 2), new Coord(1, 4));
+
+  @Test
+  public void testSameSeedSameBoards() {
+    BoardGenerator first = new BoardGenerator(42L);
+    BoardGenerator second = new BoardGenerator(42L);
+
+    for (int ii = 0; ii < 5; ii++) {
+      assertArrayEquals(first.generateValues(8, 3, this.holes, 8),
+          second.generateValues(8, 3, this.holes, 8));
+    }
+    assertArrayEquals(first.split().generateValues(10, 6, new ArrayList<>(), 10),
+        second.split().generateValues(10, 6, new ArrayList<>(), 10));
+  }
+
+  @Test
+  public void testDifferentSeedsDifferentBoards() {
+    assertFalse(Arrays.deepEquals(new BoardGenerator(1L).generateValues(10, 6, this.holes, 0),
+        new BoardGenerator(2L).generateValues(10, 6, this.holes, 0)));
+  }
+
+  @Test
+  public void testHolesAndFish() {
+    int[][] values = new BoardGenerator(7L).generateValues(8, 3, this.holes, 8);
+
+    assertEquals(3, values.length);
+    assertEquals(8, values[0].length);
+    int ones = 0;
+    for (int ii = 0; ii < 3; ii++) {
+      for (int jj = 0; jj < 8; jj++) {
+        if (this.holes.contains(new Coord(ii, jj))) {
+          assertEquals(0, values[ii][jj]);
+        }
+        else {
+          assertTrue(values[ii][jj] >= 1 && values[ii][jj] <= 5);
+          if (values[ii][jj] == 1) {
+            ones++;
+          }
+        }
+      }
+    }
+    assertTrue(ones >= 8);
+  }
+
+  @Test
+  public void testAllOneFish() {
+    GameBoard board = new BoardGenerator(3L).generate(4, 5, Arrays.asList(new Coord(4, 3),
+        new Coord(9, 9)), 19);
+
+    assertEquals(4, board.getHeight());
+    assertEquals(5, board.getWidth());
+    for (int ii = 0; ii < 5; ii++) {
+      for (int jj = 0; jj < 4; jj++) {
+        boolean hole = ii == 4 && jj == 3;
+        assertEquals(!hole, board.getTileAt(new Coord(ii, jj)).isPresent());
+        assertEquals(hole ? 0 : 1, board.getBoardDataRepresentation()[ii][jj]);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotEnoughTiles() {
+    new BoardGenerator(3L).generateValues(2, 2, Arrays.asList(new Coord(0, 0)), 4);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoRows() {
+    new BoardGenerator(3L).generateValues(0, 2, new ArrayList<>(), 0);
+  }
+}
@@ -0,0 +1,109 @@
+package com.fish.common.game;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingGameTreeTest {
+
+  private GameState gs;
+  private CachingGameTree tree;
+
+  @Before
+  public void setUp() {
+    List<InternalPlayer> players = Arrays.asList(new HexPlayer(PlayerColor.BROWN),
+        new HexPlayer(PlayerColor.RED));
+    this.gs = new HexGameState();
+    this.gs.initGame(new HexGameBoard(5, 3, 1), players);
+    this.gs.placePenguin(new Coord(0, 0), PlayerColor.BROWN);
+    this.gs.placePenguin(new Coord(0, 2), PlayerColor.RED);
+    this.gs.placePenguin(new Coord(0, 4), PlayerColor.BROWN);
+    this.gs.placePenguin(new Coord(1, 1), PlayerColor.RED);
+    this.gs.placePenguin(new Coord(1, 3), PlayerColor.BROWN);
+    this.gs.placePenguin(new Coord(2, 0), PlayerColor.RED);
+    this.gs.placePenguin(new Coord(2, 2), PlayerColor.BROWN);
+    this.gs.placePenguin(new Coord(2, 4), PlayerColor.RED);
+    this.gs.startPlay();
+    this.tree = new CachingGameTree(this.gs);
+  }
+
+  @Test
+  public void testSameAsHexGameTree() {
+    GameTree hex = new HexGameTree(this.gs);
+    GameTree caching = this.tree;
+    for (Move move : Arrays.asList(new Move(new Coord(0, 0), new Coord(1, 2)),
+        new Move(new Coord(0, 2), new Coord(1, 0)), new Move(new Coord(0, 4), new Coord(0, 3)))) {
+      assertEquals(hex.getPossibleMoves(), caching.getPossibleMoves());
+      assertEquals(hex.getPossibleGameStates(), caching.getPossibleGameStates());
+      hex = hex.getNextGameTree(move);
+      caching = caching.getNextGameTree(move);
+      assertEquals(hex.getState(), caching.getState());
+      List<MoveState> hexHistory = hex.getPreviousMoves();
+      List<MoveState> cachingHistory = caching.getPreviousMoves();
+      assertEquals(hexHistory.size(), cachingHistory.size());
+      for (int ii = 0; ii < hexHistory.size(); ii++) {
+        assertEquals(hexHistory.get(ii).getMove(), cachingHistory.get(ii).getMove());
+        assertEquals(hexHistory.get(ii).getGameState(), cachingHistory.get(ii).getGameState());
+      }
+    }
+  }
+
+  @Test
+  public void testChildrenAreKept() {
+    Move move = new Move(new Coord(0, 0), new Coord(1, 2));
+    GameTree child = this.tree.getNextGameTree(move);
+    assertSame(child, this.tree.getNextGameTree(move));
+    assertSame(this.tree, child.undoPreviousMove());
+    assertEquals(2, this.tree.getNodeCount());
+  }
+
+  @Test
+  public void testAdvanceKeepsSubtree() {
+    Move first = new Move(new Coord(0, 0), new Coord(1, 2));
+    Move second = new Move(new Coord(0, 2), new Coord(1, 0));
+    GameTree grandchild = this.tree.getNextGameTree(first).getNextGameTree(second);
+    this.tree.getNextGameTree(new Move(new Coord(0, 4), new Coord(0, 3)));
+    assertEquals(4, this.tree.getNodeCount());
+
+    CachingGameTree root = this.tree.advance(first);
+    assertSame(grandchild, root.getNextGameTree(second));
+    assertTrue(root.getPreviousMoves().isEmpty());
+    assertEquals(1, grandchild.getPreviousMoves().size());
+    assertEquals(2, root.getNodeCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdvanceRoot() {
+    this.tree.advance(new Move(new Coord(0, 0), new Coord(1, 2))).undoPreviousMove();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalMove() {
+    this.tree.advance(new Move(new Coord(0, 2), new Coord(1, 0)));
+  }
+
+  @Test
+  public void testMaxNodes() {
+    CachingGameTree small = new CachingGameTree(this.gs, 1);
+    Move move = new Move(new Coord(0, 0), new Coord(1, 2));
+    assertNotSame(small.getNextGameTree(move), small.getNextGameTree(move));
+    assertEquals(small.getNextGameTree(move).getState(), this.tree.getNextGameTree(move).getState());
+    assertEquals(1, small.getNodeCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoNodes() {
+    new CachingGameTree(this.gs, 0);
+  }
+}
@@ -0,0 +1,92 @@
+package com.fish.common.game;
+
+import com.fish.common.Coord;
+import com.fish.common.board.BoardSymmetry;
+import com.fish.common.board.GameBoard;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CanonicalStateTest {
+
+  @Test
+  public void testSymmetriesKeepMoves() {
+    for (int height = 1; height <= 6; height++) {
+      int width = 3;
+      GameBoard board = new HexGameBoard(height, width, Arrays.asList(new Coord(1, 0)), 0, height);
+      List<Coord> penguins = Arrays.asList(new Coord(0, height - 1));
+      for (BoardSymmetry symmetry : BoardSymmetry.of(width, height)) {
+        GameBoard mapped = new HexGameBoard(symmetry.apply(board.getBoardDataRepresentation()));
+        List<Coord> mappedPenguins = Arrays.asList(symmetry.apply(penguins.get(0), width, height));
+        for (int xx = 0; xx < width; xx++) {
+          for (int yy = 0; yy < height; yy++) {
+            Coord from = new Coord(xx, yy);
+            if (!board.getTileAt(from).isPresent()) {
+              continue;
+            }
+            Set<Coord> expected = new HashSet<>();
+            for (Coord to : board.getTilesReachableFrom(from, penguins)) {
+              expected.add(symmetry.apply(to, width, height));
+            }
+            assertEquals(expected, new HashSet<>(mapped.getTilesReachableFrom(
+                symmetry.apply(from, width, height), mappedPenguins)));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSymmetricStatesShareCanonicalForm() {
+    GameState original = this.makeState(BoardSymmetry.IDENTITY);
+    GameState rotated = this.makeState(BoardSymmetry.ROTATE);
+    assertNotEquals(original, rotated);
+
+    CanonicalState first = CanonicalState.of(original);
+    CanonicalState second = CanonicalState.of(rotated);
+    assertEquals(first.getState(), second.getState());
+    assertEquals(first.getFingerprint(), second.getFingerprint());
+    assertNotEquals(first.getSymmetry(), second.getSymmetry());
+
+    // a move found on the canonical board can be played on either original
+    GameState canonical = first.getState();
+    Coord from = canonical.getPenguinLocationsOf(canonical.getCurrentPlayer()).get(0);
+    Move move = new Move(from, canonical.getTilesReachableFrom(from).get(0));
+    assertEquals(move, first.toCanonical(first.toOriginal(move)));
+    original.movePenguin(first.toOriginal(move).getOrigin(),
+        first.toOriginal(move).getDestination());
+    rotated.movePenguin(second.toOriginal(move).getOrigin(),
+        second.toOriginal(move).getDestination());
+    assertEquals(CanonicalState.of(original).getState(), CanonicalState.of(rotated).getState());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotASymmetry() {
+    BoardSymmetry.MIRROR.apply(new Coord(0, 0), 3, 4);
+  }
+
+  // a two player game on a 4 row board, mapped by the given symmetry
+  private GameState makeState(BoardSymmetry symmetry) {
+    int[][] values = {{1, 2, 3, 4}, {5, 0, 1, 2}, {3, 4, 5, 1}};
+    InternalPlayer white = new HexPlayer(PlayerColor.WHITE);
+    white.placePenguin(symmetry.apply(new Coord(0, 0), 3, 4));
+    InternalPlayer red = new HexPlayer(PlayerColor.RED);
+    red.placePenguin(symmetry.apply(new Coord(2, 3), 3, 4));
+    red.addToScore(2);
+    List<InternalPlayer> players = new ArrayList<>(Arrays.asList(white, red));
+    return new HexGameState(GameStage.IN_PLAY, new HexGameBoard(symmetry.apply(values)), players);
+  }
+}
@@ -306,5 +306,160 @@ public class HexGameBoardTest {
     assertEquals(gb, this.holesBoard);
   }
 
+  @Test
+  public void testFingerprintFollowsRemovals() {
+    GameBoard copy = this.holesBoard.getCopyGameBoard();
+    assertEquals(this.holesBoard.getFingerprint(), copy.getFingerprint());
+    assertEquals(this.holesBoard.hashCode(), copy.hashCode());
+
+    copy.removeTileAt(new Coord(0, 1));
+    assertNotEquals(this.holesBoard.getFingerprint(), copy.getFingerprint());
+    this.holesBoard.removeTileAt(new Coord(0, 1));
+    assertEquals(this.holesBoard.getFingerprint(), copy.getFingerprint());
+    assertEquals(this.holesBoard.hashCode(), copy.hashCode());
+  }
+
+  @Test
+  public void testFingerprintIncludesDimensions() {
+    assertNotEquals(new HexGameBoard(2, 3, 1).getFingerprint(),
+        new HexGameBoard(3, 2, 1).getFingerprint());
+    assertNotEquals(new HexGameBoard(2, 3, 1), new HexGameBoard(3, 2, 1));
+  }
+
+  @Test
+  public void testMobilityMapMatchesReachable() {
+    for (int seed = 0; seed < 5; seed++) {
+      Random rand = new Random(seed);
+      int[][] fishes = new int[5][7];
+      for (int[] column : fishes) {
+        for (int yy = 0; yy < column.length; yy++) {
+          // about one tile in six is a hole
+          column[yy] = rand.nextInt(6);
+        }
+      }
+      GameBoard board = new HexGameBoard(fishes);
+      List<Coord> penguins = new ArrayList<>();
+      for (int ii = 0; ii < 6; ii++) {
+        Coord loc = new Coord(rand.nextInt(5), rand.nextInt(7));
+        if (board.getTileAt(loc).isPresent() && !penguins.contains(loc)) {
+          penguins.add(loc);
+        }
+      }
+
+      MobilityMap mobility = board.getMobilityMap(penguins);
+      for (int xx = 0; xx < 5; xx++) {
+        for (int yy = 0; yy < 7; yy++) {
+          Coord loc = new Coord(xx, yy);
+          if (!board.getTileAt(loc).isPresent()) {
+            continue;
+          }
+          List<Coord> reachable = board.getTilesReachableFrom(loc, penguins);
+          int fish = 0;
+          for (Coord to : reachable) {
+            fish += board.getTileAt(to).getNumFish();
+          }
+          assertEquals(reachable.size(), mobility.getReachableCount(loc));
+          assertEquals(fish, mobility.getReachableFish(loc));
+          assertEquals(!reachable.isEmpty(), mobility.canMoveFrom(loc));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMobilityMapRuns() {
+    // straight down from (0, 0), (0, 2) is free and a penguin on (0, 4) blocks the way
+    MobilityMap mobility = this.noHolesBoard.getMobilityMap(Arrays.asList(new Coord(0, 4)));
+    assertEquals(1, mobility.getRun(new Coord(0, 0), MobilityMap.DOWN));
+    assertEquals(0, mobility.getRun(new Coord(0, 0), MobilityMap.UP));
+    assertEquals(this.noHolesBoard.getTileAt(new Coord(0, 2)).getNumFish(),
+        mobility.getRunFish(new Coord(0, 0), MobilityMap.DOWN));
+    assertEquals(this.noHolesBoard.getTilesReachableFrom(new Coord(1, 1),
+        Arrays.asList(new Coord(0, 4))).size(), mobility.getReachableCount(new Coord(1, 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMobilityMapOutOfBounds() {
+    this.noHolesBoard.getMobilityMap(new ArrayList<>()).getReachableCount(new Coord(2, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMobilityMapBadDirection() {
+    this.noHolesBoard.getMobilityMap(new ArrayList<>()).getRun(new Coord(0, 0), 6);
+  }
+
+  @Test
+  public void testRayIndexFollowsMovesAndMelts() {
+    for (int seed = 0; seed < 5; seed++) {
+      Random rand = new Random(seed);
+      int[][] fishes = new int[5][7];
+      for (int[] column : fishes) {
+        for (int yy = 0; yy < column.length; yy++) {
+          column[yy] = rand.nextInt(6);
+        }
+      }
+      GameBoard board = new HexGameBoard(fishes);
+      List<Coord> penguins = new ArrayList<>();
+      for (int ii = 0; ii < 6; ii++) {
+        Coord loc = new Coord(rand.nextInt(5), rand.nextInt(7));
+        if (board.getTileAt(loc).isPresent() && !penguins.contains(loc)) {
+          penguins.add(loc);
+        }
+      }
+
+      // the same index is kept up to date as penguins move and melt the tiles they leave
+      RayIndex index = board.getRayIndex(penguins);
+      for (int turn = 0; turn < 12 && !penguins.isEmpty(); turn++) {
+        assertSame(index, board.getRayIndex(penguins));
+        this.assertIndexMatchesMobility(board, penguins, index);
+        Coord from = penguins.get(rand.nextInt(penguins.size()));
+        List<Coord> reachable = board.getTilesReachableFrom(from, penguins);
+        board.removeTileAt(from);
+        penguins.remove(from);
+        if (!reachable.isEmpty()) {
+          penguins.add(reachable.get(rand.nextInt(reachable.size())));
+        }
+      }
+    }
+  }
+
+  private void assertIndexMatchesMobility(ProtectedGameBoard board, List<Coord> penguins,
+      RayIndex index) {
+    MobilityMap mobility = board.getMobilityMap(penguins);
+    for (int xx = 0; xx < board.getWidth(); xx++) {
+      for (int yy = 0; yy < board.getHeight(); yy++) {
+        Coord loc = new Coord(xx, yy);
+        if (!board.getTileAt(loc).isPresent()) {
+          continue;
+        }
+        for (int direction = 0; direction < MobilityMap.DIRECTIONS; direction++) {
+          assertEquals(mobility.getRun(loc, direction), index.getRun(loc, direction));
+          assertEquals(mobility.getRunFish(loc, direction), index.getRunFish(loc, direction));
+        }
+        assertEquals(mobility.getReachableFish(loc), index.getReachableFish(loc));
+      }
+    }
+  }
 
+  @Test
+  public void testRayIndexCopiesDoNotShare() {
+    GameBoard copy = this.noHolesBoard.getCopyGameBoard();
+    RayIndex index = this.noHolesBoard.getRayIndex(new ArrayList<>());
+    int before = index.getRun(new Coord(0, 0), MobilityMap.DOWN);
+    copy.getRayIndex(new ArrayList<>());
+    copy.removeTileAt(new Coord(0, 2));
+    assertEquals(before, index.getRun(new Coord(0, 0), MobilityMap.DOWN));
+    assertEquals(0, copy.getRayIndex(new ArrayList<>()).getRun(new Coord(0, 0),
+        MobilityMap.DOWN));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRayIndexOutOfBounds() {
+    this.noHolesBoard.getRayIndex(new ArrayList<>()).getReachableFish(new Coord(2, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRayIndexBadDirection() {
+    this.noHolesBoard.getRayIndex(new ArrayList<>()).getRunFish(new Coord(0, 0), 6);
+  }
 }
@@ -4,11 +4,14 @@ package com.fish.common.state;
 import com.fish.common.Coord;
 import com.fish.common.board.GameBoard;
 import com.fish.common.board.HexGameBoard;
+import com.fish.common.board.MobilityMap;
 import com.fish.common.board.ProtectedGameBoard;
+import com.fish.common.board.RayIndex;
 import com.fish.common.tile.ProtectedTile;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -390,6 +393,28 @@ public class HexGameStateTest {
     assertEquals(PlayerColor.WHITE, this.fourPlayerGame.getCurrentPlayer());
   }
 
+  @Test
+  public void testPlayersInTurnOrderAfterRemove() {
+    // BROWN, BLACK, WHITE, RED, with BLACK removed mid-ring
+    this.fourPlayerGame.startPlay();
+    this.fourPlayerGame.advanceToNextPlayer();
+    this.fourPlayerGame.removeCurrentPlayer();
+    this.fourPlayerGame.advanceToNextPlayer();
+    List<PlayerColor> order = new ArrayList<>();
+    for (ProtectedPlayer p : this.fourPlayerGame.getPlayers()) {
+      order.add(p.getColor());
+    }
+    assertEquals(Arrays.asList(PlayerColor.RED, PlayerColor.BROWN, PlayerColor.WHITE), order);
+
+    // a copy keeps the ring, and going round it
+    GameState copy = this.fourPlayerGame.getCopyGameState();
+    assertEquals(this.fourPlayerGame, copy);
+    copy.advanceToNextPlayer();
+    copy.advanceToNextPlayer();
+    assertEquals(PlayerColor.WHITE, copy.getCurrentPlayer());
+    assertEquals(PlayerColor.RED, this.fourPlayerGame.getCurrentPlayer());
+  }
+
 
   //////////////Testing Game Ending
 
@@ -624,4 +649,64 @@ public class HexGameStateTest {
     assertTrue(gs.equals(this.constantFishNumGame));
   }
 
+  @Test
+  public void testFingerprintFollowsMoves() {
+    this.constantFishNumGame.startPlay();
+    GameState copy = this.constantFishNumGame.getCopyGameState();
+    assertEquals(this.constantFishNumGame.getFingerprint(), copy.getFingerprint());
+    assertEquals(this.constantFishNumGame.hashCode(), copy.hashCode());
+
+    copy.movePenguin(new Coord(0, 0), new Coord(0, 2));
+    assertNotEquals(this.constantFishNumGame.getFingerprint(), copy.getFingerprint());
+    this.constantFishNumGame.movePenguin(new Coord(0, 0), new Coord(0, 2));
+    assertEquals(this.constantFishNumGame.getFingerprint(), copy.getFingerprint());
+    assertEquals(this.constantFishNumGame.hashCode(), copy.hashCode());
+  }
+
+  @Test
+  public void testFingerprintUsesTurnOrder() {
+    HexPlayer white = new HexPlayer(PlayerColor.WHITE);
+    HexPlayer red = new HexPlayer(PlayerColor.RED);
+    white.placePenguin(new Coord(0, 0));
+    red.placePenguin(new Coord(1, 0));
+    GameState whiteFirst = new HexGameState(GameStage.IN_PLAY, new HexGameBoard(4, 4, 2),
+        Arrays.asList(white, red));
+    GameState redFirst = new HexGameState(GameStage.IN_PLAY, new HexGameBoard(4, 4, 2),
+        Arrays.asList(red.getCopyPlayer(), white.getCopyPlayer()));
+    assertNotEquals(whiteFirst.getFingerprint(), redFirst.getFingerprint());
+    assertNotEquals(whiteFirst, redFirst);
+
+    // once white has moved it is red's turn in both
+    whiteFirst.advanceToNextPlayer();
+    redFirst.advanceToNextPlayer();
+    redFirst.advanceToNextPlayer();
+    assertEquals(whiteFirst.getFingerprint(), redFirst.getFingerprint());
+    assertEquals(whiteFirst, redFirst);
+    assertEquals(1, new HashSet<>(Arrays.asList(whiteFirst, redFirst)).size());
+  }
+
+  @Test
+  public void testMobilityMap() {
+    MobilityMap mobility = this.fourPlayerGame.getMobilityMap();
+    for (Coord loc : this.fourPlayerGame.getPenguinLocations().keySet()) {
+      assertEquals(this.fourPlayerGame.getTilesReachableFrom(loc).size(),
+          mobility.getReachableCount(loc));
+    }
+  }
+
+  @Test
+  public void testRayIndex() {
+    this.fourPlayerGame.startPlay();
+    Coord from = this.fourPlayerGame.getPenguinLocationsOf(
+        this.fourPlayerGame.getCurrentPlayer()).get(0);
+    this.fourPlayerGame.getRayIndex();
+    Coord to = this.fourPlayerGame.getTilesReachableFrom(from).get(0);
+    this.fourPlayerGame.movePenguin(from, to);
+    RayIndex index = this.fourPlayerGame.getRayIndex();
+    MobilityMap mobility = this.fourPlayerGame.getMobilityMap();
+    for (Coord loc : this.fourPlayerGame.getPenguinLocations().keySet()) {
+      assertEquals(mobility.getReachableCount(loc), index.getReachableCount(loc));
+      assertEquals(mobility.getReachableFish(loc), index.getReachableFish(loc));
+    }
+  }
 }
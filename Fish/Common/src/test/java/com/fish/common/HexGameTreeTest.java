@@ -108,6 +108,14 @@ public class HexGameTreeTest {
     }
   }
 
+  @Test
+  public void getPossibleMovesMatchesStates() {
+    assertEquals(new ArrayList<>(this.twoPlayerTree.getPossibleGameStates().keySet()),
+        this.twoPlayerTree.getPossibleMoves());
+    assertEquals(new ArrayList<>(this.threePlayerTree.getPossibleGameStates().keySet()),
+        this.threePlayerTree.getPossibleMoves());
+  }
+
   @Test
   public void getNextGameTree() {
     Map<Move, GameState> oldMoves = this.threePlayerTree.getPossibleGameStates();
@@ -376,6 +384,69 @@ public class HexGameTreeTest {
     assertEquals(Integer.valueOf(59844), HexGameTree.applyToAllReachableStates(this.twoPlayerTree, func, 1));
   }
 
+  // test counting all of the nodes in the tree in parallel
+  @Test
+  public void testTotalNodesInParallel() {
+    assertEquals(Integer.valueOf(59844), HexGameTree.applyToAllReachableStatesInParallel(
+        this.twoPlayerTree, new NodeCounter(), 1));
+    assertEquals(Integer.valueOf(59844), HexGameTree.applyToAllReachableStatesInParallel(
+        this.twoPlayerTree, new NodeCounter(2), 1));
+  }
+
+  // test that a parallel fold combines the children in the order of their moves
+  @Test
+  public void testParallelFoldKeepsOrder() {
+    ICombiningFunc<List<Move>> lastMoves = new ICombiningFunc<List<Move>>() {
+      @Override
+      public List<Move> apply(GameTree gt, List<Move> moves) {
+        List<Move> result = new ArrayList<>(moves);
+        result.add(gt.getPreviousMoves().get(gt.getPreviousMoves().size() - 1).getMove());
+        return result;
+      }
+
+      @Override
+      public List<Move> identity() {
+        return new ArrayList<>();
+      }
+
+      @Override
+      public List<Move> combine(List<Move> left, List<Move> right) {
+        List<Move> result = new ArrayList<>(left);
+        result.addAll(right);
+        return result;
+      }
+    };
+    assertEquals(this.threePlayerTree.getPossibleMoves(),
+        HexGameTree.applyToAllReachableStatesInParallel(this.threePlayerTree, lastMoves,
+            new ArrayList<>()));
+    assertEquals(HexGameTree.applyToAllReachableStates(this.threePlayerTree, lastMoves,
+        new ArrayList<>()),
+        HexGameTree.applyToAllReachableStatesInParallel(this.threePlayerTree, lastMoves,
+            new ArrayList<>()));
+  }
+
+  // test splitting the children of a tree
+  @Test
+  public void testReachableTreesSplit() {
+    Spliterator<GameTree> second = HexGameTree.reachableTrees(this.twoPlayerTree);
+    assertEquals(9, second.estimateSize());
+    assertTrue(second.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED));
+    Spliterator<GameTree> first = second.trySplit();
+    assertEquals(4, first.estimateSize());
+    assertEquals(5, second.estimateSize());
+
+    List<GameTree> children = new ArrayList<>();
+    first.forEachRemaining(children::add);
+    second.forEachRemaining(children::add);
+    assertEquals(9, children.size());
+    for (int ii = 0; ii < children.size(); ii++) {
+      assertEquals(this.twoPlayerTree.getPossibleMoves().get(ii),
+          children.get(ii).getPreviousMoves().get(0).getMove());
+    }
+    assertNull(second.trySplit());
+    assertFalse(second.tryAdvance(child -> fail()));
+  }
+
   // tests a function that maps each move to the number of moves available to
   //  the next opponent
   @Test
@@ -0,0 +1,117 @@
+package com.fish.demo;
+
+import com.fish.admin.Results;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SelfPlayTest {
+
+  private static SelfPlay threeGames() {
+    return new SelfPlay(3, Collections.singletonList(new int[] {1, 2}),
+        Collections.singletonList(new int[] {4, 4}), 7, 2);
+  }
+
+  @Test
+  public void testReportCounts() throws InterruptedException {
+    SelfPlay.Report report = threeGames().run();
+
+    assertEquals(3, report.getGames());
+    assertEquals(Arrays.asList("house-1", "house-2"),
+        Arrays.asList(report.getGamesPlayed().keySet().toArray()));
+    assertEquals(Integer.valueOf(3), report.getGamesPlayed().get("house-1"));
+    assertEquals(Integer.valueOf(3), report.getGamesPlayed().get("house-2"));
+    assertEquals(Integer.valueOf(0), report.getCheats().get("house-1"));
+    assertEquals(Integer.valueOf(0), report.getCheats().get("house-2"));
+
+    int wins = report.getWins().get("house-1") + report.getWins().get("house-2");
+    assertTrue(wins >= 3 && wins <= 6);
+
+    Map<String, Integer> moves = report.getMovesMade();
+    assertTrue(moves.get("house-1") > 0);
+    assertTrue(moves.get("house-2") > 0);
+    assertEquals(moves.get("house-1") + moves.get("house-2"), report.getMoves());
+  }
+
+  @Test
+  public void testSameSeedSameReport() throws InterruptedException {
+    SelfPlay.Report first = threeGames().run();
+    SelfPlay.Report second = threeGames().run();
+
+    assertEquals(first.getWins(), second.getWins());
+    assertEquals(first.getMovesMade(), second.getMovesMade());
+  }
+
+  @Test
+  public void testSeatsTurnEachGame() {
+    SelfPlay sim = new SelfPlay(3, Collections.singletonList(new int[] {1, 2, 3}),
+        Collections.singletonList(new int[] {4, 4}), 7, 1);
+
+    assertEquals(Arrays.asList("house-1", "house-2", "house-3"), types(sim.seat(0)));
+    assertEquals(Arrays.asList("house-2", "house-3", "house-1"), types(sim.seat(1)));
+    assertEquals(Arrays.asList("house-3", "house-1", "house-2"), types(sim.seat(2)));
+    assertEquals(types(sim.seat(0)), types(sim.seat(3)));
+  }
+
+  private static List<String> types(List<TimedPlayer> players) {
+    String[] types = new String[players.size()];
+    for (int ii = 0; ii < types.length; ii++) {
+      types[ii] = players.get(ii).getType();
+    }
+    return Arrays.asList(types);
+  }
+
+  @Test
+  public void testReportAddsWinsAndCheats() {
+    TimedPlayer fred = new TimedPlayer(new HousePlayer(1, "fred"), "house-1");
+    TimedPlayer bill = new TimedPlayer(new HousePlayer(1, "bill"), "house-1");
+    TimedPlayer george = new TimedPlayer(new HousePlayer(2, "george"), "house-2");
+    List<TimedPlayer> players = Arrays.asList(fred, bill, george);
+
+    SelfPlay.Report report = new SelfPlay.Report();
+    report.add(players, new Results(Arrays.<PlayerInterface>asList(fred, bill),
+        Collections.<PlayerInterface>singletonList(george)));
+    report.add(players, new Results(Collections.<PlayerInterface>singletonList(george),
+        Collections.<PlayerInterface>singletonList(bill)));
+
+    assertEquals(2, report.getGames());
+    assertEquals(Integer.valueOf(4), report.getGamesPlayed().get("house-1"));
+    assertEquals(Integer.valueOf(2), report.getGamesPlayed().get("house-2"));
+    assertEquals(Integer.valueOf(2), report.getWins().get("house-1"));
+    assertEquals(Integer.valueOf(1), report.getWins().get("house-2"));
+    assertEquals(Integer.valueOf(1), report.getCheats().get("house-1"));
+    assertEquals(Integer.valueOf(1), report.getCheats().get("house-2"));
+    assertEquals(0, report.getMoves());
+  }
+
+  @Test
+  public void testPercentile() {
+    long[] sorted = new long[100];
+    for (int ii = 0; ii < sorted.length; ii++) {
+      sorted[ii] = ii + 1;
+    }
+
+    assertEquals(50, SelfPlay.Report.percentile(sorted, 0.50));
+    assertEquals(99, SelfPlay.Report.percentile(sorted, 0.99));
+    assertEquals(100, SelfPlay.Report.percentile(sorted, 1.0));
+    assertEquals(1, SelfPlay.Report.percentile(sorted, 0.0));
+  }
+
+  @Test
+  public void testPercentileOfFewValues() {
+    long[] sorted = {3, 5, 20};
+
+    assertEquals(5, SelfPlay.Report.percentile(sorted, 0.50));
+    assertEquals(20, SelfPlay.Report.percentile(sorted, 0.99));
+    assertEquals(20, SelfPlay.Report.percentile(sorted, 1.0));
+    assertEquals(7, SelfPlay.Report.percentile(new long[] {7}, 0.50));
+    assertEquals(0, SelfPlay.Report.percentile(new long[0], 0.99));
+  }
+}
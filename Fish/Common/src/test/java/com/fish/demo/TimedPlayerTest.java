@@ -0,0 +1,77 @@
+package com.fish.demo;
+
+import com.fish.common.Coord;
+import com.fish.common.game.Move;
+import com.fish.player.HousePlayer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TimedPlayerTest {
+
+  // a player that answers straight away, so only the timing is tested
+  private static HousePlayer instant() {
+    return new HousePlayer(1, "fred") {
+      @Override
+      public Coord getPenguinPlacement() {
+        return new Coord(0, 0);
+      }
+
+      @Override
+      public Move getPengiunMovement() {
+        return new Move(new Coord(0, 0), new Coord(0, 1));
+      }
+    };
+  }
+
+  @Test
+  public void testCountsAndTimes() {
+    TimedPlayer timed = new TimedPlayer(instant(), "house-1");
+    for (int ii = 0; ii < 40; ii++) {
+      timed.getPengiunMovement();
+    }
+    timed.getPenguinPlacement();
+    timed.getPenguinPlacement();
+
+    assertEquals("house-1", timed.getType());
+    assertEquals(40, timed.getMoves());
+    assertEquals(40, timed.getMoveNanos().length);
+    for (long nanos : timed.getMoveNanos()) {
+      assertTrue(nanos >= 0);
+    }
+    assertEquals(2, timed.getPlacements());
+    assertTrue(timed.getPlacementNanos() >= 0);
+  }
+
+  @Test
+  public void testCountsFromManyThreads() throws Exception {
+    TimedPlayer timed = new TimedPlayer(instant(), "house-1");
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Future<?>> calls = new ArrayList<>();
+    try {
+      for (int ii = 0; ii < 4; ii++) {
+        calls.add(pool.submit(() -> {
+          for (int jj = 0; jj < 1000; jj++) {
+            timed.getPengiunMovement();
+            timed.getPenguinPlacement();
+          }
+        }));
+      }
+      for (Future<?> call : calls) {
+        call.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertEquals(4000, timed.getMoves());
+    assertEquals(4000, timed.getMoveNanos().length);
+    assertEquals(4000, timed.getPlacements());
+  }
+}
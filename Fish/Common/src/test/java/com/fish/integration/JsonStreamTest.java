@@ -0,0 +1,88 @@
+package com.fish.integration;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+public class JsonStreamTest {
+
+  @Test
+  public void testValuesAcrossLines() {
+    JsonStream values = new JsonStream(new StringReader("[1,\n 2] {\"a\"\n:\n3}4 \"x y\"\n"));
+
+    JsonArray first = new JsonArray();
+    first.add(1);
+    first.add(2);
+    JsonObject second = new JsonObject();
+    second.addProperty("a", 3);
+
+    assertEquals(first, values.next());
+    assertEquals(second, values.next());
+    assertEquals(new JsonPrimitive(4), values.next());
+    assertEquals(new JsonPrimitive("x y"), values.next());
+    assertFalse(values.hasNext());
+  }
+
+  @Test
+  public void testValuesWithoutSeparators() {
+    JsonStream values = new JsonStream(new StringReader("[1][2]"));
+    assertEquals(1, values.next().getAsJsonArray().get(0).getAsInt());
+    assertEquals(2, values.next().getAsJsonArray().get(0).getAsInt());
+    assertFalse(values.hasNext());
+  }
+
+  @Test
+  public void testInputStream() {
+    JsonStream values = new JsonStream(
+        new ByteArrayInputStream("true null".getBytes(StandardCharsets.UTF_8)));
+    assertTrue(values.next().getAsBoolean());
+    assertTrue(values.next().isJsonNull());
+    assertFalse(values.hasNext());
+  }
+
+  @Test
+  public void testLongInput() {
+    StringBuilder input = new StringBuilder();
+    for (int ii = 0; ii < 100000; ii++) {
+      input.append("[").append(ii).append(", {\"x\": ").append(ii).append("}]\n");
+    }
+    JsonStream values = new JsonStream(new StringReader(input.toString()));
+    int count = 0;
+    while (values.hasNext()) {
+      JsonElement value = values.next();
+      assertEquals(count, value.getAsJsonArray().get(0).getAsInt());
+      count++;
+    }
+    assertEquals(100000, count);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testNextAfterEnd() {
+    JsonStream values = new JsonStream(new StringReader(" "));
+    values.next();
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testCutOffValue() {
+    JsonStream values = new JsonStream(new StringReader("[1, 2"));
+    values.next();
+  }
+
+  @Test
+  public void testProcessInputKeepsValuesBeforeCutOff() {
+    JsonArray actualOutput = XJson.processInput(new Scanner("[1] {\"a\": "));
+    assertEquals(1, actualOutput.size());
+    assertEquals(1, actualOutput.get(0).getAsJsonArray().get(0).getAsInt());
+  }
+}
@@ -0,0 +1,128 @@
+package com.fish.integration;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class XBatchTest {
+
+  private static final String BOARD1 = "{\"position\": [4,0], \"board\" : [[1,0],[0,0],[2,3],[0,0],[4,0]]}";
+  private static final String BOARD2 = "{\"position\": [6,2],\n"
+      + "\"board\" : [[2,3,4],[1,1,1],[5,5,5],[4,4,4],[3,3,3],[2,2,2],[1,1,1],[4,4,4],[3,4,2]]}";
+  private static final String STATE_FALSE = "{\"players\":[{\"color\":\"white\",\"score\":0,"
+      + "\"places\":[[0,0]]},{\"color\":\"red\",\"score\":0,\"places\":[[1,0]]}],"
+      + "\"board\":[[1,0],[1,0]]}";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testHarnessNames() {
+    assertNotNull(XBatch.harnessFor("board"));
+    assertNotNull(XBatch.harnessFor("state"));
+    assertNotNull(XBatch.harnessFor("tree"));
+    assertNotNull(XBatch.harnessFor("strategy"));
+    assertNull(XBatch.harnessFor("xboard"));
+  }
+
+  @Test
+  public void testStreamOneLinePerInput() throws IOException {
+    StringWriter out = new StringWriter();
+    int count = XBatch.runStream(XBatch.harnessFor("board"),
+        new StringReader(BOARD1 + "\n" + BOARD2 + "\n"), out);
+
+    assertEquals(2, count);
+    assertEquals("2\n12\n", out.toString());
+  }
+
+  @Test
+  public void testStreamEmpty() throws IOException {
+    StringWriter out = new StringWriter();
+    assertEquals(0, XBatch.runStream(XBatch.harnessFor("board"), new StringReader("\n"), out));
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  public void testStreamGoesOnAfterAFailedInput() throws IOException {
+    StringWriter out = new StringWriter();
+    int count = XBatch.runStream(XBatch.harnessFor("board"), new StringReader(BOARD1 + "\n"
+        + "{\"board\" : [[1,2],\n[3,4]]}\n"
+        + "[1, 2, {\"position\": [0,0]}]\n"
+        + BOARD2 + "\n"), out);
+
+    String[] lines = out.toString().split("\n");
+    assertEquals(4, count);
+    assertEquals(4, lines.length);
+    assertEquals("2", lines[0]);
+    assertTrue(lines[1].startsWith("{\"error\":"));
+    assertTrue(lines[2].startsWith("{\"error\":"));
+    assertEquals("12", lines[3]);
+  }
+
+  @Test
+  public void testStreamGoesOnAfterALineThatIsNotJson() throws IOException {
+    StringWriter out = new StringWriter();
+    int count = XBatch.runStream(XBatch.harnessFor("board"),
+        new StringReader(BOARD1 + "\n{\"position\": [4,0]]] nonsense\n" + BOARD2 + "\n{\"board\""),
+        out);
+
+    String[] lines = out.toString().split("\n");
+    assertEquals(4, count);
+    assertEquals(4, lines.length);
+    assertEquals("2", lines[0]);
+    assertTrue(lines[1].startsWith("{\"error\":"));
+    assertEquals("12", lines[2]);
+    assertTrue(lines[3].startsWith("{\"error\":"));
+  }
+
+  @Test
+  public void testRunFiles() throws IOException {
+    Path first = this.write("1-in.json", BOARD1);
+    Path second = this.write("2-in.json", STATE_FALSE);
+
+    StringBuilder out = new StringBuilder();
+    XBatch.runFiles(XBatch.harnessFor("board"), Arrays.asList(first), out);
+    XBatch.runFiles(XBatch.harnessFor("state"), Arrays.asList(second), out);
+
+    assertEquals("2\nFalse\n", out.toString());
+  }
+
+  @Test
+  public void testCheckFiles() throws IOException {
+    Path pass = this.write("1-in.json", BOARD1);
+    this.write("1-out.json", "2\n");
+    Path fail = this.write("2-in.json", BOARD2);
+    this.write("2-out.json", "11");
+    Path missing = this.write("3-in.json", BOARD1);
+
+    StringBuilder out = new StringBuilder();
+    assertTrue(XBatch.checkFiles(XBatch.harnessFor("board"), Arrays.asList(pass), out));
+    assertFalse(XBatch.checkFiles(XBatch.harnessFor("board"),
+        Arrays.asList(pass, fail, missing), out));
+
+    String[] lines = out.toString().split("\n");
+    assertEquals(6, lines.length);
+    assertTrue(lines[0].startsWith("PASS"));
+    assertEquals("1/1 passed", lines[1]);
+    assertTrue(lines[2].startsWith("PASS"));
+    assertTrue(lines[3].startsWith("FAIL " + fail));
+    assertTrue(lines[4].startsWith("FAIL " + missing));
+    assertEquals("1/3 passed", lines[5]);
+  }
+
+  private Path write(String name, String contents) throws IOException {
+    Path file = this.folder.getRoot().toPath().resolve(name);
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
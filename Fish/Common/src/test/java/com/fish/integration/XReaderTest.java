@@ -0,0 +1,79 @@
+package com.fish.integration;
+
+import com.fish.common.Coord;
+import com.fish.common.board.GameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.PlayerColor;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class XReaderTest {
+
+  private static JsonReader reader(String json) {
+    JsonReader in = new JsonReader(new StringReader(json));
+    in.setLenient(true);
+    return in;
+  }
+
+  @Test
+  public void testStateMatchesTree() throws IOException {
+    String json = "{\"players\" : [{\"color\" : \"red\", \"score\" : 10, \"places\" : [[0,0],[1,0]]},"
+        + "{\"color\" : \"white\", \"score\" : 0, \"places\" : [[0,1],[1,1]]}],"
+        + "\"board\" : [[2,3,4],[1,1,1],[5,5,5],[4,4,4],[3,3,3],[2,2,2]]}";
+    JsonObject tree = new JsonStream(new StringReader(json)).next().getAsJsonObject();
+
+    GameState read = XReader.readState(reader(json));
+
+    assertEquals(XState.jsonToGameState(tree), read);
+    assertEquals(XState.jsonToGameState(tree).getScoreBoard(), read.getScoreBoard());
+    assertEquals(GameStage.IN_PLAY, read.getGameStage());
+  }
+
+  @Test
+  public void testFieldsInAnyOrder() throws IOException {
+    String json = "{\"board\":[[1,2]],\"extra\":{\"a\":[1]},"
+        + "\"players\":[{\"places\":[[0,1]],\"score\":3,\"color\":\"black\"}]}";
+    GameState read = XReader.readState(reader(json), GameStage.PLACING_PENGUINS);
+
+    assertEquals(GameStage.PLACING_PENGUINS, read.getGameStage());
+    assertEquals(3, (int) read.getScoreBoard().get(PlayerColor.BLACK));
+    assertEquals(new Coord(1, 0), read.getPenguinLocationsOf(PlayerColor.BLACK).get(0));
+  }
+
+  @Test
+  public void testRaggedBoard() throws IOException {
+    JsonObject tree = new JsonObject();
+    String board = "[[1,2,3],[4],[5,5]]";
+    tree.add("board", new JsonStream(new StringReader(board)).next());
+
+    GameBoard read = XReader.readBoard(reader(board));
+
+    assertEquals(XBoard.jsonToGameBoard(tree), read);
+    assertFalse(read.getTileAt(new Coord(2, 1)).isPresent());
+  }
+
+  @Test
+  public void testValuesInSequence() throws IOException {
+    JsonReader in = reader("[[0,1],[2,1]] [3,4]");
+    assertEquals(new Move(new Coord(1, 0), new Coord(1, 2)), XReader.readMove(in));
+    assertEquals(new Coord(4, 3), XReader.readCoord(in));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingBoard() throws IOException {
+    XReader.readState(reader("{\"players\":[]}"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNotAMove() throws IOException {
+    XReader.readMove(reader("[[0,1]]"));
+  }
+}
@@ -0,0 +1,74 @@
+package com.fish.integration;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.google.gson.stream.JsonReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class XWriterTest {
+
+  private GameState gs;
+
+  @Before
+  public void setUp() {
+    InternalPlayer red = new HexPlayer(PlayerColor.RED);
+    red.placePenguin(new Coord(0, 0));
+    red.placePenguin(new Coord(1, 2));
+    red.addToScore(12);
+    InternalPlayer white = new HexPlayer(PlayerColor.WHITE);
+    white.placePenguin(new Coord(1, 0));
+    this.gs = new HexGameState(GameStage.IN_PLAY,
+        new HexGameBoard(new int[][] {{1, 2, 3}, {4, 0, 5}}), Arrays.asList(red, white));
+  }
+
+  @Test
+  public void testStateMatchesTree() throws IOException {
+    StringBuilder out = new StringBuilder();
+    XWriter.writeState(out, this.gs);
+    assertEquals(XState.reconstructStateToJson(this.gs).toString(), out.toString());
+    assertEquals("{\"players\":[{\"color\":\"red\",\"score\":12,\"places\":[[0,0],[2,1]]},"
+        + "{\"color\":\"white\",\"score\":0,\"places\":[[0,1]]}],"
+        + "\"board\":[[1,4],[2,0],[3,5]]}", out.toString());
+  }
+
+  @Test
+  public void testMoveMatchesTree() throws IOException {
+    Move move = new Move(new Coord(3, 11), new Coord(2, 10));
+    StringBuilder out = new StringBuilder();
+    XWriter.writeMove(out, move);
+    assertEquals(XTree.moveToJson(move).toString(), out.toString());
+  }
+
+  @Test
+  public void testByteBuffer() throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate(256);
+    XWriter.writeState(XWriter.asAppendable(buf), this.gs);
+    assertEquals(XState.reconstructStateToJson(this.gs).toString(),
+        new String(buf.array(), 0, buf.position(), StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void testReadWhatWasWritten() throws IOException {
+    StringBuilder out = new StringBuilder();
+    XWriter.writeState(out, this.gs);
+    GameState read = XReader.readState(new JsonReader(new StringReader(out.toString())));
+    assertEquals(this.gs, read);
+    assertEquals(this.gs.getScoreBoard(), read.getScoreBoard());
+  }
+}
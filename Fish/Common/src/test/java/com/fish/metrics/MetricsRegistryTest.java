@@ -0,0 +1,86 @@
+package com.fish.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+
+  private MetricsRegistry registry;
+
+  @Before
+  public void setUp() {
+    this.registry = new MetricsRegistry();
+  }
+
+  @Test
+  public void testCounterAndGauge() {
+    Counter moves = this.registry.counter("referee.moves");
+    moves.inc();
+    moves.add(4);
+    assertSame(moves, this.registry.counter("referee.moves"));
+    assertEquals(5, this.registry.getCounters().get("referee.moves").longValue());
+
+    Gauge games = this.registry.gauge("referee.games.in_flight");
+    games.inc();
+    games.inc();
+    games.dec();
+    assertEquals(1, this.registry.getGauges().get("referee.games.in_flight").longValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNameTaken() {
+    this.registry.counter("search.nodes");
+    this.registry.histogram("search.nodes");
+  }
+
+  @Test
+  public void testHistogram() {
+    Histogram histogram = this.registry.histogram("search.nanos");
+    assertEquals(0, histogram.getPercentile(50));
+    for (int ii = 1; ii <= 100; ii++) {
+      histogram.record(ii);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(5050, histogram.getSum());
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.001);
+    // 50 falls in the bucket [32, 63], 99 in [64, 127] which is capped at the maximum
+    assertEquals(63, histogram.getPercentile(50));
+    assertEquals(100, histogram.getPercentile(99));
+    assertEquals(1, histogram.getPercentile(0));
+  }
+
+  @Test
+  public void testDump() throws IOException {
+    this.registry.counter("referee.moves").add(3);
+    this.registry.gauge("referee.games.in_flight").set(2);
+    this.registry.histogram("referee.response.nanos").record(8);
+    StringBuilder out = new StringBuilder();
+    this.registry.dump(out);
+    assertEquals("referee.games.in_flight 2\n"
+        + "referee.moves 3\n"
+        + "referee.response.nanos count=1 mean=8 p50<=8 p99<=8 max=8\n", out.toString());
+  }
+
+  @Test
+  public void testPeriodicDump() throws Exception {
+    this.registry.counter("referee.moves").add(3);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Closeable dumps = this.registry.startDumping(new PrintStream(bytes), 10,
+        TimeUnit.MILLISECONDS)) {
+      for (int ii = 0; ii < 500 && bytes.size() == 0; ii++) {
+        Thread.sleep(10);
+      }
+    }
+    assertTrue(bytes.toString().startsWith("referee.moves 3 "));
+    assertTrue(bytes.toString().contains("/s\n"));
+  }
+}
@@ -8,6 +8,9 @@ import com.fish.common.state.PlayerColor;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class HexInternalPlayerTest {
@@ -113,4 +116,67 @@ public class HexInternalPlayerTest {
     redPlayer.movePenguin(new Coord(0,5), new Coord(0,1));
     assertNotEquals(redPlayer.getPenguinLocs(), redCopy.getPenguinLocs());
   }
+
+  @Test
+  public void testMovePenguinKeepsOrder() {
+    redPlayer.placePenguin(new Coord(0, 0));
+    redPlayer.placePenguin(new Coord(2, 3));
+    redPlayer.placePenguin(new Coord(1, 5));
+    redPlayer.movePenguin(new Coord(2, 3), new Coord(2, 7));
+    assertEquals(Arrays.asList(new Coord(0, 0), new Coord(2, 7), new Coord(1, 5)),
+        redPlayer.getPenguinLocs());
+  }
+
+  @Test
+  public void testGetPenguinLocsIsAView() {
+    redPlayer.placePenguin(new Coord(0, 0));
+    List<Coord> locs = redPlayer.getPenguinLocs();
+    redPlayer.placePenguin(new Coord(255, 255));
+    redPlayer.placePenguin(new Coord(4, 4));
+    assertEquals(3, locs.size());
+    assertEquals(new Coord(255, 255), locs.get(1));
+    assertTrue(locs.contains(new Coord(4, 4)));
+    // the same Coord is handed out every time, rather than a new one
+    assertSame(locs.get(2), redPlayer.getPenguinLocs().get(2));
+    assertSame(locs.get(0), redPlayer.getCopyPlayer().getPenguinLocs().get(0));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetPenguinLocsReadOnly() {
+    redPlayer.getPenguinLocs().add(new Coord(3, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlacePenguinOffTheBoard() {
+    redPlayer.placePenguin(new Coord(-1, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlacePenguinPastTheLastColumn() {
+    redPlayer.placePenguin(new Coord(256, 0));
+  }
+
+  @Test
+  public void testPlayerCopyHashCode() {
+    redPlayer.placePenguin(new Coord(0, 5));
+    redPlayer.addToScore(4);
+    InternalPlayer redCopy = this.redPlayer.getCopyPlayer();
+    assertEquals(redPlayer, redCopy);
+    assertEquals(redPlayer.hashCode(), redCopy.hashCode());
+  }
+
+  @Test
+  public void testFingerprintFollowsPenguins() {
+    redPlayer.placePenguin(new Coord(0, 0));
+    redPlayer.placePenguin(new Coord(2, 3));
+    InternalPlayer copy = redPlayer.getCopyPlayer();
+    copy.movePenguin(new Coord(2, 3), new Coord(2, 7));
+    assertNotEquals(redPlayer.getFingerprint(), copy.getFingerprint());
+    redPlayer.movePenguin(new Coord(2, 3), new Coord(2, 7));
+    assertEquals(redPlayer.getFingerprint(), copy.getFingerprint());
+    assertEquals(redPlayer.hashCode(), copy.hashCode());
+
+    copy.addToScore(3);
+    assertNotEquals(redPlayer.getFingerprint(), copy.getFingerprint());
+  }
 }
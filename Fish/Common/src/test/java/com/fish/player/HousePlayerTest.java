@@ -1,9 +1,11 @@
 package com.fish.player;
 
+import com.fish.admin.HexReferee;
 import com.fish.common.Coord;
 import com.fish.common.board.GameBoard;
 import com.fish.common.board.HexGameBoard;
 import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
 import com.fish.common.state.GameStage;
 import com.fish.common.state.GameState;
 import com.fish.common.state.HexGameState;
@@ -13,6 +15,7 @@ import com.fish.common.state.PlayerColor;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -126,4 +129,107 @@ public class HousePlayerTest {
 
 
   }
+
+  @Test
+  public void testPonderedMoveIsUsed() throws InterruptedException {
+    GameState game = new HexGameState(GameStage.PLACING_PENGUINS,
+        new HexGameBoard(new int[][] {{1, 2, 3, 4, 5}, {5, 4, 3, 2, 1}, {2, 2, 2, 2, 2}}),
+        Arrays.asList(new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.BLACK)));
+    game.placePenguin(new Coord(0, 0), PlayerColor.RED);
+    game.placePenguin(new Coord(2, 4), PlayerColor.BLACK);
+    game.startPlay();
+    game.movePenguin(new Coord(0, 0), new Coord(0, 2));
+
+    Ponderer ponderer = new Ponderer(2, SearchMode.PARANOID, PlayerColor.RED);
+    ponderer.ponder(game);
+    ponderer.awaitIdle();
+
+    // black plays its greedy move, which is one of the likely ones
+    Move reply = MinimaxStrategy.findCurrentPlayersBestMove(game, 1);
+    game.movePenguin(reply.getOrigin(), reply.getDestination());
+    assertEquals(PlayerColor.RED, game.getCurrentPlayer());
+    assertEquals(MinimaxStrategy.findCurrentPlayersBestMove(game, 2), ponderer.findMove(game));
+    assertEquals(1, ponderer.getHits());
+    ponderer.shutdown();
+  }
+
+  @Test(timeout = 20000)
+  public void testOvertakenSearchIsCancelled() throws InterruptedException {
+    int[][] fish = new int[8][5];
+    for (int[] column : fish) {
+      Arrays.fill(column, 3);
+    }
+    GameState game = new HexGameState(GameStage.PLACING_PENGUINS, new HexGameBoard(fish),
+        Arrays.asList(new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.BLACK)));
+    game.placePenguin(new Coord(0, 0), PlayerColor.RED);
+    game.placePenguin(new Coord(7, 4), PlayerColor.BLACK);
+    game.placePenguin(new Coord(0, 4), PlayerColor.RED);
+    game.placePenguin(new Coord(7, 0), PlayerColor.BLACK);
+    game.startPlay();
+    game.movePenguin(new Coord(0, 0), new Coord(0, 2));
+
+    // a search this deep would take far longer than the test's timeout
+    Ponderer ponderer = new Ponderer(6, SearchMode.PARANOID, PlayerColor.RED);
+    ponderer.ponder(game);
+    Thread.sleep(200);
+    ponderer.clear();
+    ponderer.awaitIdle();
+    ponderer.shutdown();
+  }
+
+  @Test
+  public void testPonderingPlaysTheSameGame() {
+    List<List<StateDelta>> games = new ArrayList<>();
+    for (boolean ponder : new boolean[] {false, true}) {
+      List<StateDelta> deltas = new ArrayList<>();
+      games.add(deltas);
+      List<PlayerInterface> players = new ArrayList<>();
+      players.add(new HousePlayer(2, "watcher") {
+        @Override
+        public void receiveStateDelta(StateDelta delta) {
+          deltas.add(delta);
+          super.receiveStateDelta(delta);
+        }
+      });
+      players.add(new HousePlayer(2, "bill"));
+      players.add(new HousePlayer(1, "fred"));
+      for (PlayerInterface pi : players) {
+        ((HousePlayer) pi).setPondering(ponder);
+      }
+      new HexReferee(4, 5, 7).runGame(players);
+    }
+    assertEquals(games.get(0), games.get(1));
+  }
+
+  @Test
+  public void testKeptTreePlaysTheSameMoves() {
+    List<Integer> reused = new ArrayList<>();
+    List<PlayerInterface> players = new ArrayList<>();
+    players.add(new HousePlayer(2, "keeper") {
+      private GameState state;
+
+      @Override
+      public void receiveInitialGameState(GameState gs) {
+        this.state = gs;
+        super.receiveInitialGameState(gs);
+      }
+
+      @Override
+      public Move getPengiunMovement() {
+        if (this.getTree() != null) {
+          reused.add(this.getTree().getNodeCount());
+        }
+        Move move = super.getPengiunMovement();
+        assertEquals(MinimaxStrategy.findCurrentPlayersBestMove(this.state, 2), move);
+        return move;
+      }
+    });
+    players.add(new HousePlayer(2, "bill"));
+    players.add(new HousePlayer(1, "fred"));
+    new HexReferee(4, 5, 7).runGame(players);
+    assertFalse(reused.isEmpty());
+    for (int nodes : reused) {
+      assertTrue(nodes > 1);
+    }
+  }
 }
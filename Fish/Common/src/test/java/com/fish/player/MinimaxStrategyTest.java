@@ -15,6 +15,7 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.Assert.*;
 
@@ -165,4 +166,19 @@ public class MinimaxStrategyTest {
     assertEquals(new Move(new Coord(0,0), new Coord(0,1)),
         MinimaxStrategy.findCurrentPlayersBestMove(gs, 2));
   }
+
+  @Test
+  public void testSearchStopsOnceCancelled() {
+    this.setupGs1Penguins();
+    for (SearchMode mode : SearchMode.values()) {
+      assertEquals(MinimaxStrategy.findCurrentPlayersBestMove(this.gs1, 3, mode),
+          MinimaxStrategy.findCurrentPlayersBestMove(this.gs1, 3, mode, () -> false));
+      try {
+        MinimaxStrategy.findCurrentPlayersBestMove(this.gs1, 3, mode, () -> true);
+        fail(mode + " searched to the end");
+      } catch (CancellationException e) {
+        // the check is made every NodeCount.CHECK_EVERY nodes
+      }
+    }
+  }
 }
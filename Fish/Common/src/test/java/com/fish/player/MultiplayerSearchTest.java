@@ -0,0 +1,86 @@
+package com.fish.player;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiplayerSearchTest {
+
+  @Test
+  public void testBestReplyIsParanoidWithTwoPlayers() {
+    for (int seed = 0; seed < 6; seed++) {
+      GameState gs = this.makeGame(2, seed);
+      for (int depth = 1; depth <= 3 && gs.getGameStage() == GameStage.IN_PLAY; depth++) {
+        Move paranoid = MinimaxStrategy.findCurrentPlayersBestMove(gs, depth);
+        assertEquals(paranoid,
+            MinimaxStrategy.findCurrentPlayersBestMove(gs, depth, SearchMode.BEST_REPLY));
+        gs.movePenguin(paranoid.getOrigin(), paranoid.getDestination());
+      }
+    }
+  }
+
+  @Test
+  public void testMaxNOneTurnIsGreedy() {
+    for (int seed = 0; seed < 4; seed++) {
+      GameState gs = this.makeGame(3, seed);
+      assertEquals(MinimaxStrategy.findCurrentPlayersBestMove(gs, 1),
+          MinimaxStrategy.findCurrentPlayersBestMove(gs, 1, SearchMode.MAX_N));
+    }
+  }
+
+  @Test
+  public void testFourPlayerGamesPlayOut() {
+    for (SearchMode mode : new SearchMode[] {SearchMode.BEST_REPLY, SearchMode.MAX_N}) {
+      GameState gs = this.makeGame(4, 3);
+      while (gs.getGameStage() == GameStage.IN_PLAY) {
+        Move move = MinimaxStrategy.findCurrentPlayersBestMove(gs, 2, mode);
+        assertTrue(gs.getTilesReachableFrom(move.getOrigin()).contains(move.getDestination()));
+        gs.movePenguin(move.getOrigin(), move.getDestination());
+        gs.isGameOver();
+      }
+    }
+  }
+
+  @Test
+  public void testBestReplyCountsNodes() {
+    NodeCount nodes = new NodeCount();
+    MultiplayerSearch.findBestMove(this.makeGame(4, 1), 2, SearchMode.BEST_REPLY, nodes);
+    assertTrue(nodes.get() > 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParanoidIsNotMultiplayer() {
+    MultiplayerSearch.findBestMove(this.makeGame(2, 0), 2, SearchMode.PARANOID, new NodeCount());
+  }
+
+  // a game of the given number of players on a seeded 5x4 board, with every penguin placed
+  private GameState makeGame(int numPlayers, int seed) {
+    List<InternalPlayer> players = new ArrayList<>();
+    for (int ii = 0; ii < numPlayers; ii++) {
+      players.add(new HexPlayer(PlayerColor.values()[ii]));
+    }
+    GameState gs = new HexGameState();
+    gs.initGame(new HexGameBoard(5, 4, new ArrayList<>(), 0, seed), players);
+    int placed = 0;
+    for (int yy = 0; yy < 5 && placed < (6 - numPlayers) * numPlayers; yy += 2) {
+      for (int xx = 0; xx < 4 && placed < (6 - numPlayers) * numPlayers; xx++) {
+        gs.placePenguin(new Coord(xx, yy), gs.getCurrentPlayer());
+        placed++;
+      }
+    }
+    gs.startPlay();
+    return gs;
+  }
+}
@@ -0,0 +1,141 @@
+package com.fish.player;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.HexGameTree;
+import com.fish.common.game.Move;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.integration.XReader;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SelectiveSearchTest {
+
+  // the states of the 6_strategyIntegration tests that have a move
+  private static final String[] STRATEGY_STATES = {
+      "{\"players\":[{\"color\":\"red\",\"score\":10,\"places\":[[2,0],[0,1],[5,2],[4,2]]},"
+          + "{\"color\":\"white\",\"score\":0,\"places\":[[1,0],[1,1],[3,2],[2,2]]}],"
+          + "\"board\":[[2,3,4],[1,1,1],[5,5,5],[0,4,4],[3,3,3],[2,2,2]]}",
+      "{\"players\":[{\"color\":\"red\",\"score\":10,\"places\":[[2,0],[0,1],[0,0],[5,2]]},"
+          + "{\"color\":\"white\",\"score\":0,\"places\":[[1,0],[1,1],[3,2],[1,2]]}],"
+          + "\"board\":[[2,3,0],[1,1,1],[5,5,0],[0,4,4],[3,3,0],[2,2,2]]}",
+      "{\"players\":[{\"color\":\"red\",\"score\":10,\"places\":[[2,0],[2,1],[4,0],[5,2]]},"
+          + "{\"color\":\"white\",\"score\":0,\"places\":[[1,2],[1,1],[3,2],[6,2]]}],"
+          + "\"board\":[[2,3,0],[1,1,1],[5,5],[0,4,4],[3,3],[2,2,2],[0,0,1]]}",
+      "{\"players\":[{\"color\":\"red\",\"score\":10,\"places\":[[0,0],[0,1],[3,0],[3,1]]},"
+          + "{\"color\":\"white\",\"score\":0,\"places\":[[1,2],[1,1],[3,2],[4,0]]}],"
+          + "\"board\":[[2,3,0],[1,1,1],[0,0,0],[1,1,1],[1]]}"
+  };
+
+  @Test
+  public void testStrategyPositionsMatchFullWidth() throws IOException {
+    long fullNodes = 0;
+    long selectiveNodes = 0;
+    for (String json : STRATEGY_STATES) {
+      for (int depth = 1; depth <= 4; depth++) {
+        GameState gs = XReader.readState(new JsonReader(new StringReader(json)));
+        NodeCount full = new NodeCount();
+        NodeCount selective = new NodeCount();
+        assertEquals(this.fullWidth(gs, depth, full),
+            SelectiveSearch.findBestMove(gs, depth, selective));
+        fullNodes += full.get();
+        selectiveNodes += selective.get();
+      }
+    }
+    assertTrue(selectiveNodes * 4 < fullNodes);
+  }
+
+  @Test
+  public void testStrategyOutputs() throws IOException {
+    assertEquals(new Move(new Coord(0, 2), new Coord(0, 0)), SelectiveSearch.findBestMove(
+        XReader.readState(new JsonReader(new StringReader(STRATEGY_STATES[0]))), 1,
+        new NodeCount()));
+    assertEquals(new Move(new Coord(1, 0), new Coord(1, 2)), SelectiveSearch.findBestMove(
+        XReader.readState(new JsonReader(new StringReader(STRATEGY_STATES[1]))), 2,
+        new NodeCount()));
+  }
+
+  @Test
+  public void testExactWithoutReductions() {
+    for (int players = 2; players <= 3; players++) {
+      for (int seed = 0; seed < 4; seed++) {
+        GameState gs = this.makeGame(players, seed);
+        for (int depth = 1; depth <= 3 && gs.getGameStage() == GameStage.IN_PLAY; depth++) {
+          Move full = MinimaxStrategy.findCurrentPlayersBestMove(gs, depth);
+          assertEquals(full, SelectiveSearch.findBestMove(gs, depth, false, new NodeCount()));
+          gs.movePenguin(full.getOrigin(), full.getDestination());
+          gs.isGameOver();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSelectiveGamesPlayOut() {
+    GameState gs = this.makeGame(3, 2);
+    while (gs.getGameStage() == GameStage.IN_PLAY) {
+      Move move = MinimaxStrategy.findCurrentPlayersBestMove(gs, 3, SearchMode.SELECTIVE);
+      assertTrue(gs.getTilesReachableFrom(move.getOrigin()).contains(move.getDestination()));
+      gs.movePenguin(move.getOrigin(), move.getDestination());
+      gs.isGameOver();
+    }
+  }
+
+  @Test
+  public void testOrderedMoves() {
+    GameState gs = this.makeGame(2, 1);
+    List<Move> moves = SelectiveSearch.orderedMoves(gs);
+    assertEquals(new HexGameTree(gs).getPossibleMoves().size(), moves.size());
+    for (int ii = 1; ii < moves.size(); ii++) {
+      assertTrue(gs.getTileAt(moves.get(ii - 1).getOrigin()).getNumFish()
+          >= gs.getTileAt(moves.get(ii).getOrigin()).getNumFish());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSelectiveIsNotMultiplayer() {
+    MultiplayerSearch.findBestMove(this.makeGame(2, 0), 2, SearchMode.SELECTIVE,
+        new NodeCount());
+  }
+
+  // the move MinimaxStrategy finds, counting the nodes MinMaxAlgorithm searches
+  private Move fullWidth(GameState gs, int depth, NodeCount nodes) {
+    if (depth <= 1) {
+      return MinMaxAlgorithm.findBestMove(gs, nodes);
+    }
+    List<MoveValue> moveValues = HexGameTree.applyToAllReachableStates(new HexGameTree(gs),
+        new MinMaxAlgorithm(depth - 1, gs.getCurrentPlayer(), nodes), new ArrayList<>());
+    return MinMaxAlgorithm.calculateBestMove(moveValues).get(0).getMove();
+  }
+
+  // a game of the given number of players on a seeded 5x4 board, with every penguin placed
+  private GameState makeGame(int numPlayers, int seed) {
+    List<InternalPlayer> players = new ArrayList<>();
+    for (int ii = 0; ii < numPlayers; ii++) {
+      players.add(new HexPlayer(PlayerColor.values()[ii]));
+    }
+    GameState gs = new HexGameState();
+    gs.initGame(new HexGameBoard(5, 4, new ArrayList<>(), 0, seed), players);
+    int placed = 0;
+    for (int yy = 0; yy < 5 && placed < (6 - numPlayers) * numPlayers; yy += 2) {
+      for (int xx = 0; xx < 4 && placed < (6 - numPlayers) * numPlayers; xx++) {
+        gs.placePenguin(new Coord(xx, yy), gs.getCurrentPlayer());
+        placed++;
+      }
+    }
+    gs.startPlay();
+    return gs;
+  }
+}
@@ -0,0 +1,232 @@
+package com.fish.remote;
+
+import com.fish.common.Coord;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.integration.XState;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTest {
+
+  private GameState gs;
+  private ByteBuffer buf;
+
+  @Before
+  public void setUp() {
+    HexGameBoard board = new HexGameBoard(new int[][] {
+        {1, 2, 3, 4, 5}, {0, 5, 4, 3, 2}, {1, 1, 0, 2, 2}, {3, 4, 5, 1, 1}});
+    InternalPlayer red = new HexPlayer(PlayerColor.RED);
+    red.placePenguin(new Coord(0, 0));
+    red.placePenguin(new Coord(3, 4));
+    red.addToScore(7);
+    InternalPlayer black = new HexPlayer(PlayerColor.BLACK);
+    black.placePenguin(new Coord(1, 1));
+    black.placePenguin(new Coord(2, 3));
+    this.gs = new HexGameState(GameStage.IN_PLAY, board, Arrays.asList(red, black));
+    this.buf = ByteBuffer.allocate(1024);
+  }
+
+  @Test
+  public void testVarints() {
+    int[] values = {0, 1, 127, 128, 300, 16384, Integer.MAX_VALUE};
+    for (int value : values) {
+      BinaryCodec.putVarint(this.buf, value);
+      BinaryCodec.putSignedVarint(this.buf, value);
+      BinaryCodec.putSignedVarint(this.buf, -value);
+    }
+    BinaryCodec.putSignedVarint(this.buf, Integer.MIN_VALUE);
+    this.buf.flip();
+    for (int value : values) {
+      assertEquals(value, BinaryCodec.getVarint(this.buf));
+      assertEquals(value, BinaryCodec.getSignedVarint(this.buf));
+      assertEquals(-value, BinaryCodec.getSignedVarint(this.buf));
+    }
+    assertEquals(Integer.MIN_VALUE, BinaryCodec.getSignedVarint(this.buf));
+    assertFalse(this.buf.hasRemaining());
+  }
+
+  @Test
+  public void testSmallValuesTakeOneByte() {
+    BinaryCodec.putVarint(this.buf, 127);
+    BinaryCodec.putSignedVarint(this.buf, -64);
+    assertEquals(2, this.buf.position());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeVarint() {
+    BinaryCodec.putVarint(this.buf, -1);
+  }
+
+  @Test
+  public void testMoves() {
+    Move south = new Move(new Coord(3, 1), new Coord(3, 7));
+    Move northWest = new Move(new Coord(3, 5), new Coord(1, 0));
+    BinaryCodec.putMove(this.buf, south);
+    BinaryCodec.putMove(this.buf, northWest);
+    // origin, then the offset to the destination, each part a single byte
+    assertEquals(8, this.buf.position());
+    this.buf.flip();
+    assertEquals(south, BinaryCodec.getMove(this.buf));
+    assertEquals(northWest, BinaryCodec.getMove(this.buf));
+  }
+
+  @Test
+  public void testDeltas() {
+    List<StateDelta> deltas = Arrays.asList(
+        StateDelta.placed(1, new Coord(2, 3), PlayerColor.BROWN),
+        StateDelta.moved(200, new Move(new Coord(2, 3), new Coord(2, 1)), PlayerColor.BROWN, 4, 9),
+        StateDelta.removed(201, PlayerColor.BLACK));
+    for (StateDelta delta : deltas) {
+      BinaryCodec.putDelta(this.buf, delta);
+    }
+    // seq (two bytes once it passes 127), kind, color, then the position, or the move with the
+    // fish and score
+    assertEquals(5 + 10 + 4, this.buf.position());
+    this.buf.flip();
+    for (StateDelta delta : deltas) {
+      assertEquals(delta, BinaryCodec.getDelta(this.buf));
+    }
+  }
+
+  @Test
+  public void testColors() {
+    List<PlayerColor> colors = Arrays.asList(PlayerColor.WHITE, PlayerColor.RED);
+    BinaryCodec.putColors(this.buf, colors);
+    BinaryCodec.putColors(this.buf, new ArrayList<>());
+    this.buf.flip();
+    assertEquals(colors, BinaryCodec.getColors(this.buf));
+    assertEquals(new ArrayList<>(), BinaryCodec.getColors(this.buf));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotAColor() {
+    this.buf.put((byte) 9);
+    this.buf.flip();
+    BinaryCodec.getColor(this.buf);
+  }
+
+  @Test
+  public void testState() {
+    BinaryCodec.putState(this.buf, this.gs);
+    this.buf.flip();
+    GameState decoded = BinaryCodec.getState(this.buf);
+
+    assertFalse(this.buf.hasRemaining());
+    assertEquals(this.gs, decoded);
+    assertEquals(GameStage.IN_PLAY, decoded.getGameStage());
+    assertEquals(this.gs.getScoreBoard(), decoded.getScoreBoard());
+    assertEquals(PlayerColor.RED, decoded.getCurrentPlayer());
+  }
+
+  @Test
+  public void testSnapshot() {
+    BinaryCodec.putSnapshot(this.buf, this.gs, 300);
+    this.buf.flip();
+
+    assertEquals(300, BinaryCodec.getVarint(this.buf));
+    GameState decoded = BinaryCodec.getState(this.buf);
+    assertFalse(this.buf.hasRemaining());
+    assertEquals(this.gs, decoded);
+    assertEquals(GameStage.IN_PLAY, decoded.getGameStage());
+  }
+
+  @Test
+  public void testStateWithMeltedTiles() {
+    this.gs.movePenguin(new Coord(0, 0), new Coord(0, 2));
+    BinaryCodec.putState(this.buf, this.gs);
+    this.buf.flip();
+    GameState decoded = BinaryCodec.getState(this.buf);
+
+    // like a copy of the state, a melted tile is decoded as a hole with no fish
+    assertEquals(this.gs.getCopyGameState(), decoded);
+    assertFalse(decoded.getTileAt(new Coord(0, 0)).isPresent());
+    assertEquals(PlayerColor.BLACK, decoded.getCurrentPlayer());
+  }
+
+  @Test
+  public void testStateIsMuchSmallerThanJson() {
+    GameState large = new HexGameState(GameStage.PLACING_PENGUINS, new HexGameBoard(8, 8, 3),
+        Arrays.asList(new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.WHITE)));
+    BinaryCodec.putState(this.buf, large);
+    int jsonBytes = XState.reconstructStateToJson(large).toString()
+        .getBytes(StandardCharsets.UTF_8).length;
+    assertTrue(this.buf.position() * 5 < jsonBytes);
+  }
+
+  @Test
+  public void testFramesRoundTrip() throws IOException {
+    ByteArrayOutputStream pipe = new ByteArrayOutputStream();
+    FrameWriter out = new FrameWriter(pipe);
+    Move move = new Move(new Coord(0, 0), new Coord(0, 2));
+
+    out.write(b -> {
+      b.put(BinaryCodec.MOVED);
+      BinaryCodec.putMove(b, move);
+      BinaryCodec.putColor(b, PlayerColor.RED);
+    });
+    out.write(b -> {
+      b.put(BinaryCodec.SETUP);
+      BinaryCodec.putState(b, this.gs);
+    });
+    out.write(b -> b.put(BinaryCodec.MOVE));
+    assertEquals(0, pipe.size());
+    out.flush();
+
+    FrameReader in = new FrameReader(new ByteArrayInputStream(pipe.toByteArray()));
+    ByteBuffer frame = in.next();
+    assertEquals(6, frame.remaining());
+    assertEquals(BinaryCodec.MOVED, frame.get());
+    assertEquals(move, BinaryCodec.getMove(frame));
+    assertEquals(PlayerColor.RED, BinaryCodec.getColor(frame));
+
+    frame = in.next();
+    assertEquals(BinaryCodec.SETUP, frame.get());
+    assertEquals(this.gs, BinaryCodec.getState(frame));
+
+    frame = in.next();
+    assertEquals(BinaryCodec.MOVE, frame.get());
+    assertFalse(frame.hasRemaining());
+    assertNull(in.next());
+  }
+
+  @Test
+  public void testLargeFrames() throws IOException {
+    ByteArrayOutputStream pipe = new ByteArrayOutputStream();
+    FrameWriter out = new FrameWriter(pipe);
+    GameState large = new HexGameState(GameStage.PLACING_PENGUINS, new HexGameBoard(200, 200, 5),
+        Arrays.asList(new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.WHITE)));
+    out.write(b -> b.put(BinaryCodec.PLACE));
+    out.write(b -> BinaryCodec.putState(b, large));
+    out.flush();
+
+    FrameReader in = new FrameReader(new ByteArrayInputStream(pipe.toByteArray()));
+    assertEquals(BinaryCodec.PLACE, in.next().get());
+    assertEquals(large, BinaryCodec.getState(in.next()));
+    assertNull(in.next());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testCutOffFrame() throws IOException {
+    FrameReader in = new FrameReader(new ByteArrayInputStream(new byte[] {5, 1, 2}));
+    in.next();
+  }
+}
@@ -0,0 +1,314 @@
+package com.fish.remote;
+
+import com.fish.admin.DeltaLog;
+import com.fish.admin.HexReferee;
+import com.fish.admin.Results;
+import com.fish.common.Coord;
+import com.fish.common.board.GameBoard;
+import com.fish.common.board.HexGameBoard;
+import com.fish.common.game.Move;
+import com.fish.common.game.StateDelta;
+import com.fish.common.state.GameStage;
+import com.fish.common.state.GameState;
+import com.fish.common.state.HexGameState;
+import com.fish.common.state.HexPlayer;
+import com.fish.common.state.InternalPlayer;
+import com.fish.common.state.PlayerColor;
+import com.fish.integration.JsonStream;
+import com.fish.player.HousePlayer;
+import com.fish.player.PlayerInterface;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class RemotePlayerTest {
+
+  private ServerSocket server;
+  private List<Socket> silentClients;
+  // the seq and stage of every snapshot a resynced player received
+  private List<Object> snapshots;
+
+  @Before
+  public void setUp() throws IOException {
+    this.server = new ServerSocket(0);
+    this.silentClients = new ArrayList<>();
+    this.snapshots = new ArrayList<>();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    for (Socket s : this.silentClients) {
+      s.close();
+    }
+    this.server.close();
+  }
+
+  // connects a RemoteClient playing for the given player in its own thread, and returns the proxy
+  // the referee would talk to
+  private RemotePlayer connect(PlayerInterface player, int timeoutMillis) throws IOException {
+    Socket clientSide = new Socket("localhost", this.server.getLocalPort());
+    Socket serverSide = this.server.accept();
+    Thread client = new Thread(new RemoteClient(clientSide, player));
+    client.setDaemon(true);
+    client.start();
+    return new RemotePlayer(serverSide, player.toString(), timeoutMillis);
+  }
+
+  // connects a RemoteClient that signs up in the given protocol, and returns the proxy the signup
+  // made for it
+  private RemotePlayer signUp(PlayerInterface player, Protocol protocol) throws IOException {
+    Socket clientSide = new Socket("localhost", this.server.getLocalPort());
+    Socket serverSide = this.server.accept();
+    Thread client = new Thread(new RemoteClient(clientSide, player, protocol));
+    client.setDaemon(true);
+    client.start();
+    return RemotePlayer.signUp(serverSide, player.toString(), 5000);
+  }
+
+  // connects a client that never says anything back
+  private RemotePlayer connectSilent(int timeoutMillis) throws IOException {
+    this.silentClients.add(new Socket("localhost", this.server.getLocalPort()));
+    return new RemotePlayer(this.server.accept(), "silent", timeoutMillis);
+  }
+
+  @Test
+  public void testRemoteGameHasNoCheaters() throws IOException {
+    HexReferee ref = new HexReferee();
+    PlayerInterface fred = this.connect(new HousePlayer(1, "fred"), 5000);
+    PlayerInterface bill = this.connect(new HousePlayer(1, "bill"), 5000);
+
+    Results results = ref.runGame(Arrays.asList(fred, bill));
+
+    assertEquals(0, results.getCheaters().size());
+    assertTrue(results.getWinners().size() > 0);
+  }
+
+  @Test
+  public void testRequestsAreAnsweredByClient() throws IOException {
+    GameBoard gb = new HexGameBoard(new int[][] {{2, 2, 2, 1, 1, 3},{3, 3, 1, 1, 0, 2}});
+    RemotePlayer remote = this.connect(new HousePlayer(1, "bella"), 5000);
+    List<InternalPlayer> ips = Arrays.asList(
+        new HexPlayer(PlayerColor.WHITE), new HexPlayer(PlayerColor.RED));
+    GameState gs = new HexGameState(GameStage.PLACING_PENGUINS, gb, ips);
+
+    remote.receiveInitialGameState(gs.getCopyGameState());
+    assertEquals(new Coord(1, 2), remote.getPenguinPlacement());
+
+    remote.receivePenguinPlacement(new Coord(0, 0), PlayerColor.WHITE);
+    remote.receivePenguinPlacement(new Coord(1, 0), PlayerColor.RED);
+    assertEquals(new Move(new Coord(0, 0), new Coord(0, 1)), remote.getPengiunMovement());
+  }
+
+  @Test
+  public void testDeltaJsonRoundTrip() throws IOException {
+    List<StateDelta> deltas = Arrays.asList(
+        StateDelta.placed(1, new Coord(2, 3), PlayerColor.BROWN),
+        StateDelta.moved(2, new Move(new Coord(2, 3), new Coord(2, 1)), PlayerColor.BROWN, 4, 9),
+        StateDelta.removed(3, PlayerColor.BLACK));
+    for (StateDelta delta : deltas) {
+      StringBuilder json = new StringBuilder();
+      RemotePlayer.writeDelta(json, delta);
+      JsonStream read = new JsonStream(new StringReader(json.toString()));
+      assertEquals(delta, RemotePlayer.jsonToDelta(read.next().getAsJsonArray()));
+    }
+    StringBuilder json = new StringBuilder();
+    RemotePlayer.writeDelta(json, deltas.get(1));
+    assertEquals("[2,\"moved\",[[3,2],[1,2]],\"brown\",4,9]", json.toString());
+  }
+
+  @Test
+  public void testDeltasAreAppliedByClient() throws IOException {
+    GameBoard gb = new HexGameBoard(new int[][] {{2, 2, 2, 1, 1, 3},{3, 3, 1, 1, 0, 2}});
+    RemotePlayer remote = this.connect(new HousePlayer(1, "bella"), 5000);
+    List<InternalPlayer> ips = Arrays.asList(
+        new HexPlayer(PlayerColor.WHITE), new HexPlayer(PlayerColor.RED));
+    GameState gs = new HexGameState(GameStage.PLACING_PENGUINS, gb, ips);
+
+    remote.receiveInitialGameState(gs.getCopyGameState());
+    remote.receiveStateDelta(StateDelta.placed(1, new Coord(0, 0), PlayerColor.WHITE));
+    remote.receiveStateDelta(StateDelta.placed(2, new Coord(1, 0), PlayerColor.RED));
+    assertEquals(new Move(new Coord(0, 0), new Coord(0, 1)), remote.getPengiunMovement());
+  }
+
+  @Test(timeout = 10000)
+  public void testPlayerIsResyncedMidGame() throws IOException {
+    this.resyncMidGame(this.connect(this.resyncedPlayer(), 5000));
+  }
+
+  @Test(timeout = 10000)
+  public void testBinaryPlayerIsResyncedMidGame() throws IOException {
+    this.resyncMidGame(this.signUp(this.resyncedPlayer(), Protocol.BINARY));
+  }
+
+  // a HousePlayer that notes the seq and stage of every snapshot it receives
+  private HousePlayer resyncedPlayer() {
+    return new HousePlayer(1, "bella") {
+      @Override
+      public void receiveGameStateSnapshot(GameState gs, int seq) {
+        snapshots.add(seq);
+        snapshots.add(gs.getGameStage());
+        super.receiveGameStateSnapshot(gs, seq);
+      }
+    };
+  }
+
+  private void resyncMidGame(RemotePlayer remote) {
+    List<InternalPlayer> ips = Arrays.asList(new HexPlayer(PlayerColor.WHITE),
+        new HexPlayer(PlayerColor.RED), new HexPlayer(PlayerColor.BROWN),
+        new HexPlayer(PlayerColor.BLACK));
+    GameState initial = new HexGameState(GameStage.PLACING_PENGUINS,
+        new HexGameBoard(new int[][] {{1, 1, 1, 1, 1, 1}, {1, 2, 1, 3, 1, 1}}), ips);
+    DeltaLog log = new DeltaLog(initial);
+    remote.receiveInitialGameState(initial.getCopyGameState());
+    int seen = log.catchUp(remote, 0);
+
+    // black is removed while placing, and the player loses track of the game
+    log.recordPlacement(new Coord(0, 4), PlayerColor.WHITE);
+    log.recordPlacement(new Coord(0, 5), PlayerColor.RED);
+    log.recordPlacement(new Coord(0, 3), PlayerColor.BROWN);
+    log.recordRemoval(PlayerColor.BLACK);
+    seen = log.catchUp(remote, -1);
+    assertEquals(4, seen);
+
+    // the game started with four players, so two penguins each are placed before play starts.
+    // White cannot move, so red moves first, and is removed instead
+    log.recordPlacement(new Coord(0, 2), PlayerColor.WHITE);
+    log.recordPlacement(new Coord(0, 1), PlayerColor.RED);
+    log.recordPlacement(new Coord(0, 0), PlayerColor.BROWN);
+    log.recordRemoval(PlayerColor.RED);
+    seen = log.catchUp(remote, seen);
+    assertEquals(8, seen);
+
+    PlayerInterface local = new HousePlayer(1, "local");
+    local.receiveInitialGameState(log.getSnapshot());
+    Move move = remote.getPengiunMovement();
+    assertEquals(local.getPengiunMovement(), move);
+    assertEquals(Arrays.asList(4, GameStage.PLACING_PENGUINS), this.snapshots);
+
+    log.recordMovement(move, PlayerColor.BROWN);
+    log.catchUp(remote, -1);
+    remote.getPengiunMovement();
+    assertEquals(Arrays.asList(4, GameStage.PLACING_PENGUINS, 9, GameStage.IN_PLAY),
+        this.snapshots);
+  }
+
+  @Test
+  public void testSignUpPicksProtocol() throws IOException {
+    assertEquals(Protocol.JSON,
+        this.signUp(new HousePlayer(1, "fred"), Protocol.JSON).getProtocol());
+    assertEquals(Protocol.BINARY,
+        this.signUp(new HousePlayer(1, "bill"), Protocol.BINARY).getProtocol());
+  }
+
+  @Test(expected = IOException.class)
+  public void testSignUpWithoutHello() throws IOException {
+    this.silentClients.add(new Socket("localhost", this.server.getLocalPort()));
+    RemotePlayer.signUp(this.server.accept(), "silent", 200);
+  }
+
+  @Test(timeout = 20000)
+  public void testBinaryGameIsTheSameGame() throws IOException {
+    List<String> winners = new ArrayList<>();
+    for (Protocol protocol : Protocol.values()) {
+      PlayerInterface fred = this.signUp(new HousePlayer(2, "fred"), protocol);
+      PlayerInterface bill = this.signUp(new HousePlayer(1, "bill"), protocol);
+      PlayerInterface george = this.signUp(new HousePlayer(1, "george"), protocol);
+
+      Results results = new HexReferee(5, 5, 7).runGame(Arrays.asList(fred, bill, george));
+
+      assertEquals(0, results.getCheaters().size());
+      winners.add(results.getWinners().toString());
+    }
+    assertEquals(winners.get(0), winners.get(1));
+  }
+
+  @Test
+  public void testSilentPlayerIsCheater() throws IOException {
+    HexReferee ref = new HexReferee();
+    RemotePlayer silent = this.connectSilent(200);
+    PlayerInterface bill = new HousePlayer(1, "bill");
+
+    Results results = ref.runGame(Arrays.asList(silent, bill));
+
+    assertEquals(Arrays.asList(silent), results.getCheaters());
+    assertEquals(Arrays.asList(bill), results.getWinners());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoRequestsAfterTimeout() throws IOException {
+    RemotePlayer silent = this.connectSilent(100);
+    try {
+      silent.getPenguinPlacement();
+      fail();
+    } catch (IllegalStateException e) {
+      // timed out once, the player is now disconnected
+    }
+    silent.receivePenguinPlacement(new Coord(0, 0), PlayerColor.RED);
+    silent.getPengiunMovement();
+  }
+
+  @Test(timeout = 5000)
+  public void testGivenUpRequestClosesConnection() throws Exception {
+    RemotePlayer silent = this.connectSilent(60000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Coord> placement = executor.submit(silent::getPenguinPlacement);
+      try {
+        placement.get(200, TimeUnit.MILLISECONDS);
+        fail();
+      } catch (TimeoutException e) {
+        // the player never answers
+      }
+      placement.cancel(true);
+      // the cancelled request closes the connection long before the read would time out
+      InputStream fromServer = this.silentClients.get(0).getInputStream();
+      while (fromServer.read() != -1) {
+        // the request itself, then the end of the stream
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    try {
+      silent.getPengiunMovement();
+      fail();
+    } catch (IllegalStateException e) {
+      // the player is disconnected for good
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testNotificationsAreNotHeldUpByRequest() throws Exception {
+    RemotePlayer silent = this.connectSilent(60000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Coord> placement = executor.submit(silent::getPenguinPlacement);
+      try {
+        placement.get(200, TimeUnit.MILLISECONDS);
+        fail();
+      } catch (TimeoutException e) {
+        // the request is now waiting on a reply
+      }
+      silent.receiveStateDelta(StateDelta.placed(1, new Coord(0, 0), PlayerColor.RED));
+      silent.receivePlayerRemoved(PlayerColor.RED);
+      placement.cancel(true);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}